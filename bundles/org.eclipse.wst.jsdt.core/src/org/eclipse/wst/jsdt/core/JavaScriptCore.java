@@ -63,6 +63,10 @@
  *                                 COMPILER_PB_NULL_REFERENCE
  *     IBM Corporation - added the following constants:
  *                                 CODEASSIST_DEPRECATION_CHECK
+ *     IBM Corporation - added the following constants:
+ *                                 CORE_INDEXING_PARALLELISM
+ *     IBM Corporation - added the following constants:
+ *                                 CORE_INDEXING_COMPACTION_MEMORY_LIMIT
  *******************************************************************************/
 package org.eclipse.wst.jsdt.core;
 
@@ -796,6 +800,16 @@ public final class JavaScriptCore extends Plugin {
 	 * @see #getDefaultOptions()
 	 */
 	public static final String TIMEOUT_FOR_PARAMETER_NAME_FROM_ATTACHED_JAVADOC = PLUGIN_ID + ".timeoutForParameterNameFromAttachedJavadoc"; //$NON-NLS-1$
+	/**
+	 * Possible  configurable option ID.
+	 * @see #getDefaultOptions()
+	 */
+	public static final String CORE_INDEXING_PARALLELISM = PLUGIN_ID + ".indexing.parallelism"; //$NON-NLS-1$
+	/**
+	 * Possible  configurable option ID.
+	 * @see #getDefaultOptions()
+	 */
+	public static final String CORE_INDEXING_COMPACTION_MEMORY_LIMIT = PLUGIN_ID + ".indexing.compactionMemoryLimit"; //$NON-NLS-1$
 
 	/**
 	 * Possible  configurable option value.
@@ -2113,6 +2127,22 @@ public final class JavaScriptCore extends Plugin {
 	 *     - possible values:	"&lt;n&gt;", where n is an integer greater than or equal to 0
 	 *     - default:           "50"
 	 *
+	 * JAVACORE / Number of Threads Parsing Documents to Index
+	 *    When greater than 1, the source files to index are parsed by this number of background threads,
+	 *    their index entries are still written by the indexing thread in the order of the indexing jobs.
+	 *    If the value is 0, one thread per available processor is used.
+	 *     - option id:         "org.eclipse.wst.jsdt.core.indexing.parallelism"
+	 *     - possible values:	"&lt;n&gt;", where n is an integer greater than or equal to 0
+	 *     - default:           "1"
+	 *
+	 * JAVACORE / Memory Used to Compact an Index
+	 *    Saving an index only writes the changed documents into a new segment, the segments are merged
+	 *    in the background once there are too many of them. This is the size in megabytes of the index
+	 *    files which are merged at once, since they are read in memory.
+	 *     - option id:         "org.eclipse.wst.jsdt.core.indexing.compactionMemoryLimit"
+	 *     - possible values:	"&lt;n&gt;", where n is an integer greater than 0
+	 *     - default:           "32"
+	 *
 	 * DEPRECATED SEE DefaultCodeFormatterOptions: FORMATTER / Inserting New Line Before Opening Brace
 	 *    When Insert, a new line is inserted before an opening brace, otherwise nothing
 	 *    is inserted
@@ -29,6 +29,9 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.wst.jsdt.core.JavaScriptCore;
+import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
+import org.eclipse.wst.jsdt.internal.core.search.indexing.IndexManager;
+import org.eclipse.wst.jsdt.internal.core.search.indexing.PrebuiltIndexGenerator;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 /**
  *  
@@ -56,6 +59,13 @@ public class SystemLibraryLocation implements LibraryLocation {
 		return new Path("libraries"); //$NON-NLS-1$
 	}
 
+	/**
+	 * Returns the folder of the plugin which contains the indexes of the libraries built with the plugin.
+	 */
+	public IPath getIndexPathInPlugin() {
+		return new Path("indexes"); //$NON-NLS-1$
+	}
+
 	public char[][] getLibraryFileNames() {
 		return new char[][] {SYSTEM_LIBARAY_NAME};
 	}
@@ -162,8 +172,29 @@ public class SystemLibraryLocation implements LibraryLocation {
 				}
 			}
 		}
+
+		addPrebuiltIndexes(libFiles);
 	}
 
+	/*
+	 * Lets the index manager use the indexes built with the plugin instead of indexing the libraries in every workspace.
+	 */
+	private void addPrebuiltIndexes(char[][] libFiles) {
+		IndexManager indexManager = JavaModelManager.getJavaModelManager().getIndexManager();
+		for (int i = 0; i < libFiles.length; i++) {
+			IPath indexPath = getIndexPathInPlugin().append(new String(libFiles[i]) + PrebuiltIndexGenerator.INDEX_FILE_SUFFIX);
+			URL entry = Platform.getBundle(getPluginId()).getEntry(indexPath.toString());
+			if (entry == null) continue; // no index was built for this library
+			try {
+				// the index must be a file to be mapped, shared by every workspace using this installation
+				File indexFile = new File(FileLocator.toFileURL(entry).getFile());
+				indexManager.addPrebuiltIndex(new Path(getLibraryPath(libFiles[i])), indexFile);
+			}
+			catch (IOException e) {
+				Platform.getLog(Platform.getBundle(getPluginId())).log(new Status(IStatus.WARNING, getPluginId(), "Could not read " + getPluginId() + ":" + indexPath, e));//$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
 
 	public IPath getWorkingLibPath() {
 		return new Path(getLibraryPath("")); //$NON-NLS-1$
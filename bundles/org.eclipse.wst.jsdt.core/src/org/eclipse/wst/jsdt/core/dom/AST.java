@@ -262,7 +262,7 @@ public final class AST {
 		converter.setAST(ast);
 
 		JavaScriptUnit unit = converter.convert(compilationUnitDeclaration, source);
-		unit.setLineEndTable(compilationUnitDeclaration.compilationResult.getLineSeparatorPositions());
+		unit.setLineEndTable(compilationUnitDeclaration.compilationResult.getLineEndTable());
 		unit.setTypeRoot(workingCopy);
 		ast.setDefaultNodeFlag(savedDefaultNodeFlag);
 		return unit;
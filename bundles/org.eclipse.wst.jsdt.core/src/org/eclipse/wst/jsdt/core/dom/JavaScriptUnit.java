@@ -23,7 +23,7 @@ import org.eclipse.wst.jsdt.core.IJavaScriptElement;
 import org.eclipse.wst.jsdt.core.ITypeRoot;
 import org.eclipse.wst.jsdt.core.compiler.IProblem;
 import org.eclipse.wst.jsdt.internal.compiler.parser.Scanner;
-import org.eclipse.wst.jsdt.internal.compiler.util.Util;
+import org.eclipse.wst.jsdt.internal.compiler.util.LineEndTable;
 
 /**
  * JavaScript javaScript unit AST node type. This is the type of the root of an AST.
@@ -151,8 +151,9 @@ public class JavaScriptUnit extends ASTNode {
 	 * of the last character of the line delimiter.
 	 * For example, the source string <code>A\nB\nC</code> has
 	 * line end table {1, 3} (if \n is one character).
+	 * The table is compact, and shared with the other units of the same source.
 	 */
-	private int[] lineEndTable = Util.EMPTY_INT_ARRAY;
+	private LineEndTable lineEndTable = LineEndTable.EMPTY;
 
 	/**
 	 * Messages reported by the validator during parsing or name resolution.
@@ -269,13 +270,13 @@ public class JavaScriptUnit extends ASTNode {
 			return position;
 		}
 		// length is different from 0
-		int length = this.lineEndTable.length;
+		int length = this.lineEndTable.length();
 		// -1 to for one-based to zero-based conversion.
 		// -1, again, to get previous line.
-		final int previousLineOffset = this.lineEndTable[line - 2];
+		final int previousLineOffset = this.lineEndTable.get(line - 2);
 		 // previousLineOffset + 1 is the first character of the current line
 		final int offsetForLine = previousLineOffset + 1;
-		final int currentLineEnd = line == length + 1 ? getStartPosition() + getLength() - 1 :	this.lineEndTable[line - 1];
+		final int currentLineEnd = line == length + 1 ? getStartPosition() + getLength() - 1 :	this.lineEndTable.get(line - 1);
 		if (offsetForLine > currentLineEnd) {
 			return -1;
 		} else {
@@ -583,12 +584,12 @@ public class JavaScriptUnit extends ASTNode {
 		if (this.lineEndTable == null) return -2;
 		if (line < 1 || column < 0) return -1;
 		int length;
-		if ((length = this.lineEndTable.length) == 0) {
+		if ((length = this.lineEndTable.length()) == 0) {
 			if (line != 1) return -1;
 			return column >= getStartPosition() + getLength() ? -1 : column;
 		}
 		if (line == 1) {
-			final int endOfLine = this.lineEndTable[0];
+			final int endOfLine = this.lineEndTable.get(0);
 			return column > endOfLine ? -1 : column;
 		} else if( line > length + 1 ) {
 			// greater than the number of lines in the source string.
@@ -596,10 +597,10 @@ public class JavaScriptUnit extends ASTNode {
 		}
 		// -1 to for one-based to zero-based conversion.
 		// -1, again, to get previous line.
-		final int previousLineOffset = this.lineEndTable[line - 2];
+		final int previousLineOffset = this.lineEndTable.get(line - 2);
 		 // previousLineOffset + 1 is the first character of the current line
 		final int offsetForLine = previousLineOffset + 1;
-		final int currentLineEnd = line == length + 1 ? getStartPosition() + getLength() - 1 : this.lineEndTable[line-1];
+		final int currentLineEnd = line == length + 1 ? getStartPosition() + getLength() - 1 : this.lineEndTable.get(line - 1);
 		if ((offsetForLine + column) > currentLineEnd) {
 			return -1;
 		} else {
@@ -763,60 +764,22 @@ public class JavaScriptUnit extends ASTNode {
 	public int getLineNumber(int position) {
 		if (this.lineEndTable == null) return -2;
 		int length;
-		if ((length = this.lineEndTable.length) == 0) {
+		if ((length = this.lineEndTable.length()) == 0) {
 			if (position >= getStartPosition() + getLength()) {
 				return -1;
 			}
 			return 1;
 		}
-		int low = 0;
 		if (position < 0) {
 			// position illegal
 			return -1;
 		}
-		if (position <= this.lineEndTable[low]) {
-			// before the first line delimiter
-			return 1;
-		}
-		// assert position > lineEndTable[low+1]  && low == 0
-		int hi = length - 1;
-		if (position > this.lineEndTable[hi]) {
-			// position beyond the last line separator
-			if (position >= getStartPosition() + getLength()) {
-				// this is beyond the end of the source length
-				return -1;
-			} else {
-				return length + 1;
-			}
-		}
-		// assert lineEndTable[low]  < position <= lineEndTable[hi]
-		// && low == 0 && hi == length - 1 && low < hi
-
-		// binary search line end table
-		while (true) {
-			// invariant lineEndTable[low] < position <= lineEndTable[hi]
-			// && 0 <= low < hi <= length - 1
-			// reducing measure hi - low
-			if (low + 1 == hi) {
-				// assert lineEndTable[low] < position <= lineEndTable[low+1]
-				// position is on line low+1 (line number is low+2)
-				return low + 2;
-			}
-			// assert hi - low >= 2, so average is truly in between
-			int mid = low + (hi - low) / 2;
-			// assert 0 <= low < mid < hi <= length - 1
-			if (position <= this.lineEndTable[mid]) {
-				// assert lineEndTable[low] < position <= lineEndTable[mid]
-				// && 0 <= low < mid < hi <= length - 1
-				hi = mid;
-			} else {
-				// position > lineEndTable[mid]
-				// assert lineEndTable[mid] < position <= lineEndTable[hi]
-				// && 0 <= low < mid < hi <= length - 1
-				low = mid;
-			}
-			// in both cases, invariant reachieved with reduced measure
+		int line = this.lineEndTable.getLineNumber(position);
+		if (line == length + 1 && position >= getStartPosition() + getLength()) {
+			// position beyond the last line separator and the end of the source length
+			return -1;
 		}
+		return line;
 	}
 
 	/* (omit javadoc for this method)
@@ -825,7 +788,7 @@ public class JavaScriptUnit extends ASTNode {
 	int memSize() {
 		int size = BASE_NODE_SIZE + 8 * 4;
 		if (this.lineEndTable != null) {
-			size += HEADERS + 4 * this.lineEndTable.length;
+			size += this.lineEndTable.getFootprint();
 		}
 		if (this.optionalCommentTable != null) {
 			size += HEADERS + 4 * this.optionalCommentTable.length;
@@ -955,6 +918,18 @@ public class JavaScriptUnit extends ASTNode {
 	 * @param lineEndTable the line end table
 	 */
 	void setLineEndTable(int[] lineEndTable) {
+		if (lineEndTable == null) {
+			throw new NullPointerException();
+		}
+		setLineEndTable(LineEndTable.share(lineEndTable));
+	}
+
+	/**
+	 * Sets the line end table for this javaScript unit, as a compact table.
+	 *
+	 * @param lineEndTable the line end table
+	 */
+	void setLineEndTable(LineEndTable lineEndTable) {
 		if (lineEndTable == null) {
 			throw new NullPointerException();
 		}
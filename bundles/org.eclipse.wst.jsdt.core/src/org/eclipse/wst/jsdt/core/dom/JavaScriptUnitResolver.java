@@ -260,7 +260,7 @@ class JavaScriptUnitResolver extends Compiler {
 		ast.setBindingResolver(resolver);
 		converter.setAST(ast);
 		compilationUnit = converter.convert(compilationUnitDeclaration, source);
-		compilationUnit.setLineEndTable(compilationUnitDeclaration.compilationResult.getLineSeparatorPositions());
+		compilationUnit.setLineEndTable(compilationUnitDeclaration.compilationResult.getLineEndTable());
 		ast.setDefaultNodeFlag(0);
 		ast.setOriginalModificationCount(ast.modificationCount());
 		return compilationUnit;
@@ -722,7 +722,7 @@ class JavaScriptUnitResolver extends Compiler {
 						converter.setAST(ast);
 						JavaScriptUnit compilationUnit = converter.convert(unit, contents);
 						compilationUnit.setTypeRoot(source);
-						compilationUnit.setLineEndTable(compilationResult.getLineSeparatorPositions());
+						compilationUnit.setLineEndTable(compilationResult.getLineEndTable());
 						ast.setDefaultNodeFlag(0);
 						ast.setOriginalModificationCount(ast.modificationCount());
 
@@ -77,6 +77,11 @@ import org.eclipse.wst.jsdt.internal.core.search.indexing.IIndexConstants;
  * Clients may subclass this class but should expect some breakage by future releases.
  * </p>
  * 
+ * <p>
+ * An engine keeps the state of the inference it runs, so it infers one unit at a time. Different
+ * engines may infer different units concurrently: the state shared between engines is only read.
+ * </p>
+ * 
  * Provisional API: This class/interface is part of an interim API that is still under development
  * and expected to
  * change significantly before reaching stability. It is being made available at this early stage to
@@ -190,8 +195,15 @@ public class InferEngine extends ASTVisitor implements IInferEngine {
 	 */
 	public InferredType GlobalType = new InferredType(InferredType.GLOBAL_NAME);
 
-	public static HashtableOfObject WellKnownTypes = new HashtableOfObject();
-	{
+	/**
+	 * <p>
+	 * The names of the built-in types. The table is filled once when the class is initialized and
+	 * is only read afterwards, so that it is shared by the engines inferring different units
+	 * concurrently.
+	 * </p>
+	 */
+	public static final HashtableOfObject WellKnownTypes = new HashtableOfObject();
+	static {
 		WellKnownTypes.put(TypeConstants.OBJECT, null);
 		WellKnownTypes.put(TypeConstants.ARRAY[0], null);
 		WellKnownTypes.put(TypeConstants.JAVA_LANG_STRING[0], null);
@@ -2259,8 +2271,10 @@ public class InferEngine extends ASTVisitor implements IInferEngine {
 			constructor.name = newTypeName;
 		}
 		
-		//rename the type
-		compUnit.inferredTypesHash.removeKey(type.name);
+		//rename the type, the global variables being renamed again by the second pass
+		if(!CharOperation.equals(type.name, newTypeName)) {
+			compUnit.inferredTypesHash.removeKey(type.name);
+		}
 		type.name = newTypeName;
 		compUnit.inferredTypesHash.put(newTypeName, type);
 	}
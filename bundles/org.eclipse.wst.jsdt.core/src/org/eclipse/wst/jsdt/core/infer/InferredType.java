@@ -46,9 +46,16 @@ public class InferredType extends ASTNode {
 
 	char [] name;
 	public ArrayList methods;
+	/**
+	 * <p><b>NOTE: </b>This field should not be modified directly, use the appropriate add and replace methods.</p>
+	 */
 	public InferredAttribute[] attributes=new InferredAttribute[5];
 	public int numberAttributes=0;
-	public HashtableOfObject attributesHash = new HashtableOfObject();
+	/**
+	 * <p><b>NOTE: </b>This field should not be modified directly, use the appropriate add and replace methods.</p>
+	 */
+	// many types never get an attribute, e.g. the library types a unit only references, it grows with the first ones
+	public HashtableOfObject attributesHash = new HashtableOfObject(0);
 	
 	/**
 	 * <p>The parent type of this type, or <code>null</code> if this type does not have a parent type</p>
@@ -202,18 +209,7 @@ public class InferredType extends ASTNode {
 			attribute=new InferredAttribute(name, this, definer);
 			attribute.node=(ASTNode)definer;
 			
-			if (this.numberAttributes == this.attributes.length)
-
-				System.arraycopy(
-						this.attributes,
-						0,
-						this.attributes = new InferredAttribute[this.numberAttributes  * 2],
-						0,
-						this.numberAttributes );
-						this.attributes [this.numberAttributes  ++] = attribute;
-
-
-			attributesHash.put(name, attribute);
+			appendAttribute(attribute);
 
 			if (!isAnonymous) {
 				this.updatePositions(definer.sourceStart(), definer.sourceEnd());
@@ -268,19 +264,7 @@ public class InferredType extends ASTNode {
 		InferredAttribute attribute = findAttribute(newAttribute.name);
 		if (attribute==null)
 		{
-
-			if (this.numberAttributes == this.attributes.length)
-
-				System.arraycopy(
-						this.attributes,
-						0,
-						this.attributes = new InferredAttribute[this.numberAttributes  * 2],
-						0,
-						this.numberAttributes );
-						this.attributes [this.numberAttributes  ++] = newAttribute;
-
-
-			attributesHash.put(newAttribute.name, newAttribute);
+			appendAttribute(newAttribute);
 
 			if (!isAnonymous) {
 				if (definer != null) {
@@ -293,6 +277,22 @@ public class InferredType extends ASTNode {
 		}
 		return newAttribute;
 	}
+	/*
+	 * Adds the given attribute, which this type does not have yet.
+	 */
+	private void appendAttribute(InferredAttribute attribute) {
+		if (this.numberAttributes == this.attributes.length)
+			System.arraycopy(
+					this.attributes,
+					0,
+					this.attributes = new InferredAttribute[this.numberAttributes * 2],
+					0,
+					this.numberAttributes);
+		this.attributes[this.numberAttributes++] = attribute;
+
+		this.attributesHash.put(attribute.name, attribute);
+	}
+
 	/**
 	 * Find the inferred attribute with the given name
 	 * 
@@ -683,6 +683,7 @@ public class InferredType extends ASTNode {
 	public void mixin(InferredType mixin) {
 		if(mixin !=null) {
 			InferredAttribute[] attributes = mixin.attributes;
+			int numberAttributes = mixin.numberAttributes;
 			ArrayList methods = mixin.methods;
 			if(methods == null)
 				methods = new ArrayList(1);
@@ -691,10 +692,11 @@ public class InferredType extends ASTNode {
 			InferredType mixSuperType = mixin.getSuperType();
 			while(mixSuperType != null && !CharOperation.equals(mixSuperType.getName(), TypeConstants.OBJECT)) {
 				// attributes
-				InferredAttribute[] tempAttributes = new InferredAttribute[attributes.length + mixSuperType.numberAttributes];
-				System.arraycopy(attributes, 0, tempAttributes, 0, attributes.length);
-				System.arraycopy(mixSuperType.attributes, 0, tempAttributes, attributes.length - 1, mixSuperType.numberAttributes);
+				InferredAttribute[] tempAttributes = new InferredAttribute[numberAttributes + mixSuperType.numberAttributes];
+				System.arraycopy(attributes, 0, tempAttributes, 0, numberAttributes);
+				System.arraycopy(mixSuperType.attributes, 0, tempAttributes, numberAttributes, mixSuperType.numberAttributes);
 				attributes = tempAttributes;
+				numberAttributes = tempAttributes.length;
 				
 				// methods
 				if (mixSuperType.methods != null)
@@ -703,7 +705,7 @@ public class InferredType extends ASTNode {
 			}
 			
 			// add attributes to the type
-			for(int a = 0; a < attributes.length; a++) {
+			for(int a = 0; a < numberAttributes; a++) {
 				//do not mix in statics
 				if(attributes[a] != null && !attributes[a].isStatic) {
 					InferredAttribute attr = this.replaceAttribute( attributes[a].name, attributes[a].node, attributes[a].nameStart);
@@ -740,6 +742,7 @@ public class InferredType extends ASTNode {
 			mixin(mixin);
 		else if (mixin != null) {
 			InferredAttribute[] attributes = mixin.attributes;
+			int numberAttributes = mixin.numberAttributes;
 			ArrayList methods = mixin.methods;
 			if (methods == null)
 				methods = new ArrayList(1);
@@ -748,10 +751,11 @@ public class InferredType extends ASTNode {
 			InferredType mixSuperType = mixin.getSuperType();
 			while (mixSuperType != null && !CharOperation.equals(mixSuperType.getName(), TypeConstants.OBJECT)) {
 				// attributes
-				InferredAttribute[] tempAttributes = new InferredAttribute[attributes.length + mixSuperType.numberAttributes];
-				System.arraycopy(attributes, 0, tempAttributes, 0, attributes.length);
-				System.arraycopy(mixSuperType.attributes, 0, tempAttributes, attributes.length - 1, mixSuperType.numberAttributes);
+				InferredAttribute[] tempAttributes = new InferredAttribute[numberAttributes + mixSuperType.numberAttributes];
+				System.arraycopy(attributes, 0, tempAttributes, 0, numberAttributes);
+				System.arraycopy(mixSuperType.attributes, 0, tempAttributes, numberAttributes, mixSuperType.numberAttributes);
 				attributes = tempAttributes;
+				numberAttributes = tempAttributes.length;
 				
 				// methods
 				if (mixSuperType.methods != null)
@@ -760,7 +764,7 @@ public class InferredType extends ASTNode {
 			}
 			
 			// add attributes to the type
-			for (int a = 0; a < attributes.length; a++) {
+			for (int a = 0; a < numberAttributes; a++) {
 				//do not mix in statics
 				if (attributes[a] != null && !attributes[a].isStatic) {
 					InferredAttribute existingAttr = findAttribute(attributes[a].name);
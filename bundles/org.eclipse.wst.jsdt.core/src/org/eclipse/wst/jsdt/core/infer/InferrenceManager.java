@@ -49,7 +49,7 @@ public class InferrenceManager {
 
 	private  InferrenceSupportExtension [] extensions;
 
-	public static InferrenceManager getInstance(){
+	public static synchronized InferrenceManager getInstance(){
 		if( instance == null )
 			instance = new InferrenceManager();
 
@@ -61,10 +61,7 @@ public class InferrenceManager {
 	public InferrenceProvider [] getInferenceProviders()
 	{
 
-		if (extensions==null)
-		{
-			loadInferenceExtensions();
-		}
+		InferrenceSupportExtension [] extensions = getExtensions();
 		ArrayList extProviders=new ArrayList();
 		extProviders.add(new DefaultInferrenceProvider());
 		for (int i = 0; i < extensions.length; i++) {
@@ -75,6 +72,19 @@ public class InferrenceManager {
 	}
 
 
+	/*
+	 * The extensions are loaded once, by the first of the threads inferring concurrently.
+	 */
+	private synchronized InferrenceSupportExtension [] getExtensions()
+	{
+		if (extensions==null)
+		{
+			loadInferenceExtensions();
+		}
+		return extensions;
+	}
+
+
 	public InferrenceProvider [] getInferenceProviders(IInferenceFile script)
 	{
 		List proposedProviders = new ArrayList();
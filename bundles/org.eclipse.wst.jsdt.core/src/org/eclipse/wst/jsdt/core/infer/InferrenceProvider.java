@@ -39,6 +39,8 @@ public interface InferrenceProvider {
 	
 	/**
 	 * Get the inference engine for this inference provider, or null if one will not be provided.  Implementors returning null are expected to return {@link #NOT_THIS} for all calls to {@link #getInferEngine()}
+	 * <p>Each call is expected to answer a new engine: the engines of a provider are used by different
+	 * parsers, which may infer their units concurrently on different threads.</p>
 	 * @return an inference engine
 	 */
 	public IInferEngine getInferEngine();
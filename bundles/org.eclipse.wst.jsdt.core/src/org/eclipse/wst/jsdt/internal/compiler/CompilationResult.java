@@ -46,6 +46,7 @@ import org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit;
 import org.eclipse.wst.jsdt.internal.compiler.impl.ReferenceContext;
 import org.eclipse.wst.jsdt.internal.compiler.parser.RecoveryScannerData;
 import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+import org.eclipse.wst.jsdt.internal.compiler.util.LineEndTable;
 import org.eclipse.wst.jsdt.internal.compiler.util.Util;
 
 public class CompilationResult {
@@ -60,7 +61,8 @@ public class CompilationResult {
 	private int maxProblemPerUnit;
 	public char[][][] qualifiedReferences;
 	public char[][] simpleNameReferences;
-	public int lineSeparatorPositions[];
+	public int lineSeparatorPositions[]; // null once compacted, until asked again by getLineSeparatorPositions()
+	public LineEndTable lineEndTable; // the line separator positions once compacted
 	public RecoveryScannerData recoveryScannerData;
 	public Map compiledTypes = new Hashtable(11);
 	public int unitIndex, totalUnitsKnown;
@@ -270,8 +272,35 @@ public char [][] getPackageName()
 	return this.packageName;
 }
 
+/*
+ * Replaces the line separator positions with their compact table, shared with the other
+ * results of the same contents, once the unit of this result no longer needs to be parsed.
+ */
+public void compactLineSeparatorPositions() {
+	if (this.lineSeparatorPositions != null) {
+		this.lineEndTable = LineEndTable.share(this.lineSeparatorPositions);
+		this.lineSeparatorPositions = null;
+	}
+}
+
+/*
+ * Returns the line separator positions as a compact table, shared with the other results
+ * of the same contents.
+ */
+public LineEndTable getLineEndTable() {
+	if (this.lineSeparatorPositions != null)
+		return LineEndTable.share(this.lineSeparatorPositions);
+	return this.lineEndTable == null ? LineEndTable.EMPTY : this.lineEndTable;
+}
+
 public int[] getLineSeparatorPositions() {
-	return this.lineSeparatorPositions == null ? CompilationResult.EMPTY_LINE_ENDS : this.lineSeparatorPositions;
+	if (this.lineSeparatorPositions == null) {
+		if (this.lineEndTable == null)
+			return CompilationResult.EMPTY_LINE_ENDS;
+		// decoded once, e.g. for the problems reported after the unit was cleaned up
+		this.lineSeparatorPositions = this.lineEndTable.toArray();
+	}
+	return this.lineSeparatorPositions;
 }
 
 /**
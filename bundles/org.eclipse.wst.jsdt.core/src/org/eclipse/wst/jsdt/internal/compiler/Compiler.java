@@ -31,6 +31,7 @@ import org.eclipse.wst.jsdt.internal.compiler.impl.ITypeRequestor2;
 import org.eclipse.wst.jsdt.internal.compiler.lookup.LookupEnvironment;
 import org.eclipse.wst.jsdt.internal.compiler.lookup.PackageBinding;
 import org.eclipse.wst.jsdt.internal.compiler.lookup.ReferenceBinding;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSources;
 import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilation;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilationUnit;
@@ -64,6 +65,12 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 	public ReferenceBinding[] referenceBindings;
 	protected HashtableOfObject parsedUnits;
 
+	// the stage of MinifiedSources.STATISTICS recording the time spent on the compiled units (-1: none)
+	public int minifiedSourceStage = -1;
+
+	// number of threads parsing and inferring the initial units, each with its own parser (1: the compiling thread only)
+	public int parallelism = 1;
+
 
 	// number of initial units parsed at once (-1: none)
 
@@ -543,17 +550,109 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 		this.parser.javadocParser.checkDocComment=true;
 	}
 
+	/**
+	 * Answers a new parser configured as the one of this compiler, reporting the problems
+	 * of the units it parses with the given problem reporter, for the parsing threads.
+	 * The parser is created by {@link #initializeParser()}, so that it is of the same kind as
+	 * the one of this compiler, which then hands over the caches and settings set by its clients.
+	 */
+	protected Parser newWorkerParser(ProblemReporter workerProblemReporter) {
+		Parser compilerParser = this.parser;
+		ProblemReporter compilerProblemReporter = this.problemReporter;
+		Parser workerParser;
+		try {
+			this.problemReporter = workerProblemReporter;
+			initializeParser();
+			workerParser = this.parser;
+		} finally {
+			this.parser = compilerParser;
+			this.problemReporter = compilerProblemReporter;
+		}
+		workerParser.reportOnlyOneSyntaxError = compilerParser.reportOnlyOneSyntaxError;
+		workerParser.skipMinifiedSources = compilerParser.skipMinifiedSources;
+		workerParser.recoveryCache = compilerParser.recoveryCache;
+		workerParser.inferredTypesCache = compilerParser.inferredTypesCache;
+		return workerParser;
+	}
+
+	/**
+	 * Parses the given units and infers their types on <code>parallelism</code> threads, each with
+	 * its own parser and problem reporter. Answers, for each unit, its parsed declaration or the
+	 * exception thrown while parsing it, to be thrown again by the compiling thread.
+	 * The lookup environment is not touched: the bindings are built by the compiling thread.
+	 */
+	protected Object[] parallelParse(final ICompilationUnit[] sourceUnits, final CompilationResult[] unitResults, int maxUnits) {
+		final Object[] parsedUnits = new Object[maxUnits];
+		final int firstUnit = this.totalUnits;
+		final int[] nextUnit = new int[1];
+		Thread[] workers = new Thread[Math.min(this.parallelism, maxUnits)];
+		for (int w = 0; w < workers.length; w++) {
+			final Parser workerParser = newWorkerParser(new ProblemReporter(
+				this.problemReporter.policy,
+				this.options,
+				this.problemReporter.problemFactory));
+			workers[w] = new Thread("JavaScript Parser " + (w + 1)) { //$NON-NLS-1$
+				public void run() {
+					while (true) {
+						int i;
+						synchronized (nextUnit) {
+							i = nextUnit[0]++;
+						}
+						if (i >= parsedUnits.length) return;
+						try {
+							// diet parsing for large collection of units
+							CompilationUnitDeclaration parsedUnit;
+							if (firstUnit + i < Compiler.this.parseThreshold) {
+								parsedUnit = workerParser.parse(sourceUnits[i], unitResults[i]);
+							} else {
+								parsedUnit = workerParser.dietParse(sourceUnits[i], unitResults[i]);
+							}
+							workerParser.inferTypes(parsedUnit, Compiler.this.options);
+							parsedUnits[i] = parsedUnit;
+						} catch (RuntimeException e) {
+							parsedUnits[i] = e;
+						} catch (Error e) {
+							parsedUnits[i] = e;
+						}
+					}
+				}
+			};
+			workers[w].setDaemon(true);
+			workers[w].start();
+		}
+		boolean interrupted = false;
+		for (int w = 0; w < workers.length; w++) {
+			try {
+				workers[w].join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+				w--; // the units are still being parsed
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		return parsedUnits;
+	}
+
 	/**
 	 * Add the initial set of compilation units into the loop
 	 *  ->  build compilation unit declarations, their bindings and record their results.
 	 */
 	protected void internalBeginToCompile(ICompilationUnit[] sourceUnits, int maxUnits) {
 		SimpleSetOfCharArray allDefinedTypes = new SimpleSetOfCharArray();
+		CompilationResult[] unitResults = new CompilationResult[maxUnits];
+		for (int i = 0; i < maxUnits; i++)
+			unitResults[i] = new CompilationResult(sourceUnits[i], i, maxUnits, this.options.maxProblemsPerUnit);
+		// the units are parsed in advance when several threads are available, the bindings are still built in order
+		Object[] parsedUnits = this.parallelism > 1 && maxUnits > 1
+			? parallelParse(sourceUnits, unitResults, maxUnits)
+			: null;
 		// Switch the current policy and compilation result for this unit to the requested one.
 		for (int i = 0; i < maxUnits; i++) {
 			CompilationUnitDeclaration parsedUnit;
-			CompilationResult unitResult =
-				new CompilationResult(sourceUnits[i], i, maxUnits, this.options.maxProblemsPerUnit);
+			CompilationResult unitResult = unitResults[i];
+			unitResults[i] = null;
+			long start = System.currentTimeMillis();
 			try {
 				if (options.verbose) {
 					this.out.println(
@@ -564,13 +663,23 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 							new String(sourceUnits[i].getFileName())
 						}));
 				}
-				// diet parsing for large collection of units
-				if (totalUnits < parseThreshold) {
-					parsedUnit = parser.parse(sourceUnits[i], unitResult);
+				if (parsedUnits != null) {
+					Object parsed = parsedUnits[i];
+					parsedUnits[i] = null;
+					if (parsed instanceof RuntimeException)
+						throw (RuntimeException) parsed;
+					if (parsed instanceof Error)
+						throw (Error) parsed;
+					parsedUnit = (CompilationUnitDeclaration) parsed;
 				} else {
-					parsedUnit = parser.dietParse(sourceUnits[i], unitResult);
+					// diet parsing for large collection of units
+					if (totalUnits < parseThreshold) {
+						parsedUnit = parser.parse(sourceUnits[i], unitResult);
+					} else {
+						parsedUnit = parser.dietParse(sourceUnits[i], unitResult);
+					}
+					parser.inferTypes(parsedUnit,this.options);
 				}
-				parser.inferTypes(parsedUnit,this.options);
 
 				SimpleSetOfCharArray defined = new SimpleSetOfCharArray();
 				for (int j = 0; j < parsedUnit.numberInferredTypes; j++) {
@@ -582,6 +691,8 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 				// initial type binding creation
 				this.addCompilationUnit(sourceUnits[i], parsedUnit);
 				lookupEnvironment.buildTypeBindings(parsedUnit, defined.values, null /*no access restriction*/);
+				if (this.minifiedSourceStage >= 0)
+					MinifiedSources.STATISTICS.record(this.minifiedSourceStage, parsedUnit.isMinified, parsedUnit.sourceEnd + 1, System.currentTimeMillis() - start);
 				ImportReference currentPackage = parsedUnit.currentPackage;
 				if (currentPackage != null) {
 					unitResult.recordPackageName(currentPackage.tokens);
@@ -600,6 +711,7 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 	 * Process a compilation unit already parsed and build.
 	 */
 	public void process(CompilationUnitDeclaration unit, int i) {
+		long start = System.currentTimeMillis();
 		this.lookupEnvironment.unitBeingCompleted = unit;
 
 		this.parser.getMethodBodies(unit);
@@ -608,10 +720,13 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 		if (unit.scope != null)
 			unit.scope.faultInTypes();
 
-		// type checking
-		unit.resolve();
+		// a minified unit is only processed for its declarations
+		if (!unit.isMinified) {
+			// type checking
+			unit.resolve();
 
-		unit.analyseCode();
+			unit.analyseCode();
+		}
 
 
 		// reference info
@@ -622,6 +737,8 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 		unit.compilationResult.totalUnitsKnown = totalUnits;
 
 		this.lookupEnvironment.unitBeingCompleted = null;
+		if (this.minifiedSourceStage >= 0)
+			MinifiedSources.STATISTICS.recordTime(this.minifiedSourceStage, unit.isMinified, System.currentTimeMillis() - start);
 	}
 
 	public void reset() {
@@ -664,11 +781,14 @@ public class Compiler implements ITypeRequestor, ProblemSeverities, ITypeRequest
 				// fault in fields & methods
 				unit.scope.faultInTypes();
 
-				// type checking
-				unit.resolve();
+				// a minified unit is only processed for its declarations
+				if (!unit.isMinified) {
+					// type checking
+					unit.resolve();
 
-				// flow analysis
-				if (analyzeCode) unit.analyseCode();
+					// flow analysis
+					if (analyzeCode) unit.analyseCode();
+				}
 
 				// code generation
 //				if (generateCode) unit.generateCode();
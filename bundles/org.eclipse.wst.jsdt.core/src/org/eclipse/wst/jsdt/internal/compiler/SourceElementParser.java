@@ -368,6 +368,35 @@ public void setRequestor(ISourceElementRequestor requestor) {
 	notifiedTypes.clear();
 }
 
+/*
+ * Returns the settings of this parser which change what the requestor is notified of, as a
+ * value to compare: the parses of the same unit with equal settings give the same notifications.
+ */
+public Object getNotificationSettings() {
+	ArrayList settings = new ArrayList(10);
+	settings.add(getClass().getName());
+	settings.add(this.options.getMap());
+	settings.add(Boolean.valueOf(this.options.performMethodsFullRecovery));
+	settings.add(Boolean.valueOf(this.options.performStatementsRecovery));
+	settings.add(Boolean.valueOf(this.localDeclarationVisitor != null));
+	settings.add(Boolean.valueOf(this.optimizeStringLiterals));
+	settings.add(Boolean.valueOf(this.useSourceJavadocParser));
+	settings.add(Boolean.valueOf(this.reportOnlyOneSyntaxError));
+	settings.add(Boolean.valueOf(this.skipMinifiedSources));
+	settings.add(Boolean.valueOf(this.skipFunctionBodies));
+	return settings;
+}
+
+/**
+ * Sets whether parseCompilationUnit(ICompilationUnit, boolean) diet parses the unit, only tokenizing
+ * its function bodies, then parses the bodies one by one if the references or the local declarations
+ * are requested. A unit with a syntax error is parsed again in full, so that the error is recovered
+ * from as before. Reset by cleanUp().
+ */
+public void setSkipFunctionBodies(boolean skipFunctionBodies) {
+	this.skipFunctionBodies = skipFunctionBodies;
+}
+
 private void acceptJavadocTypeReference(Expression expression) {
 	if (expression instanceof JavadocSingleTypeReference) {
 		JavadocSingleTypeReference singleRef = (JavadocSingleTypeReference) expression;
@@ -1443,7 +1472,7 @@ public CompilationUnitDeclaration parseCompilationUnit(
 	boolean old = diet;
 
 	try {
-		diet = DO_DIET_PARSE;
+		diet = DO_DIET_PARSE || this.skipFunctionBodies;
 		this.reportReferenceInfo = fullParse;
 		CompilationResult compilationUnitResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
 		CompilationUnitDeclaration parsedUnit = parse(unit, compilationUnitResult);
@@ -1455,6 +1484,11 @@ public CompilationUnitDeclaration parseCompilationUnit(
 		if (this.localDeclarationVisitor != null || fullParse){
 			diet = false;
 			this.getMethodBodies(parsedUnit);
+			if (parsedUnit.ignoreMethodBodies) {
+				// a function body has a syntax error, which is only recovered from by a full parse
+				compilationUnitResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
+				parsedUnit = parse(unit, compilationUnitResult);
+			}
 		}
 		this.scanner.resetTo(initialStart, initialEnd);
 
@@ -1597,6 +1631,13 @@ private void rememberCategories() {
 		}
 	}
 }
+public void cleanUp() {
+	super.cleanUp();
+	// don't hold a reference to the requestor of the last parse
+	this.requestor = null;
+	this.sourceType = null;
+	this.notifiedTypes.clear();
+}
 private void reset() {
 	this.sourceEnds = new HashtableOfObjectToInt();
 	this.nodesToCategories = new HashMap();
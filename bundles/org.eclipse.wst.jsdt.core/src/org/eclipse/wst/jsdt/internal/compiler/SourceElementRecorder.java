@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler;
+
+import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
+import org.eclipse.wst.jsdt.internal.compiler.util.LineEndTable;
+
+/*
+ * A requestor forwarding the notifications of a source element parser to another requestor
+ * while recording them, so that they can be replayed later to other requestors without parsing
+ * the source again.
+ *
+ * The notifications are recorded as they were given: the infos, names and problems are shared
+ * by all the replays, so they must not be modified by the requestors. The line separator
+ * positions are kept as a compact table, shared with the other parses of the same contents.
+ */
+public class SourceElementRecorder implements ISourceElementRequestor {
+
+	private static final int ACCEPT_CONSTRUCTOR_REFERENCE = 0;
+	private static final int ACCEPT_FIELD_REFERENCE = 1;
+	private static final int ACCEPT_IMPORT = 2;
+	private static final int ACCEPT_LINE_SEPARATOR_POSITIONS = 3;
+	private static final int ACCEPT_METHOD_REFERENCE = 4;
+	private static final int ACCEPT_PROBLEM = 5;
+	private static final int ACCEPT_QUALIFIED_TYPE_REFERENCE = 6;
+	private static final int ACCEPT_TYPE_REFERENCE = 7;
+	private static final int ACCEPT_QUALIFIED_UNKNOWN_REFERENCE = 8;
+	private static final int ACCEPT_UNKNOWN_REFERENCE = 9;
+	private static final int ENTER_COMPILATION_UNIT = 10;
+	private static final int ENTER_CONSTRUCTOR = 11;
+	private static final int ENTER_FIELD = 12;
+	private static final int ENTER_INITIALIZER = 13;
+	private static final int ENTER_METHOD = 14;
+	private static final int ENTER_TYPE = 15;
+	private static final int EXIT_COMPILATION_UNIT = 16;
+	private static final int EXIT_CONSTRUCTOR = 17;
+	private static final int EXIT_FIELD = 18;
+	private static final int EXIT_INITIALIZER = 19;
+	private static final int EXIT_METHOD = 20;
+	private static final int EXIT_TYPE = 21;
+
+	private ISourceElementRequestor requestor;
+
+	/*
+	 * The recorded notifications, and their arguments in the order they were given
+	 */
+	private int[] events = new int[64];
+	private int eventCount = 0;
+	private int[] intArguments = new int[64];
+	private int intArgumentCount = 0;
+	private Object[] objectArguments = new Object[64];
+	private int objectArgumentCount = 0;
+
+/*
+ * Creates a recorder forwarding the notifications to the given requestor, or only recording
+ * them if it is null.
+ */
+public SourceElementRecorder(ISourceElementRequestor requestor) {
+	this.requestor = requestor;
+}
+/*
+ * Returns the number of recorded notifications.
+ */
+public int getEventCount() {
+	return this.eventCount;
+}
+/*
+ * Stops forwarding the notifications and trims the recording to its size.
+ */
+public void endRecording() {
+	this.requestor = null;
+	System.arraycopy(this.events, 0, this.events = new int[this.eventCount], 0, this.eventCount);
+	System.arraycopy(this.intArguments, 0, this.intArguments = new int[this.intArgumentCount], 0, this.intArgumentCount);
+	System.arraycopy(this.objectArguments, 0, this.objectArguments = new Object[this.objectArgumentCount], 0, this.objectArgumentCount);
+}
+/*
+ * Notifies the given requestor of the recorded notifications, in the order they were recorded.
+ */
+public void replay(ISourceElementRequestor target) {
+	int intIndex = 0;
+	int objectIndex = 0;
+	int[] ints = this.intArguments;
+	Object[] objects = this.objectArguments;
+	for (int i = 0; i < this.eventCount; i++) {
+		switch (this.events[i]) {
+			case ACCEPT_CONSTRUCTOR_REFERENCE :
+				target.acceptConstructorReference((char[]) objects[objectIndex++], ints[intIndex++], ints[intIndex++]);
+				break;
+			case ACCEPT_FIELD_REFERENCE :
+				target.acceptFieldReference((char[]) objects[objectIndex++], ints[intIndex++]);
+				break;
+			case ACCEPT_IMPORT :
+				target.acceptImport(ints[intIndex++], ints[intIndex++], (char[][]) objects[objectIndex++], ints[intIndex++] != 0);
+				break;
+			case ACCEPT_LINE_SEPARATOR_POSITIONS :
+				target.acceptLineSeparatorPositions(((LineEndTable) objects[objectIndex++]).toArray());
+				break;
+			case ACCEPT_METHOD_REFERENCE :
+				target.acceptMethodReference((char[]) objects[objectIndex++], ints[intIndex++]);
+				break;
+			case ACCEPT_PROBLEM :
+				target.acceptProblem((CategorizedProblem) objects[objectIndex++]);
+				break;
+			case ACCEPT_QUALIFIED_TYPE_REFERENCE :
+				target.acceptTypeReference((char[][]) objects[objectIndex++], ints[intIndex++], ints[intIndex++]);
+				break;
+			case ACCEPT_TYPE_REFERENCE :
+				target.acceptTypeReference((char[]) objects[objectIndex++], ints[intIndex++]);
+				break;
+			case ACCEPT_QUALIFIED_UNKNOWN_REFERENCE :
+				target.acceptUnknownReference((char[][]) objects[objectIndex++], ints[intIndex++], ints[intIndex++]);
+				break;
+			case ACCEPT_UNKNOWN_REFERENCE :
+				target.acceptUnknownReference((char[]) objects[objectIndex++], ints[intIndex++]);
+				break;
+			case ENTER_COMPILATION_UNIT :
+				target.enterCompilationUnit();
+				break;
+			case ENTER_CONSTRUCTOR :
+				target.enterConstructor((MethodInfo) objects[objectIndex++]);
+				break;
+			case ENTER_FIELD :
+				target.enterField((FieldInfo) objects[objectIndex++]);
+				break;
+			case ENTER_INITIALIZER :
+				target.enterInitializer(ints[intIndex++], ints[intIndex++]);
+				break;
+			case ENTER_METHOD :
+				target.enterMethod((MethodInfo) objects[objectIndex++]);
+				break;
+			case ENTER_TYPE :
+				target.enterType((TypeInfo) objects[objectIndex++]);
+				break;
+			case EXIT_COMPILATION_UNIT :
+				target.exitCompilationUnit(ints[intIndex++]);
+				break;
+			case EXIT_CONSTRUCTOR :
+				target.exitConstructor(ints[intIndex++]);
+				break;
+			case EXIT_FIELD :
+				target.exitField(ints[intIndex++], ints[intIndex++], ints[intIndex++]);
+				break;
+			case EXIT_INITIALIZER :
+				target.exitInitializer(ints[intIndex++]);
+				break;
+			case EXIT_METHOD :
+				target.exitMethod(ints[intIndex++], ints[intIndex++], ints[intIndex++]);
+				break;
+			case EXIT_TYPE :
+				target.exitType(ints[intIndex++]);
+				break;
+		}
+	}
+}
+private void record(int event) {
+	if (this.eventCount == this.events.length)
+		System.arraycopy(this.events, 0, this.events = new int[this.eventCount * 2], 0, this.eventCount);
+	this.events[this.eventCount++] = event;
+}
+private void record(int event, Object argument) {
+	record(event);
+	recordObject(argument);
+}
+private void recordInt(int argument) {
+	if (this.intArgumentCount == this.intArguments.length)
+		System.arraycopy(this.intArguments, 0, this.intArguments = new int[this.intArgumentCount * 2], 0, this.intArgumentCount);
+	this.intArguments[this.intArgumentCount++] = argument;
+}
+private void recordObject(Object argument) {
+	if (this.objectArgumentCount == this.objectArguments.length)
+		System.arraycopy(this.objectArguments, 0, this.objectArguments = new Object[this.objectArgumentCount * 2], 0, this.objectArgumentCount);
+	this.objectArguments[this.objectArgumentCount++] = argument;
+}
+public void acceptConstructorReference(char[] typeName, int argCount, int sourcePosition) {
+	record(ACCEPT_CONSTRUCTOR_REFERENCE, typeName);
+	recordInt(argCount);
+	recordInt(sourcePosition);
+	if (this.requestor != null) this.requestor.acceptConstructorReference(typeName, argCount, sourcePosition);
+}
+public void acceptFieldReference(char[] fieldName, int sourcePosition) {
+	record(ACCEPT_FIELD_REFERENCE, fieldName);
+	recordInt(sourcePosition);
+	if (this.requestor != null) this.requestor.acceptFieldReference(fieldName, sourcePosition);
+}
+public void acceptImport(int declarationStart, int declarationEnd, char[][] tokens, boolean onDemand) {
+	record(ACCEPT_IMPORT, tokens);
+	recordInt(declarationStart);
+	recordInt(declarationEnd);
+	recordInt(onDemand ? 1 : 0);
+	if (this.requestor != null) this.requestor.acceptImport(declarationStart, declarationEnd, tokens, onDemand);
+}
+public void acceptLineSeparatorPositions(int[] positions) {
+	record(ACCEPT_LINE_SEPARATOR_POSITIONS, LineEndTable.share(positions));
+	if (this.requestor != null) this.requestor.acceptLineSeparatorPositions(positions);
+}
+public void acceptMethodReference(char[] methodName, int sourcePosition) {
+	record(ACCEPT_METHOD_REFERENCE, methodName);
+	recordInt(sourcePosition);
+	if (this.requestor != null) this.requestor.acceptMethodReference(methodName, sourcePosition);
+}
+public void acceptProblem(CategorizedProblem problem) {
+	record(ACCEPT_PROBLEM, problem);
+	if (this.requestor != null) this.requestor.acceptProblem(problem);
+}
+public void acceptTypeReference(char[][] typeName, int sourceStart, int sourceEnd) {
+	record(ACCEPT_QUALIFIED_TYPE_REFERENCE, typeName);
+	recordInt(sourceStart);
+	recordInt(sourceEnd);
+	if (this.requestor != null) this.requestor.acceptTypeReference(typeName, sourceStart, sourceEnd);
+}
+public void acceptTypeReference(char[] typeName, int sourcePosition) {
+	record(ACCEPT_TYPE_REFERENCE, typeName);
+	recordInt(sourcePosition);
+	if (this.requestor != null) this.requestor.acceptTypeReference(typeName, sourcePosition);
+}
+public void acceptUnknownReference(char[][] name, int sourceStart, int sourceEnd) {
+	record(ACCEPT_QUALIFIED_UNKNOWN_REFERENCE, name);
+	recordInt(sourceStart);
+	recordInt(sourceEnd);
+	if (this.requestor != null) this.requestor.acceptUnknownReference(name, sourceStart, sourceEnd);
+}
+public void acceptUnknownReference(char[] name, int sourcePosition) {
+	record(ACCEPT_UNKNOWN_REFERENCE, name);
+	recordInt(sourcePosition);
+	if (this.requestor != null) this.requestor.acceptUnknownReference(name, sourcePosition);
+}
+public void enterCompilationUnit() {
+	record(ENTER_COMPILATION_UNIT);
+	if (this.requestor != null) this.requestor.enterCompilationUnit();
+}
+public void enterConstructor(MethodInfo methodInfo) {
+	record(ENTER_CONSTRUCTOR, methodInfo);
+	if (this.requestor != null) this.requestor.enterConstructor(methodInfo);
+}
+public void enterField(FieldInfo fieldInfo) {
+	record(ENTER_FIELD, fieldInfo);
+	if (this.requestor != null) this.requestor.enterField(fieldInfo);
+}
+public void enterInitializer(int declarationStart, int modifiers) {
+	record(ENTER_INITIALIZER);
+	recordInt(declarationStart);
+	recordInt(modifiers);
+	if (this.requestor != null) this.requestor.enterInitializer(declarationStart, modifiers);
+}
+public void enterMethod(MethodInfo methodInfo) {
+	record(ENTER_METHOD, methodInfo);
+	if (this.requestor != null) this.requestor.enterMethod(methodInfo);
+}
+public void enterType(TypeInfo typeInfo) {
+	record(ENTER_TYPE, typeInfo);
+	if (this.requestor != null) this.requestor.enterType(typeInfo);
+}
+public void exitCompilationUnit(int declarationEnd) {
+	record(EXIT_COMPILATION_UNIT);
+	recordInt(declarationEnd);
+	if (this.requestor != null) this.requestor.exitCompilationUnit(declarationEnd);
+}
+public void exitConstructor(int declarationEnd) {
+	record(EXIT_CONSTRUCTOR);
+	recordInt(declarationEnd);
+	if (this.requestor != null) this.requestor.exitConstructor(declarationEnd);
+}
+public void exitField(int initializationStart, int declarationEnd, int declarationSourceEnd) {
+	record(EXIT_FIELD);
+	recordInt(initializationStart);
+	recordInt(declarationEnd);
+	recordInt(declarationSourceEnd);
+	if (this.requestor != null) this.requestor.exitField(initializationStart, declarationEnd, declarationSourceEnd);
+}
+public void exitInitializer(int declarationEnd) {
+	record(EXIT_INITIALIZER);
+	recordInt(declarationEnd);
+	if (this.requestor != null) this.requestor.exitInitializer(declarationEnd);
+}
+public void exitMethod(int declarationEnd, int defaultValueStart, int defaultValueEnd) {
+	record(EXIT_METHOD);
+	recordInt(declarationEnd);
+	recordInt(defaultValueStart);
+	recordInt(defaultValueEnd);
+	if (this.requestor != null) this.requestor.exitMethod(declarationEnd, defaultValueStart, defaultValueEnd);
+}
+public void exitType(int declarationEnd) {
+	record(EXIT_TYPE);
+	recordInt(declarationEnd);
+	if (this.requestor != null) this.requestor.exitType(declarationEnd);
+}
+}
@@ -53,7 +53,7 @@ public abstract class ASTNode implements TypeConstants, TypeIds, IASTNode {
 	public final static int Bit17 = 0x10000;			// compound assigned (reference lhs)
 	public final static int Bit18 = 0x20000;			// non null (expression) | onDemand (import reference)
 	public final static int Bit19 = 0x40000;			// didResolve (parameterized qualified type ref/parameterized single type ref)  | empty (javadoc return statement)
-	public final static int Bit20 = 0x80000;
+	public final static int Bit20 = 0x80000;			// has skipped body (method decl)
 	public final static int Bit21 = 0x100000;
 	public final static int Bit22 = 0x200000;			// parenthesis count (expression) | used (import reference)
 	public final static int Bit23 = 0x400000;			// parenthesis count (expression)
@@ -174,6 +174,9 @@ public abstract class ASTNode implements TypeConstants, TypeIds, IASTNode {
 	// for abstract method declaration
 	public static final int NeedFreeReturn = Bit7; // abstract method declaration
 
+	// for method declaration
+	public static final int HasSkippedBody = Bit20; // body jumped over by a diet parse, see Parser#getMethodBodies(CompilationUnitDeclaration)
+
 	// for constructor declaration
 	public static final int IsDefaultConstructor = Bit8;
 
@@ -73,6 +73,7 @@ public class CompilationUnitDeclaration
 
 	public boolean ignoreFurtherInvestigation = false;	// once pointless to investigate due to errors
 	public boolean ignoreMethodBodies = false;
+	public boolean isMinified = false; // only its declarations are processed, see MinifiedSources
 	public CompilationUnitScope scope;
 	public ProblemReporter problemReporter;
 	public CompilationResult compilationResult;
@@ -207,6 +208,7 @@ public class CompilationUnitDeclaration
 				binding.cleanup();
 		}
 		compilationResult.recoveryScannerData = null; // recovery is already done
+		compilationResult.compactLineSeparatorPositions(); // the unit is no longer scanned
 
 
 	}
@@ -1362,6 +1362,7 @@ public class Main implements ProblemSeverities, SuffixConstants {
 	public boolean proceedOnError = false;
 	public boolean produceRefInfo = false;
 	public int repetitions;
+	public int threads;
 
 	public boolean showProgress = false;
 	public long startTime;
@@ -2225,6 +2226,7 @@ public void configure(String[] argv) throws InvalidInputException {
 	final int INSIDE_PROCESSOR_start = 18;
 	final int INSIDE_S_start = 19;
 	final int INSIDE_CLASS_NAMES = 20;
+	final int INSIDE_THREADS = 21;
 
 	final int DEFAULT = 0;
 	ArrayList bootclasspaths = new ArrayList(DEFAULT_SIZE_CLASSPATH);
@@ -2401,6 +2403,13 @@ public void configure(String[] argv) throws InvalidInputException {
 					mode = INSIDE_MAX_PROBLEMS;
 					continue;
 				}
+				if (currentArg.equals("-threads")) { //$NON-NLS-1$
+					if (this.threads > 0)
+						throw new InvalidInputException(
+							this.bind("configure.duplicateThreads", currentArg)); //$NON-NLS-1$
+					mode = INSIDE_THREADS;
+					continue;
+				}
 				if (currentArg.equals("-source")) { //$NON-NLS-1$
 					mode = INSIDE_SOURCE;
 					continue;
@@ -2846,6 +2855,17 @@ public void configure(String[] argv) throws InvalidInputException {
 				}
 				mode = DEFAULT;
 				continue;
+			case INSIDE_THREADS :
+				try {
+					this.threads = Integer.parseInt(currentArg);
+					if (this.threads <= 0) {
+						throw new InvalidInputException(this.bind("configure.threads", currentArg)); //$NON-NLS-1$
+					}
+				} catch (NumberFormatException e) {
+					throw new InvalidInputException(this.bind("configure.threads", currentArg)); //$NON-NLS-1$
+				}
+				mode = DEFAULT;
+				continue;
 			case INSIDE_SOURCE :
 				if (this.didSpecifySource) {
 					throw new InvalidInputException(
@@ -3137,8 +3157,9 @@ public ICompilerRequestor getBatchRequestor() {
 	return new ICompilerRequestor() {
 		int lineDelta = 0;
 		public void acceptResult(CompilationResult compilationResult) {
-			if (compilationResult.lineSeparatorPositions != null) {
-				int unitLineCount = compilationResult.lineSeparatorPositions.length;
+			// the units are cleaned up, so their line separator positions are compacted
+			int unitLineCount = compilationResult.getLineEndTable().length();
+			if (unitLineCount > 0) {
 				Main.this.lineCount += unitLineCount;
 				this.lineDelta += unitLineCount;
 				if (Main.this.showProgress && this.lineDelta > 2000) {
@@ -3298,6 +3319,8 @@ public void performCompilation() throws InvalidInputException {
 			getBatchRequestor(),
 			getProblemFactory(),
 			this.out);
+	if (this.threads > 0)
+		this.batchCompiler.parallelism = this.threads;
 
 	if (this.compilerOptions.complianceLevel >= ClassFileConstants.JDK1_6
 			&& this.compilerOptions.processAnnotations) {
@@ -108,6 +108,8 @@ public class CompilerOptions {
 	public static final String OPTION_ReportOverridingMethodWithoutSuperInvocation =  "org.eclipse.wst.jsdt.core.compiler.problem.overridingMethodWithoutSuperInvocation"; //$NON-NLS-1$
 	public static final String OPTION_GenerateClassFiles = "org.eclipse.wst.jsdt.core.compiler.generateClassFiles"; //$NON-NLS-1$
 	public static final String OPTION_Process_Annotations = "org.eclipse.wst.jsdt.core.compiler.processAnnotations"; //$NON-NLS-1$
+	public static final String OPTION_SkipMinifiedSources = "org.eclipse.wst.jsdt.core.compiler.skipMinifiedSources"; //$NON-NLS-1$
+	public static final String OPTION_SyntaxRecoveryBudget = "org.eclipse.wst.jsdt.core.compiler.syntaxRecoveryBudget"; //$NON-NLS-1$
 
 	/* START -------------------------------- Bug 203292 Type/Method/Filed resolution error configuration --------------------- */
 	public static final String OPTION_Unresolved_Type = JavaScriptCore.UNRESOLVED_TYPE_REFERENCE;
@@ -147,6 +149,7 @@ public class CompilerOptions {
 	public static final String IGNORE = "ignore"; //$NON-NLS-1$
 	public static final String ENABLED = "enabled"; //$NON-NLS-1$
 	public static final String DISABLED = "disabled"; //$NON-NLS-1$
+	public static final String DETECT = "detect"; //$NON-NLS-1$
 	public static final String PUBLIC = "public";	//$NON-NLS-1$
 	public static final String PROTECTED = "protected";	//$NON-NLS-1$
 	public static final String DEFAULT = "default";	//$NON-NLS-1$
@@ -330,6 +333,12 @@ public class CompilerOptions {
 	// Enable annotation processing by default only in batch mode
 	public boolean processAnnotations = false;
 
+	// only process the declarations of the minified sources: DETECT them, ENABLED for all sources or DISABLED
+	public String skipMinifiedSources = DETECT;
+
+	// the number of trial parses allowed to repair the syntax errors of a diagnosed source, past which they are reported without repair (0: unbounded)
+	public int syntaxRecoveryBudget = 10000;
+
 
 	public InferOptions inferOptions=new InferOptions();
 
@@ -442,6 +451,8 @@ public class CompilerOptions {
 		optionsMap.put(OPTION_ReportOverridingMethodWithoutSuperInvocation, getSeverityString(OverridingMethodWithoutSuperInvocation));
 		optionsMap.put(OPTION_GenerateClassFiles, this.generateClassFiles ? ENABLED : DISABLED);
 		optionsMap.put(OPTION_Process_Annotations, this.processAnnotations ? ENABLED : DISABLED);
+		optionsMap.put(OPTION_SkipMinifiedSources, this.skipMinifiedSources);
+		optionsMap.put(OPTION_SyntaxRecoveryBudget, String.valueOf(this.syntaxRecoveryBudget));
 
 		/* START -------------------------------- Bug 203292 Type/Method/Filed resolution error configuration --------------------- */
 		optionsMap.put(OPTION_Unresolved_Type, getSeverityString(UnresolvedType));
@@ -971,6 +982,21 @@ public class CompilerOptions {
 				this.storeAnnotations = false;
 			}
 		}
+		if ((optionValue = optionsMap.get(OPTION_SkipMinifiedSources)) != null) {
+			if (DETECT.equals(optionValue) || ENABLED.equals(optionValue) || DISABLED.equals(optionValue)) {
+				this.skipMinifiedSources = (String) optionValue;
+			}
+		}
+		if ((optionValue = optionsMap.get(OPTION_SyntaxRecoveryBudget)) != null) {
+			if (optionValue instanceof String) {
+				try {
+					int val = Integer.parseInt((String) optionValue);
+					if (val >= 0) this.syntaxRecoveryBudget = val;
+				} catch(NumberFormatException e){
+					// ignore ill-formatted budget
+				}
+			}
+		}
 		inferOptions.set(optionsMap);
 
 	}
@@ -1050,6 +1076,8 @@ public class CompilerOptions {
 		buf.append("\n\t- parameter assignment: ").append(getSeverityString(ParameterAssignment)); //$NON-NLS-1$
 		buf.append("\n\t- generate class files: ").append(this.generateClassFiles ? ENABLED : DISABLED); //$NON-NLS-1$
 		buf.append("\n\t- process annotations: ").append(this.processAnnotations ? ENABLED : DISABLED); //$NON-NLS-1$
+		buf.append("\n\t- skip minified sources: ").append(this.skipMinifiedSources); //$NON-NLS-1$
+		buf.append("\n\t- syntax recovery budget: ").append(this.syntaxRecoveryBudget); //$NON-NLS-1$
 		return buf.toString();
 	}
 
@@ -0,0 +1,935 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.wst.jsdt.core.ast.IFunctionDeclaration;
+import org.eclipse.wst.jsdt.core.infer.IInferEngine;
+import org.eclipse.wst.jsdt.core.infer.InferEngine;
+import org.eclipse.wst.jsdt.core.infer.InferOptions;
+import org.eclipse.wst.jsdt.core.infer.InferredAttribute;
+import org.eclipse.wst.jsdt.core.infer.InferredMethod;
+import org.eclipse.wst.jsdt.core.infer.InferredType;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ASTNode;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AbstractMethodDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AbstractVariableDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Assignment;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.LocalDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.MethodDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ReturnStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SingleNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ThisReference;
+import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
+import org.eclipse.wst.jsdt.internal.compiler.util.ObjectCache;
+import org.eclipse.wst.jsdt.internal.compiler.util.ObjectVector;
+import org.eclipse.wst.jsdt.internal.compiler.util.Util;
+
+/**
+ * A persistent cache of the types inferred for the units brought in by the lookup environment,
+ * e.g. the library files, so that a file which did not change is not inferred again by every
+ * build, reconcile or code assist needing its types, nor after a restart.
+ * <p>
+ * The inferred types of a unit, their attributes and methods, and what the inference engines
+ * set on the parse tree are saved in one file per unit, and restored on a new parse of the same
+ * contents instead of running the engines. The nodes of the tree are identified by their order of
+ * traversal. An entry is identified by the file name of the unit, the hash of its contents, the
+ * version of the cache, the engines with the identifiers of their providers, the inference options
+ * and a fingerprint of the nodes, so that a tree parsed or inferred with other settings misses the
+ * cache. Only the engines inferring through the {@link InferEngine} API are supported, since what
+ * they set is known.
+ * </p><p>
+ * The file of an entry is named after a hash of the file name of its unit, which the entry saves
+ * and checks, so that the units of the same hash never restore the inference of one another.
+ * The entries saved by another version are removed when the cache is created, and the least
+ * recently used ones once there are more than a few thousands.
+ * </p>
+ */
+public class InferredTypesCache {
+
+	private static final int VERSION = 1;
+	private static final String SUFFIX = ".types"; //$NON-NLS-1$
+	private static final String VERSION_FILE = "version"; //$NON-NLS-1$
+
+	private static final int MAX_ENTRIES = 4000; // the entries kept in the directory
+
+	private File directory;
+	private String version;
+	private int savedCount; // the entries saved since the least recently used ones were removed
+
+	/*
+	 * Collects the nodes of a parse tree in the order of their traversal, with their bits and a
+	 * fingerprint of their classes, positions and bits.
+	 */
+	private static class NodeCollector extends NodeVisitor {
+		ASTNode[] nodes = new ASTNode[256];
+		int[] bits = new int[256];
+		int nodeCount = 0;
+		long fingerprint = 0xcbf29ce484222325L;
+
+		boolean visitNode(ASTNode node) {
+			if (this.nodeCount == this.nodes.length) {
+				System.arraycopy(this.nodes, 0, this.nodes = new ASTNode[this.nodeCount * 2], 0, this.nodeCount);
+				System.arraycopy(this.bits, 0, this.bits = new int[this.nodeCount * 2], 0, this.nodeCount);
+			}
+			this.nodes[this.nodeCount] = node;
+			this.bits[this.nodeCount++] = node.bits;
+			long hash = this.fingerprint;
+			hash = (hash ^ node.getClass().getName().hashCode()) * 0x100000001b3L;
+			hash = (hash ^ node.sourceStart) * 0x100000001b3L;
+			hash = (hash ^ node.sourceEnd) * 0x100000001b3L;
+			this.fingerprint = (hash ^ node.bits) * 0x100000001b3L;
+			return true;
+		}
+	}
+
+	/**
+	 * The inference of a unit, which can be restored from the cache before running the engines,
+	 * or saved after running them.
+	 */
+	public class Entry {
+		CompilationUnitDeclaration unit;
+		String path; // the file name of the unit, also saved in the entry since its file is named after its hash
+		long contentHash;
+		int contentLength;
+		String settings;
+		ASTNode[] nodes;
+		int nodeCount;
+		int[] initialBits; // the bits of the nodes before the inference
+		long fingerprint;
+
+		// when saving, the nodes chained by their end, and the objects to write in the order of their identifiers
+		int[] firstNodes, nextNodes;
+		ObjectVector types, attributes, methods;
+		ObjectCache typeIds, attributeIds, methodIds;
+		// the nodes set by the inference which are not in the tree any longer, see LocalDeclaration#getAssignment()
+		ObjectCache aliasIndexes;
+		ASTNode[] aliases;
+		ObjectVector pending;
+		// the bytes read or written
+		byte[] buffer;
+		int position;
+
+		Entry(CompilationUnitDeclaration unit, String path, char[] source, String settings, NodeCollector collector) {
+			this.unit = unit;
+			this.path = path;
+			this.contentHash = Util.hash64(source);
+			this.contentLength = source.length;
+			this.settings = settings;
+			this.nodes = collector.nodes;
+			this.nodeCount = collector.nodeCount;
+			this.initialBits = collector.bits;
+			this.fingerprint = collector.fingerprint;
+		}
+
+		/**
+		 * Restores the inference saved for the same unit, answers whether it was restored.
+		 * The unit is left untouched if it was not.
+		 */
+		public boolean restore() {
+			this.buffer = read(this.path);
+			if (this.buffer == null) return false;
+			this.position = 0;
+			try {
+				if (readInt() != VERSION
+						|| !this.path.equals(readString())
+						|| readLong() != this.contentHash
+						|| readInt() != this.contentLength
+						|| !this.settings.equals(readString())
+						|| readInt() != this.nodeCount
+						|| readLong() != this.fingerprint)
+					return false;
+				return restoreInference();
+			} catch (RuntimeException e) {
+				// not written by this version
+				return false;
+			} finally {
+				this.buffer = null;
+			}
+		}
+
+		/**
+		 * Saves the inference of the unit, unless the engines set what cannot be restored.
+		 */
+		public void save() {
+			if (!collectInference()) return;
+			this.buffer = new byte[this.nodeCount * 4 + 1024];
+			this.position = 0;
+			writeInt(VERSION);
+			writeString(this.path);
+			writeLong(this.contentHash);
+			writeInt(this.contentLength);
+			writeString(this.settings);
+			writeInt(this.nodeCount);
+			writeLong(this.fingerprint);
+			saveInference();
+			try {
+				write(this.path, this.buffer, this.position);
+			} catch (IOException e) {
+				// not cached
+			} finally {
+				this.buffer = null;
+			}
+		}
+
+		/*
+		 * The integers are written in 7 bits groups, so that the small ones take one byte:
+		 * -1 which stands for null, the identifiers, the counts and the characters.
+		 */
+		private void writeInt(int value) {
+			if (this.position + 5 > this.buffer.length)
+				System.arraycopy(this.buffer, 0, this.buffer = new byte[this.buffer.length * 2], 0, this.position);
+			int bits = value + 1;
+			while ((bits & ~0x7F) != 0) {
+				this.buffer[this.position++] = (byte) (bits & 0x7F | 0x80);
+				bits >>>= 7;
+			}
+			this.buffer[this.position++] = (byte) bits;
+		}
+		private int readInt() {
+			int bits = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = this.buffer[this.position++];
+				bits |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			return bits - 1;
+		}
+		private void writeLong(long value) {
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+		private long readLong() {
+			return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+		}
+		private void writeBoolean(boolean value) {
+			writeInt(value ? 1 : 0);
+		}
+		private boolean readBoolean() {
+			return readInt() != 0;
+		}
+		private void writeChars(char[] chars) {
+			if (chars == null) {
+				writeInt(-1);
+				return;
+			}
+			writeInt(chars.length);
+			for (int i = 0; i < chars.length; i++)
+				writeInt(chars[i]);
+		}
+		private char[] readChars() {
+			int length = readInt();
+			if (length < 0) return null;
+			char[] chars = new char[length];
+			for (int i = 0; i < length; i++)
+				chars[i] = (char) readInt();
+			return chars;
+		}
+		private void writeString(String string) {
+			writeChars(string == null ? null : string.toCharArray());
+		}
+		private String readString() {
+			char[] chars = readChars();
+			return chars == null ? null : new String(chars);
+		}
+
+		/*
+		 * Collects the types, attributes and methods to save, answers false if the inference
+		 * cannot be restored.
+		 */
+		private boolean collectInference() {
+			// the nodes are looked up by their end, hashing all of them would cost more than the inference
+			int tableSize = 1;
+			while (tableSize < this.nodeCount) tableSize <<= 1;
+			this.firstNodes = new int[tableSize];
+			for (int i = 0; i < tableSize; i++)
+				this.firstNodes[i] = -1;
+			this.nextNodes = new int[this.nodeCount];
+			for (int i = this.nodeCount; --i >= 0;) {
+				int bucket = this.nodes[i].sourceEnd & (tableSize - 1);
+				this.nextNodes[i] = this.firstNodes[bucket];
+				this.firstNodes[bucket] = i;
+			}
+			this.types = new ObjectVector();
+			this.attributes = new ObjectVector();
+			this.methods = new ObjectVector();
+			this.typeIds = new ObjectCache();
+			this.attributeIds = new ObjectCache();
+			this.methodIds = new ObjectCache();
+			this.aliasIndexes = new ObjectCache();
+			this.aliases = new ASTNode[this.nodeCount];
+			this.pending = new ObjectVector();
+
+			CompilationUnitDeclaration unitDeclaration = this.unit;
+			for (int i = 0; i < unitDeclaration.numberInferredTypes; i++)
+				addType(unitDeclaration.inferredTypes[i]);
+			if (!addTypes(unitDeclaration.inferredTypesHash)) return false;
+			for (int i = 0; i < this.nodeCount; i++)
+				if (!addInferenceOf(this.nodes[i])) return false;
+
+			while (this.pending.size > 0) {
+				Object object = this.pending.remove(this.pending.elementAt(this.pending.size - 1));
+				if (object instanceof InferredType) {
+					InferredType type = (InferredType) object;
+					if (type.userData != null || type.binding != null || type.scope != null) return false;
+					addType(type.superClass);
+					addType(type.referenceClass);
+					if (!isNode(type.getCorrespondingFunction())) return false;
+					InferredType[] synonyms = type.getSynonyms();
+					if (synonyms != null)
+						for (int i = 0; i < synonyms.length; i++)
+							addType(synonyms[i]);
+					if (type.mixins != null)
+						for (int i = 0, size = type.mixins.size(); i < size; i++)
+							if (!(type.mixins.get(i) instanceof char[])) return false;
+					for (int i = 0; i < type.numberAttributes; i++)
+						addAttribute(type.attributes[i]);
+					if (!addAttributes(type.attributesHash)) return false;
+					if (type.methods != null)
+						for (int i = 0, size = type.methods.size(); i < size; i++) {
+							Object method = type.methods.get(i);
+							if (!(method instanceof InferredMethod)) return false;
+							addMethod((InferredMethod) method);
+						}
+				} else if (object instanceof InferredAttribute) {
+					InferredAttribute attribute = (InferredAttribute) object;
+					if (attribute.binding != null || !isNode(attribute.node)) return false;
+					addType(attribute.inType);
+					addType(attribute.type);
+				} else {
+					InferredMethod method = (InferredMethod) object;
+					if (method.methodBinding != null || !isNode(method.getFunctionDeclaration())) return false;
+					addType(method.inType);
+				}
+			}
+			return true;
+		}
+		private void addType(InferredType type) {
+			if (type != null && !this.typeIds.containsKey(type)) {
+				this.typeIds.put(type, this.types.size);
+				this.types.add(type);
+				this.pending.add(type);
+			}
+		}
+		private boolean addTypes(HashtableOfObject table) {
+			for (int i = 0, length = table.valueTable.length; i < length; i++) {
+				Object value = table.valueTable[i];
+				if (value == null) continue;
+				if (!(value instanceof InferredType)) return false;
+				addType((InferredType) value);
+			}
+			return true;
+		}
+		private void addAttribute(InferredAttribute attribute) {
+			if (attribute != null && !this.attributeIds.containsKey(attribute)) {
+				this.attributeIds.put(attribute, this.attributes.size);
+				this.attributes.add(attribute);
+				this.pending.add(attribute);
+			}
+		}
+		private boolean addAttributes(HashtableOfObject table) {
+			for (int i = 0, length = table.valueTable.length; i < length; i++) {
+				Object value = table.valueTable[i];
+				if (value == null) continue;
+				if (!(value instanceof InferredAttribute)) return false;
+				addAttribute((InferredAttribute) value);
+			}
+			return true;
+		}
+		private void addMethod(InferredMethod method) {
+			if (method != null && !this.methodIds.containsKey(method)) {
+				this.methodIds.put(method, this.methods.size);
+				this.methods.add(method);
+				this.pending.add(method);
+			}
+		}
+		/*
+		 * Adds the types and methods the inference set on the given node.
+		 */
+		private boolean addInferenceOf(ASTNode node) {
+			if (node instanceof AbstractMethodDeclaration) {
+				AbstractMethodDeclaration method = (AbstractMethodDeclaration) node;
+				addType(method.inferredType);
+				addMethod(method.inferredMethod);
+				return isNode(method.getContainingFunction());
+			}
+			if (node instanceof AbstractVariableDeclaration) {
+				addType(((AbstractVariableDeclaration) node).inferredType);
+			} else if (node instanceof Assignment) {
+				Assignment assignment = (Assignment) node;
+				addType(assignment.inferredType);
+				return isNode(assignment.getContainingFunction());
+			} else if (node instanceof ObjectLiteral) {
+				addType(((ObjectLiteral) node).inferredType);
+			} else if (node instanceof ReturnStatement) {
+				addType(((ReturnStatement) node).getInferredType());
+			} else if (node instanceof ThisReference) {
+				addType(((ThisReference) node).getInferredType());
+			}
+			return true;
+		}
+		/*
+		 * Answers whether the given node can be saved. The assignments of the local declarations
+		 * are created again at each traversal, so the ones set by the inference stand for the ones
+		 * of the same declarations collected before it.
+		 */
+		private boolean isNode(Object node) {
+			if (node == null || indexOf(node) >= 0 || this.aliasIndexes.containsKey(node))
+				return true;
+			if (!(node instanceof Assignment)) return false;
+			Assignment alias = (Assignment) node;
+			if (!(alias.lhs instanceof SingleNameReference)) return false;
+			int index = indexOf(alias.expression);
+			if (index <= 0) return false;
+			// the assignment of the declaration precedes its initialization
+			while (--index >= 0 && !(this.nodes[index] instanceof LocalDeclaration)) {
+				ASTNode candidate = this.nodes[index];
+				if (candidate instanceof Assignment
+						&& ((Assignment) candidate).expression == alias.expression
+						&& candidate.sourceStart == alias.sourceStart
+						&& candidate.sourceEnd == alias.sourceEnd) {
+					if (this.aliases[index] != null) return false; // the inference set two of them
+					this.aliases[index] = alias;
+					this.aliasIndexes.put(alias, index);
+					return addInferenceOf(alias);
+				}
+			}
+			return false;
+		}
+		/*
+		 * Returns the first index of the given node in the tree, or -1 if it is not in the tree.
+		 */
+		private int indexOf(Object node) {
+			if (!(node instanceof ASTNode)) return -1;
+			int index = this.firstNodes[((ASTNode) node).sourceEnd & (this.firstNodes.length - 1)];
+			while (index >= 0 && this.nodes[index] != node)
+				index = this.nextNodes[index];
+			return index;
+		}
+		private int nodeIndex(Object node) {
+			if (node == null) return -1;
+			int index = indexOf(node);
+			return index >= 0 ? index : this.aliasIndexes.get(node);
+		}
+		private int id(ObjectCache ids, Object object) {
+			return object == null ? -1 : ids.get(object);
+		}
+
+		private void saveInference() {
+			// the objects, so that they can be referenced
+			int typeCount = this.types.size;
+			writeInt(typeCount);
+			for (int i = 0; i < typeCount; i++)
+				writeChars(((InferredType) this.types.elementAt(i)).getName());
+			int attributeCount = this.attributes.size;
+			writeInt(attributeCount);
+			for (int i = 0; i < attributeCount; i++) {
+				InferredAttribute attribute = (InferredAttribute) this.attributes.elementAt(i);
+				writeChars(attribute.name);
+				writeInt(id(this.typeIds, attribute.inType));
+				writeInt(attribute.sourceStart);
+				writeInt(attribute.sourceEnd);
+			}
+			int methodCount = this.methods.size;
+			writeInt(methodCount);
+			for (int i = 0; i < methodCount; i++) {
+				InferredMethod method = (InferredMethod) this.methods.elementAt(i);
+				writeChars(method.name);
+				writeInt(nodeIndex(method.getFunctionDeclaration()));
+				writeInt(id(this.typeIds, method.inType));
+			}
+
+			for (int i = 0; i < typeCount; i++) {
+				InferredType type = (InferredType) this.types.elementAt(i);
+				writeInt(type.sourceStart);
+				writeInt(type.sourceEnd);
+				writeInt(type.bits);
+				writeInt(type.getNameStart());
+				writeInt(type.modifiers);
+				writeBoolean(type.isDefinition());
+				writeBoolean(type.isArray);
+				writeBoolean(type.isAnonymous);
+				writeBoolean(type.isObjectLiteral);
+				writeBoolean(type.isGlobal());
+				writeString(type.inferenceProviderID);
+				writeString(type.inferenceStyle);
+				writeInt(id(this.typeIds, type.superClass));
+				writeInt(id(this.typeIds, type.referenceClass));
+				writeInt(nodeIndex(type.getCorrespondingFunction()));
+				InferredType[] synonyms = type.getSynonyms();
+				if (synonyms == null) {
+					writeInt(-1);
+				} else {
+					writeInt(synonyms.length);
+					for (int j = 0; j < synonyms.length; j++)
+						writeInt(id(this.typeIds, synonyms[j]));
+				}
+				if (type.mixins == null) {
+					writeInt(-1);
+				} else {
+					writeInt(type.mixins.size());
+					for (int j = 0, size = type.mixins.size(); j < size; j++)
+						writeChars((char[]) type.mixins.get(j));
+				}
+				writeInt(type.attributes == null ? -1 : type.attributes.length);
+				writeInt(type.numberAttributes);
+				for (int j = 0; j < type.numberAttributes; j++)
+					writeInt(id(this.attributeIds, type.attributes[j]));
+				HashtableOfObject attributesHash = type.attributesHash;
+				writeInt(attributesHash.elementSize);
+				for (int j = 0, length = attributesHash.keyTable.length; j < length; j++) {
+					if (attributesHash.keyTable[j] == null) continue;
+					writeChars(attributesHash.keyTable[j]);
+					writeInt(id(this.attributeIds, attributesHash.valueTable[j]));
+				}
+				if (type.methods == null) {
+					writeInt(-1);
+				} else {
+					writeInt(type.methods.size());
+					for (int j = 0, size = type.methods.size(); j < size; j++)
+						writeInt(id(this.methodIds, type.methods.get(j)));
+				}
+			}
+			for (int i = 0; i < attributeCount; i++) {
+				InferredAttribute attribute = (InferredAttribute) this.attributes.elementAt(i);
+				writeInt(attribute.nameStart);
+				writeBoolean(attribute.isStatic);
+				writeInt(attribute.bits);
+				writeInt(attribute.initializationStart);
+				writeInt(id(this.typeIds, attribute.type));
+				writeInt(nodeIndex(attribute.node));
+				writeInt(attribute.modifiers);
+				writeBoolean(attribute.isType());
+			}
+			for (int i = 0; i < methodCount; i++) {
+				InferredMethod method = (InferredMethod) this.methods.elementAt(i);
+				writeInt(method.nameStart);
+				writeBoolean(method.isStatic);
+				writeInt(method.bits);
+				writeInt(method.sourceStart);
+				writeInt(method.sourceEnd);
+				writeBoolean(method.isConstructor);
+			}
+
+			// the types of the unit
+			CompilationUnitDeclaration unitDeclaration = this.unit;
+			writeInt(unitDeclaration.inferredTypes.length);
+			writeInt(unitDeclaration.numberInferredTypes);
+			for (int i = 0; i < unitDeclaration.numberInferredTypes; i++)
+				writeInt(id(this.typeIds, unitDeclaration.inferredTypes[i]));
+			HashtableOfObject inferredTypesHash = unitDeclaration.inferredTypesHash;
+			writeInt(inferredTypesHash.elementSize);
+			for (int i = 0, length = inferredTypesHash.keyTable.length; i < length; i++) {
+				if (inferredTypesHash.keyTable[i] == null) continue;
+				writeChars(inferredTypesHash.keyTable[i]);
+				writeInt(id(this.typeIds, inferredTypesHash.valueTable[i]));
+			}
+
+			// what the inference set on the nodes
+			int recordCount = 0;
+			for (int i = 0; i < this.nodeCount; i++)
+				if (isInferred(i)) recordCount++;
+			writeInt(recordCount);
+			for (int i = 0; i < this.nodeCount; i++) {
+				if (!isInferred(i)) continue;
+				ASTNode node = this.aliases[i] != null ? this.aliases[i] : this.nodes[i];
+				writeInt(i);
+				writeInt(node.bits);
+				if (node instanceof AbstractMethodDeclaration) {
+					AbstractMethodDeclaration method = (AbstractMethodDeclaration) node;
+					writeInt(method.sourceStart);
+					writeInt(method.sourceEnd);
+					writeInt(id(this.typeIds, method.inferredType));
+					writeInt(id(this.methodIds, method.inferredMethod));
+					writeInt(nodeIndex(method.getContainingFunction()));
+					writeBoolean(method.isAnonymous());
+					// the name of the function is its selector when it has no inferred method
+					InferredMethod inferredMethod = method.inferredMethod;
+					method.inferredMethod = null;
+					writeChars(method.getName());
+					method.inferredMethod = inferredMethod;
+				} else if (node instanceof AbstractVariableDeclaration) {
+					AbstractVariableDeclaration variable = (AbstractVariableDeclaration) node;
+					writeInt(id(this.typeIds, variable.inferredType));
+					writeBoolean(variable.isType());
+					if (node instanceof LocalDeclaration)
+						writeBoolean(((LocalDeclaration) node).isLocal());
+				} else if (node instanceof Assignment) {
+					Assignment assignment = (Assignment) node;
+					writeInt(id(this.typeIds, assignment.inferredType));
+					writeInt(nodeIndex(assignment.getContainingFunction()));
+					writeBoolean(assignment.isType());
+				} else if (node instanceof ObjectLiteral) {
+					writeInt(id(this.typeIds, ((ObjectLiteral) node).inferredType));
+				} else if (node instanceof ReturnStatement) {
+					ReturnStatement returnStatement = (ReturnStatement) node;
+					writeInt(id(this.typeIds, returnStatement.getInferredType()));
+					writeBoolean(returnStatement.isType());
+				} else if (node instanceof ThisReference) {
+					writeInt(id(this.typeIds, ((ThisReference) node).getInferredType()));
+				}
+			}
+		}
+		/*
+		 * Answers whether the inference set something on the node of the given index.
+		 */
+		private boolean isInferred(int index) {
+			ASTNode node = this.aliases[index] != null ? this.aliases[index] : this.nodes[index];
+			if (node.bits != this.initialBits[index]
+					|| node instanceof AbstractMethodDeclaration
+					|| node instanceof LocalDeclaration)
+				return true;
+			if (node instanceof AbstractVariableDeclaration) {
+				AbstractVariableDeclaration variable = (AbstractVariableDeclaration) node;
+				return variable.inferredType != null || variable.isType();
+			}
+			if (node instanceof Assignment) {
+				Assignment assignment = (Assignment) node;
+				return assignment.inferredType != null || assignment.getContainingFunction() != null || assignment.isType();
+			}
+			if (node instanceof ObjectLiteral)
+				return ((ObjectLiteral) node).inferredType != null;
+			if (node instanceof ReturnStatement) {
+				ReturnStatement returnStatement = (ReturnStatement) node;
+				return returnStatement.getInferredType() != null || returnStatement.isType();
+			}
+			if (node instanceof ThisReference)
+				return ((ThisReference) node).getInferredType() != null;
+			return false;
+		}
+
+		private boolean restoreInference() {
+			// the objects, so that they can be referenced
+			InferredType[] restoredTypes = new InferredType[readInt()];
+			for (int i = 0; i < restoredTypes.length; i++)
+				restoredTypes[i] = new InferredType(readChars());
+			InferredAttribute[] restoredAttributes = new InferredAttribute[readInt()];
+			for (int i = 0; i < restoredAttributes.length; i++) {
+				char[] name = readChars();
+				InferredType inType = (InferredType) get(restoredTypes, readInt());
+				restoredAttributes[i] = new InferredAttribute(name, inType, readInt(), readInt());
+			}
+			InferredMethod[] restoredMethods = new InferredMethod[readInt()];
+			for (int i = 0; i < restoredMethods.length; i++) {
+				char[] name = readChars();
+				MethodDeclaration declaration = (MethodDeclaration) this.nodes[readInt()];
+				restoredMethods[i] = new InferredMethod(name, declaration, (InferredType) get(restoredTypes, readInt()));
+			}
+
+			int[] synonymCounts = new int[restoredTypes.length];
+			for (int i = 0; i < restoredTypes.length; i++) {
+				InferredType type = restoredTypes[i];
+				type.sourceStart = readInt();
+				type.sourceEnd = readInt();
+				type.bits = readInt();
+				int nameStart = readInt();
+				if (nameStart != type.sourceStart)
+					type.setNameStart(nameStart);
+				type.modifiers = readInt();
+				type.setIsDefinition(readBoolean());
+				type.isArray = readBoolean();
+				type.isAnonymous = readBoolean();
+				type.isObjectLiteral = readBoolean();
+				type.setIsGlobal(readBoolean());
+				type.inferenceProviderID = readString();
+				type.inferenceStyle = readString();
+				type.superClass = (InferredType) get(restoredTypes, readInt());
+				type.referenceClass = (InferredType) get(restoredTypes, readInt());
+				type.setCorrespondingFunction((IFunctionDeclaration) get(this.nodes, readInt()));
+				int count = readInt();
+				synonymCounts[i] = count;
+				for (int j = 0; j < count; j++)
+					type.addSynonym((InferredType) get(restoredTypes, readInt()));
+				count = readInt();
+				if (count >= 0) {
+					type.mixins = new ArrayList(count);
+					for (int j = 0; j < count; j++)
+						type.mixins.add(readChars());
+				}
+				int length = readInt();
+				type.attributes = length < 0 ? null : new InferredAttribute[length];
+				type.numberAttributes = readInt();
+				for (int j = 0; j < type.numberAttributes; j++)
+					type.attributes[j] = (InferredAttribute) get(restoredAttributes, readInt());
+				count = readInt();
+				if (count > 0) { // else the new table of the type is kept
+					type.attributesHash = new HashtableOfObject(count);
+					for (int j = 0; j < count; j++)
+						type.attributesHash.put(readChars(), get(restoredAttributes, readInt()));
+				}
+				count = readInt();
+				if (count >= 0) {
+					type.methods = new ArrayList(count);
+					for (int j = 0; j < count; j++)
+						type.methods.add(get(restoredMethods, readInt()));
+				}
+			}
+			for (int i = 0; i < restoredAttributes.length; i++) {
+				InferredAttribute attribute = restoredAttributes[i];
+				attribute.nameStart = readInt();
+				attribute.isStatic = readBoolean();
+				attribute.bits = readInt();
+				attribute.initializationStart = readInt();
+				attribute.type = (InferredType) get(restoredTypes, readInt());
+				attribute.node = (ASTNode) get(this.nodes, readInt());
+				attribute.modifiers = readInt();
+				attribute.setIsType(readBoolean());
+			}
+			for (int i = 0; i < restoredMethods.length; i++) {
+				InferredMethod method = restoredMethods[i];
+				method.nameStart = readInt();
+				method.isStatic = readBoolean();
+				method.bits = readInt();
+				method.sourceStart = readInt();
+				method.sourceEnd = readInt();
+				method.isConstructor = readBoolean();
+			}
+			// the synonyms are checked against the names and super types when added
+			for (int i = 0; i < restoredTypes.length; i++) {
+				InferredType[] synonyms = restoredTypes[i].getSynonyms();
+				if ((synonyms == null ? -1 : synonyms.length) != synonymCounts[i])
+					return false;
+			}
+
+			InferredType[] inferredTypes = new InferredType[readInt()];
+			int numberInferredTypes = readInt();
+			for (int i = 0; i < numberInferredTypes; i++)
+				inferredTypes[i] = (InferredType) get(restoredTypes, readInt());
+			int count = readInt();
+			HashtableOfObject inferredTypesHash = new HashtableOfObject(count);
+			for (int i = 0; i < count; i++)
+				inferredTypesHash.put(readChars(), get(restoredTypes, readInt()));
+
+			// what the inference set on the nodes, read before setting any of it
+			int recordCount = readInt();
+			ASTNode[] recordNodes = new ASTNode[recordCount];
+			int[] bits = new int[recordCount];
+			int[] positions = new int[recordCount * 2];
+			InferredType[] types = new InferredType[recordCount];
+			InferredMethod[] inferredMethods = new InferredMethod[recordCount];
+			IFunctionDeclaration[] containingFunctions = new IFunctionDeclaration[recordCount];
+			boolean[] isTypes = new boolean[recordCount]; // or is anonymous for the functions
+			boolean[] isLocals = new boolean[recordCount];
+			char[][] selectors = new char[recordCount][];
+			for (int i = 0; i < recordCount; i++) {
+				ASTNode node = recordNodes[i] = this.nodes[readInt()];
+				bits[i] = readInt();
+				if (node instanceof AbstractMethodDeclaration) {
+					positions[i * 2] = readInt();
+					positions[i * 2 + 1] = readInt();
+					types[i] = (InferredType) get(restoredTypes, readInt());
+					inferredMethods[i] = (InferredMethod) get(restoredMethods, readInt());
+					containingFunctions[i] = (IFunctionDeclaration) get(this.nodes, readInt());
+					isTypes[i] = readBoolean();
+					selectors[i] = readChars();
+				} else if (node instanceof AbstractVariableDeclaration) {
+					types[i] = (InferredType) get(restoredTypes, readInt());
+					isTypes[i] = readBoolean();
+					if (node instanceof LocalDeclaration)
+						isLocals[i] = readBoolean();
+				} else if (node instanceof Assignment) {
+					types[i] = (InferredType) get(restoredTypes, readInt());
+					containingFunctions[i] = (IFunctionDeclaration) get(this.nodes, readInt());
+					isTypes[i] = readBoolean();
+				} else if (node instanceof ObjectLiteral || node instanceof ThisReference) {
+					types[i] = (InferredType) get(restoredTypes, readInt());
+				} else if (node instanceof ReturnStatement) {
+					types[i] = (InferredType) get(restoredTypes, readInt());
+					isTypes[i] = readBoolean();
+				}
+			}
+			if (this.position != this.buffer.length) return false;
+
+			CompilationUnitDeclaration unitDeclaration = this.unit;
+			unitDeclaration.inferredTypes = inferredTypes;
+			unitDeclaration.numberInferredTypes = numberInferredTypes;
+			unitDeclaration.inferredTypesHash = inferredTypesHash;
+			for (int i = 0; i < recordCount; i++) {
+				ASTNode node = recordNodes[i];
+				node.bits = bits[i];
+				if (node instanceof AbstractMethodDeclaration) {
+					AbstractMethodDeclaration method = (AbstractMethodDeclaration) node;
+					method.sourceStart = positions[i * 2];
+					method.sourceEnd = positions[i * 2 + 1];
+					method.inferredType = types[i];
+					method.inferredMethod = inferredMethods[i];
+					method.setContainingFunction(containingFunctions[i]);
+					method.setSelector(selectors[i]);
+					// a function without a name is anonymous whatever its flag
+					if (method.getName() != null)
+						method.setIsAnonymous(isTypes[i]);
+				} else if (node instanceof AbstractVariableDeclaration) {
+					AbstractVariableDeclaration variable = (AbstractVariableDeclaration) node;
+					variable.inferredType = types[i];
+					variable.setIsType(isTypes[i]);
+					if (node instanceof LocalDeclaration)
+						((LocalDeclaration) node).setIsLocal(isLocals[i]);
+				} else if (node instanceof Assignment) {
+					Assignment assignment = (Assignment) node;
+					assignment.inferredType = types[i];
+					assignment.setContainingFunction(containingFunctions[i]);
+					assignment.setIsType(isTypes[i]);
+				} else if (node instanceof ObjectLiteral) {
+					((ObjectLiteral) node).inferredType = types[i];
+				} else if (node instanceof ReturnStatement) {
+					((ReturnStatement) node).setInferredType(types[i]);
+					((ReturnStatement) node).setIsType(isTypes[i]);
+				} else if (node instanceof ThisReference) {
+					((ThisReference) node).setInferredType(types[i]);
+				}
+			}
+			return true;
+		}
+	}
+
+/**
+ * Creates a cache saving its entries in the given directory. The given version, e.g. the one of
+ * the inference engines, identifies the entries it restores, the ones of another version are removed.
+ */
+public InferredTypesCache(File directory, String version) {
+	this.directory = directory;
+	this.version = version;
+	checkVersion();
+	prune();
+}
+/**
+ * Returns the entry of the given unit parsed from the given source and inferred by the given
+ * engines, or null if its inference cannot be cached.
+ */
+public Entry getEntry(CompilationUnitDeclaration unit, char[] source, IInferEngine[] engines, InferOptions options) {
+	char[] fileName = unit.getFileName();
+	if (fileName == null || source == null || unit.ignoreFurtherInvestigation)
+		return null;
+	String settings = getSettings(this.version, engines, options);
+	if (settings == null) return null;
+	NodeCollector collector = new NodeCollector();
+	unit.traverse(collector, null, false);
+	return new Entry(unit, new String(fileName), source, settings, collector);
+}
+/*
+ * Returns the settings of the given engines, or null if they are not supported.
+ */
+private static String getSettings(String version, IInferEngine[] engines, InferOptions options) {
+	StringBuffer buffer = new StringBuffer(version).append(';');
+	for (int i = 0; i < engines.length; i++) {
+		if (!(engines[i] instanceof InferEngine)) return null;
+		InferEngine engine = (InferEngine) engines[i];
+		buffer.append(engine.getClass().getName()).append('/');
+		if (engine.inferenceProvider != null)
+			buffer.append(engine.inferenceProvider.getID());
+		buffer.append(';');
+	}
+	buffer.append(options.useAssignments).append(',');
+	buffer.append(options.useInitMethod).append(',');
+	buffer.append(options.saveArgumentComments).append(',');
+	buffer.append(options.docLocation).append(',');
+	buffer.append(options.engineClass);
+	if (options.systemClassMethod != null)
+		for (int i = 0; i < options.systemClassMethod.length; i++)
+			buffer.append(',').append(options.systemClassMethod[i]);
+	return buffer.toString();
+}
+private File getFile(String path) {
+	return new File(this.directory, Long.toHexString(Util.hash64(path.toCharArray())) + SUFFIX);
+}
+private synchronized byte[] read(String path) {
+	File file = getFile(path);
+	if (!file.exists()) return null;
+	try {
+		byte[] bytes = Util.getFileByteContent(file);
+		// the entries are removed in the order of their last use, see prune()
+		file.setLastModified(System.currentTimeMillis());
+		return bytes;
+	} catch (IOException e) {
+		return null;
+	}
+}
+private synchronized void write(String path, byte[] bytes, int length) throws IOException {
+	if (!this.directory.exists() && !this.directory.mkdirs()) return;
+	if (++this.savedCount > MAX_ENTRIES / 4)
+		prune();
+	File file = getFile(path);
+	File temporaryFile = new File(this.directory, file.getName() + ".tmp"); //$NON-NLS-1$
+	FileOutputStream stream = new FileOutputStream(temporaryFile);
+	try {
+		stream.write(bytes, 0, length);
+	} finally {
+		stream.close();
+	}
+	// a reader never sees a partly written file
+	file.delete();
+	if (!temporaryFile.renameTo(file))
+		temporaryFile.delete();
+}
+/*
+ * Removes the entries saved by another version, which are never restored, and records this version.
+ */
+private synchronized void checkVersion() {
+	File versionFile = new File(this.directory, VERSION_FILE);
+	try {
+		if (versionFile.exists() && this.version.equals(new String(Util.getFileByteContent(versionFile), "UTF-8"))) //$NON-NLS-1$
+			return;
+		flush();
+		if (!this.directory.exists() && !this.directory.mkdirs()) return;
+		FileOutputStream stream = new FileOutputStream(versionFile);
+		try {
+			stream.write(this.version.getBytes("UTF-8")); //$NON-NLS-1$
+		} finally {
+			stream.close();
+		}
+	} catch (IOException e) {
+		// checked again on the next creation
+	}
+}
+/*
+ * Removes the least recently used entries once there are more than MAX_ENTRIES, down to
+ * three quarters of it so that the next entries are saved without listing the directory.
+ */
+private synchronized void prune() {
+	this.savedCount = 0;
+	File[] files = this.directory.listFiles();
+	if (files == null) return;
+	int count = 0;
+	long[] lastUses = new long[files.length];
+	for (int i = 0; i < files.length; i++)
+		if (files[i].getName().endsWith(SUFFIX))
+			lastUses[count++] = files[i].lastModified();
+	if (count <= MAX_ENTRIES) return;
+	long[] sortedLastUses = new long[count];
+	System.arraycopy(lastUses, 0, sortedLastUses, 0, count);
+	Arrays.sort(sortedLastUses);
+	long oldestKept = sortedLastUses[count - MAX_ENTRIES * 3 / 4];
+	for (int i = 0; i < files.length; i++)
+		if (files[i].getName().endsWith(SUFFIX) && files[i].lastModified() < oldestKept)
+			files[i].delete();
+}
+/**
+ * Removes the saved inferences.
+ */
+public synchronized void flush() {
+	File[] files = this.directory.listFiles();
+	if (files == null) return;
+	for (int i = 0; i < files.length; i++)
+		if (files[i].getName().endsWith(SUFFIX))
+			files[i].delete();
+}
+private static Object get(Object[] objects, int index) {
+	return index < 0 ? null : objects[index];
+}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser;
+
+/**
+ * Counters describing the time saved by processing only the declarations of the minified sources.
+ * <p>
+ * The units are counted per stage (compile, reconcile, indexing), separately for the minified units
+ * and for the other units. The saved time is an estimate: the characters of the minified units
+ * at the cost per character of the other units, minus the time spent on the minified units.
+ * </p>
+ * <p>
+ * Every stage records into {@link MinifiedSources#STATISTICS}. The getters answer copies of the
+ * counters, so they can be read while units are processed.
+ * </p>
+ */
+public class MinifiedSourceStatistics {
+
+public static final int COMPILE = 0;
+public static final int RECONCILE = 1;
+public static final int INDEXING = 2;
+static final String[] STAGE_NAMES = {"compile", "reconcile", "indexing"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+/**
+ * The units processed by a stage.
+ */
+public static class Counter {
+
+public final String stage;
+public int units;
+public long characters;
+public long millis;
+public int minifiedUnits;
+public long minifiedCharacters;
+public long minifiedMillis;
+
+Counter(String stage) {
+	this.stage = stage;
+}
+Counter copy() {
+	Counter copy = new Counter(this.stage);
+	copy.units = this.units;
+	copy.characters = this.characters;
+	copy.millis = this.millis;
+	copy.minifiedUnits = this.minifiedUnits;
+	copy.minifiedCharacters = this.minifiedCharacters;
+	copy.minifiedMillis = this.minifiedMillis;
+	return copy;
+}
+public long estimatedSavedMillis() {
+	if (this.characters == 0) return 0;
+	long fullMillis = (long) ((double) this.minifiedCharacters * this.millis / this.characters);
+	return Math.max(0, fullMillis - this.minifiedMillis);
+}
+}
+
+private Counter[] counters = newCounters();
+
+private static Counter[] newCounters() {
+	Counter[] counters = new Counter[STAGE_NAMES.length];
+	for (int i = 0; i < counters.length; i++)
+		counters[i] = new Counter(STAGE_NAMES[i]);
+	return counters;
+}
+public synchronized Counter[] getCounters() {
+	Counter[] copies = new Counter[this.counters.length];
+	for (int i = 0; i < copies.length; i++)
+		copies[i] = this.counters[i].copy();
+	return copies;
+}
+/**
+ * Appends the counters to the given buffer, one line per stage.
+ */
+public void printOn(StringBuffer buffer) {
+	Counter[] copies = getCounters();
+	buffer.append("Minified sources (stage, units, characters, ms, minified units, characters, ms, estimated saved ms):\n"); //$NON-NLS-1$
+	for (int i = 0; i < copies.length; i++) {
+		Counter counter = copies[i];
+		buffer.append('\t').append(counter.stage);
+		buffer.append('\t').append(counter.units);
+		buffer.append('\t').append(counter.characters);
+		buffer.append('\t').append(counter.millis);
+		buffer.append('\t').append(counter.minifiedUnits);
+		buffer.append('\t').append(counter.minifiedCharacters);
+		buffer.append('\t').append(counter.minifiedMillis);
+		buffer.append('\t').append(counter.estimatedSavedMillis());
+		buffer.append('\n');
+	}
+}
+/**
+ * Records that a unit of the given length was processed by the given stage in the given time.
+ */
+public synchronized void record(int stage, boolean minified, int characters, long millis) {
+	Counter counter = this.counters[stage];
+	if (minified) {
+		counter.minifiedUnits++;
+		counter.minifiedCharacters += characters;
+		counter.minifiedMillis += millis;
+	} else {
+		counter.units++;
+		counter.characters += characters;
+		counter.millis += millis;
+	}
+}
+/**
+ * Records more time spent by the given stage on a unit already recorded, e.g. when it is resolved
+ * after all the units were parsed.
+ */
+public synchronized void recordTime(int stage, boolean minified, long millis) {
+	Counter counter = this.counters[stage];
+	if (minified)
+		counter.minifiedMillis += millis;
+	else
+		counter.millis += millis;
+}
+public synchronized void reset() {
+	this.counters = newCounters();
+}
+public String toString() {
+	StringBuffer buffer = new StringBuffer();
+	printOn(buffer);
+	return buffer.toString();
+}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser;
+
+import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+
+/**
+ * Detects the minified or generated sources, e.g. the minified libraries shipped with a project.
+ * Nobody edits them, so the compiler, the indexer and the problem finder only process their
+ * declarations: their function bodies are jumped over by the parser and they are not resolved.
+ * <p>
+ * A source is minified if it ends with a source map comment, or if its first characters are long
+ * lines with few white spaces. Sources shorter than {@link #MIN_LENGTH} are never minified, as
+ * they are cheap to process anyway. The {@link CompilerOptions#OPTION_SkipMinifiedSources} option
+ * of a project forces or disables the detection.
+ * </p>
+ */
+public class MinifiedSources {
+
+/**
+ * The time spent on the minified and on the other sources.
+ */
+public static final MinifiedSourceStatistics STATISTICS = new MinifiedSourceStatistics();
+
+/**
+ * The length under which a source is never minified.
+ */
+public static final int MIN_LENGTH = 4096;
+
+// the lines of a minified source are sampled in its first characters
+static final int SAMPLE_LENGTH = 65536;
+static final int MIN_AVERAGE_LINE_LENGTH = 300;
+static final int MAX_WHITE_SPACE_PERCENT = 10;
+
+// a source map comment, e.g. "//# sourceMappingURL=jquery.min.map", is searched in the last characters
+static final int SOURCE_MAP_COMMENT_TAIL = 512;
+private static final char[] SOURCE_MAPPING_URL = "sourceMappingURL=".toCharArray(); //$NON-NLS-1$
+
+/**
+ * Returns whether only the declarations of the given source are processed with the given options.
+ */
+public static boolean isSkipped(CompilerOptions options, char[] source) {
+	if (CompilerOptions.ENABLED.equals(options.skipMinifiedSources)) return true;
+	if (CompilerOptions.DISABLED.equals(options.skipMinifiedSources)) return false;
+	return isMinified(source);
+}
+/**
+ * Returns whether the given source looks minified or generated.
+ */
+public static boolean isMinified(char[] source) {
+	if (source == null || source.length < MIN_LENGTH) return false;
+	return hasSourceMapComment(source) || hasMinifiedLines(source);
+}
+private static boolean hasMinifiedLines(char[] source) {
+	int length = Math.min(source.length, SAMPLE_LENGTH);
+	int lines = 1;
+	int whiteSpaces = 0;
+	for (int i = 0; i < length; i++) {
+		switch (source[i]) {
+			case '\r' :
+				if (i + 1 < length && source[i + 1] == '\n') break;
+				//$FALL-THROUGH$
+			case '\n' :
+				lines++;
+				//$FALL-THROUGH$
+			case ' ' :
+			case '\t' :
+				whiteSpaces++;
+		}
+	}
+	return length / lines >= MIN_AVERAGE_LINE_LENGTH
+		&& whiteSpaces * 100 < length * MAX_WHITE_SPACE_PERCENT;
+}
+private static boolean hasSourceMapComment(char[] source) {
+	int start = Math.max(0, source.length - SOURCE_MAP_COMMENT_TAIL);
+	int index;
+	while ((index = CharOperation.indexOf(SOURCE_MAPPING_URL, source, true, start)) >= 0) {
+		// "//# sourceMappingURL=" or "/*# sourceMappingURL=", or the older "//@" form
+		if (index >= 4
+				&& source[index - 1] == ' '
+				&& (source[index - 2] == '#' || source[index - 2] == '@')
+				&& source[index - 4] == '/'
+				&& (source[index - 3] == '/' || source[index - 3] == '*'))
+			return true;
+		start = index + SOURCE_MAPPING_URL.length;
+	}
+	return false;
+}
+}
@@ -0,0 +1,438 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser;
+
+import org.eclipse.wst.jsdt.internal.compiler.ASTVisitor;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AND_AND_Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ASTNode;
+import org.eclipse.wst.jsdt.internal.compiler.ast.AllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Argument;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayAllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayInitializer;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayQualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ArrayTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Assignment;
+import org.eclipse.wst.jsdt.internal.compiler.ast.BinaryExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Block;
+import org.eclipse.wst.jsdt.internal.compiler.ast.BreakStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CaseStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ClassLiteralAccess;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Clinit;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompoundAssignment;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ConditionalExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ConstructorDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ContinueStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.DebuggerStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.DoStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.DoubleLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.EmptyStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.EqualExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ExplicitConstructorCall;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ExtendedStringLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FalseLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FieldDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FieldReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ForInStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ForStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ForeachStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.FunctionExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.IfStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ImportReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Initializer;
+import org.eclipse.wst.jsdt.internal.compiler.ast.InstanceOfExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.IntLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.Javadoc;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocAllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocArgumentExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocArrayQualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocArraySingleTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocFieldReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocImplicitTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocMessageSend;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocQualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocReturnStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocSingleNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.JavadocSingleTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.LabeledStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ListExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.LocalDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.MessageSend;
+import org.eclipse.wst.jsdt.internal.compiler.ast.MethodDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.NullLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.OR_OR_Expression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectGetterSetterField;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ObjectLiteralField;
+import org.eclipse.wst.jsdt.internal.compiler.ast.PostfixExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.PrefixExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedAllocationExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedThisReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.QualifiedTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.RegExLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ReturnStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SingleNameReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SingleTypeReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.StringLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.StringLiteralConcatenation;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SuperReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.SwitchStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ThisReference;
+import org.eclipse.wst.jsdt.internal.compiler.ast.ThrowStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.TrueLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.TryStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.ast.UnaryExpression;
+import org.eclipse.wst.jsdt.internal.compiler.ast.UndefinedLiteral;
+import org.eclipse.wst.jsdt.internal.compiler.ast.WhileStatement;
+import org.eclipse.wst.jsdt.internal.compiler.ast.WithStatement;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.BlockScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.ClassScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.CompilationUnitScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.MethodScope;
+import org.eclipse.wst.jsdt.internal.compiler.lookup.Scope;
+
+/*
+ * A visitor of every node of a parse tree, which are all answered to {@link #visitNode(ASTNode)}.
+ */
+abstract class NodeVisitor extends ASTVisitor {
+
+/*
+ * Visits the given node, answers whether its children should be visited.
+ */
+abstract boolean visitNode(ASTNode node);
+public boolean visit(CompilationUnitDeclaration compilationUnitDeclaration, CompilationUnitScope scope) {
+	return visitNode(compilationUnitDeclaration);
+}
+public boolean visit(AllocationExpression allocationExpression, BlockScope scope) {
+	return visitNode(allocationExpression);
+}
+public boolean visit(AND_AND_Expression and_and_Expression, BlockScope scope) {
+	return visitNode(and_and_Expression);
+}
+public boolean visit(Argument argument, BlockScope scope) {
+	return visitNode(argument);
+}
+public boolean visit(Argument argument, ClassScope scope) {
+	return visitNode(argument);
+}
+public boolean visit(ArrayAllocationExpression arrayAllocationExpression, BlockScope scope) {
+	return visitNode(arrayAllocationExpression);
+}
+public boolean visit(ArrayInitializer arrayInitializer, BlockScope scope) {
+	return visitNode(arrayInitializer);
+}
+public boolean visit(ArrayQualifiedTypeReference arrayQualifiedTypeReference, BlockScope scope) {
+	return visitNode(arrayQualifiedTypeReference);
+}
+public boolean visit(ArrayQualifiedTypeReference arrayQualifiedTypeReference, ClassScope scope) {
+	return visitNode(arrayQualifiedTypeReference);
+}
+public boolean visit(ArrayReference arrayReference, BlockScope scope) {
+	return visitNode(arrayReference);
+}
+public boolean visit(ArrayTypeReference arrayTypeReference, BlockScope scope) {
+	return visitNode(arrayTypeReference);
+}
+public boolean visit(ArrayTypeReference arrayTypeReference, ClassScope scope) {
+	return visitNode(arrayTypeReference);
+}
+public boolean visit(Assignment assignment, BlockScope scope) {
+	return visitNode(assignment);
+}
+public boolean visit(BinaryExpression binaryExpression, BlockScope scope) {
+	return visitNode(binaryExpression);
+}
+public boolean visit(Block block, BlockScope scope) {
+	return visitNode(block);
+}
+public boolean visit(BreakStatement breakStatement, BlockScope scope) {
+	return visitNode(breakStatement);
+}
+public boolean visit(CaseStatement caseStatement, BlockScope scope) {
+	return visitNode(caseStatement);
+}
+public boolean visit(ClassLiteralAccess classLiteral, BlockScope scope) {
+	return visitNode(classLiteral);
+}
+public boolean visit(Clinit clinit, ClassScope scope) {
+	return visitNode(clinit);
+}
+public boolean visit(CompoundAssignment compoundAssignment, BlockScope scope) {
+	return visitNode(compoundAssignment);
+}
+public boolean visit(ConditionalExpression conditionalExpression, BlockScope scope) {
+	return visitNode(conditionalExpression);
+}
+public boolean visit(ConstructorDeclaration constructorDeclaration, ClassScope scope) {
+	return visitNode(constructorDeclaration);
+}
+public boolean visit(ContinueStatement continueStatement, BlockScope scope) {
+	return visitNode(continueStatement);
+}
+public boolean visit(DoStatement doStatement, BlockScope scope) {
+	return visitNode(doStatement);
+}
+public boolean visit(DoubleLiteral doubleLiteral, BlockScope scope) {
+	return visitNode(doubleLiteral);
+}
+public boolean visit(EmptyStatement emptyStatement, BlockScope scope) {
+	return visitNode(emptyStatement);
+}
+public boolean visit(EqualExpression equalExpression, BlockScope scope) {
+	return visitNode(equalExpression);
+}
+public boolean visit(ExplicitConstructorCall explicitConstructor, BlockScope scope) {
+	return visitNode(explicitConstructor);
+}
+public boolean visit(ExtendedStringLiteral extendedStringLiteral, BlockScope scope) {
+	return visitNode(extendedStringLiteral);
+}
+public boolean visit(FalseLiteral falseLiteral, BlockScope scope) {
+	return visitNode(falseLiteral);
+}
+public boolean visit(FieldDeclaration fieldDeclaration, MethodScope scope) {
+	return visitNode(fieldDeclaration);
+}
+public boolean visit(FieldReference fieldReference, BlockScope scope) {
+	return visitNode(fieldReference);
+}
+public boolean visit(FieldReference fieldReference, ClassScope scope) {
+	return visitNode(fieldReference);
+}
+public boolean visit(ForeachStatement forStatement, BlockScope scope) {
+	return visitNode(forStatement);
+}
+public boolean visit(ForInStatement forInStatement, BlockScope scope) {
+	return visitNode(forInStatement);
+}
+public boolean visit(ForStatement forStatement, BlockScope scope) {
+	return visitNode(forStatement);
+}
+public boolean visit(FunctionExpression functionExpression, BlockScope scope) {
+	return visitNode(functionExpression);
+}
+public boolean visit(IfStatement ifStatement, BlockScope scope) {
+	return visitNode(ifStatement);
+}
+public boolean visit(ImportReference importRef, CompilationUnitScope scope) {
+	return visitNode(importRef);
+}
+public boolean visit(Initializer initializer, MethodScope scope) {
+	return visitNode(initializer);
+}
+public boolean visit(InstanceOfExpression instanceOfExpression, BlockScope scope) {
+	return visitNode(instanceOfExpression);
+}
+public boolean visit(IntLiteral intLiteral, BlockScope scope) {
+	return visitNode(intLiteral);
+}
+public boolean visit(Javadoc javadoc, BlockScope scope) {
+	return visitNode(javadoc);
+}
+public boolean visit(Javadoc javadoc, ClassScope scope) {
+	return visitNode(javadoc);
+}
+public boolean visit(JavadocAllocationExpression expression, BlockScope scope) {
+	return visitNode(expression);
+}
+public boolean visit(JavadocAllocationExpression expression, ClassScope scope) {
+	return visitNode(expression);
+}
+public boolean visit(JavadocArgumentExpression expression, BlockScope scope) {
+	return visitNode(expression);
+}
+public boolean visit(JavadocArgumentExpression expression, ClassScope scope) {
+	return visitNode(expression);
+}
+public boolean visit(JavadocArrayQualifiedTypeReference typeRef, BlockScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(JavadocArrayQualifiedTypeReference typeRef, ClassScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(JavadocArraySingleTypeReference typeRef, BlockScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(JavadocArraySingleTypeReference typeRef, ClassScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(JavadocFieldReference fieldRef, BlockScope scope) {
+	return visitNode(fieldRef);
+}
+public boolean visit(JavadocFieldReference fieldRef, ClassScope scope) {
+	return visitNode(fieldRef);
+}
+public boolean visit(JavadocImplicitTypeReference implicitTypeReference, BlockScope scope) {
+	return visitNode(implicitTypeReference);
+}
+public boolean visit(JavadocImplicitTypeReference implicitTypeReference, ClassScope scope) {
+	return visitNode(implicitTypeReference);
+}
+public boolean visit(JavadocMessageSend messageSend, BlockScope scope) {
+	return visitNode(messageSend);
+}
+public boolean visit(JavadocMessageSend messageSend, ClassScope scope) {
+	return visitNode(messageSend);
+}
+public boolean visit(JavadocQualifiedTypeReference typeRef, BlockScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(JavadocQualifiedTypeReference typeRef, ClassScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(JavadocReturnStatement statement, BlockScope scope) {
+	return visitNode(statement);
+}
+public boolean visit(JavadocReturnStatement statement, ClassScope scope) {
+	return visitNode(statement);
+}
+public boolean visit(JavadocSingleNameReference argument, BlockScope scope) {
+	return visitNode(argument);
+}
+public boolean visit(JavadocSingleNameReference argument, ClassScope scope) {
+	return visitNode(argument);
+}
+public boolean visit(JavadocSingleTypeReference typeRef, BlockScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(JavadocSingleTypeReference typeRef, ClassScope scope) {
+	return visitNode(typeRef);
+}
+public boolean visit(LabeledStatement labeledStatement, BlockScope scope) {
+	return visitNode(labeledStatement);
+}
+public boolean visit(LocalDeclaration localDeclaration, BlockScope scope) {
+	return visitNode(localDeclaration);
+}
+public boolean visit(ListExpression listDeclaration, BlockScope scope) {
+	return visitNode(listDeclaration);
+}
+public boolean visit(MessageSend messageSend, BlockScope scope) {
+	return visitNode(messageSend);
+}
+public boolean visit(MethodDeclaration methodDeclaration, Scope scope) {
+	return visitNode(methodDeclaration);
+}
+public boolean visit(StringLiteralConcatenation literal, BlockScope scope) {
+	return visitNode(literal);
+}
+public boolean visit(NullLiteral nullLiteral, BlockScope scope) {
+	return visitNode(nullLiteral);
+}
+public boolean visit(OR_OR_Expression or_or_Expression, BlockScope scope) {
+	return visitNode(or_or_Expression);
+}
+public boolean visit(PostfixExpression postfixExpression, BlockScope scope) {
+	return visitNode(postfixExpression);
+}
+public boolean visit(PrefixExpression prefixExpression, BlockScope scope) {
+	return visitNode(prefixExpression);
+}
+public boolean visit(QualifiedAllocationExpression qualifiedAllocationExpression, BlockScope scope) {
+	return visitNode(qualifiedAllocationExpression);
+}
+public boolean visit(QualifiedNameReference qualifiedNameReference, BlockScope scope) {
+	return visitNode(qualifiedNameReference);
+}
+public boolean visit(QualifiedNameReference qualifiedNameReference, ClassScope scope) {
+	return visitNode(qualifiedNameReference);
+}
+public boolean visit(QualifiedThisReference qualifiedThisReference, BlockScope scope) {
+	return visitNode(qualifiedThisReference);
+}
+public boolean visit(QualifiedThisReference qualifiedThisReference, ClassScope scope) {
+	return visitNode(qualifiedThisReference);
+}
+public boolean visit(QualifiedTypeReference qualifiedTypeReference, BlockScope scope) {
+	return visitNode(qualifiedTypeReference);
+}
+public boolean visit(QualifiedTypeReference qualifiedTypeReference, ClassScope scope) {
+	return visitNode(qualifiedTypeReference);
+}
+public boolean visit(RegExLiteral stringLiteral, BlockScope scope) {
+	return visitNode(stringLiteral);
+}
+public boolean visit(ReturnStatement returnStatement, BlockScope scope) {
+	return visitNode(returnStatement);
+}
+public boolean visit(SingleNameReference singleNameReference, BlockScope scope) {
+	return visitNode(singleNameReference);
+}
+public boolean visit(SingleNameReference singleNameReference, ClassScope scope) {
+	return visitNode(singleNameReference);
+}
+public boolean visit(SingleTypeReference singleTypeReference, BlockScope scope) {
+	return visitNode(singleTypeReference);
+}
+public boolean visit(SingleTypeReference singleTypeReference, ClassScope scope) {
+	return visitNode(singleTypeReference);
+}
+public boolean visit(StringLiteral stringLiteral, BlockScope scope) {
+	return visitNode(stringLiteral);
+}
+public boolean visit(SuperReference superReference, BlockScope scope) {
+	return visitNode(superReference);
+}
+public boolean visit(SwitchStatement switchStatement, BlockScope scope) {
+	return visitNode(switchStatement);
+}
+public boolean visit(ThisReference thisReference, BlockScope scope) {
+	return visitNode(thisReference);
+}
+public boolean visit(ThisReference thisReference, ClassScope scope) {
+	return visitNode(thisReference);
+}
+public boolean visit(ThrowStatement throwStatement, BlockScope scope) {
+	return visitNode(throwStatement);
+}
+public boolean visit(TrueLiteral trueLiteral, BlockScope scope) {
+	return visitNode(trueLiteral);
+}
+public boolean visit(TryStatement tryStatement, BlockScope scope) {
+	return visitNode(tryStatement);
+}
+public boolean visit(TypeDeclaration localTypeDeclaration, BlockScope scope) {
+	return visitNode(localTypeDeclaration);
+}
+public boolean visit(TypeDeclaration memberTypeDeclaration, ClassScope scope) {
+	return visitNode(memberTypeDeclaration);
+}
+public boolean visit(TypeDeclaration typeDeclaration, CompilationUnitScope scope) {
+	return visitNode(typeDeclaration);
+}
+public boolean visit(UnaryExpression unaryExpression, BlockScope scope) {
+	return visitNode(unaryExpression);
+}
+public boolean visit(UndefinedLiteral undefined, BlockScope scope) {
+	return visitNode(undefined);
+}
+public boolean visit(WhileStatement whileStatement, BlockScope scope) {
+	return visitNode(whileStatement);
+}
+public boolean visit(WithStatement whileStatement, BlockScope scope) {
+	return visitNode(whileStatement);
+}
+public boolean visit(ObjectLiteral literal, BlockScope scope) {
+	return visitNode(literal);
+}
+public boolean visit(ObjectLiteralField field, BlockScope scope) {
+	return visitNode(field);
+}
+public boolean visit(ObjectGetterSetterField field, BlockScope scope) {
+	return visitNode(field);
+}
+public boolean visit(DebuggerStatement statement, BlockScope scope) {
+	return visitNode(statement);
+}
+}
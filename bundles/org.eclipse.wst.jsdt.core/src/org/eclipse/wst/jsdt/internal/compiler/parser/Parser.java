@@ -131,6 +131,7 @@ import org.eclipse.wst.jsdt.internal.compiler.lookup.Scope;
 import org.eclipse.wst.jsdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.wst.jsdt.internal.compiler.lookup.TypeIds;
 import org.eclipse.wst.jsdt.internal.compiler.parser.diagnose.DiagnoseParser;
+import org.eclipse.wst.jsdt.internal.compiler.parser.diagnose.RecoveryCache;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilation;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilationUnit;
 import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
@@ -283,6 +284,10 @@ public class Parser implements  ParserBasicInformation, TerminalTokens, Operator
 	public ReferenceContext referenceContext;
 	public boolean reportOnlyOneSyntaxError = false;
 	public boolean reportSyntaxErrorIsRequired = true;
+	// set to parse only the declarations of the minified sources, see MinifiedSources
+	public boolean skipMinifiedSources = false;
+	// set to parse the function bodies one by one after the diet parse of a unit, see parse(ICompilationUnit, CompilationResult, int, int)
+	protected boolean skipFunctionBodies = false;
 	protected boolean restartRecovery;
 
 	// statement recovery
@@ -295,6 +300,10 @@ public class Parser implements  ParserBasicInformation, TerminalTokens, Operator
 	protected TypeDeclaration pendingRecoveredType;
 
 	public RecoveryScanner recoveryScanner;
+	// set to replay the recoveries of the syntax errors of unchanged sources, e.g. when reconciling
+	public RecoveryCache recoveryCache;
+	// set to restore the types inferred for the unchanged units brought in by the lookup environment
+	public InferredTypesCache inferredTypesCache;
 
 	//scanner token
 	public Scanner scanner;
@@ -314,6 +323,13 @@ public class Parser implements  ParserBasicInformation, TerminalTokens, Operator
 
 	private boolean enteredRecoverStatements;
 
+	// set while a unit is diet parsed with skipFunctionBodies or as a minified unit: the function bodies are
+	// tokenized and marked to be parsed later, see getMethodBodies(CompilationUnitDeclaration)
+	private boolean skippingFunctionBodies;
+	// set while a syntax error is only recovered from by a full parse of the unit, it then aborts the parse
+	private boolean abortOnSyntaxError;
+	private boolean parseAborted;
+
 	private int insertedSemicolonPosition=-1;
 
 	private Set errorAction = new HashSet();
@@ -2565,7 +2581,13 @@ protected void consumeModifiers2() {
 }
 protected void consumeNestedMethod() {
 	// NestedMethod ::= $empty
-	jumpOverMethodBody();
+	if (!this.skippingFunctionBodies) {
+		jumpOverMethodBody();
+	} else if (this.dietInt == 0 && this.astPtr >= 0 && this.astStack[this.astPtr] instanceof MethodDeclaration) {
+		// only the body of a function can be parsed later on, see getMethodBodies(CompilationUnitDeclaration)
+		this.astStack[this.astPtr].bits |= ASTNode.HasSkippedBody;
+		jumpOverMethodBody();
+	}
 	this.nestedMethod[this.nestedType] ++;
 	pushOnIntStack(this.scanner.currentPosition);
 	consumeOpenBlock();
@@ -4972,6 +4994,9 @@ public int[] getJavaDocPositions() {
 		if ((unit.bits & ASTNode.HasAllMethodBodies) != 0)
 			return; //work already done ...
 
+		if (unit.isMinified)
+			return; // only the declarations of a minified unit are processed
+
 		// save existing values to restore them at the end of the parsing process
 		// see bug 47079 for more details
 		int[] oldLineEnds = this.scanner.lineEnds;
@@ -4989,15 +5014,51 @@ public int[] getJavaDocPositions() {
 			for (int i = unit.types.length; --i >= 0;)
 				unit.types[i].parseMethod(this, unit);
 		}
+		boolean oldDiet = this.diet;
+		try {
+			this.diet = false;
+			this.abortOnSyntaxError = true;
+			if (!parseSkippedFunctionBodies(unit)) {
+				// a syntax error is only recovered from by a full parse, see SourceElementParser#parseCompilationUnit(ICompilationUnit, boolean)
+				unit.ignoreMethodBodies = true;
+			}
+		} finally {
+			this.diet = oldDiet;
+			this.abortOnSyntaxError = false;
+		}
 
 		// tag unit has having read bodies
-		unit.bits |= ASTNode.HasAllMethodBodies;
+		if (!unit.ignoreMethodBodies)
+			unit.bits |= ASTNode.HasAllMethodBodies;
 
 		// this is done to prevent any side effects on the compilation unit result
 		// line separator positions array.
 		this.scanner.lineEnds = oldLineEnds;
 		this.scanner.linePtr = oldLinePtr;
 	}
+/*
+ * Parses the bodies of the functions jumped over by the diet parse of the given unit.
+ * The functions nested in a body are parsed with it. Answers false, leaving the next
+ * bodies unparsed, as soon as a body has a syntax error: the statements recovery only
+ * knows how to recover a whole unit.
+ */
+private boolean parseSkippedFunctionBodies(final CompilationUnitDeclaration unit) {
+	class SkippedBodyParser extends ASTVisitor {
+		public boolean visit(MethodDeclaration methodDeclaration, Scope scope) {
+			if (Parser.this.parseAborted || (methodDeclaration.bits & ASTNode.HasSkippedBody) == 0)
+				return !Parser.this.parseAborted;
+			methodDeclaration.bits &= ~ASTNode.HasSkippedBody;
+			int taskCount = unit.compilationResult.taskCount;
+			parse(methodDeclaration, unit);
+			// the tasks of the body were found when it was jumped over
+			unit.compilationResult.taskCount = taskCount;
+			return false;
+		}
+	}
+	this.parseAborted = false;
+	unit.traverse(new SkippedBodyParser(), null, true);
+	return !this.parseAborted;
+}
 protected char getNextCharacter(char[] comment, int[] index) {
 	char nextCharacter = comment[index[0]++];
 	switch(nextCharacter) {
@@ -5308,6 +5369,37 @@ public void initialize(boolean initializeNLS) {
 	this.errorAction= new HashSet(); 
 	
 }
+/*
+ * Drops the state left by the last parse, so that a pooled parser (see ParserPool) parses
+ * the next unit as a new parser would, and does not retain the last unit and its source.
+ * The stacks and the line ends of the scanner are kept for the next parse.
+ */
+public void cleanUp() {
+	initialize();
+	this.enteredRecoverStatements = false;
+	this.methodRecoveryActivated = false;
+	this.statementRecoveryActivated = false;
+	this.hasError = false;
+	this.javadoc = null;
+	this.problemReporter.referenceContext = null;
+	this.scanner.setSource((char[]) null);
+	// the previous token tells a regular expression from a division, start as a new scanner
+	this.scanner.currentToken = this.scanner.currentNonWhitespaceToken = 0;
+	this.scanner.pushedBack = false;
+	if (this.recoveryScanner != null) {
+		this.recoveryScanner.setData(null);
+		this.recoveryScanner.setSource((char[]) null);
+	}
+	if (this.javadocParser != null) {
+		this.javadocParser.docComment = null;
+		this.javadocParser.source = null;
+	}
+	// set by each user of the parser, so they must not leak to the next one
+	this.recoveryCache = null;
+	this.inferredTypesCache = null;
+	this.skipMinifiedSources = false;
+	this.skipFunctionBodies = false;
+}
 public void initializeScanner(){
 	this.scanner = new Scanner(
 		false /*comment*/,
@@ -5326,8 +5418,10 @@ public void jumpOverMethodBody() {
 	//automatically by the scanner once it has jumped over
 	//the statements
 
-	if (this.diet && (this.dietInt == 0))
+	if (this.diet && (this.dietInt == 0)) {
 		this.scanner.diet = true;
+		this.scanner.tokenizeSkippedBody = this.skippingFunctionBodies;
+	}
 }
 private void jumpOverType(){
 	if (this.recoveredTypes != null && this.nextTypeStart > -1 && this.nextTypeStart < this.scanner.currentPosition) {
@@ -5721,6 +5815,12 @@ protected void parse() {
 				}
 			}
 
+			if (this.abortOnSyntaxError) {
+				// the unit is parsed again with its function bodies, see parse(ICompilationUnit, CompilationResult, int, int)
+				this.parseAborted = true;
+				this.lastAct = ERROR_ACTION;
+				return;
+			}
 			int errorPos = this.scanner.currentPosition;
 			if (!this.hasReportedError) {
 				this.hasError = true;
@@ -5755,7 +5855,7 @@ protected void parse() {
 				this.currentToken = this.scanner.getNextToken();
 				if (DEBUG) System.out.println(">>shift-reduce Next Token: "+scanner.dumpCurrent()); //$NON-NLS-1$
 			} catch(InvalidInputException e){
-				if (!this.hasReportedError){
+				if (!this.hasReportedError && !this.abortOnSyntaxError){
 					this.problemReporter().scannerError(this, e.getMessage());
 					this.hasReportedError = true;
 				}
@@ -5783,7 +5883,7 @@ protected void parse() {
 					this.currentToken = this.scanner.getNextToken();
 					if (DEBUG) System.out.println(">>shift next Token: "+scanner.dumpCurrent()); //$NON-NLS-1$
 				} catch(InvalidInputException e){
-					if (!this.hasReportedError){
+					if (!this.hasReportedError && !this.abortOnSyntaxError){
 						this.problemReporter().scannerError(this, e.getMessage());
 						this.hasReportedError = true;
 					}
@@ -6006,48 +6106,68 @@ public CompilationUnitDeclaration parse(
 	// parses a compilation unit and manages error handling (even bugs....)
 
 	CompilationUnitDeclaration unit;
+	int problemCount = compilationResult.problemCount;
+	boolean oldDiet = this.diet, minified = false;
+	char[] contents = null;
+	// only a whole unit is parsed again when a syntax error aborts the diet parse
+	this.abortOnSyntaxError = this.skippingFunctionBodies = this.diet && this.skipFunctionBodies && end == -1;
 	try {
-		/* automaton initialization */
-		initialize(true);
-		goForCompilationUnit();
+		while (true) {
+			/* automaton initialization */
+			initialize(true);
+			goForCompilationUnit();
 
-		/* unit creation */
-		this.referenceContext =
-			this.compilationUnit =
-				new CompilationUnitDeclaration(
-					this.problemReporter,
-					compilationResult,
-					0);
+			/* unit creation */
+			this.referenceContext =
+				this.compilationUnit =
+					new CompilationUnitDeclaration(
+						this.problemReporter,
+						compilationResult,
+						0);
 
 
-		initializeInferenceEngine(this.compilationUnit);
+			initializeInferenceEngine(this.compilationUnit);
 
-		/* scanners initialization */
-		char[] contents;
-		try {
-			contents = sourceUnit.getContents();
-		} catch(AbortCompilationUnit abortException) {
-			this.problemReporter().cannotReadSource(this.compilationUnit, abortException, this.options.verbose);
-			contents = CharOperation.NO_CHAR; // pretend empty from thereon
-		}
-		this.scanner.setSource(contents);
-		this.compilationUnit.sourceEnd = this.scanner.source.length - 1;
-		if (end != -1) this.scanner.resetTo(start, end);
-		if (this.javadocParser != null && this.javadocParser.checkDocComment) {
-			this.javadocParser.scanner.setSource(contents);
-			if (end != -1) {
-				this.javadocParser.scanner.resetTo(start, end);
+			/* scanners initialization */
+			if (contents == null) {
+				try {
+					contents = sourceUnit.getContents();
+				} catch(AbortCompilationUnit abortException) {
+					this.problemReporter().cannotReadSource(this.compilationUnit, abortException, this.options.verbose);
+					contents = CharOperation.NO_CHAR; // pretend empty from thereon
+				}
+				if (this.skipMinifiedSources && !this.diet && end == -1 && MinifiedSources.isSkipped(this.options, contents)) {
+					// the function bodies of a minified unit are jumped over and never parsed
+					this.abortOnSyntaxError = this.skippingFunctionBodies = this.diet = minified = true;
+				}
 			}
-		}
-		/* run automaton */
+			this.compilationUnit.isMinified = minified;
+			this.scanner.setSource(contents);
+			this.compilationUnit.sourceEnd = this.scanner.source.length - 1;
+			if (end != -1) this.scanner.resetTo(start, end);
+			if (this.javadocParser != null && this.javadocParser.checkDocComment) {
+				this.javadocParser.scanner.setSource(contents);
+				if (end != -1) {
+					this.javadocParser.scanner.resetTo(start, end);
+				}
+			}
+			/* run automaton */
 if (false)
 	System.out.println("parsing "+new String(sourceUnit.getFileName())); //$NON-NLS-1$
-		parse();
+			this.parseAborted = false;
+			parse();
+			if (!this.parseAborted) break;
+			// a syntax error is only recovered from by a full parse, which also reports it
+			this.abortOnSyntaxError = this.skippingFunctionBodies = this.diet = false;
+			compilationResult.problemCount = problemCount;
+		}
 	} finally {
+		this.abortOnSyntaxError = this.skippingFunctionBodies = false;
 		unit = this.compilationUnit;
 		this.compilationUnit = null; // reset parser
 		// tag unit has having read bodies
 		if (!this.diet) unit.bits |= ASTNode.HasAllMethodBodies;
+		this.diet = oldDiet;
 	}
 	return unit;
 }
@@ -6320,7 +6440,8 @@ public void parseStatements(ReferenceContext rc, int start, int end, TypeDeclara
 }
 public void persistLineSeparatorPositions() {
 	if (this.scanner.recordLineSeparator) {
-		this.compilationUnit.compilationResult.lineSeparatorPositions = this.scanner.getLineEnds();
+		CompilationResult compilationResult = this.compilationUnit.compilationResult;
+		compilationResult.lineSeparatorPositions = this.scanner.getLineEnds(compilationResult.lineSeparatorPositions);
 	}
 }
 /*
@@ -6340,12 +6461,22 @@ protected void prepareForBlockStatements() {
  */
 public ProblemReporter problemReporter(){
 	if (this.scanner.recordLineSeparator) {
-		if (this.compilationUnit!=null)
-			this.compilationUnit.compilationResult.lineSeparatorPositions = this.scanner.getLineEnds();
+		if (this.compilationUnit!=null) {
+			CompilationResult compilationResult = this.compilationUnit.compilationResult;
+			compilationResult.lineSeparatorPositions = this.scanner.getLineEnds(compilationResult.lineSeparatorPositions);
+		}
 	}
 	this.problemReporter.referenceContext = this.referenceContext;
 	return this.problemReporter;
 }
+/*
+ * Reports the problems of the next parses to the given reporter, e.g. the one of the compiler
+ * a pooled parser is handed to. Its options must be equal to the ones the parser was created with.
+ */
+public void setProblemReporter(ProblemReporter problemReporter) {
+	this.problemReporter = problemReporter;
+	this.options = problemReporter.options;
+}
 protected void pushIdentifier() {
 	/*push the consumeToken on the identifier stack.
 	Increase the total number of identifier in the stack.
@@ -7092,6 +7223,14 @@ public void inferTypes(CompilationUnitDeclaration parsedUnit, CompilerOptions co
 	
 	if (this.inferenceEngines==null)
 		initializeInferenceEngine(parsedUnit);
+	InferredTypesCache.Entry cacheEntry = null;
+	if (this.inferredTypesCache != null && (parsedUnit.bits & ASTNode.IsImplicitUnit) != 0) {
+		cacheEntry = this.inferredTypesCache.getEntry(parsedUnit, this.scanner.getSource(), this.inferenceEngines, this.options.inferOptions);
+		if (cacheEntry != null && cacheEntry.restore()) {
+			parsedUnit.typesHaveBeenInferred=true;
+			return;
+		}
+	}
 //	InferEngine inferEngine=compileOptions.inferOptions.createEngine();
 	for (int i=0;i<this.inferenceEngines.length;i++)
 	{
@@ -7108,6 +7247,8 @@ public void inferTypes(CompilationUnitDeclaration parsedUnit, CompilerOptions co
 
 			engine.doInfer();
 		} catch (RuntimeException e) {
+			// an incomplete inference is not cached
+			cacheEntry = null;
 			org.eclipse.wst.jsdt.internal.core.util.Util.log(e, "error during type inferencing"); //$NON-NLS-1$
 		}
 		finally {
@@ -7118,6 +7259,8 @@ public void inferTypes(CompilationUnitDeclaration parsedUnit, CompilerOptions co
 			}
 		}
 	}
+	if (cacheEntry != null)
+		cacheEntry.save();
 	parsedUnit.typesHaveBeenInferred=true;
 }
 
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser;
+
+import java.util.Map;
+
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+
+/*
+ * A pool keeping one parser per thread, so that the successive parses of a thread, e.g. the
+ * documents indexed by the indexing thread or the reconciles of the working copies, reuse the
+ * stacks and scanner of the same parser instead of allocating and zeroing new ones.
+ *
+ * A parser is taken out of the pool while it is used, so a parse nested in another one on the
+ * same thread creates its own parser. All the parsers of a pool must be of the same kind: a
+ * pooled parser is only handed back for options equal to the ones it was created with, as its
+ * scanner and javadoc parser were configured from them. Callers parsing many units should keep
+ * their options between units, then the options are compared by identity only.
+ *
+ * The completion and selection engines do not use a pool: they parse a unit once per user request
+ * and their assist parsers keep state for the engine that created them (the assist node, the
+ * cursor location), so reusing them would save little and could leak that state between requests.
+ */
+public class ParserPool {
+
+	private static class PooledParser {
+		Parser parser;
+		Map settings;
+		CompilerOptions options; // the last options found equal to the settings
+		boolean optimizeStringLiterals;
+		boolean inUse;
+	}
+
+	private ThreadLocal pooledParsers = new ThreadLocal();
+
+/*
+ * Returns the parser of the current thread if it was created with the given options,
+ * or null if a new one has to be created.
+ */
+public Parser acquire(CompilerOptions options, boolean optimizeStringLiterals) {
+	PooledParser pooled = (PooledParser) this.pooledParsers.get();
+	if (pooled == null || pooled.inUse) return null;
+	if (pooled.optimizeStringLiterals != optimizeStringLiterals) {
+		this.pooledParsers.set(null); // let the parser be garbage collected
+		return null;
+	}
+	// callers usually keep their options, so the settings are only compared when given other options
+	if (pooled.options != options) {
+		if (!pooled.settings.equals(options.getMap())) {
+			this.pooledParsers.set(null); // the options changed since, let the parser be garbage collected
+			return null;
+		}
+		pooled.options = options;
+	}
+	pooled.inUse = true;
+	return pooled.parser;
+}
+/*
+ * Cleans up the given parser and keeps it for the next parse of the current thread.
+ * The parser must not be used by the caller afterwards.
+ */
+public void release(Parser parser) {
+	if (parser == null) return;
+	parser.cleanUp();
+	PooledParser pooled = (PooledParser) this.pooledParsers.get();
+	if (pooled == null || pooled.parser != parser) {
+		pooled = new PooledParser();
+		pooled.parser = parser;
+		pooled.settings = parser.options.getMap();
+		pooled.options = parser.options;
+		pooled.optimizeStringLiterals = parser.optimizeStringLiterals;
+		this.pooledParsers.set(pooled);
+	}
+	pooled.inUse = false;
+}
+}
@@ -14,6 +14,7 @@ import org.eclipse.wst.jsdt.core.compiler.CharOperation;
 import org.eclipse.wst.jsdt.core.compiler.InvalidInputException;
 import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
 import org.eclipse.wst.jsdt.internal.compiler.classfmt.ClassFileConstants;
+import org.eclipse.wst.jsdt.internal.compiler.util.LineEndTable;
 import org.eclipse.wst.jsdt.internal.compiler.util.Messages;
 import org.eclipse.wst.jsdt.internal.compiler.util.Util;
 /**
@@ -87,6 +88,8 @@ public class Scanner implements TerminalTokens {
 
 	//diet parsing support - jump over some method body when requested
 	public boolean diet = false;
+	// set to tokenize the body jumped over, see jumpOverFunctionBody()
+	public boolean tokenizeSkippedBody = false;
 
 	//support for the  poor-line-debuggers ....
 	//remember the position of the cr/lf
@@ -534,6 +537,25 @@ public final int[] getLineEnds() {
 	System.arraycopy(this.lineEnds, 0, copy = new int[this.linePtr + 1], 0, this.linePtr + 1);
 	return copy;
 }
+/*
+ * Returns a bounded copy of the line ends, or the given previous copy if no line end was
+ * recorded since it was made. A unit with many lines and many problems or tasks then does
+ * not get a new copy of all its line ends for each of them.
+ */
+public final int[] getLineEnds(int[] previousCopy) {
+	if (previousCopy != null
+			&& previousCopy.length == this.linePtr + 1
+			&& (this.linePtr == -1 || previousCopy[this.linePtr] == this.lineEnds[this.linePtr]))
+		return previousCopy;
+	return getLineEnds();
+}
+/*
+ * Returns the line ends recorded so far as a compact table, shared with the other tables
+ * of the same line ends.
+ */
+public final LineEndTable getLineEndTable() {
+	return LineEndTable.share(this.lineEnds, this.linePtr + 1);
+}
 
 /**
  * Search the source position corresponding to the beginning of a given line number
@@ -1053,8 +1075,9 @@ public int getNextToken() throws InvalidInputException {
 	int previousTokenNonWS = this.currentNonWhitespaceToken;
 	this.wasAcr = false;
 	if (this.diet) {
-		jumpOverMethodBody();
 		this.diet = false;
+		if (this.tokenizeSkippedBody) return jumpOverFunctionBody();
+		jumpOverMethodBody();
 		currentToken=this.currentPosition > this.eofPosition ? TokenNameEOF : TokenNameRBRACE;
 		return currentToken;
 	}
@@ -1884,6 +1907,29 @@ public NLSTag[] getNLSTags() {
 public char[] getSource(){
 	return this.source;
 }
+/*
+ * Skips a function body up to its closing brace, which is answered as the current token
+ * (or the end of file if the body is not closed), see Parser#consumeNestedMethod().
+ * Unlike jumpOverMethodBody(), the body is tokenized so that the braces of its string
+ * and regular expression literals are not counted, and its comments, task tags and line
+ * separators are recorded as they would be by a full parse.
+ */
+private int jumpOverFunctionBody() throws InvalidInputException {
+	int found = 1;
+	while (true) {
+		switch (getNextToken()) {
+			case TokenNameLBRACE :
+				found++;
+				break;
+			case TokenNameRBRACE :
+				if (--found == 0)
+					return this.currentToken;
+				break;
+			case TokenNameEOF :
+				return this.currentToken;
+		}
+	}
+}
 public final void jumpOverMethodBody() {
 
 	this.wasAcr = false;
@@ -2615,7 +2661,7 @@ public final void pushLineSeparator() {
 		if ((this.linePtr >= 0) && (this.lineEnds[this.linePtr] >= separatorPos)) return;
 		int length = this.lineEnds.length;
 		if (++this.linePtr >=  length)
-			System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[length + INCREMENT], 0, length);
+			System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[2 * length + INCREMENT], 0, length);
 		this.lineEnds[this.linePtr] = separatorPos;
 		// look-ahead for merged cr+lf
 		try {
@@ -2641,7 +2687,7 @@ public final void pushLineSeparator() {
 				if ((this.linePtr >= 0) && (this.lineEnds[this.linePtr] >= separatorPos)) return;
 				int length = this.lineEnds.length;
 				if (++this.linePtr >=  length)
-					System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[length + INCREMENT], 0, length);
+					System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[2 * length + INCREMENT], 0, length);
 				this.lineEnds[this.linePtr] = separatorPos;
 			}
 			this.wasAcr = false;
@@ -2679,7 +2725,7 @@ public void recordComment(int token) {
 	// a new comment is recorded
 	int length = this.commentStops.length;
 	if (++this.commentPtr >=  length) {
-		int newLength = length + COMMENT_ARRAYS_SIZE*10;
+		int newLength = 2 * length + COMMENT_ARRAYS_SIZE;
 		System.arraycopy(this.commentStops, 0, this.commentStops = new int[newLength], 0, length);
 		System.arraycopy(this.commentStarts, 0, this.commentStarts = new int[newLength], 0, length);
 		System.arraycopy(this.commentTagStarts, 0, this.commentTagStarts = new int[newLength], 0, length);
@@ -3967,6 +4013,8 @@ public final void setSource(char[] contents, CompilationResult compilationResult
 		setSource(contents);
 	}
 	int[] lineSeparatorPositions = compilationResult.lineSeparatorPositions;
+	if (lineSeparatorPositions == null && compilationResult.lineEndTable != null)
+		lineSeparatorPositions = compilationResult.getLineSeparatorPositions();
 	if (lineSeparatorPositions != null) {
 		this.lineEnds = lineSeparatorPositions;
 		this.linePtr = lineSeparatorPositions.length - 1;
@@ -10,11 +10,15 @@
  *******************************************************************************/
 package org.eclipse.wst.jsdt.internal.compiler.parser.diagnose;
 
+import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.impl.ReferenceContext;
 import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
 import org.eclipse.wst.jsdt.internal.compiler.parser.ParserBasicInformation;
 import org.eclipse.wst.jsdt.internal.compiler.parser.RecoveryScanner;
+import org.eclipse.wst.jsdt.internal.compiler.parser.RecoveryScannerData;
 import org.eclipse.wst.jsdt.internal.compiler.parser.ScannerHelper;
 import org.eclipse.wst.jsdt.internal.compiler.parser.TerminalTokens;
 import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
@@ -26,7 +30,7 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 
 	private static final int STACK_INCREMENT = 256;
 
-//	private static final int ERROR_CODE = 1;
+	private static final int ERROR_CODE = 1;
 	private static final int BEFORE_CODE = 2;
 	private static final int INSERTION_CODE = 3;
 	private static final int INVALID_CODE = 4;
@@ -85,6 +89,17 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 
 	private boolean reportProblem;
 
+	// the number of trial parses left to the repairs of this diagnosis (-1: unbounded)
+	private int repairBudget;
+
+	// the diagnosed range, which identifies the diagnosis in the recovery cache of the parser
+	private int firstToken;
+	private int start;
+	private int end;
+	private int[] intervalStartToSkip;
+	private int[] intervalEndToSkip;
+	private int[] intervalFlagsToSkip;
+
 	private static class RepairCandidate {
 		public int symbol;
 		public int location;
@@ -152,6 +167,13 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 		this.options = options;
 		this.lexStream = new LexStream(BUFF_SIZE, parser.scanner, intervalStartToSkip, intervalEndToSkip, intervalFlagsToSkip, firstToken, start, end);
 		this.recoveryScanner = parser.recoveryScanner;
+		this.repairBudget = options.syntaxRecoveryBudget > 0 ? options.syntaxRecoveryBudget : -1;
+		this.firstToken = firstToken;
+		this.start = start;
+		this.end = end;
+		this.intervalStartToSkip = intervalStartToSkip;
+		this.intervalEndToSkip = intervalEndToSkip;
+		this.intervalFlagsToSkip = intervalFlagsToSkip;
 	}
 
 	private ProblemReporter problemReporter(){
@@ -187,6 +209,126 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 
 
 	public void diagnoseParse(boolean record) {
+		RecoveryCache cache = this.parser.recoveryCache;
+		ReferenceContext context = this.parser.referenceContext;
+		if (cache == null
+				|| context == null
+				|| this.parser.scanner instanceof RecoveryScanner
+				|| problemReporter().policy.stopOnFirstError()) {
+			diagnose(record);
+			return;
+		}
+		CompilationResult result = context.compilationResult();
+		char[] fileName = result.getFileName();
+		char[] source = this.parser.scanner.source;
+
+		RecoveryCache.Recovery diagnosis = new RecoveryCache.Recovery();
+		diagnosis.firstToken = this.firstToken;
+		diagnosis.start = this.start;
+		diagnosis.end = this.end;
+		diagnosis.intervalStartToSkip = this.intervalStartToSkip;
+		diagnosis.intervalEndToSkip = this.intervalEndToSkip;
+		diagnosis.intervalFlagsToSkip = this.intervalFlagsToSkip;
+		diagnosis.record = record && this.recoveryScanner != null;
+		diagnosis.reportOnlyOneSyntaxError = this.parser.reportOnlyOneSyntaxError;
+		diagnosis.problemCount = result.problemCount;
+		diagnosis.maxProblemsPerUnit = this.options.maxProblemsPerUnit;
+		diagnosis.budget = this.repairBudget;
+
+		RecoveryCache.Recovery recovery = cache.get(fileName, source, diagnosis);
+		if (recovery != null) {
+			replay(recovery, context, result);
+			return;
+		}
+
+		RecoveryScannerData data = diagnosis.record ? this.recoveryScanner.getData() : null;
+		int insertedTokensPtr = data == null ? -1 : data.insertedTokensPtr;
+		int replacedTokensPtr = data == null ? -1 : data.replacedTokensPtr;
+		int removedTokensPtr = data == null ? -1 : data.removedTokensPtr;
+
+		diagnose(record);
+
+		int problemCount = result.problemCount - diagnosis.problemCount;
+		diagnosis.problems = new CategorizedProblem[problemCount];
+		if (problemCount > 0) {
+			System.arraycopy(result.problems, diagnosis.problemCount, diagnosis.problems, 0, problemCount);
+		}
+		if (data != null) {
+			diagnosis.repairs = repairsSince(data, insertedTokensPtr, replacedTokensPtr, removedTokensPtr);
+		}
+		cache.put(fileName, source, diagnosis);
+	}
+
+	//
+	// Reports the problems and records the repairs of a previous
+	// diagnosis of the same source instead of diagnosing it again.
+	//
+	private void replay(RecoveryCache.Recovery recovery, ReferenceContext context, CompilationResult result) {
+		ProblemReporter problemReporter = problemReporter();
+		for (int i = 0; i < recovery.problems.length; i++) {
+			CategorizedProblem problem = recovery.problems[i];
+			problemReporter.record(problem, result, context);
+			if (problem.isError()) {
+				context.tagAsHavingErrors();
+			}
+		}
+		RecoveryScannerData repairs = recovery.repairs;
+		if (repairs != null) {
+			boolean oldRecord = this.recoveryScanner.record;
+			this.recoveryScanner.record = true;
+			try {
+				for (int i = 0; i <= repairs.insertedTokensPtr; i++) {
+					this.recoveryScanner.insertTokens(reverse(repairs.insertedTokens[i]), -1, repairs.insertedTokensPosition[i]);
+				}
+				for (int i = 0; i <= repairs.replacedTokensPtr; i++) {
+					this.recoveryScanner.replaceTokens(reverse(repairs.replacedTokens[i]), repairs.replacedTokensStart[i], repairs.replacedTokensEnd[i]);
+				}
+				for (int i = 0; i <= repairs.removedTokensPtr; i++) {
+					this.recoveryScanner.removeTokens(repairs.removedTokensStart[i], repairs.removedTokensEnd[i]);
+				}
+			} finally {
+				this.recoveryScanner.record = oldRecord;
+			}
+		}
+	}
+
+	//
+	// Answers the repairs recorded in the given data after the given
+	// pointers, the tokens being kept in the reverse order as in the data.
+	//
+	private static RecoveryScannerData repairsSince(RecoveryScannerData data, int insertedTokensPtr, int replacedTokensPtr, int removedTokensPtr) {
+		RecoveryScannerData repairs = new RecoveryScannerData();
+		int length = data.insertedTokensPtr - insertedTokensPtr;
+		if (length > 0) {
+			System.arraycopy(data.insertedTokens, insertedTokensPtr + 1, repairs.insertedTokens = new int[length][], 0, length);
+			System.arraycopy(data.insertedTokensPosition, insertedTokensPtr + 1, repairs.insertedTokensPosition = new int[length], 0, length);
+			repairs.insertedTokensPtr = length - 1;
+		}
+		length = data.replacedTokensPtr - replacedTokensPtr;
+		if (length > 0) {
+			System.arraycopy(data.replacedTokens, replacedTokensPtr + 1, repairs.replacedTokens = new int[length][], 0, length);
+			System.arraycopy(data.replacedTokensStart, replacedTokensPtr + 1, repairs.replacedTokensStart = new int[length], 0, length);
+			System.arraycopy(data.replacedTokensEnd, replacedTokensPtr + 1, repairs.replacedTokensEnd = new int[length], 0, length);
+			repairs.replacedTokensPtr = length - 1;
+		}
+		length = data.removedTokensPtr - removedTokensPtr;
+		if (length > 0) {
+			System.arraycopy(data.removedTokensStart, removedTokensPtr + 1, repairs.removedTokensStart = new int[length], 0, length);
+			System.arraycopy(data.removedTokensEnd, removedTokensPtr + 1, repairs.removedTokensEnd = new int[length], 0, length);
+			repairs.removedTokensPtr = length - 1;
+		}
+		return repairs;
+	}
+
+	private static int[] reverse(int[] tokens) {
+		int length = tokens.length;
+		int[] reversed = new int[length];
+		for (int i = 0; i < length; i++)
+			reversed[i] = tokens[length - i - 1];
+		return reversed;
+	}
+
+	private void diagnose(boolean record) {
 		this.reportProblem = true;
 		boolean oldRecord = false;
 		if(this.recoveryScanner != null) {
@@ -470,6 +612,10 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 			return candidate;
 		}
 
+		if (this.repairBudget == 0 && lexStream.kind(error_token) != EOFT_SYMBOL) {
+			return unrepairedError(error_token);
+		}
+
 		//
 		// Try primary phase recoveries. If not successful, try secondary
 		// phase recoveries.  If not successful and we are at end of the
@@ -502,12 +648,15 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 		// a successful recovery or have consumed the remaining input
 		// tokens.
 		//
-		while(lexStream.kind(buffer[BUFF_UBOUND]) != EOFT_SYMBOL) {
+		while(lexStream.kind(buffer[BUFF_UBOUND]) != EOFT_SYMBOL && this.repairBudget != 0) {
 			candidate = secondaryPhase(buffer[MAX_DISTANCE - MIN_DISTANCE + 2]);
 			if (candidate.symbol != 0) {
 				return candidate;
 			}
 		}
+		if (this.repairBudget == 0) {
+			return unrepairedError(error_token);
+		}
 
 		//
 		// We reached the end of the file while panicking. Delete all
@@ -527,6 +676,20 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 		return candidate;
 	}
 
+//
+//	   Once the budget of trial parses is spent, the error token is
+//	   reported without any repair and the diagnosis ends, so that
+//	   the cost of a diagnosis stays bounded.
+//
+	private RepairCandidate unrepairedError(int error_token) {
+		reportError(ERROR_CODE, -1, error_token, error_token);
+
+		RepairCandidate candidate = new RepairCandidate();
+		candidate.symbol = 0;
+		candidate.location = error_token;
+		return candidate;
+	}
+
 //
 //	   This function tries primary and scope recovery on each
 //	   available configuration.  If a successful recovery is found
@@ -1934,6 +2097,14 @@ public class DiagnoseParser implements ParserBasicInformation, TerminalTokens {
 		int ct;
 		int act;
 
+		//
+		// Once the budget is spent, no repair is tried any more.
+		//
+		if (this.repairBudget == 0)
+			return 0;
+		if (this.repairBudget > 0)
+			this.repairBudget--;
+
 		//
 		// Initialize pointer for temp_stack and initialize maximum
 		// position of state stack that is still useful.
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.parser.diagnose;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.wst.jsdt.core.compiler.CategorizedProblem;
+import org.eclipse.wst.jsdt.internal.compiler.parser.RecoveryScannerData;
+import org.eclipse.wst.jsdt.internal.compiler.util.Util;
+
+/**
+ * The last recoveries of the syntax errors of the working copies, so that a source reconciled
+ * again while its syntax errors are not fixed yet is not diagnosed again: the problems and the
+ * repairs of the statements recovery found by the {@link DiagnoseParser} are replayed instead.
+ * <p>
+ * The recoveries of a file are kept for its last contents only, and are identified by the range
+ * of the source they diagnosed and by the settings of the diagnosis. Only the most recently
+ * diagnosed files are kept. The cache is shared by the reconciling threads.
+ * </p>
+ */
+public class RecoveryCache {
+
+	public static final int DEFAULT_SIZE = 20; // files
+
+	/*
+	 * The recoveries of the last contents of a file.
+	 */
+	private static class Contents {
+		String fileName;
+		long hash;
+		int length;
+		ArrayList recoveries = new ArrayList(2);
+
+		Contents(String fileName, long hash, int length) {
+			this.fileName = fileName;
+			this.hash = hash;
+			this.length = length;
+		}
+	}
+
+	/*
+	 * A diagnosis and what it reported and repaired.
+	 */
+	static class Recovery {
+		int firstToken;
+		int start;
+		int end;
+		int[] intervalStartToSkip;
+		int[] intervalEndToSkip;
+		int[] intervalFlagsToSkip;
+		boolean record;
+		boolean reportOnlyOneSyntaxError;
+		int problemCount; // the problems of the unit before the diagnosis
+		int maxProblemsPerUnit;
+		int budget;
+
+		CategorizedProblem[] problems;
+		RecoveryScannerData repairs; // only the repairs of the diagnosis, null if none
+
+		boolean isRecoveryOf(Recovery diagnosis) {
+			return this.firstToken == diagnosis.firstToken
+				&& this.start == diagnosis.start
+				&& this.end == diagnosis.end
+				&& this.record == diagnosis.record
+				&& this.reportOnlyOneSyntaxError == diagnosis.reportOnlyOneSyntaxError
+				&& this.problemCount == diagnosis.problemCount
+				&& this.maxProblemsPerUnit == diagnosis.maxProblemsPerUnit
+				&& this.budget == diagnosis.budget
+				&& Arrays.equals(this.intervalStartToSkip, diagnosis.intervalStartToSkip)
+				&& Arrays.equals(this.intervalEndToSkip, diagnosis.intervalEndToSkip)
+				&& Arrays.equals(this.intervalFlagsToSkip, diagnosis.intervalFlagsToSkip);
+		}
+	}
+
+	// the contents of the most recently diagnosed files first
+	private Contents[] files;
+	private int fileCount;
+
+public RecoveryCache(int size) {
+	this.files = new Contents[size];
+}
+/*
+ * Returns the contents of the given file and makes it the most recently used, or null if none.
+ */
+private Contents getContents(String fileName) {
+	for (int i = 0; i < this.fileCount; i++) {
+		Contents contents = this.files[i];
+		if (contents.fileName.equals(fileName)) {
+			System.arraycopy(this.files, 0, this.files, 1, i);
+			this.files[0] = contents;
+			return contents;
+		}
+	}
+	return null;
+}
+/*
+ * Returns the recovery of a previous diagnosis of the same source with the same settings as the
+ * given diagnosis, or null if none.
+ */
+synchronized Recovery get(char[] fileName, char[] source, Recovery diagnosis) {
+	Contents contents = getContents(new String(fileName));
+	if (contents == null || contents.length != source.length || contents.hash != Util.hash64(source))
+		return null;
+	for (int i = 0, size = contents.recoveries.size(); i < size; i++) {
+		Recovery recovery = (Recovery) contents.recoveries.get(i);
+		if (recovery.isRecoveryOf(diagnosis))
+			return recovery;
+	}
+	return null;
+}
+/*
+ * Remembers the given recovery of the given source, forgetting the recoveries of the previous
+ * contents of the file.
+ */
+synchronized void put(char[] fileName, char[] source, Recovery recovery) {
+	String key = new String(fileName);
+	long hash = Util.hash64(source);
+	Contents contents = getContents(key);
+	if (contents == null) {
+		if (this.fileCount < this.files.length) this.fileCount++;
+		// the least recently used file is forgotten if the cache is full
+		System.arraycopy(this.files, 0, this.files, 1, this.fileCount - 1);
+		this.files[0] = contents = new Contents(key, hash, source.length);
+	} else if (contents.length != source.length || contents.hash != hash) {
+		this.files[0] = contents = new Contents(key, hash, source.length);
+	}
+	for (int i = 0, size = contents.recoveries.size(); i < size; i++) {
+		if (((Recovery) contents.recoveries.get(i)).isRecoveryOf(recovery)) {
+			contents.recoveries.set(i, recovery);
+			return;
+		}
+	}
+	contents.recoveries.add(recovery);
+}
+public synchronized void flush() {
+	for (int i = 0; i < this.fileCount; i++)
+		this.files[i] = null;
+	this.fileCount = 0;
+}
+public synchronized String toString() {
+	StringBuffer buffer = new StringBuffer("Syntax recovery cache: "); //$NON-NLS-1$
+	buffer.append(this.fileCount).append('/').append(this.files.length).append(" files"); //$NON-NLS-1$
+	return buffer.toString();
+}
+}
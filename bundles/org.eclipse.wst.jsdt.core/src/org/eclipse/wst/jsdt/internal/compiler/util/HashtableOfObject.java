@@ -124,7 +124,22 @@ public final class HashtableOfObject implements Cloneable {
 				elementSize--;
 				keyTable[index] = null;
 				valueTable[index] = null;
-				rehash();
+				// only the following keys of the run may have been probed past the removed one,
+				// so they are put again instead of rehashing the whole table
+				while (keyTable[index = (index + 1) % length] != null) {
+					currentKey = keyTable[index];
+					Object currentValue = valueTable[index];
+					keyTable[index] = null;
+					valueTable[index] = null;
+					int newIndex = CharOperation.hashCode(currentKey) % length;
+					while (keyTable[newIndex] != null) {
+						if (++newIndex == length) {
+							newIndex = 0;
+						}
+					}
+					keyTable[newIndex] = currentKey;
+					valueTable[newIndex] = currentValue;
+				}
 				return value;
 			}
 			if (++index == length) {
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.compiler.util;
+
+import java.util.Arrays;
+
+import org.eclipse.wst.jsdt.internal.core.util.WeakHashSet;
+
+/**
+ * An immutable table of the line ends of a source, as answered by the scanner, taking about a
+ * quarter of the space of the <code>int[]</code> table: each line end is encoded as its distance
+ * to the previous one, in one byte for the lines shorter than 128 characters, and only the first
+ * line end of each block of 32 lines is kept as is, for the random accesses.
+ * <p>
+ * The tables are shared: {@link #share(int[], int)} answers the same table for equal line ends,
+ * so the parses of the same contents kept by the model, the compiler results and the DOM
+ * share one table while any of them is alive.
+ * </p>
+ */
+public final class LineEndTable {
+
+	public static final LineEndTable EMPTY = new LineEndTable(new int[0], 0);
+
+	private static final int BLOCK_SHIFT = 5;
+	private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+	private static final WeakHashSet SHARED_TABLES = new WeakHashSet(50);
+
+	private final int length;
+	/* for each block, its first line end and the index of the distances of its other line ends */
+	private final int[] blocks;
+	private final byte[] distances;
+	private final int hashCode;
+
+private LineEndTable(int[] lineEnds, int length) {
+	this.length = length;
+	this.blocks = new int[((length + BLOCK_MASK) >> BLOCK_SHIFT) * 2];
+	byte[] bytes = new byte[length];
+	int byteCount = 0;
+	int hash = length;
+	for (int i = 0; i < length; i++) {
+		int lineEnd = lineEnds[i];
+		hash = hash * 31 + lineEnd;
+		if ((i & BLOCK_MASK) == 0) {
+			int block = (i >> BLOCK_SHIFT) << 1;
+			this.blocks[block] = lineEnd;
+			this.blocks[block + 1] = byteCount;
+			continue;
+		}
+		if (byteCount + 5 > bytes.length)
+			System.arraycopy(bytes, 0, bytes = new byte[bytes.length * 2 + 5], 0, byteCount);
+		int distance = lineEnd - lineEnds[i - 1];
+		while ((distance & ~0x7F) != 0) {
+			bytes[byteCount++] = (byte) ((distance & 0x7F) | 0x80);
+			distance >>>= 7;
+		}
+		bytes[byteCount++] = (byte) distance;
+	}
+	if (byteCount != bytes.length)
+		System.arraycopy(bytes, 0, bytes = new byte[byteCount], 0, byteCount);
+	this.distances = bytes;
+	this.hashCode = hash;
+}
+/**
+ * Returns the table of the first <code>length</code> given line ends, shared with the other
+ * tables of the same line ends.
+ */
+public static LineEndTable share(int[] lineEnds, int length) {
+	if (length == 0) return EMPTY;
+	LineEndTable table = new LineEndTable(lineEnds, length);
+	synchronized (SHARED_TABLES) {
+		return (LineEndTable) SHARED_TABLES.add(table);
+	}
+}
+/**
+ * Returns the table of the given line ends, shared with the other tables of the same line ends.
+ */
+public static LineEndTable share(int[] lineEnds) {
+	return share(lineEnds, lineEnds.length);
+}
+/**
+ * Returns the number of line ends.
+ */
+public int length() {
+	return this.length;
+}
+/**
+ * Returns the line end at the given index, the end of the line <code>index + 1</code>.
+ */
+public int get(int index) {
+	if (index < 0 || index >= this.length)
+		throw new ArrayIndexOutOfBoundsException(index);
+	int block = (index >> BLOCK_SHIFT) << 1;
+	int lineEnd = this.blocks[block];
+	int position = this.blocks[block + 1];
+	byte[] bytes = this.distances;
+	for (int i = index & BLOCK_MASK; i > 0; i--) {
+		int distance = 0, shift = 0;
+		byte b;
+		do {
+			b = bytes[position++];
+			distance |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		lineEnd += distance;
+	}
+	return lineEnd;
+}
+/**
+ * Returns the one-based number of the line of the given position: the lines extend through
+ * their line ends, and the positions after the last line end are on the line after it.
+ */
+public int getLineNumber(int position) {
+	if (this.length == 0 || position <= this.blocks[0]) return 1;
+	// the last block starting before the position
+	int low = 0, high = (this.blocks.length >> 1) - 1;
+	while (low < high) {
+		int middle = (low + high + 1) >>> 1;
+		if (this.blocks[middle << 1] < position)
+			low = middle;
+		else
+			high = middle - 1;
+	}
+	int index = low << BLOCK_SHIFT;
+	int lineEnd = this.blocks[low << 1];
+	int bytePosition = this.blocks[(low << 1) + 1];
+	int last = Math.min(this.length, index + BLOCK_SIZE) - 1;
+	byte[] bytes = this.distances;
+	while (index < last) {
+		int distance = 0, shift = 0;
+		byte b;
+		do {
+			b = bytes[bytePosition++];
+			distance |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		lineEnd += distance;
+		index++;
+		if (lineEnd >= position) return index + 1;
+	}
+	return index + 2;
+}
+/**
+ * Returns the line ends in a new array.
+ */
+public int[] toArray() {
+	int[] lineEnds = new int[this.length];
+	byte[] bytes = this.distances;
+	int position = 0;
+	for (int i = 0; i < this.length; i++) {
+		if ((i & BLOCK_MASK) == 0) {
+			lineEnds[i] = this.blocks[(i >> BLOCK_SHIFT) << 1];
+			continue;
+		}
+		int distance = 0, shift = 0;
+		byte b;
+		do {
+			b = bytes[position++];
+			distance |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		lineEnds[i] = lineEnds[i - 1] + distance;
+	}
+	return lineEnds;
+}
+/**
+ * Returns an estimate of the number of bytes taken by this table.
+ */
+public int getFootprint() {
+	return 3 * 16 + 4 * this.blocks.length + this.distances.length;
+}
+public boolean equals(Object o) {
+	if (this == o) return true;
+	if (!(o instanceof LineEndTable)) return false;
+	LineEndTable other = (LineEndTable) o;
+	return this.hashCode == other.hashCode
+		&& this.length == other.length
+		&& Arrays.equals(this.blocks, other.blocks)
+		&& Arrays.equals(this.distances, other.distances);
+}
+public int hashCode() {
+	return this.hashCode;
+}
+public String toString() {
+	StringBuffer buffer = new StringBuffer("LineEndTable "); //$NON-NLS-1$
+	buffer.append(this.length).append(" line ends, ").append(getFootprint()).append(" bytes"); //$NON-NLS-1$ //$NON-NLS-2$
+	return buffer.toString();
+}
+}
@@ -305,6 +305,19 @@ public class Util implements SuffixConstants {
 		}
 	}
 
+	/**
+	 * Returns the 64 bits FNV-1a hash of the given characters, e.g. to tell whether the contents
+	 * of a unit changed without keeping them.
+	 */
+	public static long hash64(char[] chars) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0, length = chars.length; i < length; i++) {
+			hash ^= chars[i];
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
 	/**
 	 * Returns true iff str.toLowerCase().endsWith(".jar") || str.toLowerCase().endsWith(".zip")
 	 * implementation is not creating extra strings.
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core;
+
+import java.util.HashMap;
+
+/**
+ * The paths of the files declaring the global bindings searched in the indexes by the name lookups
+ * of a project, so that the names resolved again and again (e.g. <code>$</code>, <code>window</code>
+ * or <code>document</code>) are not searched again. The names that no file declares are remembered
+ * too.
+ * <p>
+ * The answers are forgotten with the other caches of the project when its classpath changes, by the
+ * delta processor when the files of the project or of the projects it depends on are indexed again,
+ * and by the index manager when the unsaved contents indexed for a primary working copy of these
+ * projects change. The cache is shared by the threads resolving in the project.
+ * </p>
+ */
+class BindingCache {
+
+	public static final int DEFAULT_SIZE = 5000; // bindings
+
+	private static final String[] NO_PATHS = new String[0];
+
+	private HashMap answers = new HashMap();
+	private int size;
+
+	// incremented by each flush, so that a search started before it is not remembered
+	private int stamp;
+
+BindingCache(int size) {
+	this.size = size;
+}
+/*
+ * Returns the key of the given search: the answers do not depend on the working copies of the
+ * lookup, which it searches before the indexes. The primary working copies whose unsaved contents
+ * are indexed flush the cache instead.
+ */
+static String key(String bindingName, int bindingType, String excludePath) {
+	StringBuffer buffer = new StringBuffer(bindingName.length() + 16);
+	buffer.append(bindingType).append(' ').append(bindingName);
+	if (excludePath != null)
+		buffer.append(' ').append(excludePath);
+	return buffer.toString();
+}
+/*
+ * Returns the paths found by a previous search with the given key, an empty array if none were
+ * found, or null if the search was not done since the last flush.
+ */
+synchronized String[] get(String key) {
+	return (String[]) this.answers.get(key);
+}
+/*
+ * Returns the stamp to give back to put(...) the answer of a search about to be done.
+ */
+synchronized int getStamp() {
+	return this.stamp;
+}
+/*
+ * Remembers the paths found by the search with the given key, unless the cache was flushed since
+ * the search started.
+ */
+synchronized void put(String key, String[] paths, int searchStamp) {
+	if (searchStamp != this.stamp)
+		return;
+	if (this.answers.size() >= this.size)
+		this.answers.clear();
+	this.answers.put(key, paths.length == 0 ? NO_PATHS : paths);
+}
+public synchronized void flush() {
+	this.answers.clear();
+	this.stamp++;
+}
+public synchronized String toString() {
+	StringBuffer buffer = new StringBuffer("Binding cache: "); //$NON-NLS-1$
+	buffer.append(this.answers.size()).append('/').append(this.size).append(" bindings"); //$NON-NLS-1$
+	return buffer.toString();
+}
+}
@@ -171,10 +171,17 @@ protected boolean buildStructure(OpenableElementInfo info, IProgressMonitor pm,
 //	if (!computeProblems && !resolveBindings && !createAST) // disable javadoc parsing if not computing problems, not resolving and not creating ast
 //		parser.javadocParser.checkDocComment = false;
 	requestor.parser = parser;
-	CompilationUnitDeclaration unit =
-		parser.parseCompilationUnit(
+	CompilationUnitDeclaration unit;
+	if (createAST) {
+		unit = parser.parseCompilationUnit(this, true /*full parse to find local elements*/);
+	} else {
+		// a library file reopened after its info was removed from the cache is not parsed again
+		unit = JavaModelManager.getJavaModelManager().getParseCache().parseCompilationUnit(
+			parser,
+			requestor,
 			this,
-		true /*full parse to find local elements*/);
+			true /*full parse to find local elements*/);
+	}
 
 	// update timestamp (might be IResource.NULL_STAMP if original does not exist)
 	if (underlyingResource == null) {
@@ -59,6 +59,7 @@ import org.eclipse.wst.jsdt.internal.compiler.IProblemFactory;
 import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
 import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.ParserPool;
 import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
 import org.eclipse.wst.jsdt.internal.compiler.util.SuffixConstants;
 import org.eclipse.wst.jsdt.internal.core.util.MementoTokenizer;
@@ -77,6 +78,11 @@ public class CompilationUnit extends Openable implements IJavaScriptUnit, org.ec
 	/*package*/ static final int JLS2_INTERNAL = AST.JLS2;
 
 	private static final IImportDeclaration[] NO_IMPORTS = new IImportDeclaration[0];
+
+	/*
+	 * The parsers building the structure of the units, reused by the successive reconciles of a thread.
+	 */
+	private static final ParserPool PARSERS = new ParserPool();
 	protected String name;
 	public WorkingCopyOwner owner;
 	public String superTypeName;
@@ -190,18 +196,29 @@ public class CompilationUnit extends Openable implements IJavaScriptUnit, org.ec
 			// disable task tags checking to speed up parsing
 			options.put(JavaScriptCore.COMPILER_TASK_TAGS, ""); //$NON-NLS-1$
 		}
-		SourceElementParser parser = new SourceElementParser(
-			requestor,
-			problemFactory,
-			new CompilerOptions(options),
-			true/*report local declarations*/,
-			!createAST /*optimize string literals only if not creating a DOM AST*/);
+		CompilerOptions compilerOptions = new CompilerOptions(options);
+		SourceElementParser parser = (SourceElementParser) PARSERS.acquire(compilerOptions, !createAST);
+		if (parser == null) {
+			parser = new SourceElementParser(
+				requestor,
+				problemFactory,
+				compilerOptions,
+				true/*report local declarations*/,
+				!createAST /*optimize string literals only if not creating a DOM AST*/);
+		} else {
+			parser.setRequestor(requestor);
+		}
 		parser.reportOnlyOneSyntaxError = !computeProblems;
+		parser.recoveryCache = computeProblems ? JavaModelManager.getJavaModelManager().getRecoveryCache() : null;
+		// the unit is also the one resolved by the problem finder, an AST needs the function bodies
+		parser.skipMinifiedSources = computeProblems && !createAST;
+		// the unit converted to an AST is fully parsed, as before
+		parser.setSkipFunctionBodies(!createAST);
 		parser.setMethodsFullRecovery(true);
 		parser.setStatementsRecovery((reconcileFlags & IJavaScriptUnit.ENABLE_STATEMENTS_RECOVERY) != 0);
 	
 		requestor.parser = parser;
-		CompilationUnitDeclaration unit = parser.parseCompilationUnit(
+		org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit sourceUnit =
 			new org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit() {
 				public char[] getContents() {
 					return contents;
@@ -221,10 +238,18 @@ public class CompilationUnit extends Openable implements IJavaScriptUnit, org.ec
 				public String getInferenceID() {
 					return CompilationUnit.this.getInferenceID();
 				}
-	
-	
-			},
-			true /*full parse to find local elements*/);
+			};
+		CompilationUnitDeclaration unit;
+		if (computeProblems || createAST) {
+			unit = parser.parseCompilationUnit(sourceUnit, true /*full parse to find local elements*/);
+		} else {
+			// only the structure is needed, which is replayed if the same contents were parsed before
+			unit = JavaModelManager.getJavaModelManager().getParseCache().parseCompilationUnit(
+				parser,
+				requestor,
+				sourceUnit,
+				true /*full parse to find local elements*/);
+		}
 	
 		// update timestamp (might be IResource.NULL_STAMP if original does not exist)
 		if (underlyingResource == null) {
@@ -271,6 +296,7 @@ public class CompilationUnit extends Openable implements IJavaScriptUnit, org.ec
 		        if (compilationUnitDeclaration.scope!=null)
 		        	compilationUnitDeclaration.scope.cleanup();
 		    }
+		    PARSERS.release(parser);
 		}
 	
 		return unitInfo.isStructureKnown();
@@ -37,7 +37,10 @@ import org.eclipse.wst.jsdt.internal.compiler.env.ISourceType;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.wst.jsdt.internal.compiler.impl.ITypeRequestor2;
 import org.eclipse.wst.jsdt.internal.compiler.lookup.PackageBinding;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSourceStatistics;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSources;
 import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
+import org.eclipse.wst.jsdt.internal.compiler.parser.ParserPool;
 import org.eclipse.wst.jsdt.internal.compiler.parser.SourceTypeConverter;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilationUnit;
 import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
@@ -52,6 +55,11 @@ import org.eclipse.wst.jsdt.internal.core.util.Util;
  */
 public class CompilationUnitProblemFinder extends Compiler implements ITypeRequestor2 {
 
+	/*
+	 * The parsers of the problem finders, reused by the successive reconciles of a thread.
+	 */
+	private static final ParserPool PARSERS = new ParserPool();
+
 	/**
 	 * Answer a new CompilationUnitVisitor using the given name environment and compiler options.
 	 * The environment and options will be in effect for the lifetime of the compiler.
@@ -225,6 +233,7 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 		IProgressMonitor monitor)
 		throws JavaScriptModelException {
 
+		long start = System.currentTimeMillis();
 		JavaProject project = (JavaProject) unitElement.getJavaScriptProject();
 		CancelableNameEnvironment environment = null;
 		CancelableProblemFactory problemFactory = null;
@@ -252,7 +261,13 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 				getRequestor(),
 				problemFactory);
 			if (parser != null) {
+				PARSERS.release(problemFinder.parser);
 				problemFinder.parser = parser;
+			} else {
+				// an AST needs the function bodies, e.g. to navigate in a minified library
+				problemFinder.parser.skipMinifiedSources = !creatingAST;
+				problemFinder.parser.recoveryCache = JavaModelManager.getJavaModelManager().getRecoveryCache();
+				problemFinder.parser.inferredTypesCache = JavaModelManager.getJavaModelManager().getInferredTypesCache();
 			}
 			PackageFragment packageFragment = (PackageFragment)unitElement.getAncestor(IJavaScriptElement.PACKAGE_FRAGMENT);
 			char[][] expectedPackageName = null;
@@ -277,6 +292,7 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 					true, // analyze code
 					true); // generate code
 			}
+			MinifiedSources.STATISTICS.record(MinifiedSourceStatistics.RECONCILE, unit.isMinified, unit.sourceEnd + 1, System.currentTimeMillis() - start);
 			CompilationResult unitResult = unit.compilationResult;
 			CategorizedProblem[] unitProblems = unitResult.getProblems();
 			int length = unitProblems == null ? 0 : unitProblems.length;
@@ -319,6 +335,8 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 			// NB: unit.cleanUp() is done by caller
 			if (problemFinder != null )//&& !creatingAST)
 				problemFinder.lookupEnvironment.reset();
+			if (problemFinder != null && parser == null)
+				problemFinder.releaseParser();
 		}
 	}
 
@@ -335,12 +353,25 @@ public class CompilationUnitProblemFinder extends Compiler implements ITypeReque
 		return process(null/*no CompilationUnitDeclaration*/, unitElement, contents, null/*use default Parser*/, workingCopyOwner, problems, creatingAST, reconcileFlags, monitor);
 	}
 
+	/*
+	 * Hands the parser back to the pool of the current thread, once the unit is resolved.
+	 * The problem finder must not be used afterwards.
+	 */
+	protected void releaseParser() {
+		PARSERS.release(this.parser);
+		this.parser = null;
+	}
+
 	/* (non-Javadoc)
 	 * Fix for bug https://bugs.eclipse.org/bugs/show_bug.cgi?id=60689.
 	 * @see org.eclipse.wst.jsdt.internal.compiler.Compiler#initializeParser()
 	 */
 	public void initializeParser() {
-		this.parser = new CommentRecorderParser(this.problemReporter, this.options.parseLiteralExpressionsAsConstants);
+		this.parser = PARSERS.acquire(this.options, this.options.parseLiteralExpressionsAsConstants);
+		if (this.parser == null)
+			this.parser = new CommentRecorderParser(this.problemReporter, this.options.parseLiteralExpressionsAsConstants);
+		else
+			this.parser.setProblemReporter(this.problemReporter);
 	}
 }
 
@@ -255,6 +255,9 @@ public class DeltaProcessor {
 	/* A set of IJavaScriptProject whose caches need to be reset */
 	public HashSet projectCachesToReset = new HashSet();
 
+	/* A set of IJavaScriptProject whose indexed files changed, so that the bindings found by their name lookups need to be reset */
+	public HashSet bindingCachesToReset = new HashSet();
+
 	/*
 	 * A list of IJavaScriptElement used as a scope for external archives refresh during POST_CHANGE.
 	 * This is null if no refresh is needed.
@@ -1798,12 +1801,50 @@ public class DeltaProcessor {
 			}
 			refreshPackageFragmentRoots();
 			resetProjectCaches();
+			resetBindingCaches();
 
 			return this.currentDelta;
 		} finally {
 			this.currentDelta = null;
 			this.rootsToRefresh.clear();
 			this.projectCachesToReset.clear();
+			this.bindingCachesToReset.clear();
+		}
+	}
+	/*
+	 * Traverse the set of projects whose indexed files changed, and reset the bindings
+	 * found by their name lookups and by the name lookups of their dependents
+	 */
+	private void resetBindingCaches() {
+		if (this.bindingCachesToReset.size() == 0)
+			return;
+
+		Iterator iterator = this.bindingCachesToReset.iterator();
+		HashMap projectDepencies = this.state.projectDependencies;
+		HashSet affectedDependents = new HashSet();
+		while (iterator.hasNext()) {
+			JavaProject project = (JavaProject)iterator.next();
+			project.resetBindingCache();
+			addDependentProjects(project, projectDepencies, affectedDependents);
+		}
+		iterator = affectedDependents.iterator();
+		while (iterator.hasNext()) {
+			JavaProject project = (JavaProject) iterator.next();
+			project.resetBindingCache();
+		}
+	}
+	/*
+	 * Resets the bindings found by the name lookups of the given project and of its dependents,
+	 * e.g. when the unsaved contents indexed for one of its working copies change
+	 */
+	public void resetBindingCaches(IJavaScriptProject project) {
+		((JavaProject) project).resetBindingCache();
+		HashSet dependents = new HashSet();
+		addDependentProjects(project, this.state.projectDependencies, dependents);
+		Iterator iterator = dependents.iterator();
+		while (iterator.hasNext()) {
+			JavaProject dependent = (JavaProject) iterator.next();
+			dependent.resetBindingCache();
 		}
 	}
 	/*
@@ -2441,6 +2482,13 @@ public class DeltaProcessor {
 					LibraryFragmentRoot root = (LibraryFragmentRoot)element;
 					// index jar file only once (if the root is in its declaring project)
 					IPath jarPath = root.getPath();
+					// the other projects referencing the library find its bindings too
+					this.bindingCachesToReset.add(root.getJavaScriptProject());
+					ArrayList otherRoots = otherRootsInfo(jarPath, delta.getKind());
+					if (otherRoots != null) {
+						for (int i = 0, length = otherRoots.size(); i < length; i++)
+							this.bindingCachesToReset.add(((RootInfo) otherRoots.get(i)).project);
+					}
 					switch (delta.getKind()) {
 						case IResourceDelta.ADDED:
 							// index the new jar
@@ -2516,10 +2564,12 @@ public class DeltaProcessor {
 							break;
 					case IResourceDelta.ADDED :
 						indexManager.addBinary(file, binaryFolderPath);
+						this.bindingCachesToReset.add(project);
 						break;
 					case IResourceDelta.REMOVED :
 						String containerRelativePath = Util.relativePath(file.getFullPath(), binaryFolderPath.segmentCount());
 						indexManager.remove(containerRelativePath, binaryFolderPath);
+						this.bindingCachesToReset.add(project);
 						break;
 				}
 				break;
@@ -2535,11 +2585,13 @@ public class DeltaProcessor {
 						indexManager.addSource(file, file.getProject().getFullPath(), getSourceElementParser(element));
 						// Clean file from secondary types cache but do not update indexing secondary type cache as it will be updated through indexing itself
 						this.manager.secondaryTypesRemoving(file, false);
+						this.bindingCachesToReset.add(element.getJavaScriptProject());
 						break;
 					case IResourceDelta.REMOVED :
 						indexManager.remove(Util.relativePath(file.getFullPath(), 1/*remove project segment*/), file.getProject().getFullPath());
 						// Clean file from secondary types cache and update indexing secondary type cache as indexing cannot remove secondary types from cache
 						this.manager.secondaryTypesRemoving(file, true);
+						this.bindingCachesToReset.add(element.getJavaScriptProject());
 						break;
 				}
 		}
@@ -69,6 +69,11 @@ public class JavaModelCache {
 	 */
 	protected LRUCache jarTypeCache;
 
+	/*
+	 * Cache of the structure notified by the parses of compilation units and class files
+	 */
+	protected ParseCache parseCache;
+
 public JavaModelCache() {
 	// set the size of the caches in function of the maximum amount of memory available
 	double ratio = getMemoryRatio();
@@ -84,6 +89,7 @@ public JavaModelCache() {
 	}
 	this.childrenCache = new HashMap((int) (DEFAULT_CHILDREN_SIZE * ratio));
 	resetJarTypeCache();
+	this.parseCache = new ParseCache((int) (ParseCache.DEFAULT_SIZE * ratio));
 }
 
 /**
@@ -231,6 +237,9 @@ public String toStringFillingRation(String prefix) {
 	buffer.append(prefix);
 	buffer.append(this.jarTypeCache.toStringFillingRation("Jar type cache")); //$NON-NLS-1$
 	buffer.append('\n');
+	buffer.append(prefix);
+	buffer.append(this.parseCache.toStringFillingRation("Parse cache")); //$NON-NLS-1$
+	buffer.append('\n');
 	return buffer.toString();
 }
 }
@@ -115,6 +115,8 @@ import org.eclipse.wst.jsdt.internal.compiler.Compiler;
 import org.eclipse.wst.jsdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.wst.jsdt.internal.compiler.env.AccessRestriction;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.InferredTypesCache;
+import org.eclipse.wst.jsdt.internal.compiler.parser.diagnose.RecoveryCache;
 import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObjectToInt;
 import org.eclipse.wst.jsdt.internal.core.JavaProjectElementInfo.LookupCache;
 import org.eclipse.wst.jsdt.internal.core.builder.JavaBuilder;
@@ -131,6 +133,7 @@ import org.eclipse.wst.jsdt.internal.core.util.Messages;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 import org.eclipse.wst.jsdt.internal.core.util.WeakHashSet;
 import org.eclipse.wst.jsdt.internal.core.util.WeakHashSetOfCharArray;
+import org.osgi.framework.Constants;
 import org.osgi.service.prefs.BackingStoreException;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -190,6 +193,16 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 	private WeakHashSet stringSymbols = new WeakHashSet(5);
 	private WeakHashSetOfCharArray charArraySymbols = new WeakHashSetOfCharArray(5);
 
+	/*
+	 * The last recoveries of the syntax errors of the reconciled working copies.
+	 */
+	private RecoveryCache recoveryCache = new RecoveryCache(RecoveryCache.DEFAULT_SIZE);
+
+	/*
+	 * The types inferred for the units brought in by the lookup environment, created on demand.
+	 */
+	private InferredTypesCache inferredTypesCache;
+
 	/*
 	 * Extension used to construct Java 6 annotation processor managers
 	 */
@@ -289,6 +302,8 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 	// Preferences
 	HashSet optionNames = new HashSet(20);
 	Hashtable optionsCache;
+	private volatile int optionsStamp = 0; // changes whenever the options of JavaScriptCore or of a project may change
+	private final Object optionsStampLock = new Object();
 
 	public final IEclipsePreferences[] preferencesLookup = new IEclipsePreferences[2];
 	static final int PREF_INSTANCE = 0;
@@ -1261,6 +1276,7 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
          */
         public void preferenceChange(IEclipsePreferences.PreferenceChangeEvent event) {
         	String propertyName = event.getKey();
+        	getJavaModelManager().optionsChanged();
         	if (propertyName.startsWith(CP_VARIABLE_PREFERENCES_PREFIX)) {
         		String varName = propertyName.substring(CP_VARIABLE_PREFERENCES_PREFIX.length());
         		JavaModelManager manager = getJavaModelManager();
@@ -1290,6 +1306,8 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
         		}
         	} else if (propertyName.startsWith(CP_CONTAINER_PREFERENCES_PREFIX)) {
         		recreatePersistedContainer(propertyName, (String)event.getNewValue(), false);
+        	} else if (propertyName.equals(JavaScriptCore.CORE_INDEXING_PARALLELISM)) {
+        		getJavaModelManager().getIndexManager().resetIndexingParallelism();
         	} else if (propertyName.equals(JavaScriptCore.CORE_JAVA_BUILD_CLEAN_OUTPUT_FOLDER) ||
 				propertyName.equals(JavaScriptCore.CORE_JAVA_BUILD_RESOURCE_COPY_FILTER) ||
 				propertyName.equals(JavaScriptCore.CORE_JAVA_BUILD_DUPLICATE_RESOURCE) ||
@@ -1556,6 +1574,35 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 		return this.indexManager;
 	}
 
+	/*
+	 * Returns the cache of the structure notified by the parses of compilation units and class files.
+	 */
+	public ParseCache getParseCache() {
+		return this.cache.parseCache;
+	}
+
+	/*
+	 * Returns the cache of the recoveries of the syntax errors found when reconciling the working copies.
+	 */
+	public RecoveryCache getRecoveryCache() {
+		return this.recoveryCache;
+	}
+
+	/*
+	 * Returns the cache of the types inferred for the units brought in by the lookup environment,
+	 * which is kept in the state location across sessions.
+	 */
+	public synchronized InferredTypesCache getInferredTypesCache() {
+		if (this.inferredTypesCache == null) {
+			// the types inferred by another build of the plug-in are inferred again
+			String version = (String) JavaScriptCore.getPlugin().getBundle().getHeaders().get(Constants.BUNDLE_VERSION);
+			this.inferredTypesCache = new InferredTypesCache(
+				JavaScriptCore.getPlugin().getStateLocation().append("inferredTypes").toFile(), //$NON-NLS-1$
+				String.valueOf(version));
+		}
+		return this.inferredTypesCache;
+	}
+
 	/**
 	 *  Returns the info for the element.
 	 */
@@ -1666,6 +1713,20 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 		return null;
 	}
 
+	/**
+	 * Returns a number which changes whenever the options of JavaScriptCore or of a project may change,
+	 * so that the objects configured from the options can be kept until then.
+	 */
+	public int getOptionsStamp() {
+		return this.optionsStamp;
+	}
+
+	void optionsChanged() {
+		synchronized (this.optionsStampLock) {
+			this.optionsStamp++;
+		}
+	}
+
 	public Hashtable getOptions() {
 
 		// return cached options if already computed
@@ -1767,6 +1828,10 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 		// Time out for parameter names
 		defaultOptionsMap.put(JavaScriptCore.TIMEOUT_FOR_PARAMETER_NAME_FROM_ATTACHED_JAVADOC, "50"); //$NON-NLS-1$
 
+		// Parallel indexing
+		defaultOptionsMap.put(JavaScriptCore.CORE_INDEXING_PARALLELISM, "1"); //$NON-NLS-1$
+		defaultOptionsMap.put(JavaScriptCore.CORE_INDEXING_COMPACTION_MEMORY_LIMIT, "32"); //$NON-NLS-1$
+
 		return new Hashtable(defaultOptionsMap);
 	}
 
@@ -3131,6 +3196,7 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 				info.options = null;
 			}
 		}
+		optionsChanged();
 	}
 
 	/*
@@ -4115,6 +4181,7 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 
 			// update cache
 			this.optionsCache = newOptions==null ? null : new Hashtable(newOptions);
+			optionsChanged();
 		} catch (BackingStoreException e) {
 			// ignore
 		}
@@ -4137,6 +4204,7 @@ public class JavaModelManager implements ISaveParticipant, IContentTypeChangeLis
 			Preferences.IPropertyChangeListener propertyListener = new Preferences.IPropertyChangeListener() {
 				public void propertyChange(Preferences.PropertyChangeEvent event) {
 					JavaModelManager.this.optionsCache = null;
+					optionsChanged();
 				}
 			};
 			JavaScriptCore.getPlugin().getPluginPreferences().addPropertyChangeListener(propertyListener);
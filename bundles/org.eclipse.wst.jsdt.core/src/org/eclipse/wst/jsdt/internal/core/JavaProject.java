@@ -2638,6 +2638,16 @@ public class JavaProject
 		}
 	}
 
+	/*
+	 * Resets the bindings found by this project's name lookups, e.g. when its files are indexed again
+	 */
+	public void resetBindingCache() {
+		JavaProjectElementInfo info = (JavaProjectElementInfo) JavaModelManager.getJavaModelManager().peekAtInfo(this);
+		if (info != null){
+			info.resetBindingCache();
+		}
+	}
+
 	/*
 	 * Resolve the given raw classpath.
 	 */
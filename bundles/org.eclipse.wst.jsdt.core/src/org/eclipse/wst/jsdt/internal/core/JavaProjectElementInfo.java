@@ -67,6 +67,11 @@ class JavaProjectElementInfo extends OpenableElementInfo {
 		public Map pkgFragmentsCaches;
 
 		public Map rootToResolvedEntries;
+
+		/*
+		 * A cache of the files declaring the global bindings searched by the name lookups of this project
+		 */
+		public BindingCache bindingCache = new BindingCache(BindingCache.DEFAULT_SIZE);
 	}
 
 	/**
@@ -339,7 +344,9 @@ class JavaProjectElementInfo extends OpenableElementInfo {
 			}
 			cache.allPkgFragmentsCache = allPkgFragmentsCache;
 		}
-		return new NameLookup(cache.allPkgFragmentRootsCache, cache.allPkgFragmentsCache, workingCopies, cache.rootToResolvedEntries);
+		NameLookup nameLookup = new NameLookup(cache.allPkgFragmentRootsCache, cache.allPkgFragmentsCache, workingCopies, cache.rootToResolvedEntries);
+		nameLookup.bindingCache = cache.bindingCache;
+		return nameLookup;
 	}
 
 	/*
@@ -349,6 +356,15 @@ class JavaProjectElementInfo extends OpenableElementInfo {
 		this.projectCache = null;
 	}
 
+	/*
+	 * Reset the bindings found by the name lookups, keeping the package fragment roots and package fragment caches
+	 */
+	void resetBindingCache() {
+		LookupCache cache = this.projectCache;
+		if (cache != null)
+			cache.bindingCache.flush();
+	}
+
 	/**
 	 * Set the fNonJavaResources to res value
 	 */
@@ -181,6 +181,12 @@ public class NameLookup implements SuffixConstants {
 
 	IRestrictedAccessBindingRequestor restrictedRequestor;
 
+	/*
+	 * The files declaring the bindings found by the index searches of the project's name lookups,
+	 * or null if the answers of this lookup are not shared
+	 */
+	BindingCache bindingCache;
+
 	public NameLookup(
 			IPackageFragmentRoot[] packageFragmentRoots,
 			HashtableOfArrayToObject packageFragments,
@@ -291,6 +297,8 @@ public class NameLookup implements SuffixConstants {
 
 	public void setRestrictedAccessRequestor(IRestrictedAccessBindingRequestor restrictedRequestor) {
 		this.restrictedRequestor=restrictedRequestor;
+		if (restrictedRequestor!=null)
+			this.bindingCache=null; // the found bindings are filtered by the requestor
 	}
 
 	protected  IRestrictedAccessBindingRequestor getRestrictedAccessRequestor() {
@@ -2164,22 +2172,38 @@ public class NameLookup implements SuffixConstants {
 				bindingAcceptor.setExcludePath(exclude);
 
 				try {
-					int matchRule = SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE;
-					new BasicSearchEngine().searchAllBindingNames(
-							CharOperation.NO_CHAR,
-							bindingName.toCharArray(),
-							bindingType,
-							matchRule, // not case sensitive
-							/*IJavaScriptSearchConstants.TYPE,*/ this.searchScope,
-							bindingAcceptor, IJavaScriptSearchConstants.WAIT_UNTIL_READY_TO_SEARCH,
-							false,
-							progressMonitor);
-					if (bindingAcceptor.getFoundPath()!=null)
+					String[] foundPaths = null;
+					String key = null;
+					int stamp = 0;
+					BindingCache cache = this.bindingCache;
+					if (cache!=null)
+					{
+						key = BindingCache.key(bindingName, bindingType, exclude);
+						stamp = cache.getStamp();
+						foundPaths = cache.get(key);
+					}
+					if (foundPaths==null)
+					{
+						int matchRule = SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE;
+						new BasicSearchEngine().searchAllBindingNames(
+								CharOperation.NO_CHAR,
+								bindingName.toCharArray(),
+								bindingType,
+								matchRule, // not case sensitive
+								/*IJavaScriptSearchConstants.TYPE,*/ this.searchScope,
+								bindingAcceptor, IJavaScriptSearchConstants.WAIT_UNTIL_READY_TO_SEARCH,
+								false,
+								progressMonitor);
+						ArrayList paths = bindingAcceptor.getFoundPaths();
+						foundPaths = (String[]) paths.toArray(new String[paths.size()]);
+						if (cache!=null)
+							cache.put(key, foundPaths, stamp);
+					}
+					if (foundPaths.length>0)
 					{
 						
-						Object[] foundPaths = bindingAcceptor.getFoundPaths().toArray();
 						for (int i = 0; i < foundPaths.length; ++i) {
-							String path = (String) foundPaths[i];
+							String path = foundPaths[i];
 
 						IOpenable openable ; //= createOpenable(getRestrictedAccessRequestor().getFoundPath(), this.searchScope);
 //						if (openable!=null)
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core;
+
+import org.eclipse.wst.jsdt.core.LibrarySuperType;
+import org.eclipse.wst.jsdt.internal.compiler.ISourceElementRequestor;
+import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
+import org.eclipse.wst.jsdt.internal.compiler.SourceElementRecorder;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.util.Util;
+import org.eclipse.wst.jsdt.internal.core.util.ILRUCacheable;
+import org.eclipse.wst.jsdt.internal.core.util.LRUCache;
+
+/*
+ * A cache of the notifications given by the source element parser to the requestors building
+ * the structure of the compilation units and class files, so that an element reopened after its
+ * info was removed from the Java model cache does not parse its unchanged source again.
+ *
+ * The notifications are keyed by the path of the unit, the hash of its contents, its inference
+ * settings and the settings of the parser, so an edited source or a changed option simply misses
+ * the cache, and the recordings of the previous contents are removed as the least recently used.
+ * The space of the cache is counted in recorded notifications.
+ */
+public class ParseCache {
+
+	public static final int DEFAULT_SIZE = 50000; // notifications, about 40 bytes each
+
+	private static class Key {
+		String path;
+		long contentHash;
+		int contentLength;
+		String inferenceID;
+		String superTypeName;
+		boolean fullParse;
+		Object settings;
+		int hashCode;
+
+		Key(String path, char[] contents, String inferenceID, String superTypeName, boolean fullParse, Object settings) {
+			this.path = path;
+			this.contentHash = Util.hash64(contents);
+			this.contentLength = contents.length;
+			this.inferenceID = inferenceID;
+			this.superTypeName = superTypeName;
+			this.fullParse = fullParse;
+			this.settings = settings;
+			this.hashCode = path.hashCode() * 31 + (int) (this.contentHash ^ (this.contentHash >>> 32));
+		}
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return this.hashCode == other.hashCode
+				&& this.contentHash == other.contentHash
+				&& this.contentLength == other.contentLength
+				&& this.fullParse == other.fullParse
+				&& this.path.equals(other.path)
+				&& equals(this.inferenceID, other.inferenceID)
+				&& equals(this.superTypeName, other.superTypeName)
+				&& this.settings.equals(other.settings);
+		}
+		private static boolean equals(String s1, String s2) {
+			return s1 == null ? s2 == null : s1.equals(s2);
+		}
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	private static class Recording implements ILRUCacheable {
+		SourceElementRecorder recorder;
+
+		Recording(SourceElementRecorder recorder) {
+			this.recorder = recorder;
+		}
+		public int getCacheFootprint() {
+			return Math.max(1, this.recorder.getEventCount());
+		}
+	}
+
+	/*
+	 * The unit given to the parser on a miss, answering the contents read for the key instead of
+	 * reading them again, e.g. from the archive of a class file.
+	 */
+	private static class ReadCompilationUnit implements ICompilationUnit {
+		ICompilationUnit unit;
+		char[] contents;
+
+		ReadCompilationUnit(ICompilationUnit unit, char[] contents) {
+			this.unit = unit;
+			this.contents = contents;
+		}
+		public char[] getContents() {
+			return this.contents;
+		}
+		public char[] getFileName() {
+			return this.unit.getFileName();
+		}
+		public char[] getMainTypeName() {
+			return this.unit.getMainTypeName();
+		}
+		public char[][] getPackageName() {
+			return this.unit.getPackageName();
+		}
+		public LibrarySuperType getCommonSuperType() {
+			return this.unit.getCommonSuperType();
+		}
+		public String getInferenceID() {
+			return this.unit.getInferenceID();
+		}
+	}
+
+	private LRUCache recordings;
+
+public ParseCache(int size) {
+	this.recordings = new LRUCache(size);
+}
+/*
+ * Parses the given unit with the given parser and notifies the given requestor of its structure,
+ * or replays the notifications of a previous parse of the same contents with the same settings.
+ * Returns the parsed unit, or null if the notifications were replayed.
+ */
+public CompilationUnitDeclaration parseCompilationUnit(SourceElementParser parser, ISourceElementRequestor requestor, ICompilationUnit unit, boolean fullParse) {
+	char[] fileName = unit.getFileName();
+	char[] contents = unit.getContents();
+	if (fileName == null || contents == null) {
+		parser.setRequestor(requestor);
+		return parser.parseCompilationUnit(unit, fullParse);
+	}
+	LibrarySuperType superType = unit.getCommonSuperType();
+	Key key = new Key(
+		new String(fileName),
+		contents,
+		unit.getInferenceID(),
+		superType == null ? null : superType.getSuperTypeName(),
+		fullParse,
+		parser.getNotificationSettings());
+	Recording recording;
+	synchronized (this) {
+		recording = (Recording) this.recordings.get(key);
+	}
+	if (recording != null) {
+		recording.recorder.replay(requestor);
+		return null;
+	}
+	SourceElementRecorder recorder = new SourceElementRecorder(requestor);
+	parser.setRequestor(recorder);
+	CompilationUnitDeclaration parsedUnit;
+	try {
+		parsedUnit = parser.parseCompilationUnit(new ReadCompilationUnit(unit, contents), fullParse);
+	} finally {
+		parser.setRequestor(requestor);
+	}
+	recorder.endRecording();
+	synchronized (this) {
+		this.recordings.put(key, new Recording(recorder));
+	}
+	return parsedUnit;
+}
+public synchronized void flush() {
+	this.recordings.flush();
+}
+public synchronized String toStringFillingRation(String cacheName) {
+	return this.recordings.toStringFillingRation(cacheName);
+}
+}
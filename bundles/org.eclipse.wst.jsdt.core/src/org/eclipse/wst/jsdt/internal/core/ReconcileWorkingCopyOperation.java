@@ -105,6 +105,10 @@ public class ReconcileWorkingCopyOperation extends JavaModelOperation {
 					makeConsistent(workingCopy);
 			}
 
+			// index the unsaved contents, so that searches do not need to parse the working copy
+			if (!wasConsistent && workingCopy.isPrimary() && workingCopy.getResource().isAccessible())
+				JavaModelManager.getJavaModelManager().getIndexManager().indexWorkingCopy(workingCopy, workingCopy.getContents());
+
 			// report problems
 			if (this.problems != null && (((this.reconcileFlags & IJavaScriptUnit.FORCE_PROBLEM_DETECTION) != 0) || !wasConsistent)) {
 				if (defaultRequestorIsActive) {
@@ -38,6 +38,7 @@ import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
 import org.eclipse.wst.jsdt.internal.compiler.ICompilerRequestor;
 import org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSourceStatistics;
 import org.eclipse.wst.jsdt.internal.compiler.problem.AbortCompilation;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
 import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
@@ -422,6 +423,12 @@ protected Compiler newCompiler() {
 	// enable the compiler reference info support
 	options.produceReferenceInfo = true;
 
+	// only build the declarations of the minified libraries
+	newCompiler.parser.skipMinifiedSources = true;
+	newCompiler.minifiedSourceStage = MinifiedSourceStatistics.COMPILE;
+	// restore the types inferred for the unchanged libraries instead of inferring them again
+	newCompiler.parser.inferredTypesCache = JavaModelManager.getJavaModelManager().getInferredTypesCache();
+
 	return newCompiler;
 }
 
@@ -11,11 +11,13 @@
 package org.eclipse.wst.jsdt.internal.core.index;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
@@ -30,33 +32,74 @@ import org.eclipse.wst.jsdt.internal.core.util.Messages;
 import org.eclipse.wst.jsdt.internal.core.util.SimpleWordSet;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 
+/**
+ * On disk part of an {@link Index}.
+ * <p>
+ * The index file is written once by {@link #mergeWith(MemoryIndex, boolean)} and is then opened through a
+ * read-only memory mapped buffer. Each category table is a dictionary of words sorted by their
+ * unicode values, with a fixed size table of offsets in front of it so that a word can be found by
+ * binary search, and each word points to its own posting list of document numbers. Queries only
+ * decode the words and posting lists they actually touch.
+ * </p><p>
+ * Large categories also get an n-gram table which maps each trigram of their words to the sorted
+ * indexes of the words containing it (see {@link Trigrams}). Pattern, camel case and case insensitive
+ * queries intersect the lists of the trigrams their key requires and only check those words.
+ * </p><p>
+ * A disk index is either the base of an {@link Index} or one of the segments saved after it. A segment
+ * also lists the documents it removes, its documents and the removed ones hide the documents of the
+ * same names in the older indexes.
+ * </p><p>
+ * The mapped buffer is only ever read with absolute get methods which do not modify its position,
+ * so several threads can query the same disk index at the same time without synchronizing.
+ * </p>
+ */
 public class DiskIndex {
 
 File indexFile;
 
+// the format of an index file is as follows:
+//		the SIGNATURE, followed by an int which is the offset to the header info (-1 if the index is empty)
+//		the chunks of sorted document names, each name is prefix/suffix compressed against the previous one
+//		for each document in sorted order, a long which is the hash of its contents (0 if unknown)
+//		for each category:
+//			the posting lists of the words which are referenced by more than 1 document, see PostingList
+//			the number of words in the category table
+//			for each word in sorted order, an int which is the offset to its dictionary entry
+//			for each word in sorted order, its dictionary entry:
+//				an int which is the number of documents referencing the word
+//				an int which is either the document number if the count is 1, or the offset to its posting list
+//				the word
+//			if the category has at least NGRAM_THRESHOLD words, its n-gram table, see writeNgramTable()
+//		if the index is a segment which removes documents of older indexes, the number of removed documents followed by their names
+//		the header info
+private ByteBuffer buffer; // read-only view of the index file, null if the index is empty
 private int headerInfoOffset;
 private int numberOfChunks;
 private int sizeOfLastChunk;
 private int[] chunkOffsets;
-private int documentReferenceSize; // 1, 2 or more bytes... depends on # of document names
+private int documentHashesOffset;
 private int startOfCategoryTables;
-private HashtableOfIntValues categoryOffsets, categoryEnds;
+private int removedDocumentsOffset;
+private SimpleSet removedDocuments; // names of the documents this segment removes from older indexes, null if none
+private HashtableOfIntValues categoryOffsets; // category name -> offset to its table
+private HashtableOfIntValues ngramTableOffsets; // category name -> offset to its n-gram table, only for large categories
+String documentNamePrefix; // prepended to the stored document names of a relocatable index, null otherwise
 
-private volatile int cacheUserCount;
-private String[][] cachedChunks; // decompressed chunks of document names
-private HashtableOfObject categoryTables; // category name -> HashtableOfObject(words -> int[] of document #'s) or offset if not read yet
-private char[] cachedCategoryName;
+private int cacheUserCount;
+private volatile DocumentNameChunk[] cachedChunks; // decompressed chunks of document names
+int cachedChunkHits, cachedChunkMisses; // approximate, concurrent queries do not synchronize their updates
+private HashtableOfObject categoryTables; // only used while writing: category name -> HashtableOfObject(words -> int[] of document #'s)
 
 private Object fStopQueryAction;
 
 private static final int DEFAULT_BUFFER_SIZE = 2048;
-private static int BUFFER_READ_SIZE = DEFAULT_BUFFER_SIZE;
 private static final int BUFFER_WRITE_SIZE = DEFAULT_BUFFER_SIZE;
 private byte[] streamBuffer;
-private int bufferIndex, bufferEnd; // used when reading from the file into the streamBuffer
+private int bufferIndex; // used when writing data into the streamBuffer
 private int streamEnd; // used when writing data from the streamBuffer to the file
 
-public static final String SIGNATURE= "INDEX VERSION 1.3"; //$NON-NLS-1$
+public static final String SIGNATURE= "INDEX VERSION 2.4"; //$NON-NLS-1$
+static final String OBSOLETE_SUFFIX = ".obsolete"; //$NON-NLS-1$
 private static final char[] SIGNATURE_CHARS = SIGNATURE.toCharArray();
 public static boolean DEBUG = false;
 
@@ -64,6 +107,9 @@ private static final int RE_INDEXED = -1;
 private static final int DELETED = -2;
 
 private static final int CHUNK_SIZE = 100;
+private static final int NGRAM_THRESHOLD = 256; // smaller categories are scanned faster than their n-gram tables are read
+private static final int NGRAM_ENTRY_SIZE = 16;
+private static final int[] NO_WORDS = new int[0];
 
 private static final SimpleSetOfCharArray INTERNED_CATEGORY_NAMES = new SimpleSetOfCharArray(20);
 
@@ -91,6 +137,19 @@ int[] asArray() {
 }
 }
 
+/*
+ * A decompressed chunk of document names. The names are only published through the final field
+ * so a reader thread never sees a partially filled chunk.
+ */
+static class DocumentNameChunk {
+
+final String[] names;
+
+DocumentNameChunk(String[] names) {
+	this.names = names;
+}
+}
+
 
 DiskIndex(String fileName) {
 	if (fileName == null)
@@ -98,67 +157,48 @@ DiskIndex(String fileName) {
 	this.indexFile = new File(fileName);
 
 	// clear cached items
+	this.buffer = null;
 	this.headerInfoOffset = -1;
 	this.numberOfChunks = -1;
 	this.sizeOfLastChunk = -1;
 	this.chunkOffsets = null;
-	this.documentReferenceSize = -1;
+	this.documentHashesOffset = -1;
+	this.removedDocumentsOffset = -1;
+	this.removedDocuments = null;
 	this.cacheUserCount = -1;
 	this.cachedChunks = null;
 	this.categoryTables = null;
-	this.cachedCategoryName = null;
 	this.categoryOffsets = null;
-	this.categoryEnds = null;
+	this.ngramTableOffsets = null;
 }
-SimpleSet addDocumentNames(String substring, MemoryIndex memoryIndex) throws IOException {
-	// must skip over documents which have been added/changed/deleted in the memory index
+SimpleSet addDocumentNames(String substring, SimpleSet results, HidingIndexes hidingIndexes) throws IOException {
+	// must skip over documents which have been added/changed/deleted in a newer index
 	String[] docNames = readAllDocumentNames();
-	SimpleSet results = new SimpleSet(docNames.length);
-	if (substring == null) {
-		if (memoryIndex == null) {
-			for (int i = 0, l = docNames.length; i < l; i++)
-				results.add(docNames[i]);
-		} else {
-			SimpleLookupTable docsToRefs = memoryIndex.docsToReferences;
-			for (int i = 0, l = docNames.length; i < l; i++) {
-				String docName = docNames[i];
-				if (!docsToRefs.containsKey(docName))
-					results.add(docName);
-			}
-		}
-	} else {
-		if (memoryIndex == null) {
-			for (int i = 0, l = docNames.length; i < l; i++)
-				if (docNames[i].startsWith(substring, 0))
-					results.add(docNames[i]);
-		} else {
-			SimpleLookupTable docsToRefs = memoryIndex.docsToReferences;
-			for (int i = 0, l = docNames.length; i < l; i++) {
-				String docName = docNames[i];
-				if (docName.startsWith(substring, 0) && !docsToRefs.containsKey(docName))
-					results.add(docName);
-			}
-		}
+	if (results == null)
+		results = new SimpleSet(docNames.length);
+	for (int i = 0, l = docNames.length; i < l; i++) {
+		String docName = docNames[i];
+		if ((substring == null || docName.startsWith(substring, 0)) && (hidingIndexes == null || !hidingIndexes.hides(docName)))
+			results.add(docName);
 	}
 	return results;
 }
-private HashtableOfObject addQueryResult(HashtableOfObject results, char[] word, HashtableOfObject wordsToDocNumbers, MemoryIndex memoryIndex) throws IOException {
-	// must skip over documents which have been added/changed/deleted in the memory index
+private HashtableOfObject addQueryResult(HashtableOfObject results, char[] word, int entryOffset, HidingIndexes hidingIndexes) throws IOException {
+	// must skip over documents which have been added/changed/deleted in a newer index, or which have a working copy
 	if (results == null)
 		results = new HashtableOfObject(13);
 	EntryResult result = (EntryResult) results.get(word);
-	if (memoryIndex == null) {
+	if (hidingIndexes == null) {
 		if (result == null)
-			results.put(word, new EntryResult(word, wordsToDocNumbers));
+			results.put(word, new EntryResult(word, this, entryOffset));
 		else
-			result.addDocumentTable(wordsToDocNumbers);
+			result.addDocumentPostings(this, entryOffset);
 	} else {
-		SimpleLookupTable docsToRefs = memoryIndex.docsToReferences;
-		if (result == null) result = new EntryResult(word, null);
-		int[] docNumbers = readDocumentNumbers(wordsToDocNumbers.get(word));
+		if (result == null) result = new EntryResult(word, null, -1);
+		int[] docNumbers = readDocumentNumbers(entryOffset);
 		for (int i = 0, l = docNumbers.length; i < l; i++) {
 			String docName = readDocumentName(docNumbers[i]);
-			if (!docsToRefs.containsKey(docName))
+			if (!hidingIndexes.hides(docName))
 				result.addDocumentName(docName);
 		}
 		if (!result.isEmpty())
@@ -166,88 +206,75 @@ private HashtableOfObject addQueryResult(HashtableOfObject results, char[] word,
 	}
 	return results;
 }
-HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule, MemoryIndex memoryIndex) throws IOException {
+HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule, HashtableOfObject results, HidingIndexes hidingIndexes) throws IOException {
 	// assumes sender has called startQuery() & will call stopQuery() when finished
-	if (this.categoryOffsets == null) return null; // file is empty
-
-	HashtableOfObject results = null; // initialized if needed
-	if (key == null) {
-		for (int i = 0, l = categories.length; i < l; i++) {
-			HashtableOfObject wordsToDocNumbers = readCategoryTable(categories[i], true); // cache if key is null since its a definite match
-			if (wordsToDocNumbers != null) {
-				char[][] words = wordsToDocNumbers.keyTable;
-				if (results == null)
-					results = new HashtableOfObject(wordsToDocNumbers.elementSize);
-				for (int j = 0, m = words.length; j < m; j++)
-					if (words[j] != null)
-						results = addQueryResult(results, words[j], wordsToDocNumbers, memoryIndex);
+	// results maps a word -> EntryResult, it is initialized if needed
+	if (this.categoryOffsets == null) return results; // file is empty
+
+	ByteBuffer mappedBuffer = this.buffer;
+	for (int i = 0, l = categories.length; i < l; i++) {
+		int tableOffset = this.categoryOffsets.get(categories[i]);
+		if (tableOffset == HashtableOfIntValues.NO_VALUE) continue; // unknown category
+		int size = mappedBuffer.getInt(tableOffset);
+
+		if (key == null) {
+			if (results == null)
+				results = new HashtableOfObject(size);
+			for (int j = 0; j < size; j++) {
+				int entryOffset = mappedBuffer.getInt(tableOffset + 4 + (j * 4));
+				results = addQueryResult(results, readWord(mappedBuffer, entryOffset), entryOffset, hidingIndexes);
 			}
+			continue;
 		}
-		if (results != null && this.cachedChunks == null)
-			cacheDocumentNames();
-	} else {
+
 		switch (matchRule) {
-			case SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE:
-				for (int i = 0, l = categories.length; i < l; i++) {
-					HashtableOfObject wordsToDocNumbers = readCategoryTable(categories[i], false);
-					if (wordsToDocNumbers != null && wordsToDocNumbers.containsKey(key))
-						results = addQueryResult(results, key, wordsToDocNumbers, memoryIndex);
-				}
+			case SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE :
+				int index = findWord(mappedBuffer, tableOffset, size, key);
+				if (index >= 0)
+					results = addQueryResult(results, key, mappedBuffer.getInt(tableOffset + 4 + (index * 4)), hidingIndexes);
 				break;
-			case SearchPattern.R_PREFIX_MATCH | SearchPattern.R_CASE_SENSITIVE:
-				for (int i = 0, l = categories.length; i < l; i++) {
-					HashtableOfObject wordsToDocNumbers = readCategoryTable(categories[i], false);
-					if (wordsToDocNumbers != null) {
-						char[][] words = wordsToDocNumbers.keyTable;
-						for (int j = 0, m = words.length; j < m; j++) {
-							char[] word = words[j];
-							if (word != null && key[0] == word[0] && CharOperation.prefixEquals(key, word))
-								results = addQueryResult(results, word, wordsToDocNumbers, memoryIndex);
-						}
-					}
+			case SearchPattern.R_PREFIX_MATCH | SearchPattern.R_CASE_SENSITIVE :
+				// the words are sorted so every word starting with the key follows the insertion point of the key
+				int first = findWord(mappedBuffer, tableOffset, size, key);
+				if (first < 0)
+					first = -(first + 1);
+				for (int j = first; j < size; j++) {
+					int entryOffset = mappedBuffer.getInt(tableOffset + 4 + (j * 4));
+					char[] word = readWord(mappedBuffer, entryOffset);
+					if (!CharOperation.prefixEquals(key, word)) break;
+					results = addQueryResult(results, word, entryOffset, hidingIndexes);
 				}
 				break;
-			default:
-				for (int i = 0, l = categories.length; i < l; i++) {
-					HashtableOfObject wordsToDocNumbers = readCategoryTable(categories[i], false);
-					if (wordsToDocNumbers != null) {
-						char[][] words = wordsToDocNumbers.keyTable;
-						for (int j = 0, m = words.length; j < m; j++) {
-							char[] word = words[j];
-							if (word != null && Index.isMatch(key, word, matchRule))
-								results = addQueryResult(results, word, wordsToDocNumbers, memoryIndex);
-						}
-					}
+			default :
+				int[] candidates = findCandidateWords(mappedBuffer, categories[i], key, matchRule);
+				for (int j = 0, length = candidates == null ? size : candidates.length; j < length; j++) {
+					int entryOffset = mappedBuffer.getInt(tableOffset + 4 + ((candidates == null ? j : candidates[j]) * 4));
+					char[] word = readWord(mappedBuffer, entryOffset);
+					if (Index.isMatch(key, word, matchRule))
+						results = addQueryResult(results, word, entryOffset, hidingIndexes);
 				}
 		}
 	}
 
-	if (results == null) return null;
+	if (key == null && results != null && this.cachedChunks == null)
+		cacheDocumentNames();
 	return results;
 }
-private synchronized void cacheDocumentNames() throws IOException {
+private void cacheDocumentNames() throws IOException {
 	// will need all document names so get them now
-	this.cachedChunks = new String[this.numberOfChunks][];
-	FileInputStream stream = new FileInputStream(this.indexFile);
-	try {
-		if (this.numberOfChunks > 5) BUFFER_READ_SIZE <<= 1;
-		int offset = this.chunkOffsets[0];
-		stream.skip(offset);
-		this.streamBuffer = new byte[BUFFER_READ_SIZE];
-		this.bufferIndex = 0;
-		this.bufferEnd = stream.read(this.streamBuffer, 0, this.streamBuffer.length);
-		for (int i = 0; i < this.numberOfChunks; i++) {
-			int size = i == this.numberOfChunks - 1 ? this.sizeOfLastChunk : CHUNK_SIZE;
-			readChunk(this.cachedChunks[i] = new String[size], stream, 0, size);
-		}
-	} catch (IOException e) {
-		this.cachedChunks = null;
-		throw e;
-	} finally {
-		stream.close();
-		this.streamBuffer = null;
-		BUFFER_READ_SIZE = DEFAULT_BUFFER_SIZE;
+	DocumentNameChunk[] chunks = new DocumentNameChunk[this.numberOfChunks];
+	if (this.numberOfChunks == 0) { // a segment may only remove documents
+		this.cachedChunks = chunks;
+		return;
 	}
+	int[] position = new int[] {this.chunkOffsets[0]};
+	for (int i = 0; i < this.numberOfChunks; i++) {
+		int size = i == this.numberOfChunks - 1 ? this.sizeOfLastChunk : CHUNK_SIZE;
+		String[] names = new String[size];
+		readChunk(names, position, 0, size);
+		chunks[i] = new DocumentNameChunk(names);
+	}
+	this.cachedChunks = chunks;
 }
 private String[] computeDocumentNames(String[] onDiskNames, int[] positions, SimpleLookupTable indexedDocuments, MemoryIndex memoryIndex) {
 	int onDiskLength = onDiskNames.length;
@@ -281,17 +308,16 @@ private String[] computeDocumentNames(String[] onDiskNames, int[] positions, Sim
 	nextPath : for (int i = 0, l = docNames.length; i < l; i++) {
 		String docName = (String) docNames[i];
 		if (docName != null) {
-			for (int j = 0; j < onDiskLength; j++) {
-				if (docName.equals(onDiskNames[j])) {
-					if (referenceTables[i] == null) {
-						positions[j] = DELETED;
-						numDeletedDocNames++;
-					} else {
-						positions[j] = RE_INDEXED;
-						numReindexedDocNames++;
-					}
-					continue nextPath;
+			int j = Arrays.binarySearch(onDiskNames, docName); // the names on disk are sorted
+			if (j >= 0) {
+				if (referenceTables[i] == null) {
+					positions[j] = DELETED;
+					numDeletedDocNames++;
+				} else {
+					positions[j] = RE_INDEXED;
+					numReindexedDocNames++;
 				}
+				continue nextPath;
 			}
 			if (referenceTables[i] != null)
 				indexedDocuments.put(docName, null); // remember each new document, skip deleted documents which were never saved
@@ -339,6 +365,83 @@ private String[] computeDocumentNames(String[] onDiskNames, int[] positions, Sim
 	}
 	return newDocNames;
 }
+private long[] computeDocumentHashes(int numberOfDocuments, int[] positions, SimpleLookupTable indexedDocuments, MemoryIndex memoryIndex) {
+	long[] documentHashes = new long[numberOfDocuments];
+	// unchanged documents keep their hash, see computeDocumentNames() for the meaning of positions
+	if (this.documentHashesOffset > 0) {
+		ByteBuffer mappedBuffer = this.buffer;
+		for (int i = 0, l = positions.length; i < l; i++)
+			if (positions[i] > RE_INDEXED)
+				documentHashes[positions[i]] = mappedBuffer.getLong(this.documentHashesOffset + (i * 8));
+	}
+	Object[] names = indexedDocuments.keyTable;
+	Object[] integerPositions = indexedDocuments.valueTable;
+	for (int i = 0, l = names.length; i < l; i++)
+		if (names[i] != null)
+			documentHashes[((Integer) integerPositions[i]).intValue()] = memoryIndex.getDocumentHash((String) names[i]);
+	return documentHashes;
+}
+/*
+ * Returns the names of the documents removed by this index or by the given memory index, or null if there are none.
+ */
+private String[] computeRemovedDocuments(MemoryIndex memoryIndex) {
+	SimpleSet removed = new SimpleSet(3);
+	if (this.removedDocuments != null) {
+		Object[] names = this.removedDocuments.values;
+		for (int i = 0, l = names.length; i < l; i++)
+			if (names[i] != null && !memoryIndex.docsToReferences.containsKey(names[i]))
+				removed.add(names[i]); // a document indexed again is not removed anymore
+	}
+	Object[] docNames = memoryIndex.docsToReferences.keyTable;
+	Object[] referenceTables = memoryIndex.docsToReferences.valueTable;
+	for (int i = 0, l = docNames.length; i < l; i++)
+		if (docNames[i] != null && referenceTables[i] == null)
+			removed.add(docNames[i]);
+	if (removed.elementSize == 0) return null;
+
+	String[] removedDocNames = new String[removed.elementSize];
+	int count = 0;
+	Object[] names = removed.values;
+	for (int i = 0, l = names.length; i < l; i++)
+		if (names[i] != null)
+			removedDocNames[count++] = (String) names[i];
+	return removedDocNames;
+}
+/*
+ * Adds the documents of this index to the given memory index, replacing the entries it has for them,
+ * and removes the documents this index removes from older indexes.
+ */
+void copyInto(MemoryIndex memoryIndex) throws IOException {
+	if (this.removedDocuments != null) {
+		Object[] names = this.removedDocuments.values;
+		for (int i = 0, l = names.length; i < l; i++)
+			if (names[i] != null)
+				memoryIndex.remove((String) names[i]);
+	}
+	String[] docNames = readAllDocumentNames();
+	for (int i = 0, l = docNames.length; i < l; i++) {
+		memoryIndex.remove(docNames[i]);
+		memoryIndex.docsToReferences.put(docNames[i], new HashtableOfObject(3)); // a document without entries is still replaced
+		if (this.documentHashesOffset > 0)
+			memoryIndex.addDocumentHash(docNames[i], this.buffer.getLong(this.documentHashesOffset + (i * 8)));
+	}
+	if (this.categoryOffsets == null) return;
+
+	char[][] categoryNames = this.categoryOffsets.keyTable;
+	for (int i = 0, l = categoryNames.length; i < l; i++) {
+		char[] categoryName = categoryNames[i];
+		if (categoryName == null) continue;
+		HashtableOfObject wordsToDocs = readCategoryTable(categoryName);
+		char[][] words = wordsToDocs.keyTable;
+		Object[] docNumberArrays = wordsToDocs.valueTable;
+		for (int j = 0, m = words.length; j < m; j++) {
+			if (words[j] == null) continue;
+			int[] docNumbers = (int[]) docNumberArrays[j];
+			for (int k = 0, n = docNumbers.length; k < n; k++)
+				memoryIndex.addIndexEntry(categoryName, words[j], docNames[docNumbers[k]]);
+		}
+	}
+}
 private void copyQueryResults(HashtableOfObject categoryToWords, int newPosition) {
 	char[][] categoryNames = categoryToWords.keyTable;
 	Object[] wordSets = categoryToWords.valueTable;
@@ -369,6 +472,147 @@ private void copyQueryResults(HashtableOfObject categoryToWords, int newPosition
 		}
 	}
 }
+/*
+ * Deletes the given index file. A file which is still mapped by a previous disk index cannot be deleted
+ * on some platforms until its buffer has been garbage collected, but it can be renamed: it is then moved
+ * aside, to be deleted by a later save of the index (see deleteObsoleteFiles(File)).
+ */
+static boolean deleteIndexFile(File file) {
+	if (file.delete()) return true;
+	if (!file.exists()) return false;
+	for (int i = 0;; i++) {
+		File obsoleteFile = new File(file.getPath() + '.' + i + OBSOLETE_SUFFIX);
+		if (!obsoleteFile.exists())
+			return file.renameTo(obsoleteFile);
+	}
+}
+/*
+ * Deletes the files of the given index and of its segments moved aside by deleteIndexFile(File), except
+ * the ones still mapped.
+ */
+static void deleteObsoleteFiles(File indexFile) {
+	File directory = indexFile.getParentFile();
+	String[] names = directory == null ? null : directory.list();
+	if (names == null) return;
+	String prefix = indexFile.getName() + '.';
+	for (int i = 0, l = names.length; i < l; i++) {
+		if (names[i].startsWith(prefix) && names[i].endsWith(OBSOLETE_SUFFIX)) {
+			if (!new File(directory, names[i]).delete() && DEBUG)
+				System.out.println("deleteObsoleteFiles - Failed to delete " + names[i]); //$NON-NLS-1$
+		}
+	}
+}
+/*
+ * Returns the sorted indexes of the words of the given category which contain every trigram required
+ * by the key, or null if the category has no n-gram table or the key requires no trigram.
+ */
+private int[] findCandidateWords(ByteBuffer mappedBuffer, char[] categoryName, char[] key, int matchRule) throws IOException {
+	int ngramTableOffset = this.ngramTableOffsets.get(categoryName);
+	if (ngramTableOffset == HashtableOfIntValues.NO_VALUE) return null;
+	long[] trigrams = Trigrams.requiredBy(key, matchRule);
+	if (trigrams == null) return null;
+
+	// find the word list of each trigram, then intersect them starting with the smallest one
+	int length = trigrams.length;
+	int[] sizes = new int[length];
+	int[] offsets = new int[length];
+	int tableSize = mappedBuffer.getInt(ngramTableOffset);
+	for (int i = 0; i < length; i++) {
+		int entry = findNgram(mappedBuffer, ngramTableOffset, tableSize, trigrams[i]);
+		if (entry < 0) return NO_WORDS; // no word contains this trigram
+		sizes[i] = mappedBuffer.getInt(entry + 8);
+		offsets[i] = mappedBuffer.getInt(entry + 12);
+	}
+	for (int i = 1; i < length; i++) {
+		for (int j = i; j > 0 && sizes[j] < sizes[j - 1]; j--) {
+			int temp = sizes[j]; sizes[j] = sizes[j - 1]; sizes[j - 1] = temp;
+			temp = offsets[j]; offsets[j] = offsets[j - 1]; offsets[j - 1] = temp;
+		}
+	}
+
+	int[] candidates = new PostingList(this, mappedBuffer, offsets[0], sizes[0]).toArray();
+	int count = candidates.length;
+	for (int i = 1; i < length && count > 0; i++) {
+		PostingList.Decoder decoder = new PostingList.Decoder(mappedBuffer, offsets[i], sizes[i]);
+		int kept = 0;
+		boolean hasNext = decoder.next();
+		for (int j = 0; j < count && hasNext; j++) {
+			while (hasNext && decoder.current < candidates[j])
+				hasNext = decoder.next();
+			if (hasNext && decoder.current == candidates[j])
+				candidates[kept++] = candidates[j];
+		}
+		count = kept;
+	}
+	if (count < candidates.length)
+		System.arraycopy(candidates, 0, candidates = new int[count], 0, count);
+	return candidates;
+}
+/*
+ * Returns the offset of the entry of the given trigram in the n-gram table which starts at tableOffset,
+ * or -1 if no word contains the trigram.
+ */
+private static int findNgram(ByteBuffer mappedBuffer, int tableOffset, int size, long trigram) {
+	int low = 0;
+	int high = size - 1;
+	while (low <= high) {
+		int mid = (low + high) >>> 1;
+		int entry = tableOffset + 4 + (mid * NGRAM_ENTRY_SIZE);
+		long current = ((long) mappedBuffer.getInt(entry) << 32) | (mappedBuffer.getInt(entry + 4) & 0xFFFFFFFFL);
+		if (current < trigram)
+			low = mid + 1;
+		else if (current > trigram)
+			high = mid - 1;
+		else
+			return entry;
+	}
+	return -1;
+}
+/*
+ * Returns the number of the given document, or -1 if it is not in this index.
+ */
+private int findDocument(String documentName) throws IOException {
+	// document names are sorted, see computeDocumentNames()
+	int low = 0;
+	int high = getDocumentCount() - 1;
+	while (low <= high) {
+		int middle = (low + high) >>> 1;
+		int comparison = readDocumentName(middle).compareTo(documentName);
+		if (comparison < 0)
+			low = middle + 1;
+		else if (comparison > 0)
+			high = middle - 1;
+		else
+			return middle;
+	}
+	return -1;
+}
+/*
+ * Returns the index of the given word in the sorted category table which starts at tableOffset,
+ * or -(insertion point) - 1 if the word is not in the table.
+ */
+private int findWord(ByteBuffer mappedBuffer, int tableOffset, int size, char[] word) throws IOException {
+	int low = 0;
+	int high = size - 1;
+	while (low <= high) {
+		int mid = (low + high) >>> 1;
+		int comparison = Util.compare(readWord(mappedBuffer, mappedBuffer.getInt(tableOffset + 4 + (mid * 4))), word);
+		if (comparison < 0)
+			low = mid + 1;
+		else if (comparison > 0)
+			high = mid - 1;
+		else
+			return mid;
+	}
+	return -(low + 1);
+}
+/*
+ * Returns whether the given document is replaced or removed by this index, when it is a segment.
+ */
+boolean hides(String documentName) throws IOException {
+	if (this.removedDocuments != null && this.removedDocuments.includes(documentName)) return true;
+	return findDocument(documentName) >= 0;
+}
 void initialize(boolean reuseExistingFile) throws IOException {
 	if (this.indexFile.exists()) {
 		if (reuseExistingFile) {
@@ -379,14 +623,16 @@ void initialize(boolean reuseExistingFile) throws IOException {
 					throw new IOException(Messages.exception_wrongFormat);
 
 				this.headerInfoOffset = file.readInt();
-				if (this.headerInfoOffset > 0) // file is empty if its not set
-					readHeaderInfo(file);
+				if (this.headerInfoOffset > 0) { // file is empty if its not set
+					mapIndexFile(file);
+					readHeaderInfo();
+				}
 			} finally {
 				file.close();
 			}
 			return;
 		}
-		if (!this.indexFile.delete()) {
+		if (!deleteIndexFile(this.indexFile)) {
 			if (DEBUG)
 				System.out.println("initialize - Failed to delete index " + this.indexFile); //$NON-NLS-1$
 			throw new IOException("Failed to delete index " + this.indexFile); //$NON-NLS-1$
@@ -418,9 +664,13 @@ private void initializeFrom(DiskIndex diskIndex, File newIndexFile) throws IOExc
 
 	int size = diskIndex.categoryOffsets == null ? 8 : diskIndex.categoryOffsets.elementSize;
 	this.categoryOffsets = new HashtableOfIntValues(size);
-	this.categoryEnds = new HashtableOfIntValues(size);
+	this.ngramTableOffsets = new HashtableOfIntValues(size);
 	this.categoryTables = new HashtableOfObject(size);
 }
+private void mapIndexFile(RandomAccessFile file) throws IOException {
+	// the mapping remains valid after the file is closed
+	this.buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+}
 private void mergeCategories(DiskIndex onDisk, int[] positions, FileOutputStream stream) throws IOException {
 	// at this point, this.categoryTables contains the names -> wordsToDocs added in copyQueryResults()
 	char[][] oldNames = onDisk.categoryOffsets.keyTable;
@@ -441,14 +691,14 @@ private void mergeCategory(char[] categoryName, DiskIndex onDisk, int[] position
 	if (wordsToDocs == null)
 		wordsToDocs = new HashtableOfObject(3);
 
-	HashtableOfObject oldWordsToDocs = onDisk.readCategoryTable(categoryName, true);
+	HashtableOfObject oldWordsToDocs = onDisk.readCategoryTable(categoryName);
 	if (oldWordsToDocs != null) {
 		char[][] oldWords = oldWordsToDocs.keyTable;
-		Object[] oldArrayOffsets = oldWordsToDocs.valueTable;
+		Object[] oldDocNumberArrays = oldWordsToDocs.valueTable;
 		nextWord: for (int i = 0, l = oldWords.length; i < l; i++) {
 			char[] oldWord = oldWords[i];
 			if (oldWord != null) {
-				int[] oldDocNumbers = (int[]) oldArrayOffsets[i];
+				int[] oldDocNumbers = (int[]) oldDocNumberArrays[i];
 				int length = oldDocNumbers.length;
 				int[] mappedNumbers = new int[length];
 				int count = 0;
@@ -478,22 +728,29 @@ private void mergeCategory(char[] categoryName, DiskIndex onDisk, int[] position
 				}
 			}
 		}
-		onDisk.categoryTables.put(categoryName, null); // flush cached table
 	}
 	writeCategoryTable(categoryName, wordsToDocs, stream);
 }
-DiskIndex mergeWith(MemoryIndex memoryIndex) throws IOException {
- 	// assume write lock is held
+/*
+ * Writes the documents of this index which are not replaced by the given memory index, followed by
+ * the documents of the memory index, into a new index file which replaces the file of this index.
+ * When the result is a segment, the documents removed by this index or by the memory index are
+ * remembered so that they stay hidden in the older indexes, see hides(String).
+ */
+DiskIndex mergeWith(MemoryIndex memoryIndex, boolean isSegment) throws IOException {
+ 	// assume write lock is held, this disk index is left unchanged for the queries which still read it
 	// compute & write out new docNames
 	String[] docNames = readAllDocumentNames();
 	int previousLength = docNames.length;
 	int[] positions = new int[previousLength]; // keeps track of the position of each document in the new sorted docNames
 	SimpleLookupTable indexedDocuments = new SimpleLookupTable(3); // for each new/changed document in the memoryIndex
 	docNames = computeDocumentNames(docNames, positions, indexedDocuments, memoryIndex);
-	if (docNames.length == 0) {
+	String[] removedDocNames = isSegment ? computeRemovedDocuments(memoryIndex) : null;
+	if (docNames.length == 0 && removedDocNames == null) {
 		if (previousLength == 0) return this; // nothing to do... memory index contained deleted documents that had never been saved
 
 		// index is now empty since all the saved documents were removed
+		// queries may still read this generation, its mapping is released once it is garbage collected
 		DiskIndex newDiskIndex = new DiskIndex(this.indexFile.getPath());
 		newDiskIndex.initialize(false);
 		return newDiskIndex;
@@ -502,11 +759,13 @@ DiskIndex mergeWith(MemoryIndex memoryIndex) throws IOException {
 	DiskIndex newDiskIndex = new DiskIndex(this.indexFile.getPath() + ".tmp"); //$NON-NLS-1$
 	try {
 		newDiskIndex.initializeFrom(this, newDiskIndex.indexFile);
+		long[] documentHashes = computeDocumentHashes(docNames.length, positions, indexedDocuments, memoryIndex);
 		FileOutputStream stream = new FileOutputStream(newDiskIndex.indexFile, false);
 		int offsetToHeader = -1;
 		try {
-			newDiskIndex.writeAllDocumentNames(docNames, stream);
+			newDiskIndex.writeAllDocumentNames(docNames, documentHashes, stream);
 			docNames = null; // free up the space
+			documentHashes = null;
 
 			// add each new/changed doc to empty category tables using its new position #
 			if (indexedDocuments.elementSize > 0) {
@@ -524,17 +783,20 @@ DiskIndex mergeWith(MemoryIndex memoryIndex) throws IOException {
 				newDiskIndex.writeCategories(stream);
 			else
 				newDiskIndex.mergeCategories(this, positions, stream);
+			if (removedDocNames != null)
+				newDiskIndex.writeRemovedDocuments(removedDocNames, stream);
 			offsetToHeader = newDiskIndex.streamEnd;
 			newDiskIndex.writeHeaderInfo(stream);
 			positions = null; // free up the space
 		} finally {
 			stream.close();
-			this.streamBuffer = null;
+			newDiskIndex.streamBuffer = null;
 		}
 		newDiskIndex.writeOffsetToHeader(offsetToHeader);
 
 		// rename file by deleting previous index file & renaming temp one
-		if (this.indexFile.exists() && !this.indexFile.delete()) {
+		// queries may still read this generation, its mapping is released once it is garbage collected (see deleteIndexFile)
+		if (this.indexFile.exists() && !deleteIndexFile(this.indexFile)) {
 			if (DEBUG)
 				System.out.println("mergeWith - Failed to delete " + this.indexFile); //$NON-NLS-1$
 			throw new IOException("Failed to delete index file " + this.indexFile); //$NON-NLS-1$
@@ -552,144 +814,117 @@ DiskIndex mergeWith(MemoryIndex memoryIndex) throws IOException {
 	}
 
 	newDiskIndex.indexFile = this.indexFile;
+	RandomAccessFile file = new RandomAccessFile(newDiskIndex.indexFile, "r"); //$NON-NLS-1$
+	try {
+		newDiskIndex.mapIndexFile(file);
+	} finally {
+		file.close();
+	}
 	return newDiskIndex;
 }
-private synchronized String[] readAllDocumentNames() throws IOException {
+private String[] readAllDocumentNames() throws IOException {
 	if (this.numberOfChunks <= 0)
 		return CharOperation.NO_STRINGS;
 
-	FileInputStream stream = new FileInputStream(this.indexFile);
-	try {
-		int offset = this.chunkOffsets[0];
-		stream.skip(offset);
-		this.streamBuffer = new byte[BUFFER_READ_SIZE];
-		this.bufferIndex = 0;
-		this.bufferEnd = stream.read(this.streamBuffer, 0, this.streamBuffer.length);
-		int lastIndex = this.numberOfChunks - 1;
-		String[] docNames = new String[lastIndex * CHUNK_SIZE + sizeOfLastChunk];
-		for (int i = 0; i < this.numberOfChunks; i++)
-			readChunk(docNames, stream, i * CHUNK_SIZE, i < lastIndex ? CHUNK_SIZE : sizeOfLastChunk);
-		return docNames;
-	} finally {
-		stream.close();
-		this.streamBuffer = null;
+	int lastIndex = this.numberOfChunks - 1;
+	String[] docNames = new String[lastIndex * CHUNK_SIZE + this.sizeOfLastChunk];
+	DocumentNameChunk[] chunks = this.cachedChunks;
+	if (chunks != null) {
+		for (int i = 0; i < this.numberOfChunks; i++) {
+			DocumentNameChunk chunk = chunks[i];
+			if (chunk == null) {
+				chunks = null;
+				break;
+			}
+			System.arraycopy(chunk.names, 0, docNames, i * CHUNK_SIZE, chunk.names.length);
+		}
+		if (chunks != null)
+			return docNames;
 	}
+
+	int[] position = new int[] {this.chunkOffsets[0]};
+	for (int i = 0; i < this.numberOfChunks; i++)
+		readChunk(docNames, position, i * CHUNK_SIZE, i < lastIndex ? CHUNK_SIZE : this.sizeOfLastChunk);
+	return docNames;
 }
-private synchronized HashtableOfObject readCategoryTable(char[] categoryName, boolean readDocNumbers) throws IOException {
+private HashtableOfObject readCategoryTable(char[] categoryName) throws IOException {
 	// result will be null if categoryName is unknown
-	int offset = this.categoryOffsets.get(categoryName);
-	if (offset == HashtableOfIntValues.NO_VALUE) {
+	int tableOffset = this.categoryOffsets.get(categoryName);
+	if (tableOffset == HashtableOfIntValues.NO_VALUE)
 		return null;
-	}
 
-	if (this.categoryTables == null) {
-		this.categoryTables = new HashtableOfObject(3);
-	} else {
-		HashtableOfObject cachedTable = (HashtableOfObject) this.categoryTables.get(categoryName);
-		if (cachedTable != null) {
-			if (readDocNumbers) { // must cache remaining document number arrays
-				Object[] arrayOffsets = cachedTable.valueTable;
-				for (int i = 0, l = arrayOffsets.length; i < l; i++)
-					if (arrayOffsets[i] instanceof Integer)
-						arrayOffsets[i] = readDocumentNumbers(arrayOffsets[i]);
-			}
-			return cachedTable;
-		}
+	ByteBuffer mappedBuffer = this.buffer;
+	int size = mappedBuffer.getInt(tableOffset);
+	HashtableOfObject categoryTable = new HashtableOfObject(size);
+	for (int i = 0; i < size; i++) {
+		int entryOffset = mappedBuffer.getInt(tableOffset + 4 + (i * 4));
+		categoryTable.put(readWord(mappedBuffer, entryOffset), readDocumentNumbers(entryOffset));
 	}
+	return categoryTable;
+}
+/*
+ * Decodes a modified UTF-8 string, as written by writeStreamChars(), at the given position.
+ * On return the position has been moved past the string.
+ */
+private static char[] readChars(ByteBuffer mappedBuffer, int[] position) throws IOException {
+	int index = position[0];
+	// read chars array length
+	int length = (mappedBuffer.get(index++) & 0xFF) << 8;
+	length += mappedBuffer.get(index++) & 0xFF;
 
-	FileInputStream stream = new FileInputStream(this.indexFile);
-	HashtableOfObject categoryTable = null;
-	char[][] matchingWords = null;
-	int count = 0;
-	int firstOffset = -1;
-	this.streamBuffer = new byte[BUFFER_READ_SIZE];
-	try {
-		stream.skip(offset);
-		this.bufferIndex = 0;
-		this.bufferEnd = stream.read(this.streamBuffer, 0, this.streamBuffer.length);
-		int size = readStreamInt(stream);
-		try {
-			if (size < 0) { // DEBUG
-				System.err.println("-------------------- DEBUG --------------------"); //$NON-NLS-1$
-				System.err.println("file = "+this.indexFile); //$NON-NLS-1$
-				System.err.println("offset = "+offset); //$NON-NLS-1$
-				System.err.println("size = "+size); //$NON-NLS-1$
-				System.err.println("--------------------   END   --------------------"); //$NON-NLS-1$
-			}
-			categoryTable = new HashtableOfObject(size);
-		} catch (OutOfMemoryError oom) {
-			// DEBUG
-			oom.printStackTrace();
-			System.err.println("-------------------- DEBUG --------------------"); //$NON-NLS-1$
-			System.err.println("file = "+this.indexFile); //$NON-NLS-1$
-			System.err.println("offset = "+offset); //$NON-NLS-1$
-			System.err.println("size = "+size); //$NON-NLS-1$
-			System.err.println("--------------------   END   --------------------"); //$NON-NLS-1$
-			throw oom;
-		}
-		int largeArraySize = 256;
-		for (int i = 0; i < size; i++) {
-			char[] word = readStreamChars(stream);
-			int arrayOffset = readStreamInt(stream);
-			// if arrayOffset is:
-			//		<= 0 then the array size == 1 with the value -> -arrayOffset
-			//		> 1 & < 256 then the size of the array is > 1 & < 256, the document array follows immediately
-			//		256 if the array size >= 256 followed by another int which is the offset to the array (written prior to the table)
-			if (arrayOffset <= 0) {
-				categoryTable.put(word, new int[] {-arrayOffset}); // store 1 element array by negating documentNumber
-			} else if (arrayOffset < largeArraySize) {
-				categoryTable.put(word, readStreamDocumentArray(stream, arrayOffset)); // read in-lined array providing size
-			} else {
-				arrayOffset = readStreamInt(stream); // read actual offset
-				if (readDocNumbers) {
-					if (matchingWords == null)
-						matchingWords = new char[size][];
-					if (count == 0)
-						firstOffset = arrayOffset;
-					matchingWords[count++] = word;
+	// fill the chars from the mapped bytes
+	char[] word = new char[length];
+	int i = 0;
+	while (i < length) {
+		byte b = mappedBuffer.get(index++);
+		switch (b & 0xF0) {
+			case 0x00 :
+			case 0x10 :
+			case 0x20 :
+			case 0x30 :
+			case 0x40 :
+			case 0x50 :
+			case 0x60 :
+			case 0x70 :
+				word[i++]= (char) b;
+				break;
+			case 0xC0 :
+			case 0xD0 :
+				char next = (char) mappedBuffer.get(index++);
+				if ((next & 0xC0) != 0x80) {
+					throw new UTFDataFormatException();
 				}
-				categoryTable.put(word, new Integer(arrayOffset)); // offset to array in the file
-			}
-		}
-		this.categoryTables.put(INTERNED_CATEGORY_NAMES.get(categoryName), categoryTable);
-		// cache the table as long as its not too big
-		// in practice, some tables can be greater than 500K when they contain more than 10K elements
-		this.cachedCategoryName = categoryTable.elementSize < 20000 ? categoryName : null;
-	} catch (IOException ioe) {
-		this.streamBuffer = null;
-		throw ioe;
-	} finally {
-		stream.close();
-	}
-
-	if (matchingWords != null && count > 0) {
-		stream = new FileInputStream(this.indexFile);
-		try {
-			stream.skip(firstOffset);
-			this.bufferIndex = 0;
-			this.bufferEnd = stream.read(this.streamBuffer, 0, this.streamBuffer.length);
-			for (int i = 0; i < count; i++) { // each array follows the previous one
-				categoryTable.put(matchingWords[i], readStreamDocumentArray(stream, readStreamInt(stream)));
-			}
-		} catch (IOException ioe) {
-			this.streamBuffer = null;
-			throw ioe;
-		} finally {
-			stream.close();
+				char ch = (char) ((b & 0x1F) << 6);
+				ch |= next & 0x3F;
+				word[i++] = ch;
+				break;
+			case 0xE0 :
+				char first = (char) mappedBuffer.get(index++);
+				char second = (char) mappedBuffer.get(index++);
+				if ((first & second & 0xC0) != 0x80) {
+					throw new UTFDataFormatException();
+				}
+				ch = (char) ((b & 0x0F) << 12);
+				ch |= ((first& 0x3F) << 6);
+				ch |= second & 0x3F;
+				word[i++] = ch;
+				break;
+			default:
+				throw new UTFDataFormatException();
 		}
 	}
-	this.streamBuffer = null;
-	return categoryTable;
+	position[0] = index;
+	return word;
 }
-private void readChunk(String[] docNames, FileInputStream stream, int index, int size) throws IOException {
-	String current = new String(readStreamChars(stream));
-	docNames[index++] = current;
+private void readChunk(String[] docNames, int[] position, int index, int size) throws IOException {
+	ByteBuffer mappedBuffer = this.buffer;
+	String prefix = this.documentNamePrefix;
+	String current = new String(readChars(mappedBuffer, position));
+	docNames[index++] = prefix == null ? current : prefix.concat(current);
 	for (int i = 1; i < size; i++) {
-		if (stream != null && this.bufferIndex + 2 >= this.bufferEnd)
-			readStreamBuffer(stream);
-		int start = streamBuffer[this.bufferIndex++] & 0xFF;
-		int end = streamBuffer[this.bufferIndex++] & 0xFF;
-		String next  = new String(readStreamChars(stream));
+		int start = mappedBuffer.get(position[0]++) & 0xFF;
+		int end = mappedBuffer.get(position[0]++) & 0xFF;
+		String next  = new String(readChars(mappedBuffer, position));
 		if (start > 0) {
 			if (end > 0) {
 				int length = current.length();
@@ -701,102 +936,124 @@ private void readChunk(String[] docNames, FileInputStream stream, int index, int
 			int length = current.length();
 			next = next + current.substring(length - end, length);
 		}
-		docNames[index++] = next;
+		docNames[index++] = prefix == null ? next : prefix.concat(next);
 		current = next;
 	}
 }
-synchronized String readDocumentName(int docNumber) throws IOException {
-	if (this.cachedChunks == null)
-		this.cachedChunks = new String[this.numberOfChunks][];
+/*
+ * Returns the hash of the contents of the given document when it was indexed, 0 if the document
+ * is not in this index or if its hash is unknown.
+ */
+long readDocumentHash(String documentName) throws IOException {
+	if (this.documentHashesOffset <= 0)
+		return 0L;
+	int docNumber = findDocument(documentName);
+	return docNumber < 0 ? 0L : this.buffer.getLong(this.documentHashesOffset + (docNumber * 8));
+}
+String readDocumentName(int docNumber) throws IOException {
+	DocumentNameChunk[] chunks = this.cachedChunks;
+	if (chunks == null)
+		this.cachedChunks = chunks = new DocumentNameChunk[this.numberOfChunks];
 
 	int chunkNumber = docNumber / CHUNK_SIZE;
-	String[] chunk = this.cachedChunks[chunkNumber];
-	if (chunk == null) {
-		boolean isLastChunk = chunkNumber == this.numberOfChunks - 1;
-		int start = this.chunkOffsets[chunkNumber];
-		int numberOfBytes = (isLastChunk ? this.startOfCategoryTables : this.chunkOffsets[chunkNumber + 1]) - start;
-		if (numberOfBytes < 0)
-			throw new IllegalArgumentException();
-		this.streamBuffer = new byte[numberOfBytes];
-		this.bufferIndex = 0;
-		FileInputStream file = new FileInputStream(this.indexFile);
-		try {
-			file.skip(start);
-			if (file.read(this.streamBuffer, 0, numberOfBytes) != numberOfBytes)
-				throw new IOException();
-		} catch (IOException ioe) {
-			this.streamBuffer = null;
-			throw ioe;
-		} finally {
-			file.close();
-		}
-		int numberOfNames = isLastChunk ? this.sizeOfLastChunk : CHUNK_SIZE;
-		chunk = new String[numberOfNames];
-		try {
-			readChunk(chunk, null, 0, numberOfNames);
-		} catch (IOException ioe) {
-			this.streamBuffer = null;
-			throw ioe;
-		}
-		this.cachedChunks[chunkNumber] = chunk;
+	DocumentNameChunk chunk = chunks[chunkNumber];
+	if (chunk != null) {
+		this.cachedChunkHits++;
+	} else {
+		this.cachedChunkMisses++;
+		// concurrent readers may decode the same chunk, the results are identical
+		int numberOfNames = chunkNumber == this.numberOfChunks - 1 ? this.sizeOfLastChunk : CHUNK_SIZE;
+		String[] names = new String[numberOfNames];
+		readChunk(names, new int[] {this.chunkOffsets[chunkNumber]}, 0, numberOfNames);
+		chunks[chunkNumber] = chunk = new DocumentNameChunk(names);
 	}
-	this.streamBuffer = null;
-	return chunk[docNumber - (chunkNumber * CHUNK_SIZE)];
+	return chunk.names[docNumber - (chunkNumber * CHUNK_SIZE)];
 }
-synchronized int[] readDocumentNumbers(Object arrayOffset) throws IOException {
-	// arrayOffset is either a cached array of docNumbers or an Integer offset in the file
-	if (arrayOffset instanceof int[])
-		return (int[]) arrayOffset;
-
-	FileInputStream stream = new FileInputStream(this.indexFile);
-	try {
-		int offset = ((Integer) arrayOffset).intValue();
-		stream.skip(offset);
-		this.streamBuffer = new byte[BUFFER_READ_SIZE];
-		this.bufferIndex = 0;
-		this.bufferEnd = stream.read(this.streamBuffer, 0, this.streamBuffer.length);
-		return readStreamDocumentArray(stream, readStreamInt(stream));
-	} finally {
-		stream.close();
-		this.streamBuffer = null;
-	}
+int getDocumentCount() {
+	return this.numberOfChunks <= 0 ? 0 : (this.numberOfChunks - 1) * CHUNK_SIZE + this.sizeOfLastChunk;
+}
+/*
+ * Returns the number of words of each category.
+ */
+HashtableOfIntValues getWordCounts() {
+	if (this.categoryOffsets == null) return new HashtableOfIntValues(3);
+	HashtableOfIntValues wordCounts = new HashtableOfIntValues(this.categoryOffsets.elementSize);
+	char[][] categoryNames = this.categoryOffsets.keyTable;
+	int[] offsets = this.categoryOffsets.valueTable;
+	for (int i = 0, l = categoryNames.length; i < l; i++)
+		if (categoryNames[i] != null)
+			wordCounts.put(categoryNames[i], this.buffer.getInt(offsets[i]));
+	return wordCounts;
+}
+int[] readDocumentNumbers(int entryOffset) throws IOException {
+	// entryOffset is the offset of the dictionary entry of a word
+	ByteBuffer mappedBuffer = this.buffer;
+	int count = mappedBuffer.getInt(entryOffset);
+	int value = mappedBuffer.getInt(entryOffset + 4);
+	if (count == 1)
+		return new int[] {value}; // the document number is in-lined
+	return new PostingList(this, mappedBuffer, value, count).toArray();
 }
-private void readHeaderInfo(RandomAccessFile file) throws IOException {
-	file.seek(this.headerInfoOffset);
+PostingList readDocumentPostings(int entryOffset) throws IOException {
+	// entryOffset is the offset of the dictionary entry of a word
+	ByteBuffer mappedBuffer = this.buffer;
+	int count = mappedBuffer.getInt(entryOffset);
+	int value = mappedBuffer.getInt(entryOffset + 4);
+	if (count == 1)
+		return PostingList.encode(this, new int[] {value}); // the document number is in-lined
+	return new PostingList(this, mappedBuffer, value, count);
+}
+private void readHeaderInfo() throws IOException {
+	ByteBuffer mappedBuffer = this.buffer;
+	int[] position = new int[] {this.headerInfoOffset};
 
 	// must be same order as writeHeaderInfo()
-	this.numberOfChunks = file.readInt();
-	this.sizeOfLastChunk = file.readUnsignedByte();
-	this.documentReferenceSize = file.readUnsignedByte();
+	this.numberOfChunks = mappedBuffer.getInt(position[0]);
+	this.sizeOfLastChunk = mappedBuffer.get(position[0] + 4) & 0xFF;
+	position[0] += 5;
 
 	this.chunkOffsets = new int[this.numberOfChunks];
-	for (int i = 0; i < this.numberOfChunks; i++)
-		this.chunkOffsets[i] = file.readInt();
+	for (int i = 0; i < this.numberOfChunks; i++, position[0] += 4)
+		this.chunkOffsets[i] = mappedBuffer.getInt(position[0]);
 
-	this.startOfCategoryTables = file.readInt();
+	this.documentHashesOffset = mappedBuffer.getInt(position[0]);
+	this.startOfCategoryTables = mappedBuffer.getInt(position[0] + 4);
+	this.removedDocumentsOffset = mappedBuffer.getInt(position[0] + 8);
+	position[0] += 12;
 
-	int size = file.readInt();
+	int size = mappedBuffer.getInt(position[0]);
+	position[0] += 4;
 	this.categoryOffsets = new HashtableOfIntValues(size);
-	this.categoryEnds = new HashtableOfIntValues(size);
-	char[] previousCategory = null;
-	int offset = -1;
+	this.ngramTableOffsets = new HashtableOfIntValues(size);
 	for (int i = 0; i < size; i++) {
-		char[] categoryName = INTERNED_CATEGORY_NAMES.get(file.readUTF().toCharArray());
-		offset = file.readInt();
-		this.categoryOffsets.put(categoryName, offset); // cache offset to category table
-		if (previousCategory != null) {
-			this.categoryEnds.put(previousCategory, offset); // cache end of the category table
-		}
-		previousCategory = categoryName;
-	}
-	if (previousCategory != null) {
-		this.categoryEnds.put(previousCategory, this.headerInfoOffset); // cache end of the category table
+		char[] categoryName = INTERNED_CATEGORY_NAMES.get(readChars(mappedBuffer, position));
+		this.categoryOffsets.put(categoryName, mappedBuffer.getInt(position[0])); // cache offset to category table
+		int ngramTableOffset = mappedBuffer.getInt(position[0] + 4);
+		if (ngramTableOffset != -1)
+			this.ngramTableOffsets.put(categoryName, ngramTableOffset);
+		position[0] += 8;
 	}
-	this.categoryTables = new HashtableOfObject(3);
+	if (this.removedDocumentsOffset > 0)
+		readRemovedDocuments();
+}
+private void readRemovedDocuments() throws IOException {
+	ByteBuffer mappedBuffer = this.buffer;
+	int[] position = new int[] {this.removedDocumentsOffset};
+	int size = mappedBuffer.getInt(position[0]);
+	position[0] += 4;
+	this.removedDocuments = new SimpleSet(size);
+	for (int i = 0; i < size; i++)
+		this.removedDocuments.add(new String(readChars(mappedBuffer, position)));
+}
+/*
+ * Returns the word of the dictionary entry at the given offset.
+ */
+private static char[] readWord(ByteBuffer mappedBuffer, int entryOffset) throws IOException {
+	return readChars(mappedBuffer, new int[] {entryOffset + 8});
 }
 void startQuery() {
-	this.cacheUserCount++;
-	synchronized (DiskIndex.this) {
+	synchronized (this) {
+		this.cacheUserCount++;
 		//if there is currently a scheduled stop action, cancel it so caches don't get cleared
 		if (this.fStopQueryAction != null) {
 			PostponedRunnablesManager.cancelPostponedRunnable(this.fStopQueryAction);
@@ -805,33 +1062,25 @@ void startQuery() {
 	}
 }
 void stopQuery() {
-	if (--this.cacheUserCount < 0) {
-		//schedule cache clearing for later so if another query comes in cache will not be cleared		
-		this.fStopQueryAction = PostponedRunnablesManager.addPostponedRunnable(new ISafeRunnable() {		
+	synchronized (this) {
+		if (--this.cacheUserCount >= 0)
+			return;
+		//schedule cache clearing for later so if another query comes in cache will not be cleared
+		this.fStopQueryAction = PostponedRunnablesManager.addPostponedRunnable(new ISafeRunnable() {
 			/**
-			 * <p>Clears category table caches</p>
-			 * 
+			 * <p>Clears the document name caches</p>
+			 *
 			 * @see org.eclipse.core.runtime.ISafeRunnable#run()
 			 */
 			public void run() throws Exception {
 				synchronized (DiskIndex.this) {
 					if (DiskIndex.this.cacheUserCount >= 0)
 						return;
-					// clear cached items
+					// clear cached items, the category tables are read straight from the mapped file
 					DiskIndex.this.cachedChunks = null;
-					if (DiskIndex.this.categoryTables != null) {
-						if (DiskIndex.this.cachedCategoryName == null) {
-							DiskIndex.this.categoryTables = null;
-						}
-						else if (DiskIndex.this.categoryTables.elementSize > 1) {
-							HashtableOfObject newTables = new HashtableOfObject(3);
-							newTables.put(DiskIndex.this.cachedCategoryName, DiskIndex.this.categoryTables.get(DiskIndex.this.cachedCategoryName));
-							DiskIndex.this.categoryTables = newTables;
-						}
-					}
 				}
 			}
-			
+
 			/**
 			 * @see org.eclipse.core.runtime.ISafeRunnable#handleException(java.lang.Throwable)
 			 */
@@ -841,157 +1090,14 @@ void stopQuery() {
 		}, 2000);
 	}
 }
-private void readStreamBuffer(FileInputStream stream) throws IOException {
-	// if we're about to read a known amount at the end of the existing buffer, but it does not completely fit
-	// so we need to shift the remaining bytes to be read, and fill the buffer from the stream
-	if (this.bufferEnd < this.streamBuffer.length)
-		return; // we're at the end of the stream - nothing left to read
-
-	int bytesInBuffer = this.bufferEnd - this.bufferIndex;
-	if (bytesInBuffer > 0)
-		System.arraycopy(this.streamBuffer, this.bufferIndex, this.streamBuffer, 0, bytesInBuffer);
-	this.bufferEnd = bytesInBuffer + stream.read(this.streamBuffer, bytesInBuffer, this.bufferIndex);
-	this.bufferIndex = 0;
-}
-/**
- * Reads in a string from the specified data input stream. The
- * string has been encoded using a modified UTF-8 format.
- * <p>
- * The first two bytes are read as an unsigned short.
- * This value gives the number of following bytes that are in the encoded string,
- * not the length of the resulting string. The following bytes are then
- * interpreted as bytes encoding characters in the UTF-8 format
- * and are converted into characters.
- * <p>
- * This method blocks until all the bytes are read, the end of the
- * stream is detected, or an exception is thrown.
- *
- * @param      stream   a data input stream.
- * @return     UTF decoded string as a char array
- * @exception  java.io.EOFException if this end of data input is reached while reading it.
- * @exception  IOException if an I/O error occurs while reading data input.
- * @exception  UTFDataFormatException  if the bytes do not represent a
- *               valid UTF-8 encoding of a Unicode string.
- */
-private char[] readStreamChars(FileInputStream stream) throws IOException {
-	// read chars array length
-	if (stream != null && this.bufferIndex + 2 >= this.bufferEnd)
-		readStreamBuffer(stream);
-	int length = (streamBuffer[this.bufferIndex++] & 0xFF) << 8;
-	length += this.streamBuffer[this.bufferIndex++] & 0xFF;
-
-	// fill the chars from bytes buffer
-	char[] word = new char[length];
-	int i = 0;
-	while (i < length) {
-		// how many characters can be decoded without refilling the buffer?
-		int charsInBuffer = i + ((this.bufferEnd - this.bufferIndex) / 3);
-		// all the characters must already be in the buffer if we're at the end of the stream
-		if (charsInBuffer > length || this.bufferEnd != this.streamBuffer.length || stream == null)
-			charsInBuffer = length;
-		while (i < charsInBuffer) {
-			byte b = this.streamBuffer[this.bufferIndex++];
-			switch (b & 0xF0) {
-				case 0x00 :
-				case 0x10 :
-				case 0x20 :
-				case 0x30 :
-				case 0x40 :
-				case 0x50 :
-				case 0x60 :
-				case 0x70 :
-					word[i++]= (char) b;
-					break;
-				case 0xC0 :
-				case 0xD0 :
-					char next = (char) this.streamBuffer[this.bufferIndex++];
-					if ((next & 0xC0) != 0x80) {
-						throw new UTFDataFormatException();
-					}
-					char ch = (char) ((b & 0x1F) << 6);
-					ch |= next & 0x3F;
-					word[i++] = ch;
-					break;
-				case 0xE0 :
-					char first = (char) this.streamBuffer[this.bufferIndex++];
-					char second = (char) this.streamBuffer[this.bufferIndex++];
-					if ((first & second & 0xC0) != 0x80) {
-						throw new UTFDataFormatException();
-					}
-					ch = (char) ((b & 0x0F) << 12);
-					ch |= ((first& 0x3F) << 6);
-					ch |= second & 0x3F;
-					word[i++] = ch;
-					break;
-				default:
-					throw new UTFDataFormatException();
-			}
-		}
-		if (i < length && stream != null)
-			readStreamBuffer(stream);
-	}
-	return word;
-}
-private int[] readStreamDocumentArray(FileInputStream stream, int arraySize) throws IOException {
-	int[] indexes = new int[arraySize];
-	if (arraySize == 0) return indexes;
-
-	int i = 0;
-	switch (this.documentReferenceSize) {
-		case 1 :
-			while (i < arraySize) {
-				// how many bytes without refilling the buffer?
-				int bytesInBuffer = i + this.bufferEnd - this.bufferIndex;
-				if (bytesInBuffer > arraySize)
-					bytesInBuffer = arraySize;
-				while (i < bytesInBuffer) {
-					indexes[i++] = this.streamBuffer[this.bufferIndex++] & 0xFF;
-				}
-				if (i < arraySize && stream != null)
-					readStreamBuffer(stream);
-			}
-			break;
-		case 2 :
-			while (i < arraySize) {
-				// how many shorts without refilling the buffer?
-				int shortsInBuffer = i + ((this.bufferEnd - this.bufferIndex) / 2);
-				if (shortsInBuffer > arraySize)
-					shortsInBuffer = arraySize;
-				while (i < shortsInBuffer) {
-					int val = (this.streamBuffer[this.bufferIndex++] & 0xFF) << 8;
-					indexes[i++] = val + (this.streamBuffer[this.bufferIndex++] & 0xFF);
-				}
-				if (i < arraySize && stream != null)
-					readStreamBuffer(stream);
-			}
-			break;
-		default :
-			while (i < arraySize) {
-				indexes[i++] = readStreamInt(stream);
-			}
-			break;
-	}
-	return indexes;
-}
-private int readStreamInt(FileInputStream stream) throws IOException {
-	if (this.bufferIndex + 4 >= this.bufferEnd) {
-		readStreamBuffer(stream);
-	}
-	int val = (streamBuffer[this.bufferIndex++] & 0xFF) << 24;
-	val += (streamBuffer[this.bufferIndex++] & 0xFF) << 16;
-	val += (streamBuffer[this.bufferIndex++] & 0xFF) << 8;
-	return val + (streamBuffer[this.bufferIndex++] & 0xFF);
-}
-private void writeAllDocumentNames(String[] sortedDocNames, FileOutputStream stream) throws IOException {
-	if (sortedDocNames.length == 0)
-		throw new IllegalArgumentException();
-
+private void writeAllDocumentNames(String[] sortedDocNames, long[] documentHashes, FileOutputStream stream) throws IOException {
+	// a segment may have no documents, when it only removes documents of older indexes
 	// assume the file was just created by initializeFrom()
 	this.streamBuffer = new byte[BUFFER_WRITE_SIZE];
 	this.bufferIndex = 0;
 	this.streamEnd = 0;
 
-	// in order, write: SIGNATURE & headerInfoOffset place holder, then each compressed chunk of document names
+	// in order, write: SIGNATURE & headerInfoOffset place holder, then each compressed chunk of document names, then the document hashes
 	writeStreamChars(stream, SIGNATURE_CHARS);
 	this.headerInfoOffset = this.streamEnd;
 	writeStreamInt(stream, -1); // will overwrite with correct value later
@@ -1003,7 +1109,6 @@ private void writeAllDocumentNames(String[] sortedDocNames, FileOutputStream str
 		this.numberOfChunks--;
 		this.sizeOfLastChunk = CHUNK_SIZE;
 	}
-	this.documentReferenceSize = size <= 0x7F ? 1 : (size <= 0x7FFF ? 2 : 4); // number of bytes used to encode a reference
 
 	this.chunkOffsets = new int[this.numberOfChunks];
 	int lastIndex = this.numberOfChunks - 1;
@@ -1046,6 +1151,13 @@ private void writeAllDocumentNames(String[] sortedDocNames, FileOutputStream str
 			current = next;
 		}
 	}
+
+	this.documentHashesOffset = this.streamEnd;
+	for (int i = 0; i < size; i++) {
+		long hash = documentHashes[i];
+		writeStreamInt(stream, (int) (hash >>> 32));
+		writeStreamInt(stream, (int) hash);
+	}
 	this.startOfCategoryTables = this.streamEnd + 1;
 }
 private void writeCategories(FileOutputStream stream) throws IOException {
@@ -1058,120 +1170,105 @@ private void writeCategories(FileOutputStream stream) throws IOException {
 }
 private void writeCategoryTable(char[] categoryName, HashtableOfObject wordsToDocs, FileOutputStream stream) throws IOException {
 	// the format of a category table is as follows:
-	// any document number arrays with >= 256 elements are written before the table (the offset to each array is remembered)
-	// then the number of word->int[] pairs in the table is written
-	// for each word -> int[] pair, the word is written followed by:
-	//		an int <= 0 if the array size == 1
-	//		an int > 1 & < 256 for the size of the array if its > 1 & < 256, the document array follows immediately
-	//		256 if the array size >= 256 followed by another int which is the offset to the array (written prior to the table)
-
-	int largeArraySize = 256;
+	// the document number arrays with more than 1 element are written before the table (the offset to each array is remembered)
+	// then the number of words in the table is written, followed by the offset to the dictionary entry of each word
+	// the words are sorted so a word can be found by a binary search on the offsets
+	// for each word, its dictionary entry is written as:
+	//		an int for the number of documents referencing the word
+	//		an int for the document number if the number of documents is 1, otherwise the offset to the array
+	//		the word
+
+	int size = wordsToDocs.elementSize;
+	char[][] sortedWords = new char[size][];
+	int count = 0;
+	char[][] words = wordsToDocs.keyTable;
 	Object[] values = wordsToDocs.valueTable;
-	for (int i = 0, l = values.length; i < l; i++) {
+	for (int i = 0, l = words.length; i < l; i++) {
 		Object o = values[i];
 		if (o != null) {
 			if (o instanceof IntList)
-				o = values[i] = ((IntList) values[i]).asArray();
-			int[] documentNumbers = (int[]) o;
-			if (documentNumbers.length >= largeArraySize) {
-				values[i] = new Integer(this.streamEnd);
-				writeDocumentNumbers(documentNumbers, stream);
-			}
+				values[i] = ((IntList) o).asArray();
+			sortedWords[count++] = words[i];
+		}
+	}
+	if (count < size)
+		System.arraycopy(sortedWords, 0, sortedWords = new char[count][], 0, count);
+	Util.sort(sortedWords);
+
+	int[] documentCounts = new int[count];
+	int[] documentValues = new int[count];
+	for (int i = 0; i < count; i++) {
+		int[] documentNumbers = (int[]) wordsToDocs.get(sortedWords[i]);
+		documentCounts[i] = documentNumbers.length;
+		if (documentNumbers.length == 1) {
+			documentValues[i] = documentNumbers[0]; // store an array of 1 element in the entry itself
+		} else {
+			documentValues[i] = this.streamEnd;
+			writeDocumentNumbers(documentNumbers, stream);
 		}
 	}
 
 	this.categoryOffsets.put(categoryName, this.streamEnd); // remember the offset to the start of the table
 	this.categoryTables.put(categoryName, null); // flush cached table
-	writeStreamInt(stream, wordsToDocs.elementSize);
-	char[][] words = wordsToDocs.keyTable;
-	for (int i = 0, l = words.length; i < l; i++) {
-		Object o = values[i];
-		if (o != null) {
-			writeStreamChars(stream, words[i]);
-			if (o instanceof int[]) {
-				int[] documentNumbers = (int[]) o;
-				if (documentNumbers.length == 1)
-					writeStreamInt(stream, -documentNumbers[0]); // store an array of 1 element by negating the documentNumber (can be zero)
-				else
-					writeDocumentNumbers(documentNumbers, stream);
-			} else {
-				writeStreamInt(stream, largeArraySize); // mark to identify that an offset follows
-				writeStreamInt(stream, ((Integer) o).intValue()); // offset in the file of the array of document numbers
-			}
-		}
+	writeStreamInt(stream, count);
+	int entryOffset = this.streamEnd + (count * 4);
+	for (int i = 0; i < count; i++) {
+		writeStreamInt(stream, entryOffset);
+		entryOffset += 8 + 2 + utfLength(sortedWords[i]);
+	}
+	for (int i = 0; i < count; i++) {
+		writeStreamInt(stream, documentCounts[i]);
+		writeStreamInt(stream, documentValues[i]);
+		writeStreamChars(stream, sortedWords[i]);
 	}
+	if (count >= NGRAM_THRESHOLD)
+		writeNgramTable(categoryName, sortedWords, stream);
 }
 private void writeDocumentNumbers(int[] documentNumbers, FileOutputStream stream) throws IOException {
-	// must store length as a positive int to detect in-lined array of 1 element
-	int length = documentNumbers.length;
-	writeStreamInt(stream, length);
+	// the length is stored in the dictionary entry of the word
+	// each document number is written as the delta to the previous one, using a variable length int (see PostingList)
 	Util.sort(documentNumbers);
-	int start = 0;
-	switch (this.documentReferenceSize) {
-		case 1 :
-			while ((this.bufferIndex + length - start) >= BUFFER_WRITE_SIZE) {
-				// when documentNumbers is large, write BUFFER_WRITE_SIZE parts & fall thru to write the last part
-				int bytesLeft = BUFFER_WRITE_SIZE - this.bufferIndex;
-				for (int i=0; i < bytesLeft; i++) {
-					this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-				}
-				stream.write(this.streamBuffer, 0, this.bufferIndex);
-				this.bufferIndex = 0;
-			}
-			while (start < length) {
-				this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-			}
-			this.streamEnd += length;
-			break;
-		case 2 :
-			while ((this.bufferIndex + ((length - start) * 2)) >= BUFFER_WRITE_SIZE) {
-				// when documentNumbers is large, write BUFFER_WRITE_SIZE parts & fall thru to write the last part
-				int shortsLeft = (BUFFER_WRITE_SIZE - this.bufferIndex) / 2;
-				for (int i=0; i < shortsLeft; i++) {
-					this.streamBuffer[this.bufferIndex++] = (byte) (documentNumbers[start] >> 8);
-					this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-				}
-				stream.write(this.streamBuffer, 0, this.bufferIndex);
-				this.bufferIndex = 0;
-			}
-			while (start < length) {
-				this.streamBuffer[this.bufferIndex++] = (byte) (documentNumbers[start] >> 8);
-				this.streamBuffer[this.bufferIndex++] = (byte) documentNumbers[start++];
-			}
-			this.streamEnd += length * 2;
-			break;
-		default :
-			while (start < length) {
-				writeStreamInt(stream, documentNumbers[start++]);
-			}
-			break;
+	int previous = 0;
+	for (int i = 0, length = documentNumbers.length; i < length; i++) {
+		if ((this.bufferIndex + 5) >= BUFFER_WRITE_SIZE)  {
+			stream.write(this.streamBuffer, 0, this.bufferIndex);
+			this.bufferIndex = 0;
+		}
+		int oldIndex = this.bufferIndex;
+		this.bufferIndex = PostingList.writeVariableInt(this.streamBuffer, this.bufferIndex, documentNumbers[i] - previous);
+		this.streamEnd += this.bufferIndex - oldIndex;
+		previous = documentNumbers[i];
 	}
 }
 private void writeHeaderInfo(FileOutputStream stream) throws IOException {
 	writeStreamInt(stream, this.numberOfChunks);
-	if ((this.bufferIndex + 2) >= BUFFER_WRITE_SIZE)  {
+	if ((this.bufferIndex + 1) >= BUFFER_WRITE_SIZE)  {
 		stream.write(this.streamBuffer, 0, this.bufferIndex);
 		this.bufferIndex = 0;
 	}
 	this.streamBuffer[this.bufferIndex++] = (byte) this.sizeOfLastChunk;
-	this.streamBuffer[this.bufferIndex++] = (byte) this.documentReferenceSize;
-	this.streamEnd += 2;
+	this.streamEnd++;
 
 	// apend the file with chunk offsets
 	for (int i = 0; i < this.numberOfChunks; i++) {
 		writeStreamInt(stream, this.chunkOffsets[i]);
 	}
 
+	writeStreamInt(stream, this.documentHashesOffset);
 	writeStreamInt(stream, this.startOfCategoryTables);
+	writeStreamInt(stream, this.removedDocumentsOffset);
 
 	// append the file with the category offsets... # of name -> offset pairs, followed by each name & an offset to its word->doc# table
 	writeStreamInt(stream, this.categoryOffsets.elementSize);
+	// each offset is followed by the offset to the n-gram table of the category, -1 if it has none
 	char[][] categoryNames = this.categoryOffsets.keyTable;
 	int[] offsets = this.categoryOffsets.valueTable;
 	for (int i = 0, l = categoryNames.length; i < l; i++) {
 		if (categoryNames[i] != null) {
 			writeStreamChars(stream, categoryNames[i]);
 			writeStreamInt(stream, offsets[i]);
+			int ngramTableOffset = this.ngramTableOffsets.get(categoryNames[i]);
+			writeStreamInt(stream, ngramTableOffset == HashtableOfIntValues.NO_VALUE ? -1 : ngramTableOffset);
 		}
 	}
 	// ensure buffer is written to the stream
@@ -1180,6 +1277,64 @@ private void writeHeaderInfo(FileOutputStream stream) throws IOException {
 		this.bufferIndex = 0;
 	}
 }
+private void writeNgramTable(char[] categoryName, char[][] sortedWords, FileOutputStream stream) throws IOException {
+	// the format of an n-gram table is as follows:
+	// the sorted indexes of the words containing each trigram are written before the table, like document numbers
+	// then the number of trigrams is written, followed by an entry for each trigram in increasing order:
+	//		2 ints for the trigram (high then low 32 bits)
+	//		an int for the number of words containing the trigram
+	//		an int for the offset to their indexes
+	// the trigrams are sorted so a trigram can be found by a binary search on the entries
+
+	SimpleLookupTable trigramsToWords = new SimpleLookupTable(sortedWords.length);
+	for (int i = 0, l = sortedWords.length; i < l; i++) {
+		long[] trigrams = Trigrams.ofWord(sortedWords[i]);
+		for (int j = 0, length = trigrams.length; j < length; j++) {
+			Long trigram = new Long(trigrams[j]);
+			IntList words = (IntList) trigramsToWords.get(trigram);
+			if (words == null)
+				trigramsToWords.put(trigram, words = new IntList(new int[] {i}));
+			else
+				words.add(i); // the words are visited in order so the list remains sorted
+		}
+	}
+
+	int size = trigramsToWords.elementSize;
+	long[] sortedTrigrams = new long[size];
+	int count = 0;
+	Object[] keys = trigramsToWords.keyTable;
+	for (int i = 0, l = keys.length; i < l; i++)
+		if (keys[i] != null)
+			sortedTrigrams[count++] = ((Long) keys[i]).longValue();
+	Arrays.sort(sortedTrigrams);
+
+	int[] wordCounts = new int[size];
+	int[] wordOffsets = new int[size];
+	for (int i = 0; i < size; i++) {
+		int[] words = ((IntList) trigramsToWords.get(new Long(sortedTrigrams[i]))).asArray();
+		wordCounts[i] = words.length;
+		wordOffsets[i] = this.streamEnd;
+		writeDocumentNumbers(words, stream);
+	}
+
+	this.ngramTableOffsets.put(categoryName, this.streamEnd);
+	writeStreamInt(stream, size);
+	for (int i = 0; i < size; i++) {
+		writeStreamInt(stream, (int) (sortedTrigrams[i] >>> 32));
+		writeStreamInt(stream, (int) sortedTrigrams[i]);
+		writeStreamInt(stream, wordCounts[i]);
+		writeStreamInt(stream, wordOffsets[i]);
+	}
+}
+private void writeRemovedDocuments(String[] removedDocNames, FileOutputStream stream) throws IOException {
+	this.removedDocumentsOffset = this.streamEnd;
+	this.removedDocuments = new SimpleSet(removedDocNames.length);
+	writeStreamInt(stream, removedDocNames.length);
+	for (int i = 0, l = removedDocNames.length; i < l; i++) {
+		writeStreamChars(stream, removedDocNames[i].toCharArray());
+		this.removedDocuments.add(removedDocNames[i]);
+	}
+}
 private void writeOffsetToHeader(int offsetToHeader) throws IOException {
 	if (offsetToHeader > 0) {
 		RandomAccessFile file = new RandomAccessFile(this.indexFile, "rw"); //$NON-NLS-1$
@@ -1292,4 +1447,20 @@ private void writeStreamInt(FileOutputStream stream, int val) throws IOException
 	this.streamBuffer[this.bufferIndex++] = (byte) val;
 	this.streamEnd += 4;
 }
+/*
+ * Returns the number of bytes used by writeStreamChars() to encode the given chars, excluding the length.
+ */
+private static int utfLength(char[] array) {
+	int length = 0;
+	for (int i = 0, l = array.length; i < l; i++) {
+		int ch = array[i];
+		if ((ch & 0x007F) == ch)
+			length++;
+		else if ((ch & 0x07FF) == ch)
+			length += 2;
+		else
+			length += 3;
+	}
+	return length;
+}
 }
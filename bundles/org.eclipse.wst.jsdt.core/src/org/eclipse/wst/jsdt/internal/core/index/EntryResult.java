@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2007 IBM Corporation and others.
+ * Copyright (c) 2000, 2013 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,55 +11,60 @@
 package org.eclipse.wst.jsdt.internal.core.index;
 
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
-import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
 
 public class EntryResult {
 
 private char[] word;
-private HashtableOfObject[] documentTables;
+private DiskIndex diskIndex; // the disk index which owns the postings
+private int[] documentPostings; // offsets of the dictionary entries in the disk index which reference this word
+private int postingsCount;
 private SimpleSet documentNames;
 
-public EntryResult(char[] word, HashtableOfObject table) {
+public EntryResult(char[] word, DiskIndex diskIndex, int entryOffset) {
 	this.word = word;
-	if (table != null)
-		this.documentTables = new HashtableOfObject[] {table};
+	if (diskIndex != null)
+		addDocumentPostings(diskIndex, entryOffset);
 }
 public void addDocumentName(String documentName) {
 	if (this.documentNames == null)
 		this.documentNames = new SimpleSet(3);
 	this.documentNames.add(documentName);
 }
-public void addDocumentTable(HashtableOfObject table) {
-	if (this.documentTables != null) {
-		int length = this.documentTables.length;
-		System.arraycopy(this.documentTables, 0, this.documentTables = new HashtableOfObject[length + 1], 0, length);
-		this.documentTables[length] = table;
-	} else {
-		this.documentTables = new HashtableOfObject[] {table};
+void addDocumentPostings(DiskIndex index, int entryOffset) {
+	this.diskIndex = index;
+	if (this.documentPostings == null) {
+		this.documentPostings = new int[] {entryOffset};
+		this.postingsCount = 1;
+		return;
 	}
+	if (this.postingsCount == this.documentPostings.length)
+		System.arraycopy(this.documentPostings, 0, this.documentPostings = new int[this.postingsCount * 2], 0, this.postingsCount);
+	this.documentPostings[this.postingsCount++] = entryOffset;
+}
+/**
+ * Returns the documents of this entry as a posting list, or null if some of its documents
+ * are only known by name (i.e. they come from the memory index).
+ */
+public PostingList getDocumentPostings() throws java.io.IOException {
+	if (this.documentPostings == null || this.documentNames != null)
+		return null;
+	return readDocumentPostings();
 }
 public char[] getWord() {
 	return this.word;
 }
 public String[] getDocumentNames(Index index) throws java.io.IOException {
-	if (this.documentTables != null) {
-		int length = this.documentTables.length;
-		if (length == 1 && this.documentNames == null) { // have a single table
-			Object offset = this.documentTables[0].get(word);
-			int[] numbers = index.diskIndex.readDocumentNumbers(offset);
-			String[] names = new String[numbers.length];
-			for (int i = 0, l = numbers.length; i < l; i++)
-				names[i] = index.diskIndex.readDocumentName(numbers[i]);
-			return names;
-		}
+	if (this.documentPostings != null) {
+		PostingList postings = readDocumentPostings();
+		if (this.documentNames == null)
+			return postings.getDocumentNames();
 
-		for (int i = 0; i < length; i++) {
-			Object offset = this.documentTables[i].get(word);
-			int[] numbers = index.diskIndex.readDocumentNumbers(offset);
-			for (int j = 0, k = numbers.length; j < k; j++)
-				addDocumentName(index.diskIndex.readDocumentName(numbers[j]));
-		}
+		String[] names = postings.getDocumentNames();
+		for (int i = 0, l = names.length; i < l; i++)
+			addDocumentName(names[i]);
+		this.documentPostings = null; // the names are now cached
+		this.postingsCount = 0;
 	}
 
 	if (this.documentNames == null)
@@ -74,6 +79,13 @@ public String[] getDocumentNames(Index index) throws java.io.IOException {
 	return names;
 }
 public boolean isEmpty() {
-	return this.documentTables == null && this.documentNames == null;
+	return this.documentPostings == null && this.documentNames == null;
+}
+private PostingList readDocumentPostings() throws java.io.IOException {
+	// the union of the posting lists removes the documents which reference the word in several categories
+	PostingList postings = this.diskIndex.readDocumentPostings(this.documentPostings[0]);
+	for (int i = 1; i < this.postingsCount; i++)
+		postings = postings.union(this.diskIndex.readDocumentPostings(this.documentPostings[i]));
+	return postings;
 }
 }
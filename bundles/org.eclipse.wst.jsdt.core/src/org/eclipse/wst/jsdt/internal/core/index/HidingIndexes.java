@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.index;
+
+import java.io.IOException;
+
+/*
+ * The indexes which are newer than the disk index being queried: the segments saved after it,
+ * the memory index and the working copies. A document of any of them replaces the document
+ * of the same name in the disk index, and so do the documents removed by a newer segment.
+ */
+class HidingIndexes {
+
+private final DiskIndex[] segments;
+private final int firstSegment;
+private final MemoryIndex memoryIndex;
+private final MemoryIndex workingCopyIndex;
+
+/*
+ * Returns the indexes hiding the documents of an older index, or null if there are none.
+ */
+static HidingIndexes of(DiskIndex[] segments, int firstSegment, MemoryIndex memoryIndex, MemoryIndex workingCopyIndex) {
+	if (firstSegment >= segments.length && memoryIndex == null && workingCopyIndex == null)
+		return null;
+	return new HidingIndexes(segments, firstSegment, memoryIndex, workingCopyIndex);
+}
+
+private HidingIndexes(DiskIndex[] segments, int firstSegment, MemoryIndex memoryIndex, MemoryIndex workingCopyIndex) {
+	this.segments = segments;
+	this.firstSegment = firstSegment;
+	this.memoryIndex = memoryIndex;
+	this.workingCopyIndex = workingCopyIndex;
+}
+boolean hides(String documentName) throws IOException {
+	if (this.workingCopyIndex != null && this.workingCopyIndex.hides(documentName)) return true;
+	if (this.memoryIndex != null && this.memoryIndex.hides(documentName)) return true;
+	for (int i = this.segments.length - 1; i >= this.firstSegment; i--)
+		if (this.segments[i].hides(documentName)) return true;
+	return false;
+}
+}
@@ -19,8 +19,11 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
 import org.eclipse.wst.jsdt.core.search.IJavaScriptSearchScope;
 import org.eclipse.wst.jsdt.core.search.SearchPattern;
+import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfIntValues;
 import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
+import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSetOfCharArray;
+import org.eclipse.wst.jsdt.internal.compiler.util.Util;
 import org.eclipse.wst.jsdt.internal.core.search.indexing.ReadWriteMonitor;
 
 /**
@@ -28,7 +31,14 @@ import org.eclipse.wst.jsdt.internal.core.search.indexing.ReadWriteMonitor;
  *
  * Queries can search a single category or several at the same time.
  *
- * Indexes are not synchronized structures and should only be queried/updated one at a time.
+ * Updates must be done one at a time, by the owner of the write lock of the monitor.
+ * Queries do not need the monitor: they read a snapshot of the disk and memory indexes, and a save builds
+ * the next disk index while queries keep reading the previous one until both are swapped.
+ *
+ * A save only writes the documents of the memory index into a new segment, a small disk index saved next
+ * to the index file. The documents of a segment, and the ones it removes, hide the documents of the same
+ * names in the older segments and in the base disk index. Once there are too many segments,
+ * {@link #compact(long)} merges the newest ones together, or into the base disk index.
  */
 
 public class Index {
@@ -37,7 +47,22 @@ public String containerPath;
 public ReadWriteMonitor monitor;
 
 protected DiskIndex diskIndex;
+private DiskIndex[] segments; // saved after the disk index, from the oldest to the newest, replaced rather than changed
+private int nextSegmentNumber;
+private boolean isCompacting;
 protected MemoryIndex memoryIndex;
+private MemoryIndex memorySnapshot; // copy of the memory index read by queries, null if the memory index changed since
+private boolean isReadOnly;
+private MemoryIndex workingCopyIndex; // entries of the unsaved working copies, replaced rather than changed so queries can use it unlocked
+
+private final IndexStatistics statistics = new IndexStatistics(); // of the queries of this index only
+
+private static final DiskIndex[] NO_SEGMENTS = new DiskIndex[0];
+private static final char SEGMENT_SEPARATOR = '.';
+/**
+ * The number of segments above which the index should be compacted, see {@link #needsCompaction()}.
+ */
+static final int MAX_SEGMENTS = 4;
 
 /**
  * Mask used on match rule for indexing.
@@ -102,10 +127,138 @@ public Index(String fileName, String containerPath, boolean reuseExistingFile) t
 	this.memoryIndex = new MemoryIndex();
 	this.diskIndex = new DiskIndex(fileName);
 	this.diskIndex.initialize(reuseExistingFile);
+	this.segments = NO_SEGMENTS;
+	File[] segmentFiles = getSegmentFiles(this.diskIndex.indexFile);
+	if (reuseExistingFile) {
+		this.segments = new DiskIndex[segmentFiles.length];
+		for (int i = 0, l = segmentFiles.length; i < l; i++) {
+			this.segments[i] = new DiskIndex(segmentFiles[i].getPath());
+			this.segments[i].initialize(true/*reuse the segment file*/);
+		}
+		if (segmentFiles.length > 0)
+			this.nextSegmentNumber = getSegmentNumber(segmentFiles[segmentFiles.length - 1], this.diskIndex.indexFile) + 1;
+	} else {
+		for (int i = 0, l = segmentFiles.length; i < l; i++)
+			DiskIndex.deleteIndexFile(segmentFiles[i]);
+	}
+}
+/**
+ * Returns the hash of the given document contents, as stored by {@link #addDocumentHash(String, long)}.
+ * The result is never 0, which stands for an unknown hash.
+ */
+public static long computeContentHash(char[] contents) {
+	long hash = Util.hash64(contents);
+	return hash == 0L ? 1L : hash;
+}
+/**
+ * Remembers the hash of the contents of the given document, so that it does not need to be indexed
+ * again while its contents do not change. Must be called after the document was removed from this index,
+ * see {@link #remove(String)}.
+ */
+public synchronized void addDocumentHash(String containerRelativePath, long hash) {
+	if (this.isReadOnly) return;
+	this.memorySnapshot = null;
+	this.memoryIndex.addDocumentHash(containerRelativePath, hash);
 }
-public void addIndexEntry(char[] category, char[] key, String containerRelativePath) {
+/**
+ * Opens an existing index file read-only, such as a prebuilt index shared by several workspaces.
+ * The document names stored in the file are relative to the given prefix, so the index can be used
+ * wherever its documents are located. Updates of a read-only index are ignored.
+ */
+public Index(String fileName, String containerPath, String documentNamePrefix) throws IOException {
+	this.containerPath = containerPath;
+	this.monitor = new ReadWriteMonitor();
+	this.isReadOnly = true;
+
+	this.memoryIndex = new MemoryIndex();
+	this.diskIndex = new DiskIndex(fileName);
+	this.diskIndex.documentNamePrefix = documentNamePrefix;
+	if (!this.diskIndex.indexFile.exists())
+		throw new IOException("Missing index file " + fileName); //$NON-NLS-1$
+	this.diskIndex.initialize(true/*reuse the index file*/);
+	this.segments = NO_SEGMENTS;
+}
+/**
+ * Replaces the entries of the unsaved contents of the given document, given as category and key pairs.
+ * Until the working copy is removed, queries answer these entries instead of the ones of the saved document.
+ * Unlike the other updates, it does not need the write lock of the monitor.
+ * Returns whether the entries of the compared categories differ from the previous entries of the working copy,
+ * or whether it had none.
+ */
+public synchronized boolean addWorkingCopyEntries(String containerRelativePath, char[][] entries, int entriesCount, long hash, char[][] comparedCategories) {
+	if (this.isReadOnly) return false;
+	MemoryIndex previous = this.workingCopyIndex;
+	MemoryIndex workingCopies = previous == null ? new MemoryIndex() : previous;
+	this.workingCopyIndex = workingCopies.copyWith(containerRelativePath, entries, entriesCount, hash);
+	return previous == null || !this.workingCopyIndex.hasSameEntries(containerRelativePath, previous, comparedCategories);
+}
+public synchronized void addIndexEntry(char[] category, char[] key, String containerRelativePath) {
+	if (this.isReadOnly) return;
+	this.memorySnapshot = null;
 	this.memoryIndex.addIndexEntry(category, key, containerRelativePath);
 }
+/**
+ * Merges the newest segments, and the base disk index when they are small enough, into the oldest of
+ * them. The files merged at once take at most the given number of bytes, since the merge reads them
+ * in memory, unless no two segments fit and the index has more than twice {@link #MAX_SEGMENTS} segments.
+ * <p>
+ * Must own the read lock of the monitor, so that the index is not saved or reset meanwhile.
+ * Queries keep reading the merged segments until they are replaced by the result.
+ * </p>
+ */
+public void compact(long memoryLimit) throws IOException {
+	DiskIndex[] currentSegments;
+	synchronized (this) {
+		if (this.isCompacting || this.segments.length == 0) return;
+		this.isCompacting = true;
+		currentSegments = this.segments;
+	}
+	try {
+		// find the oldest index from which the indexes to the newest one fit in the memory limit
+		int length = currentSegments.length;
+		int first = length - 1; // -1 is the base disk index
+		long size = currentSegments[first].indexFile.length();
+		while (first >= 0) {
+			long indexSize = (first == 0 ? this.diskIndex : currentSegments[first - 1]).indexFile.length();
+			if (size + indexSize > memoryLimit) break;
+			size += indexSize;
+			first--;
+		}
+		if (first == length - 1) {
+			if (length <= 2 * MAX_SEGMENTS) return;
+			first = length - 2; // the memory limit cannot be met, but the number of segments must remain bounded
+		}
+
+		// the merged segments become a single memory index, from the oldest to the newest
+		MemoryIndex merged = new MemoryIndex();
+		for (int i = first + 1; i < length; i++)
+			currentSegments[i].copyInto(merged);
+		DiskIndex target = first < 0 ? this.diskIndex : currentSegments[first];
+		DiskIndex result = target.mergeWith(merged, first >= 0 /*the base index does not need to remember removed documents*/);
+		merged = null;
+
+		synchronized (this) {
+			// newer segments may have been saved meanwhile, they remain after the result
+			int newer = this.segments.length - length;
+			DiskIndex[] remaining = new DiskIndex[(first < 0 ? 0 : first + 1) + newer];
+			if (first < 0) {
+				this.diskIndex = result;
+			} else {
+				System.arraycopy(currentSegments, 0, remaining, 0, first);
+				remaining[first] = result;
+			}
+			System.arraycopy(this.segments, length, remaining, remaining.length - newer, newer);
+			this.segments = remaining;
+		}
+		// queries still reading the merged segments keep their mappings, see DiskIndex.deleteIndexFile(File)
+		for (int i = first + 1; i < length; i++)
+			DiskIndex.deleteIndexFile(currentSegments[i].indexFile);
+	} finally {
+		synchronized (this) {
+			this.isCompacting = false;
+		}
+	}
+}
 public String containerRelativePath(String documentPath) {
 	int index = documentPath.indexOf(IJavaScriptSearchScope.JAR_FILE_ENTRY_SEPARATOR);
 	if (index == -1) {
@@ -125,34 +278,215 @@ public String containerRelativePath(String documentPath) {
 	}
 	return documentPath.substring(index + 1);
 }
+/**
+ * Returns the hash of the contents of the given document when it was indexed, or 0 if the document
+ * is not in this index or if its hash is unknown.
+ */
+public long getDocumentHash(String containerRelativePath) throws IOException {
+	DiskIndex disk;
+	DiskIndex[] savedSegments;
+	MemoryIndex memory;
+	synchronized (this) {
+		disk = this.diskIndex;
+		savedSegments = this.segments;
+		memory = getMemorySnapshot();
+	}
+	if (memory != null && memory.hides(containerRelativePath))
+		return memory.getDocumentHash(containerRelativePath);
+	for (int i = savedSegments.length - 1; i >= 0; i--)
+		if (savedSegments[i].hides(containerRelativePath))
+			return savedSegments[i].readDocumentHash(containerRelativePath);
+	return disk.readDocumentHash(containerRelativePath);
+}
+/**
+ * Returns the hash of the contents of the given working copy when its entries were added to this index,
+ * or 0 if none were added, see {@link #addWorkingCopyEntries(String, char[][], int, long)}.
+ */
+public synchronized long getWorkingCopyHash(String containerRelativePath) {
+	return this.workingCopyIndex == null ? 0L : this.workingCopyIndex.getDocumentHash(containerRelativePath);
+}
+/*
+ * Returns the snapshot of the memory index, or null if it is empty.
+ */
+private MemoryIndex getMemorySnapshot() {
+	// must be called while synchronized on this index
+	if (!this.memoryIndex.hasChanged()) return null;
+	if (this.memorySnapshot == null)
+		this.memorySnapshot = this.memoryIndex.snapshot();
+	return this.memorySnapshot;
+}
+/**
+ * Returns the number of documents of this index, saved in the base disk index, in the segments or only in memory.
+ * The unsaved contents of the working copies are ignored.
+ */
+public int getDocumentCount() throws IOException {
+	String[] documentNames = queryDocumentNames(null);
+	return documentNames == null ? 0 : documentNames.length;
+}
+/**
+ * Returns the ratio of the document names read from the caches of the base disk index and of the segments
+ * since they were written.
+ */
+public double getDocumentNameCacheHitRate() {
+	DiskIndex disk;
+	DiskIndex[] savedSegments;
+	synchronized (this) {
+		disk = this.diskIndex;
+		savedSegments = this.segments;
+	}
+	int hits = disk.cachedChunkHits, accesses = hits + disk.cachedChunkMisses;
+	for (int i = 0, l = savedSegments.length; i < l; i++) {
+		hits += savedSegments[i].cachedChunkHits;
+		accesses += savedSegments[i].cachedChunkHits + savedSegments[i].cachedChunkMisses;
+	}
+	return accesses == 0 ? 0 : (double) hits / accesses;
+}
+/**
+ * Returns the number of words of each category of this index, saved in the base disk index, in the segments
+ * or only in memory. A word is counted once when several of them contain it, and not at all when all the
+ * documents containing it were changed since. Reads every word of the index, meant for diagnostics only.
+ */
+public HashtableOfIntValues getWordCounts() throws IOException {
+	DiskIndex disk;
+	DiskIndex[] savedSegments;
+	MemoryIndex memory;
+	synchronized (this) {
+		disk = this.diskIndex;
+		savedSegments = this.segments;
+		memory = getMemorySnapshot();
+	}
+
+	SimpleSetOfCharArray categories = new SimpleSetOfCharArray();
+	addCategories(disk.getWordCounts(), categories);
+	for (int i = 0, l = savedSegments.length; i < l; i++)
+		addCategories(savedSegments[i].getWordCounts(), categories);
+	if (memory != null)
+		memory.addCategories(categories);
+
+	HashtableOfIntValues wordCounts = new HashtableOfIntValues(categories.elementSize);
+	char[][] categoryNames = categories.values;
+	for (int i = 0, l = categoryNames.length; i < l; i++) {
+		if (categoryNames[i] == null) continue;
+		HashtableOfObject words = addQueryResults(new char[][] {categoryNames[i]}, null, SearchPattern.R_PATTERN_MATCH, disk, savedSegments, memory, null);
+		wordCounts.put(categoryNames[i], words == null ? 0 : words.elementSize);
+	}
+	return wordCounts;
+}
+private static void addCategories(HashtableOfIntValues wordCounts, SimpleSetOfCharArray categories) {
+	char[][] categoryNames = wordCounts.keyTable;
+	for (int i = 0, l = categoryNames.length; i < l; i++)
+		if (categoryNames[i] != null)
+			categories.add(categoryNames[i]);
+}
+/**
+ * Returns the statistics of the queries of this index.
+ */
+public IndexStatistics getStatistics() {
+	return this.statistics;
+}
 public File getIndexFile() {
 	return this.diskIndex == null ? null : this.diskIndex.indexFile;
 }
+/*
+ * Returns the segment files of the given index file, from the oldest to the newest.
+ */
+private static File[] getSegmentFiles(File indexFile) {
+	File[] files = indexFile.getParentFile() == null ? null : indexFile.getParentFile().listFiles();
+	if (files == null) return new File[0];
+	int count = 0;
+	for (int i = 0, l = files.length; i < l; i++)
+		if (getSegmentNumber(files[i], indexFile) >= 0)
+			files[count++] = files[i];
+	File[] segmentFiles = new File[count];
+	System.arraycopy(files, 0, segmentFiles, 0, count);
+	for (int i = 1; i < count; i++) { // few segments, insertion sort on their number
+		File segmentFile = segmentFiles[i];
+		int number = getSegmentNumber(segmentFile, indexFile);
+		int j = i;
+		for (; j > 0 && getSegmentNumber(segmentFiles[j - 1], indexFile) > number; j--)
+			segmentFiles[j] = segmentFiles[j - 1];
+		segmentFiles[j] = segmentFile;
+	}
+	return segmentFiles;
+}
+/*
+ * Returns the number of the given segment file of the given index file, or -1 if it is not one of its segments.
+ */
+private static int getSegmentNumber(File file, File indexFile) {
+	String name = file.getName();
+	String indexName = indexFile.getName();
+	int length = indexName.length();
+	if (name.length() <= length + 1 || !name.startsWith(indexName) || name.charAt(length) != SEGMENT_SEPARATOR)
+		return -1;
+	int number = 0;
+	for (int i = length + 1, l = name.length(); i < l; i++) {
+		char c = name.charAt(i);
+		if (c < '0' || c > '9' || number > (Integer.MAX_VALUE - 9) / 10) return -1;
+		number = number * 10 + (c - '0');
+	}
+	return number;
+}
+/**
+ * Deletes the given index file, the files of its segments and the ones moved aside.
+ */
+public static void deleteIndexFiles(File indexFile) {
+	File[] segmentFiles = getSegmentFiles(indexFile);
+	for (int i = 0, l = segmentFiles.length; i < l; i++)
+		segmentFiles[i].delete();
+	indexFile.delete();
+	DiskIndex.deleteObsoleteFiles(indexFile);
+}
+/**
+ * Returns whether the given file is a file of an index moved aside to be deleted later.
+ */
+public static boolean isObsoleteFile(File file) {
+	return file.getName().endsWith(DiskIndex.OBSOLETE_SUFFIX);
+}
+/**
+ * Returns whether the given file is a segment of an index file, and the index file if so, or null.
+ */
+public static File getSegmentIndexFile(File file) {
+	String name = file.getName();
+	int separator = name.lastIndexOf(SEGMENT_SEPARATOR);
+	if (separator <= 0) return null;
+	File indexFile = new File(file.getParentFile(), name.substring(0, separator));
+	return getSegmentNumber(file, indexFile) >= 0 ? indexFile : null;
+}
 public boolean hasChanged() {
 	return this.memoryIndex.hasChanged();
 }
+/**
+ * Returns whether the segments saved by {@link #save()} should be merged by {@link #compact(long)}.
+ */
+public synchronized boolean needsCompaction() {
+	return this.segments.length > MAX_SEGMENTS;
+}
+/**
+ * Returns whether this index was opened read-only, see {@link #Index(String, String, String)}.
+ */
+public boolean isReadOnly() {
+	return this.isReadOnly;
+}
 /**
  * Returns the entries containing the given key in a group of categories, or null if no matches are found.
  * The matchRule dictates whether its an exact, prefix or pattern match, as well as case sensitive or insensitive.
  * If the key is null then all entries in specified categories are returned.
  */
 public EntryResult[] query(char[][] categories, char[] key, int matchRule) throws IOException {
-	if (this.memoryIndex.shouldMerge() && monitor.exitReadEnterWrite()) {
-		try {
-			save();
-		} finally {
-			monitor.exitWriteEnterRead();
-		}
+	long start = System.currentTimeMillis();
+	DiskIndex disk;
+	DiskIndex[] savedSegments;
+	MemoryIndex memory, workingCopies; // the entries of the working copies hide the ones of the saved documents
+	synchronized (this) {
+		disk = this.diskIndex;
+		savedSegments = this.segments;
+		memory = getMemorySnapshot();
+		workingCopies = this.workingCopyIndex;
 	}
 
-	HashtableOfObject results;
 	int rule = matchRule & MATCH_RULE_INDEX_MASK;
-	if (this.memoryIndex.hasChanged()) {
-		results = this.diskIndex.addQueryResults(categories, key, rule, this.memoryIndex);
-		results = this.memoryIndex.addQueryResults(categories, key, rule, results);
-	} else {
-		results = this.diskIndex.addQueryResults(categories, key, rule, null);
-	}
+	HashtableOfObject results = addQueryResults(categories, key, rule, disk, savedSegments, memory, workingCopies);
+	this.statistics.recordQuery(categories, rule, System.currentTimeMillis() - start);
 	if (results == null) return null;
 
 	EntryResult[] entryResults = new EntryResult[results.elementSize];
@@ -165,17 +499,39 @@ public EntryResult[] query(char[][] categories, char[] key, int matchRule) throw
 	}
 	return entryResults;
 }
+/*
+ * Returns the table of the words -> EntryResult of the given parts of an index, the documents of each part hiding
+ * the ones of the parts before it.
+ */
+private static HashtableOfObject addQueryResults(char[][] categories, char[] key, int rule, DiskIndex disk, DiskIndex[] savedSegments,
+		MemoryIndex memory, MemoryIndex workingCopies) throws IOException {
+	HashtableOfObject results = disk.addQueryResults(categories, key, rule, null, HidingIndexes.of(savedSegments, 0, memory, workingCopies));
+	for (int i = 0, l = savedSegments.length; i < l; i++)
+		results = savedSegments[i].addQueryResults(categories, key, rule, results, HidingIndexes.of(savedSegments, i + 1, memory, workingCopies));
+	if (memory != null)
+		results = memory.addQueryResults(categories, key, rule, results, workingCopies);
+	if (workingCopies != null)
+		results = workingCopies.addQueryResults(categories, key, rule, results, null);
+	return results;
+}
 /**
  * Returns the document names that contain the given substring, if null then returns all of them.
  */
 public String[] queryDocumentNames(String substring) throws IOException {
-	SimpleSet results;
-	if (this.memoryIndex.hasChanged()) {
-		results = this.diskIndex.addDocumentNames(substring, this.memoryIndex);
-		this.memoryIndex.addDocumentNames(substring, results);
-	} else {
-		results = this.diskIndex.addDocumentNames(substring, null);
+	DiskIndex disk;
+	DiskIndex[] savedSegments;
+	MemoryIndex memory;
+	synchronized (this) {
+		disk = this.diskIndex;
+		savedSegments = this.segments;
+		memory = getMemorySnapshot();
 	}
+
+	SimpleSet results = disk.addDocumentNames(substring, null, HidingIndexes.of(savedSegments, 0, memory, null));
+	for (int i = 0, l = savedSegments.length; i < l; i++)
+		results = savedSegments[i].addDocumentNames(substring, results, HidingIndexes.of(savedSegments, i + 1, memory, null));
+	if (memory != null)
+		memory.addDocumentNames(substring, results);
 	if (results.elementSize == 0) return null;
 
 	String[] documentNames = new String[results.elementSize];
@@ -186,16 +542,52 @@ public String[] queryDocumentNames(String substring) throws IOException {
 			documentNames[count++] = (String) paths[i];
 	return documentNames;
 }
-public void remove(String containerRelativePath) {
+public synchronized void remove(String containerRelativePath) {
+	if (this.isReadOnly) return;
+	this.memorySnapshot = null;
 	this.memoryIndex.remove(containerRelativePath);
 }
+/**
+ * Forgets the entries of the given working copy, queries answer the entries of the saved document again.
+ * Returns whether the working copy had entries.
+ */
+public synchronized boolean removeWorkingCopy(String containerRelativePath) {
+	if (this.workingCopyIndex == null || !this.workingCopyIndex.hides(containerRelativePath)) return false;
+	MemoryIndex workingCopies = this.workingCopyIndex.copyWith(containerRelativePath, null, 0, 0L);
+	this.workingCopyIndex = workingCopies.hasChanged() ? workingCopies : null;
+	return true;
+}
 public void save() throws IOException {
-	// must own the write lock of the monitor
+	// must own the write lock of the monitor, so the memory index does not change during the merge
 	if (!hasChanged()) return;
 
+	// the files of the previous generations which could not be deleted then may not be mapped anymore
+	DiskIndex.deleteObsoleteFiles(this.diskIndex.indexFile);
+
 	int numberOfChanges = this.memoryIndex.docsToReferences.elementSize;
-	this.diskIndex = this.diskIndex.mergeWith(this.memoryIndex);
-	this.memoryIndex = new MemoryIndex();
+	if (this.segments.length == 0 && this.diskIndex.getDocumentCount() == 0) {
+		// nothing to hide in an empty index, the memory index becomes the base disk index
+		DiskIndex newDiskIndex = this.diskIndex.mergeWith(this.memoryIndex, false);
+		synchronized (this) {
+			// queries started from now on read the new generation
+			this.diskIndex = newDiskIndex;
+			this.memoryIndex = new MemoryIndex();
+			this.memorySnapshot = null;
+		}
+	} else {
+		DiskIndex segment = new DiskIndex(this.diskIndex.indexFile.getPath() + SEGMENT_SEPARATOR + this.nextSegmentNumber++);
+		segment.initialize(false/*do not reuse the segment file*/);
+		segment = segment.mergeWith(this.memoryIndex, true);
+		synchronized (this) {
+			// queries started from now on read the new segment
+			DiskIndex[] newSegments = new DiskIndex[this.segments.length + 1];
+			System.arraycopy(this.segments, 0, newSegments, 0, this.segments.length);
+			newSegments[this.segments.length] = segment;
+			this.segments = newSegments;
+			this.memoryIndex = new MemoryIndex();
+			this.memorySnapshot = null;
+		}
+	}
 	if (numberOfChanges > 1000)
 		System.gc(); // reclaim space if the MemoryIndex was very BIG
 }
@@ -216,9 +608,19 @@ public String toString() {
  * @throws IOException
  */
 public void reset() throws IOException {
-	this.memoryIndex = new MemoryIndex();
-	this.diskIndex = new DiskIndex(this.diskIndex.indexFile.getAbsolutePath());
-	this.diskIndex.initialize(false/*do not reuse the index file*/);
+	if (this.isReadOnly) return;
+	DiskIndex newDiskIndex = new DiskIndex(this.diskIndex.indexFile.getAbsolutePath());
+	newDiskIndex.initialize(false/*do not reuse the index file*/);
+	DiskIndex[] oldSegments;
+	synchronized (this) {
+		oldSegments = this.segments;
+		this.diskIndex = newDiskIndex;
+		this.segments = NO_SEGMENTS;
+		this.memoryIndex = new MemoryIndex();
+		this.memorySnapshot = null;
+	}
+	for (int i = 0, l = oldSegments.length; i < l; i++)
+		DiskIndex.deleteIndexFile(oldSegments[i].indexFile);
 }
 
 }
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.index;
+
+import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
+import org.eclipse.wst.jsdt.internal.compiler.util.SimpleLookupTable;
+
+/**
+ * Counters describing how expensive the index queries and the indexing of documents are.
+ * <p>
+ * Queries are counted per category and match rule, with a histogram of their latencies. A query on
+ * several categories at once is counted in each of them. Indexing is counted per kind of indexing job
+ * (e.g. AddFolderToIndex) as the number of documents the jobs wrote into the indexes and the time the
+ * jobs took, from their start to their end, including the time spent waiting for the parsing workers.
+ * </p>
+ * <p>
+ * Every {@link Index} records its queries into its own statistics, so that the queries of different
+ * indexes do not contend for the same lock, and the index manager merges them on demand (see
+ * {@link #add(IndexStatistics)}). The getters answer copies of the counters, so they can be read while
+ * the indexes are used.
+ * </p>
+ */
+public class IndexStatistics {
+
+/**
+ * The upper bounds (in milliseconds) of the buckets of the latency histograms.
+ * The histograms have one more bucket for the slower queries.
+ */
+public static final long[] LATENCY_BOUNDS = {1, 4, 16, 64, 256, 1000, 4000};
+
+/**
+ * The queries of a category using a match rule.
+ */
+public static class QueryCounter {
+
+public final char[] category;
+public final int matchRule;
+public int count;
+public long totalMillis;
+public final int[] histogram = new int[LATENCY_BOUNDS.length + 1];
+
+QueryCounter(char[] category, int matchRule) {
+	this.category = category;
+	this.matchRule = matchRule;
+}
+QueryCounter copy() {
+	QueryCounter copy = new QueryCounter(this.category, this.matchRule);
+	copy.count = this.count;
+	copy.totalMillis = this.totalMillis;
+	System.arraycopy(this.histogram, 0, copy.histogram, 0, this.histogram.length);
+	return copy;
+}
+}
+
+/**
+ * The documents indexed by a kind of indexing job.
+ */
+public static class IndexingCounter {
+
+public final String job;
+public int jobs;
+public int documents;
+public long totalMillis;
+
+IndexingCounter(String job) {
+	this.job = job;
+}
+IndexingCounter copy() {
+	IndexingCounter copy = new IndexingCounter(this.job);
+	copy.jobs = this.jobs;
+	copy.documents = this.documents;
+	copy.totalMillis = this.totalMillis;
+	return copy;
+}
+public double documentsPerSecond() {
+	return this.totalMillis == 0 ? 0 : this.documents * 1000.0 / this.totalMillis;
+}
+}
+
+private HashtableOfObject queryCounters = new HashtableOfObject(); // category -> QueryCounter[], one per match rule
+private SimpleLookupTable indexingCounters = new SimpleLookupTable(); // kind of job -> IndexingCounter
+
+public synchronized IndexingCounter[] getIndexingCounters() {
+	IndexingCounter[] counters = new IndexingCounter[this.indexingCounters.elementSize];
+	int count = 0;
+	Object[] values = this.indexingCounters.valueTable;
+	for (int i = 0, l = values.length; i < l; i++)
+		if (values[i] != null)
+			counters[count++] = ((IndexingCounter) values[i]).copy();
+	return counters;
+}
+public synchronized QueryCounter[] getQueryCounters() {
+	Object[] values = this.queryCounters.valueTable;
+	int count = 0;
+	for (int i = 0, l = values.length; i < l; i++)
+		if (values[i] != null)
+			count += ((QueryCounter[]) values[i]).length;
+	QueryCounter[] counters = new QueryCounter[count];
+	count = 0;
+	for (int i = 0, l = values.length; i < l; i++) {
+		if (values[i] == null) continue;
+		QueryCounter[] categoryCounters = (QueryCounter[]) values[i];
+		for (int j = 0, length = categoryCounters.length; j < length; j++)
+			counters[count++] = categoryCounters[j].copy();
+	}
+	return counters;
+}
+/**
+ * Adds the counters of the given statistics to these ones.
+ */
+public void add(IndexStatistics statistics) {
+	// copy the other counters first, so that the two statistics are never locked at once
+	QueryCounter[] queries = statistics.getQueryCounters();
+	IndexingCounter[] indexing = statistics.getIndexingCounters();
+	synchronized (this) {
+		for (int i = 0, l = queries.length; i < l; i++) {
+			QueryCounter query = queries[i];
+			QueryCounter counter = getQueryCounter(query.category, query.matchRule);
+			counter.count += query.count;
+			counter.totalMillis += query.totalMillis;
+			for (int j = 0, length = counter.histogram.length; j < length; j++)
+				counter.histogram[j] += query.histogram[j];
+		}
+		for (int i = 0, l = indexing.length; i < l; i++) {
+			IndexingCounter counter = getIndexingCounter(indexing[i].job);
+			counter.jobs += indexing[i].jobs;
+			counter.documents += indexing[i].documents;
+			counter.totalMillis += indexing[i].totalMillis;
+		}
+	}
+}
+/*
+ * Returns the indexing counter of the given kind of job, creating it if needed.
+ * The receiver must be locked.
+ */
+private IndexingCounter getIndexingCounter(String job) {
+	IndexingCounter counter = (IndexingCounter) this.indexingCounters.get(job);
+	if (counter == null)
+		this.indexingCounters.put(job, counter = new IndexingCounter(job));
+	return counter;
+}
+/*
+ * Returns the query counter of the given category and match rule, creating it if needed.
+ * The receiver must be locked.
+ */
+private QueryCounter getQueryCounter(char[] category, int matchRule) {
+	QueryCounter[] counters = (QueryCounter[]) this.queryCounters.get(category);
+	if (counters == null) {
+		counters = new QueryCounter[] {new QueryCounter(category, matchRule)};
+		this.queryCounters.put(category, counters);
+		return counters[0];
+	}
+	int length = counters.length;
+	for (int i = 0; i < length; i++)
+		if (counters[i].matchRule == matchRule)
+			return counters[i];
+	// few match rules are used, so a category has a short array rather than a table
+	System.arraycopy(counters, 0, counters = new QueryCounter[length + 1], 0, length);
+	this.queryCounters.put(category, counters);
+	return counters[length] = new QueryCounter(category, matchRule);
+}
+/**
+ * Appends the counters to the given buffer, one line per counter.
+ */
+public void printOn(StringBuffer buffer) {
+	QueryCounter[] queries = getQueryCounters();
+	buffer.append("Queries (category, match rule, count, average ms, histogram with bounds"); //$NON-NLS-1$
+	for (int i = 0; i < LATENCY_BOUNDS.length; i++)
+		buffer.append(' ').append(LATENCY_BOUNDS[i]);
+	buffer.append(" ms):\n"); //$NON-NLS-1$
+	for (int i = 0; i < queries.length; i++) {
+		QueryCounter counter = queries[i];
+		buffer.append('\t').append(counter.category).append('\t').append(counter.matchRule);
+		buffer.append('\t').append(counter.count);
+		buffer.append('\t').append(counter.count == 0 ? 0 : (double) counter.totalMillis / counter.count);
+		buffer.append('\t');
+		for (int j = 0; j < counter.histogram.length; j++) {
+			if (j > 0) buffer.append(' ');
+			buffer.append(counter.histogram[j]);
+		}
+		buffer.append('\n');
+	}
+	IndexingCounter[] indexing = getIndexingCounters();
+	buffer.append("Indexing (job, jobs, documents, total ms, documents/s):\n"); //$NON-NLS-1$
+	for (int i = 0; i < indexing.length; i++) {
+		IndexingCounter counter = indexing[i];
+		buffer.append('\t').append(counter.job);
+		buffer.append('\t').append(counter.jobs);
+		buffer.append('\t').append(counter.documents);
+		buffer.append('\t').append(counter.totalMillis);
+		buffer.append('\t').append((long) counter.documentsPerSecond());
+		buffer.append('\n');
+	}
+}
+/**
+ * Records that a job of the given kind wrote the given number of documents into the indexes, in the given time.
+ */
+public synchronized void recordIndexing(String job, int documents, long millis) {
+	IndexingCounter counter = getIndexingCounter(job);
+	counter.jobs++;
+	counter.documents += documents;
+	counter.totalMillis += millis;
+}
+/**
+ * Records a query of the given categories which took the given time.
+ */
+public synchronized void recordQuery(char[][] categories, int matchRule, long millis) {
+	int bucket = 0;
+	while (bucket < LATENCY_BOUNDS.length && millis >= LATENCY_BOUNDS[bucket])
+		bucket++;
+	for (int i = 0, l = categories.length; i < l; i++) {
+		QueryCounter counter = getQueryCounter(categories[i], matchRule);
+		counter.count++;
+		counter.totalMillis += millis;
+		counter.histogram[bucket]++;
+	}
+}
+public synchronized void reset() {
+	this.queryCounters = new HashtableOfObject();
+	this.indexingCounters = new SimpleLookupTable();
+}
+public String toString() {
+	StringBuffer buffer = new StringBuffer();
+	printOn(buffer);
+	return buffer.toString();
+}
+}
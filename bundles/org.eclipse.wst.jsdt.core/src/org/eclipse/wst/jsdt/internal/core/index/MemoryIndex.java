@@ -14,6 +14,7 @@ import org.eclipse.wst.jsdt.core.search.SearchPattern;
 import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfObject;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleLookupTable;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
+import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSetOfCharArray;
 import org.eclipse.wst.jsdt.internal.core.util.SimpleWordSet;
 
 public class MemoryIndex {
@@ -21,12 +22,16 @@ public class MemoryIndex {
 public int NUM_CHANGES = 100; // number of separate document changes... used to decide when to merge
 
 SimpleLookupTable docsToReferences; // document paths -> HashtableOfObject(category names -> set of words)
+SimpleLookupTable docsToHashes; // document paths -> Long hash of their contents
 SimpleWordSet allWords; // save space by locally interning the referenced words, since an indexer can generate numerous duplicates
 String lastDocumentName;
 HashtableOfObject lastReferenceTable;
+boolean isShared; // true while the latest snapshot shares the document tables, which must then be copied before being changed
+SimpleLookupTable sharedReferences; // the document tables of the latest snapshot, whose reference tables must be copied before being changed
 
 MemoryIndex() {
 	this.docsToReferences = new SimpleLookupTable(7);
+	this.docsToHashes = new SimpleLookupTable(7);
 	this.allWords = new SimpleWordSet(7);
 }
 void addDocumentNames(String substring, SimpleSet results) {
@@ -43,15 +48,33 @@ void addDocumentNames(String substring, SimpleSet results) {
 				results.add(paths[i]);
 	}
 }
+void addCategories(SimpleSetOfCharArray categories) {
+	Object[] referenceTables = this.docsToReferences.valueTable;
+	for (int i = 0, l = referenceTables.length; i < l; i++) {
+		HashtableOfObject categoryToWords = (HashtableOfObject) referenceTables[i];
+		if (categoryToWords == null) continue;
+		char[][] categoryNames = categoryToWords.keyTable;
+		for (int j = 0, m = categoryNames.length; j < m; j++)
+			if (categoryNames[j] != null)
+				categories.add(categoryNames[j]);
+	}
+}
+void addDocumentHash(String documentName, long hash) {
+	copyOnWrite();
+	this.docsToHashes.put(documentName, new Long(hash));
+}
 void addIndexEntry(char[] category, char[] key, String documentName) {
 	HashtableOfObject referenceTable;
 	if (documentName.equals(this.lastDocumentName))
 		referenceTable = this.lastReferenceTable;
 	else {
 		// assumed a document was removed before its reindexed
+		copyOnWrite();
 		referenceTable = (HashtableOfObject) this.docsToReferences.get(documentName);
 		if (referenceTable == null)
 			this.docsToReferences.put(documentName, referenceTable = new HashtableOfObject(3));
+		else if (this.sharedReferences != null && this.sharedReferences.get(documentName) == referenceTable)
+			this.docsToReferences.put(documentName, referenceTable = copyReferenceTable(referenceTable));
 		this.lastDocumentName = documentName;
 		this.lastReferenceTable = referenceTable;
 	}
@@ -65,15 +88,16 @@ void addIndexEntry(char[] category, char[] key, String documentName) {
 
 
 }
-HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule, HashtableOfObject results) {
+HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule, HashtableOfObject results, MemoryIndex hidingIndex) {
 	// assumed the disk index already skipped over documents which have been added/changed/deleted
+	// must skip over documents which are hidden by the given index, if any
 	// results maps a word -> EntryResult
 	Object[] paths = this.docsToReferences.keyTable;
 	Object[] referenceTables = this.docsToReferences.valueTable;
 	if (matchRule == (SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE) && key != null) {
 		nextPath : for (int i = 0, l = referenceTables.length; i < l; i++) {
 			HashtableOfObject categoryToWords = (HashtableOfObject) referenceTables[i];
-			if (categoryToWords != null) {
+			if (categoryToWords != null && (hidingIndex == null || !hidingIndex.hides((String) paths[i]))) {
 				for (int j = 0, m = categories.length; j < m; j++) {
 					SimpleWordSet wordSet = (SimpleWordSet) categoryToWords.get(categories[j]);
 					if (wordSet != null && wordSet.includes(key)) {
@@ -81,7 +105,7 @@ HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule
 							results = new HashtableOfObject(13);
 						EntryResult result = (EntryResult) results.get(key);
 						if (result == null)
-							results.put(key, result = new EntryResult(key, null));
+							results.put(key, result = new EntryResult(key, null, -1));
 						result.addDocumentName((String) paths[i]);
 						continue nextPath;
 					}
@@ -91,7 +115,7 @@ HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule
 	} else {
 		for (int i = 0, l = referenceTables.length; i < l; i++) {
 			HashtableOfObject categoryToWords = (HashtableOfObject) referenceTables[i];
-			if (categoryToWords != null) {
+			if (categoryToWords != null && (hidingIndex == null || !hidingIndex.hides((String) paths[i]))) {
 				for (int j = 0, m = categories.length; j < m; j++) {
 					SimpleWordSet wordSet = (SimpleWordSet) categoryToWords.get(categories[j]);
 					if (wordSet != null) {
@@ -103,7 +127,7 @@ HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule
 									results = new HashtableOfObject(13);
 								EntryResult result = (EntryResult) results.get(word);
 								if (result == null)
-									results.put(word, result = new EntryResult(word, null));
+									results.put(word, result = new EntryResult(word, null, -1));
 								result.addDocumentName((String) paths[i]);
 							}
 						}
@@ -114,15 +138,119 @@ HashtableOfObject addQueryResults(char[][] categories, char[] key, int matchRule
 	}
 	return results;
 }
+/*
+ * Returns a copy of this index in which the entries of the given document are replaced by the given
+ * category and key pairs, or removed if entries is null. The entries of the other documents are shared.
+ */
+MemoryIndex copyWith(String documentName, char[][] entries, int entriesCount, long hash) {
+	MemoryIndex copy = new MemoryIndex();
+	Object[] paths = this.docsToReferences.keyTable;
+	Object[] referenceTables = this.docsToReferences.valueTable;
+	for (int i = 0, l = referenceTables.length; i < l; i++) {
+		if (referenceTables[i] != null && !documentName.equals(paths[i])) {
+			copy.docsToReferences.put(paths[i], referenceTables[i]);
+			Object documentHash = this.docsToHashes.get(paths[i]);
+			if (documentHash != null)
+				copy.docsToHashes.put(paths[i], documentHash);
+		}
+	}
+	if (entries != null) {
+		copy.docsToReferences.put(documentName, new HashtableOfObject(3)); // a document without entries still hides its older entries
+		for (int i = 0; i < entriesCount; i += 2)
+			copy.addIndexEntry(entries[i], entries[i + 1], documentName);
+		if (hash != 0L)
+			copy.addDocumentHash(documentName, hash);
+	}
+	return copy;
+}
+/*
+ * Stops sharing the document tables with the latest snapshot, before they are changed.
+ */
+private void copyOnWrite() {
+	if (!this.isShared) return;
+	try {
+		this.docsToReferences = (SimpleLookupTable) this.docsToReferences.clone();
+		this.docsToHashes = (SimpleLookupTable) this.docsToHashes.clone();
+	} catch (CloneNotSupportedException e) {
+		// cannot happen, lookup tables are cloneable
+	}
+	this.isShared = false;
+}
+private static HashtableOfObject copyReferenceTable(HashtableOfObject referenceTable) {
+	HashtableOfObject copy = new HashtableOfObject(referenceTable.elementSize);
+	char[][] categories = referenceTable.keyTable;
+	Object[] wordSets = referenceTable.valueTable;
+	for (int i = 0, l = categories.length; i < l; i++) {
+		SimpleWordSet wordSet = (SimpleWordSet) wordSets[i];
+		if (wordSet != null) {
+			SimpleWordSet words = new SimpleWordSet(wordSet.elementSize);
+			char[][] existingWords = wordSet.words;
+			for (int j = 0, m = existingWords.length; j < m; j++)
+				if (existingWords[j] != null)
+					words.add(existingWords[j]);
+			copy.put(categories[i], words);
+		}
+	}
+	return copy;
+}
+long getDocumentHash(String documentName) {
+	Long hash = (Long) this.docsToHashes.get(documentName);
+	return hash == null ? 0L : hash.longValue();
+}
+/*
+ * Returns whether the given document has the same words in the given categories in this index and in the other one.
+ */
+boolean hasSameEntries(String documentName, MemoryIndex other, char[][] categories) {
+	HashtableOfObject referenceTable = (HashtableOfObject) this.docsToReferences.get(documentName);
+	HashtableOfObject otherReferenceTable = (HashtableOfObject) other.docsToReferences.get(documentName);
+	if (referenceTable == null || otherReferenceTable == null) return false;
+	for (int i = 0, l = categories.length; i < l; i++) {
+		SimpleWordSet words = (SimpleWordSet) referenceTable.get(categories[i]);
+		SimpleWordSet otherWords = (SimpleWordSet) otherReferenceTable.get(categories[i]);
+		if (words == null || otherWords == null) {
+			if (words != otherWords) return false;
+			continue;
+		}
+		if (words.elementSize != otherWords.elementSize) return false;
+		char[][] existingWords = words.words;
+		for (int j = 0, m = existingWords.length; j < m; j++)
+			if (existingWords[j] != null && !otherWords.includes(existingWords[j]))
+				return false;
+	}
+	return true;
+}
 boolean hasChanged() {
 	return this.docsToReferences.elementSize > 0;
 }
+/*
+ * Returns whether the entries of the given document in this index replace the ones of other indexes.
+ */
+boolean hides(String documentName) {
+	return this.docsToReferences.containsKey(documentName);
+}
 void remove(String documentName) {
 	if (documentName.equals(this.lastDocumentName)) {
 		this.lastDocumentName = null;
 		this.lastReferenceTable = null;
 	}
+	copyOnWrite();
 	this.docsToReferences.put(documentName, null);
+	this.docsToHashes.removeKey(documentName);
+}
+/*
+ * Returns a view of this index which is not changed by later updates, so it can be queried without locking.
+ * The tables are shared until this index changes them: the document tables are copied on the next update,
+ * the reference tables of the documents when entries are added to them. The tables created since are not shared.
+ */
+MemoryIndex snapshot() {
+	MemoryIndex snapshot = new MemoryIndex();
+	snapshot.docsToReferences = this.docsToReferences;
+	snapshot.docsToHashes = this.docsToHashes;
+	this.isShared = true;
+	this.sharedReferences = this.docsToReferences;
+	this.lastDocumentName = null; // the next entry looks up its reference table again, and copies it
+	this.lastReferenceTable = null;
+	return snapshot;
 }
 boolean shouldMerge() {
 	return this.docsToReferences.elementSize >= NUM_CHANGES;
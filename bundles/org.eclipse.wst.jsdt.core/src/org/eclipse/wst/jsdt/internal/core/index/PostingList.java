@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compressed, sorted list of the document numbers of a {@link DiskIndex}.
+ * <p>
+ * The document numbers are stored in increasing order as the difference to the previous number,
+ * encoded as a variable length int of 7 bits per byte (the high bit is set on every byte but the last one).
+ * Posting lists read from an index share the bytes of the mapped index file, and {@link #union(PostingList)}
+ * and {@link #intersect(PostingList)} decode their operands as they go, so combining the results of several
+ * queries never requires the document numbers to be expanded into arrays.
+ * </p>
+ * <p>
+ * Document numbers are only meaningful for the disk index which assigned them, see {@link #canCombineWith(PostingList)}.
+ * </p>
+ */
+public class PostingList {
+
+private final DiskIndex index; // the disk index which numbered the documents
+private final ByteBuffer bytes;
+private final int offset;
+private final int size; // number of document numbers
+
+/*
+ * Sequential decoder over the document numbers of a posting list.
+ */
+static class Decoder {
+
+private final ByteBuffer bytes;
+private int position;
+private int remaining;
+int current = -1;
+
+Decoder(ByteBuffer bytes, int position, int size) {
+	this.bytes = bytes;
+	this.position = position;
+	this.remaining = size;
+}
+/*
+ * Moves to the next document number, returns false if there are no more numbers.
+ */
+boolean next() {
+	if (this.remaining == 0) return false;
+	this.remaining--;
+	int delta = 0;
+	int shift = 0;
+	byte b;
+	do {
+		b = this.bytes.get(this.position++);
+		delta |= (b & 0x7F) << shift;
+		shift += 7;
+	} while ((b & 0x80) != 0);
+	this.current = this.current < 0 ? delta : this.current + delta;
+	return true;
+}
+}
+
+/*
+ * Growable buffer used to encode sorted document numbers.
+ */
+static class Encoder {
+
+byte[] bytes;
+int length;
+int size;
+private int last = -1;
+
+Encoder(int expectedSize) {
+	this.bytes = new byte[expectedSize < 4 ? 8 : expectedSize * 2];
+}
+void add(int documentNumber) {
+	if (this.length + 5 > this.bytes.length)
+		System.arraycopy(this.bytes, 0, this.bytes = new byte[this.bytes.length * 2 + 5], 0, this.length);
+	this.length = writeVariableInt(this.bytes, this.length, this.last < 0 ? documentNumber : documentNumber - this.last);
+	this.last = documentNumber;
+	this.size++;
+}
+PostingList toPostingList(DiskIndex index) {
+	return new PostingList(index, ByteBuffer.wrap(this.bytes, 0, this.length), 0, this.size);
+}
+}
+
+PostingList(DiskIndex index, ByteBuffer bytes, int offset, int size) {
+	this.index = index;
+	this.bytes = bytes;
+	this.offset = offset;
+	this.size = size;
+}
+/*
+ * Returns a posting list of the given sorted document numbers.
+ */
+static PostingList encode(DiskIndex index, int[] sortedNumbers) {
+	Encoder encoder = new Encoder(sortedNumbers.length);
+	for (int i = 0, l = sortedNumbers.length; i < l; i++)
+		encoder.add(sortedNumbers[i]);
+	return encoder.toPostingList(index);
+}
+/*
+ * Writes the given value as a variable length int into the given bytes, returns the position following it.
+ */
+static int writeVariableInt(byte[] bytes, int position, int value) {
+	while ((value & ~0x7F) != 0) {
+		bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+		value >>>= 7;
+	}
+	bytes[position++] = (byte) value;
+	return position;
+}
+/**
+ * Returns whether the document numbers of the given posting list were assigned by the same
+ * disk index as this one, in which case both lists can be combined.
+ */
+public boolean canCombineWith(PostingList other) {
+	return this.index == other.index;
+}
+Decoder decoder() {
+	return new Decoder(this.bytes, this.offset, this.size);
+}
+/**
+ * Returns the names of the documents in this posting list.
+ */
+public String[] getDocumentNames() throws IOException {
+	String[] names = new String[this.size];
+	Decoder decoder = decoder();
+	for (int i = 0; decoder.next(); i++)
+		names[i] = this.index.readDocumentName(decoder.current);
+	return names;
+}
+/**
+ * Returns a posting list of the documents which are in both this list and the given one.
+ */
+public PostingList intersect(PostingList other) {
+	if (this.size == 0) return this;
+	if (other.size == 0) return other;
+
+	Encoder result = new Encoder(this.size < other.size ? this.size : other.size);
+	Decoder left = decoder();
+	Decoder right = other.decoder();
+	boolean hasLeft = left.next(), hasRight = right.next();
+	while (hasLeft && hasRight) {
+		if (left.current < right.current) {
+			hasLeft = left.next();
+		} else if (left.current > right.current) {
+			hasRight = right.next();
+		} else {
+			result.add(left.current);
+			hasLeft = left.next();
+			hasRight = right.next();
+		}
+	}
+	return result.toPostingList(this.index);
+}
+public int size() {
+	return this.size;
+}
+int[] toArray() {
+	int[] documentNumbers = new int[this.size];
+	Decoder decoder = decoder();
+	for (int i = 0; decoder.next(); i++)
+		documentNumbers[i] = decoder.current;
+	return documentNumbers;
+}
+/**
+ * Returns a posting list of the documents which are in this list or in the given one.
+ */
+public PostingList union(PostingList other) {
+	if (this.size == 0) return other;
+	if (other.size == 0) return this;
+
+	Encoder result = new Encoder(this.size + other.size);
+	Decoder left = decoder();
+	Decoder right = other.decoder();
+	boolean hasLeft = left.next(), hasRight = right.next();
+	while (hasLeft || hasRight) {
+		if (!hasRight || (hasLeft && left.current < right.current)) {
+			result.add(left.current);
+			hasLeft = left.next();
+		} else if (!hasLeft || left.current > right.current) {
+			result.add(right.current);
+			hasRight = right.next();
+		} else {
+			result.add(left.current);
+			hasLeft = left.next();
+			hasRight = right.next();
+		}
+	}
+	return result.toPostingList(this.index);
+}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.index;
+
+import org.eclipse.wst.jsdt.core.search.SearchPattern;
+import org.eclipse.wst.jsdt.internal.compiler.parser.ScannerHelper;
+
+/**
+ * The trigrams of the words of a {@link DiskIndex} category, used to narrow down the words which can match
+ * a pattern, camel case or case insensitive query before checking each of them with {@link Index#isMatch(char[], char[], int)}.
+ * <p>
+ * A trigram is 3 consecutive characters of a word, lower cased the same way as case insensitive matches do,
+ * and packed into a long. A word can only match a query if it contains every trigram of the characters
+ * the query requires to appear consecutively in the word.
+ * </p>
+ */
+class Trigrams {
+
+private static final long[] NO_TRIGRAMS = new long[0];
+
+private Trigrams() {
+	// not instantiable
+}
+/*
+ * Adds the trigrams of the given chars to the given set, returns the set.
+ */
+private static long[] addTrigrams(char[] chars, int start, int end, long[] trigrams, int[] count) {
+	for (int i = start; i + 2 < end; i++) {
+		long trigram = of(chars[i], chars[i + 1], chars[i + 2]);
+		if (indexOf(trigrams, count[0], trigram) >= 0) continue;
+		if (count[0] == trigrams.length)
+			System.arraycopy(trigrams, 0, trigrams = new long[count[0] * 2 + 4], 0, count[0]);
+		trigrams[count[0]++] = trigram;
+	}
+	return trigrams;
+}
+private static int indexOf(long[] trigrams, int count, long trigram) {
+	for (int i = 0; i < count; i++)
+		if (trigrams[i] == trigram) return i;
+	return -1;
+}
+/*
+ * Returns whether a camel case match can skip name characters before the given pattern character.
+ * See CharOperation#camelCaseMatch(char[], int, int, char[], int, int).
+ */
+private static boolean isCamelCaseJump(char c) {
+	if (c < ScannerHelper.MAX_OBVIOUS)
+		return (ScannerHelper.OBVIOUS_IDENT_CHAR_NATURES[c] & ScannerHelper.C_UPPER_LETTER) != 0;
+	return !Character.isJavaIdentifierPart(c) || Character.isUpperCase(c);
+}
+static long of(char c1, char c2, char c3) {
+	return ((long) ScannerHelper.toLowerCase(c1) << 32) | ((long) ScannerHelper.toLowerCase(c2) << 16) | ScannerHelper.toLowerCase(c3);
+}
+/*
+ * Returns the distinct trigrams of the given word.
+ */
+static long[] ofWord(char[] word) {
+	if (word.length < 3) return NO_TRIGRAMS;
+	int[] count = new int[1];
+	long[] trigrams = addTrigrams(word, 0, word.length, new long[word.length - 2], count);
+	if (count[0] < trigrams.length)
+		System.arraycopy(trigrams, 0, trigrams = new long[count[0]], 0, count[0]);
+	return trigrams;
+}
+/*
+ * Returns the trigrams that any word matching the given key with the given match rule contains,
+ * or null if the key does not require any, in which case every word must be checked.
+ */
+static long[] requiredBy(char[] key, int matchRule) {
+	if (key == null || key.length < 3) return null;
+	if ((matchRule & SearchPattern.R_REGEXP_MATCH) != 0) return null;
+
+	int[] count = new int[1];
+	long[] trigrams = new long[key.length];
+	if ((matchRule & SearchPattern.R_CAMELCASE_MATCH) != 0) {
+		// a camel case match which fails falls back to a pattern match, which could require other trigrams
+		if ((matchRule & SearchPattern.R_PATTERN_MATCH) != 0) return null;
+		// each fragment of the key starting at a possible jump is matched consecutively,
+		// and the fallback prefix match contains the whole key
+		int start = 0;
+		for (int i = 1, length = key.length; i <= length; i++) {
+			if (i == length || isCamelCaseJump(key[i])) {
+				trigrams = addTrigrams(key, start, i, trigrams, count);
+				start = i;
+			}
+		}
+	} else if ((matchRule & SearchPattern.R_PATTERN_MATCH) != 0) {
+		// the characters between wild cards are matched consecutively
+		int start = 0;
+		for (int i = 0, length = key.length; i <= length; i++) {
+			if (i == length || key[i] == '*' || key[i] == '?') {
+				trigrams = addTrigrams(key, start, i, trigrams, count);
+				start = i + 1;
+			}
+		}
+	} else {
+		// exact and prefix matches contain the whole key
+		trigrams = addTrigrams(key, 0, key.length, trigrams, count);
+	}
+	if (count[0] == 0) return null;
+	if (count[0] < trigrams.length)
+		System.arraycopy(trigrams, 0, trigrams = new long[count[0]], 0, count[0]);
+	return trigrams;
+}
+}
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.wst.jsdt.internal.core.search;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -68,6 +70,7 @@ import org.eclipse.wst.jsdt.internal.core.DefaultWorkingCopyOwner;
 import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
 import org.eclipse.wst.jsdt.internal.core.JavaProject;
 import org.eclipse.wst.jsdt.internal.core.Logger;
+import org.eclipse.wst.jsdt.internal.core.index.IndexStatistics;
 import org.eclipse.wst.jsdt.internal.core.search.indexing.IIndexConstants;
 import org.eclipse.wst.jsdt.internal.core.search.indexing.IndexManager;
 import org.eclipse.wst.jsdt.internal.core.search.matching.ConstructorPattern;
@@ -271,7 +274,7 @@ public class BasicSearchEngine {
 						for (int j = 0; j < indexMatchLength; j++) {
 							indexMatches[j] = participant.getDocument(indexMatchPaths[j]);
 						}
-						SearchDocument[] matches = MatchLocator.addWorkingCopies(pattern, indexMatches, getWorkingCopies(), participant);
+						SearchDocument[] matches = MatchLocator.addWorkingCopies(pattern, indexMatches, getWorkingCopies(), participant, participant instanceof JavaSearchParticipant);
 						participant.locateMatches(matches, pattern, scope, requestor, monitor==null ? null : new SubProgressMonitor(monitor, 50));
 					}
 				} finally {
@@ -295,6 +298,21 @@ public class BasicSearchEngine {
 		return new JavaSearchParticipant();
 	}
 
+	/**
+	 * Returns the statistics of the index queries and of the indexing.
+	 */
+	public static IndexStatistics getIndexStatistics() {
+		return JavaModelManager.getJavaModelManager().getIndexManager().getStatistics();
+	}
+
+	/**
+	 * Writes the statistics of the index queries, of the indexing, of the minified sources and of each index
+	 * into the given file.
+	 */
+	public static void dumpIndexStatistics(File file) throws IOException {
+		JavaModelManager.getJavaModelManager().getIndexManager().dumpStatistics(file);
+	}
+
 
 	/**
 	 * @param matchRule
@@ -21,7 +21,6 @@ import org.eclipse.wst.jsdt.core.search.SearchPattern;
 import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
 import org.eclipse.wst.jsdt.internal.core.index.Index;
 import org.eclipse.wst.jsdt.internal.core.search.indexing.IndexManager;
-import org.eclipse.wst.jsdt.internal.core.search.indexing.ReadWriteMonitor;
 import org.eclipse.wst.jsdt.internal.core.search.matching.MatchLocator;
 import org.eclipse.wst.jsdt.internal.core.search.processing.IJob;
 import org.eclipse.wst.jsdt.internal.core.search.processing.JobManager;
@@ -108,10 +107,9 @@ public boolean search(Index index, IProgressMonitor progressMonitor) {
 	if (index == null) return COMPLETE;
 	if (progressMonitor != null && progressMonitor.isCanceled()) throw new OperationCanceledException();
 
-	ReadWriteMonitor monitor = index.monitor;
-	if (monitor == null) return COMPLETE; // index got deleted since acquired
+	if (index.monitor == null) return COMPLETE; // index got deleted since acquired
 	try {
-		monitor.enterRead(); // ask permission to read
+		// no need for the read lock, queries read a snapshot of the index which updates do not change
 		long start = System.currentTimeMillis();
 		MatchLocator.findIndexMatches(this.pattern, index, requestor, this.participant, this.scope, progressMonitor);
 		executionTime += System.currentTimeMillis() - start;
@@ -120,8 +118,6 @@ public boolean search(Index index, IProgressMonitor progressMonitor) {
 		if (e instanceof java.io.EOFException)
 			e.printStackTrace();
 		return FAILED;
-	} finally {
-		monitor.exitRead(); // finished reading
 	}
 }
 public String toString() {
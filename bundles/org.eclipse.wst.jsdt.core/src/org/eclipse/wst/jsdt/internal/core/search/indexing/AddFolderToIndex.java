@@ -45,7 +45,7 @@ class AddFolderToIndex extends IndexRequest {
 		if (folder == null || folder.getType() == IResource.FILE) return true; // nothing to do, source folder was removed
 
 		/* ensure no concurrent write access to index */
-		Index index = this.manager.getIndex(this.containerPath, true, /*reuse index file*/ true /*create if none*/);
+		final Index index = this.manager.getIndex(this.containerPath, true, /*reuse index file*/ true /*create if none*/);
 		if (index == null) return true;
 		ReadWriteMonitor monitor = index.monitor;
 		if (monitor == null) return true; // index got deleted since acquired
@@ -62,8 +62,11 @@ class AddFolderToIndex extends IndexRequest {
 						public boolean visit(IResourceProxy proxy) /* throws CoreException */{
 							if (proxy.getType() == IResource.FILE) {
 								if (org.eclipse.wst.jsdt.internal.core.util.Util.isJavaLikeFileName(proxy.getName())
-										||org.eclipse.wst.jsdt.internal.core.util.Util.isMetadataFileName(proxy.getName()))
-									indexManager.addSource((IFile) proxy.requestResource(), container, parser);
+										||org.eclipse.wst.jsdt.internal.core.util.Util.isMetadataFileName(proxy.getName())) {
+									IFile file = (IFile) proxy.requestResource();
+									if (!hasIndexedContents(index, file, Util.relativePath(file.getFullPath(), 1/*remove project segment*/)))
+										indexManager.addSource(file, container, parser);
+								}
 								return false;
 							}
 							return true;
@@ -79,7 +82,8 @@ class AddFolderToIndex extends IndexRequest {
 								case IResource.FILE :
 									if (org.eclipse.wst.jsdt.internal.core.util.Util.isJavaLikeFileName(proxy.getName())) {
 										IResource resource = proxy.requestResource();
-										if (!Util.isExcluded(resource, inclusionPatterns, exclusionPatterns))
+										if (!Util.isExcluded(resource, inclusionPatterns, exclusionPatterns)
+												&& !hasIndexedContents(index, (IFile) resource, Util.relativePath(resource.getFullPath(), 1/*remove project segment*/)))
 											indexManager.addSource((IFile)resource, container, parser);
 									}
 									return false;
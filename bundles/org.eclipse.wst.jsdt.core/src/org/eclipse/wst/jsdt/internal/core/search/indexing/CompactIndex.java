@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.search.indexing;
+
+import java.io.IOException;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.wst.jsdt.internal.core.index.Index;
+import org.eclipse.wst.jsdt.internal.core.search.processing.JobManager;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
+
+/*
+ * Merge the segments of the index of a project, see Index#compact(long).
+ * The entries of the index do not change, so its state is left as is.
+ */
+public class CompactIndex extends IndexRequest {
+	private long memoryLimit;
+
+	public CompactIndex(IPath containerPath, IndexManager manager, long memoryLimit) {
+		super(containerPath, manager);
+		this.memoryLimit = memoryLimit;
+	}
+	public void cancel() {
+		// the index is still consistent, there is no need to rebuild it
+		this.isCancelled = true;
+	}
+	public void ensureReadyToRun() {
+		// the index is still consistent while it is compacted
+	}
+	public boolean equals(Object o) {
+		if (o instanceof CompactIndex)
+			return this.containerPath.equals(((CompactIndex) o).containerPath);
+		return false;
+	}
+	public int hashCode() {
+		return this.containerPath.hashCode();
+	}
+	public boolean execute(IProgressMonitor progressMonitor) {
+
+		if (this.isCancelled || progressMonitor != null && progressMonitor.isCanceled()) return true;
+
+		Index index = this.manager.getIndex(this.containerPath, true /*reuse index file*/, false /*don't create if none*/);
+		if (index == null) return true;
+		ReadWriteMonitor monitor = index.monitor;
+		if (monitor == null) return true; // index got deleted since acquired
+
+		try {
+			monitor.enterRead(); // no save while merging, queries do not need the monitor
+			if (JobManager.VERBOSE)
+				Util.verbose("-> compacting index " + index.getIndexFile()); //$NON-NLS-1$
+			index.compact(this.memoryLimit);
+		} catch (IOException e) {
+			if (JobManager.VERBOSE) {
+				Util.verbose("-> failed to compact index " + this.containerPath + " because of the following exception:", System.err); //$NON-NLS-1$ //$NON-NLS-2$
+				e.printStackTrace();
+			}
+			return false;
+		} finally {
+			monitor.exitRead();
+		}
+		return true;
+	}
+	public String toString() {
+		return "compacting index for " + this.containerPath; //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.search.indexing;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.wst.jsdt.core.IJavaScriptProject;
+import org.eclipse.wst.jsdt.core.JavaScriptCore;
+import org.eclipse.wst.jsdt.core.search.SearchDocument;
+import org.eclipse.wst.jsdt.core.search.SearchParticipant;
+import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
+import org.eclipse.wst.jsdt.internal.core.search.processing.JobManager;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
+
+/**
+ * A bounded pool of threads which parse source documents ahead of the indexing thread.
+ * <p>
+ * The index entries of a document are buffered in the document instead of being added to its index.
+ * The job which was queued for the document still writes these entries into the index on the indexing
+ * thread (see {@link IndexManager#scheduleDocumentIndexing(SearchDocument, IPath, IPath, SearchParticipant)}),
+ * so the writes into an index happen in the order of the jobs, and the progress reported for the awaiting
+ * jobs is unchanged.
+ * </p>
+ * <p>
+ * The number of documents parsed but not yet written is bounded, so that workers do not buffer the entries
+ * of a whole project while the indexing thread is busy elsewhere. A document which no worker has started
+ * yet when its job runs is indexed by the job itself.
+ * </p>
+ */
+class DocumentIndexingPool implements Runnable {
+
+static final int WAITING = 0;
+static final int RUNNING = 1;
+static final int PARSED = 2;
+static final int FAILED = 3;
+static final int CLAIMED = 4; // the indexing thread indexes the document itself, or dropped it
+
+/*
+ * A document to parse, and the state of its buffered entries.
+ */
+static class Task {
+	final SearchDocument document;
+	final SearchParticipant participant;
+	final IPath indexLocation;
+	int state = WAITING;
+
+	Task(SearchDocument document, SearchParticipant participant, IPath indexLocation) {
+		this.document = document;
+		this.participant = participant;
+		this.indexLocation = indexLocation;
+	}
+	public String toString() {
+		return "parsing " + this.document.getPath(); //$NON-NLS-1$
+	}
+}
+
+final int parallelism;
+private final IndexManager manager;
+private final int maxTasksAhead;
+private Thread[] workers;
+
+private Task[] tasks = new Task[16];
+private int taskStart = 0;
+private int taskEnd = -1; // last task in the queue
+private int tasksAhead = 0; // tasks being parsed, or parsed but not yet written
+private boolean shutdown = false;
+
+DocumentIndexingPool(IndexManager manager, int parallelism) {
+	this.manager = manager;
+	this.parallelism = parallelism;
+	this.maxTasksAhead = parallelism * 8;
+	this.workers = new Thread[parallelism];
+	for (int i = 0; i < parallelism; i++) {
+		Thread worker = new Thread(this, manager.processName() + " worker #" + (i + 1)); //$NON-NLS-1$
+		worker.setDaemon(true);
+		worker.setPriority(Thread.NORM_PRIORITY-1);
+		worker.start();
+		this.workers[i] = worker;
+	}
+}
+/*
+ * Waits until the entries of the given task are buffered in its document.
+ * Returns false if the caller must index the document itself, either because no worker started it
+ * or because its indexing failed.
+ */
+synchronized boolean awaitEntries(Task task) {
+	while (task.state == RUNNING) {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			// ignore
+		}
+	}
+	int state = task.state;
+	if (state == PARSED || state == FAILED) {
+		this.tasksAhead--;
+		notifyAll();
+	}
+	task.state = CLAIMED;
+	return state == PARSED;
+}
+/*
+ * The job of the given task was discarded, its document is not written into the index.
+ */
+synchronized void cancel(Task task) {
+	int state = task.state;
+	task.state = CLAIMED; // a running worker releases the document when done
+	if (state == PARSED || state == FAILED) {
+		this.tasksAhead--;
+		notifyAll();
+		((InternalSearchDocument) task.document).discardBufferedEntries();
+	}
+}
+private Task nextWaitingTask() {
+	while (this.taskStart <= this.taskEnd) {
+		Task task = this.tasks[this.taskStart];
+		this.tasks[this.taskStart++] = null;
+		if (task.state == WAITING)
+			return task;
+	}
+	this.taskStart = 0;
+	this.taskEnd = -1;
+	return null;
+}
+/*
+ * Parses the queued documents until the pool is shut down.
+ */
+public void run() {
+	IJavaScriptProject parserProject = null;
+	SourceElementParser parser = null;
+	while (true) {
+		Task task = null;
+		synchronized (this) {
+			while (task == null) {
+				if (this.shutdown) return;
+				if (this.tasksAhead < this.maxTasksAhead)
+					task = nextWaitingTask();
+				if (task == null) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						// ignore
+					}
+				}
+			}
+			task.state = RUNNING;
+			this.tasksAhead++;
+		}
+
+		InternalSearchDocument document = task.document;
+		boolean parsed = false;
+		try {
+			// parsers are not thread safe, each worker uses its own one
+			String projectName = new Path(task.document.getPath()).segment(0);
+			IJavaScriptProject project = JavaScriptCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(projectName));
+			if (parser == null || !project.equals(parserProject)) {
+				parser = this.manager.getSourceElementParser(project, null/*requestor will be set by indexer*/);
+				parserProject = project;
+			}
+			document.parser = parser;
+			document.bufferEntries();
+			task.participant.indexDocument(task.document, task.indexLocation);
+			parsed = true;
+		} catch (RuntimeException e) {
+			failed(task, e);
+		} catch (StackOverflowError e) { // deeply nested source, the worker can go on
+			failed(task, e);
+		} finally {
+			// any other error kills the worker, but its task must still be released to the indexing thread
+			document.parser = null;
+			if (!parsed)
+				document.discardBufferedEntries();
+			synchronized (this) {
+				if (task.state == CLAIMED) { // cancelled while running
+					document.discardBufferedEntries();
+					this.tasksAhead--;
+				} else {
+					task.state = parsed ? PARSED : FAILED;
+				}
+				notifyAll();
+			}
+		}
+	}
+}
+private void failed(Task task, Throwable e) {
+	if (JobManager.VERBOSE) {
+		Util.verbose("-> failed to parse " + task.document.getPath() + " because of the following exception:", System.err); //$NON-NLS-1$ //$NON-NLS-2$
+		e.printStackTrace();
+	}
+}
+/*
+ * Stops the workers once they are done with their current document.
+ * Documents which were not started are left to their jobs.
+ */
+void shutdown() {
+	synchronized (this) {
+		this.shutdown = true;
+		notifyAll();
+	}
+	if (JobManager.VERBOSE)
+		Util.verbose("-> shut down the indexing pool of " + this.parallelism + " workers"); //$NON-NLS-1$//$NON-NLS-2$
+}
+/*
+ * Queues the given document so that a worker parses it.
+ */
+synchronized Task submit(SearchDocument document, SearchParticipant participant, IPath indexLocation) {
+	Task task = new Task(document, participant, indexLocation);
+	int size = this.tasks.length;
+	if (++this.taskEnd == size) { // when growing, relocate tasks starting at position 0
+		this.taskEnd -= this.taskStart;
+		System.arraycopy(this.tasks, this.taskStart, this.tasks = new Task[size * 2], 0, this.taskEnd);
+		this.taskStart = 0;
+	}
+	this.tasks[this.taskEnd] = task;
+	notifyAll();
+	return task;
+}
+}
@@ -25,6 +25,7 @@ public interface IIndexConstants {
 	final char[] FIELD_DECL= "fieldDecl".toCharArray(); //$NON-NLS-1$
 	final char[] VAR_DECL= "varDecl".toCharArray(); //$NON-NLS-1$
 	final char[] TYPE_SYNONYMS = "typeSynonyms".toCharArray(); //$NON-NLS-1$
+	final char[][] DECLARATION_CATEGORIES = {TYPE_DECL, METHOD_DECL, FUNCTION_DECL, CONSTRUCTOR_DECL, FIELD_DECL, VAR_DECL, TYPE_SYNONYMS};
 	final char[] OBJECT = "Object".toCharArray(); //$NON-NLS-1$
 	final char [] WINDOW = "Window".toCharArray(); //$NON-NLS-1$
 	final char[] GLOBAL = "Global".toCharArray(); //$NON-NLS-1$
@@ -100,7 +100,7 @@ public class IndexAllProject extends IndexRequest {
 			if (sourceEntriesNumber != length)
 				System.arraycopy(sourceEntries, 0, sourceEntries = new IIncludePathEntry[sourceEntriesNumber], 0, sourceEntriesNumber);
 
-			Index index = this.manager.getIndexForUpdate(this.containerPath, true, /*reuse index file*/ true /*create if none*/);
+			final Index index = this.manager.getIndexForUpdate(this.containerPath, true, /*reuse index file*/ true /*create if none*/);
 			if (index == null) return true;
 			monitor = index.monitor;
 			if (monitor == null) return true; // index got deleted since acquired
@@ -184,9 +184,11 @@ public class IndexAllProject extends IndexRequest {
 													if (Util.isExcluded(file, inclusionPatterns, exclusionPatterns))
 														return false;
 												String relativePathString = Util.relativePath(file.getFullPath(), 1/*remove project segment*/);
+												// a file touched since the index was saved is only indexed again if its contents changed
 												indexedFileNames.put(relativePathString,
 													indexedFileNames.get(relativePathString) == null
 															|| indexLastModified < EFS.getStore(location).fetchInfo().getLastModified()
+																&& !hasIndexedContents(index, file, relativePathString)
 														? (Object) file
 														: (Object) OK);
 											}
@@ -12,8 +12,10 @@ package org.eclipse.wst.jsdt.internal.core.search.indexing;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.Locale;
 import java.util.Map;
@@ -32,6 +34,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.wst.jsdt.core.IIncludePathEntry;
 import org.eclipse.wst.jsdt.core.IJavaScriptProject;
+import org.eclipse.wst.jsdt.core.IJavaScriptUnit;
 import org.eclipse.wst.jsdt.core.JavaScriptCore;
 import org.eclipse.wst.jsdt.core.JavaScriptModelException;
 import org.eclipse.wst.jsdt.core.compiler.CharOperation;
@@ -42,7 +45,10 @@ import org.eclipse.wst.jsdt.core.search.SearchParticipant;
 import org.eclipse.wst.jsdt.internal.compiler.ISourceElementRequestor;
 import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
 import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSources;
+import org.eclipse.wst.jsdt.internal.compiler.parser.ParserPool;
 import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.util.HashtableOfIntValues;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleLookupTable;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
 import org.eclipse.wst.jsdt.internal.core.ClasspathEntry;
@@ -52,7 +58,9 @@ import org.eclipse.wst.jsdt.internal.core.JavaProject;
 import org.eclipse.wst.jsdt.internal.core.LibraryFragmentRoot;
 import org.eclipse.wst.jsdt.internal.core.index.DiskIndex;
 import org.eclipse.wst.jsdt.internal.core.index.Index;
+import org.eclipse.wst.jsdt.internal.core.index.IndexStatistics;
 import org.eclipse.wst.jsdt.internal.core.search.BasicSearchEngine;
+import org.eclipse.wst.jsdt.internal.core.search.JavaSearchDocument;
 import org.eclipse.wst.jsdt.internal.core.search.PatternSearchJob;
 import org.eclipse.wst.jsdt.internal.core.search.processing.IJob;
 import org.eclipse.wst.jsdt.internal.core.search.processing.JobManager;
@@ -82,6 +90,34 @@ public class IndexManager extends JobManager implements IIndexConstants {
 	public static Integer REBUILDING_STATE = new Integer(3);
 	private static final String INDEX_FILE_SUFFIX = ".index";
 
+	/* prebuilt read-only indexes of the bundled libraries, see addPrebuiltIndex(IPath, File) */
+	// key = library path, value = an index
+	private SimpleLookupTable prebuiltIndexes = null;
+
+	/* the indexing statistics, the query statistics are kept by each index */
+	private IndexStatistics indexingStatistics = new IndexStatistics();
+	/* the number of documents indexed by the job being executed, only changed by the indexing thread */
+	private int jobDocuments = 0;
+
+	/* workers parsing source documents ahead of the indexing thread, null when indexing is sequential */
+	private DocumentIndexingPool indexingPool = null;
+	/* the configured number of workers, 0 until the option is read and again when it changes */
+	private int indexingParallelism = 0;
+	private int indexingParallelismChanges = 0;
+
+	/* parsers of the documents indexed without a parser of their own, see SourceIndexer#indexDocument() */
+	private ParserPool sourceElementParsers = new ParserPool();
+	/* the options the documents of each project are parsed with (project path -> IndexingOptions), see getIndexingOptions() */
+	private SimpleLookupTable indexingOptions = new SimpleLookupTable(3);
+
+	private static class IndexingOptions {
+		int optionsStamp;
+		CompilerOptions options;
+	}
+
+	/* the latest job indexing each working copy (IJavaScriptUnit -> IndexWorkingCopy), see indexWorkingCopy() */
+	private SimpleLookupTable workingCopyJobs = new SimpleLookupTable(3);
+
 
 public synchronized void aboutToUpdateIndex(IPath containerPath, Integer newIndexState) {
 	// newIndexState is either UPDATING_STATE or REBUILDING_STATE
@@ -111,6 +147,51 @@ public void addBinary(IFile resource, IPath containerPath) {
 	IPath indexLocation = computeIndexLocation(containerPath);
 	scheduleDocumentIndexing(document, containerPath, indexLocation, participant);
 }
+/**
+ * Uses the given prebuilt index for the given library file instead of indexing the library in the workspace.
+ * The index is ignored if it was not built from the current contents of the library, see PrebuiltIndexGenerator.
+ */
+public void addPrebuiltIndex(IPath libraryPath, File indexFile) {
+	String containerPathString = libraryPath.getDevice() == null ? libraryPath.toString() : libraryPath.toOSString();
+	Index index;
+	try {
+		// the document names of a prebuilt index are relative to the folder of the library
+		index = new Index(indexFile.getAbsolutePath(), containerPathString, libraryPath.removeLastSegments(1).addTrailingSeparator().toString());
+		long hash = index.getDocumentHash(libraryPath.toString());
+		char[] contents = org.eclipse.wst.jsdt.internal.compiler.util.Util.getFileCharContent(libraryPath.toFile(), PrebuiltIndexGenerator.ENCODING);
+		if (hash == 0L || hash != Index.computeContentHash(contents)) {
+			if (VERBOSE)
+				Util.verbose("-> prebuilt index " + indexFile + " is out of date for " + libraryPath); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+	} catch (IOException e) {
+		if (VERBOSE) {
+			Util.verbose("-> cannot use prebuilt index " + indexFile + " for " + libraryPath, System.err); //$NON-NLS-1$ //$NON-NLS-2$
+			e.printStackTrace();
+		}
+		return;
+	}
+	synchronized (this) {
+		if (this.prebuiltIndexes == null)
+			this.prebuiltIndexes = new SimpleLookupTable(3);
+		this.prebuiltIndexes.put(libraryPath, index);
+		this.indexLocations.removeKey(libraryPath); // forget the location of an index built in the workspace
+	}
+	if (VERBOSE)
+		Util.verbose("-> using prebuilt index " + indexFile + " for " + libraryPath); //$NON-NLS-1$ //$NON-NLS-2$
+}
+/**
+ * Answers the amount of awaiting jobs, except the ones indexing working copies: the searches do not wait for them
+ * as they match the working copies whose contents are not indexed yet, see isWorkingCopyIndexed().
+ */
+public synchronized int awaitingJobsCount() {
+	int count = super.awaitingJobsCount();
+	if (this.activated)
+		for (int i = this.jobStart; i <= this.jobEnd; i++)
+			if (this.awaitingJobs[i] instanceof IndexWorkingCopy)
+				count--;
+	return count;
+}
 /**
  * Trigger addition of a resource to an index
  * Note: the actual operation is performed in background
@@ -121,7 +202,9 @@ public void addSource(IFile resource, IPath containerPath, SourceElementParser p
 	SearchDocument document = participant.getDocument(resource.getFullPath().toString());
 	((InternalSearchDocument) document).parser = parser;
 	IPath indexLocation = computeIndexLocation(containerPath);
-	scheduleDocumentIndexing(document, containerPath, indexLocation, participant);
+	DocumentIndexingPool pool = getIndexingPool();
+	DocumentIndexingPool.Task task = pool == null ? null : pool.submit(document, participant, indexLocation);
+	scheduleDocumentIndexing(document, containerPath, indexLocation, participant, pool, task);
 }
 /*
  * Removes unused indexes from disk.
@@ -153,6 +236,12 @@ public void cleanUpIndexes() {
 public IPath computeIndexLocation(IPath containerPath) {
 	IPath indexLocation = (IPath) this.indexLocations.get(containerPath);
 	if (indexLocation == null) {
+		Index prebuiltIndex = getPrebuiltIndex(containerPath);
+		if (prebuiltIndex != null) {
+			indexLocation = new Path(prebuiltIndex.getIndexFile().getAbsolutePath());
+			this.indexLocations.put(containerPath, indexLocation);
+			return indexLocation;
+		}
 		String pathString = containerPath.toOSString();
 		checksumCalculator.reset();
 		checksumCalculator.update(pathString.getBytes());
@@ -180,6 +269,16 @@ private void deleteIndexFiles(SimpleSet pathsToKeep) {
 			if (VERBOSE)
 				Util.verbose("Deleting index file " + indexesFiles[i]); //$NON-NLS-1$
 			indexesFiles[i].delete();
+		} else if (Index.isObsoleteFile(indexesFiles[i])) {
+			// moved aside by a save, see DiskIndex#deleteIndexFile(File)
+			indexesFiles[i].delete();
+		} else {
+			// the segments of an index are deleted with it
+			File indexFile = Index.getSegmentIndexFile(indexesFiles[i]);
+			if (indexFile == null || pathsToKeep != null && pathsToKeep.includes(indexFile.getAbsolutePath())) continue;
+			if (VERBOSE)
+				Util.verbose("Deleting index segment " + indexesFiles[i]); //$NON-NLS-1$
+			indexesFiles[i].delete();
 		}
 	}
 }
@@ -195,18 +294,62 @@ public void ensureIndexExists(IPath indexLocation, IPath containerPath) {
 	}
 }
 public SourceElementParser getSourceElementParser(IJavaScriptProject project, ISourceElementRequestor requestor) {
+	return getSourceElementParser(getIndexingOptions(project), requestor);
+}
+/*
+ * Returns the parser of the current thread for indexing a document of the given project,
+ * or a new one if none was released for the same options.
+ * The parser must be handed back with releaseSourceElementParser(SourceElementParser) once the document is indexed.
+ */
+SourceElementParser acquireSourceElementParser(IJavaScriptProject project, ISourceElementRequestor requestor) {
+	CompilerOptions options = getIndexingOptions(project);
+	SourceElementParser parser = (SourceElementParser) this.sourceElementParsers.acquire(options, true/*optimize string literals*/);
+	if (parser == null)
+		return getSourceElementParser(options, requestor);
+	parser.setRequestor(requestor);
+	parser.skipMinifiedSources = true; // reset when the parser was released
+	parser.setSkipFunctionBodies(true);
+	return parser;
+}
+void releaseSourceElementParser(SourceElementParser parser) {
+	this.sourceElementParsers.release(parser);
+}
+/*
+ * Returns the options the documents of the given project are parsed with. They are kept until the options change
+ * (see JavaModelManager#getOptionsStamp()), so that the parsers of the pool are handed back without comparing
+ * the options, and are shared by the threads parsing the documents since the indexing parsers do not change them.
+ */
+private CompilerOptions getIndexingOptions(IJavaScriptProject project) {
+	int optionsStamp = JavaModelManager.getJavaModelManager().getOptionsStamp();
+	synchronized (this.indexingOptions) {
+		IndexingOptions cached = (IndexingOptions) this.indexingOptions.get(project.getPath());
+		if (cached != null && cached.optionsStamp == optionsStamp)
+			return cached.options;
+	}
 	// disable task tags to speed up parsing
 	Map options = project.getOptions(true);
 	options.put(JavaScriptCore.COMPILER_TASK_TAGS, ""); //$NON-NLS-1$
-
+	IndexingOptions cached = new IndexingOptions();
+	cached.optionsStamp = optionsStamp; // read before the options, a change meanwhile reads them again next time
+	cached.options = new CompilerOptions(options);
+	synchronized (this.indexingOptions) {
+		this.indexingOptions.put(project.getPath(), cached);
+	}
+	return cached.options;
+}
+static SourceElementParser getSourceElementParser(CompilerOptions options, ISourceElementRequestor requestor) {
 	SourceElementParser parser = new IndexingParser(
 		requestor,
 		new DefaultProblemFactory(Locale.getDefault()),
-		new CompilerOptions(options),
+		options,
 		true, // index local declarations
 		true, // optimize string literals
 		false); // do not use source javadoc parser to speed up parsing
 	parser.reportOnlyOneSyntaxError = true;
+	// only index the declarations of the minified libraries
+	parser.skipMinifiedSources = true;
+	// the function bodies are parsed one by one after the declarations
+	parser.setSkipFunctionBodies(true);
 
 	// Always check javadoc while indexing
 	parser.javadocParser.checkDocComment = true;
@@ -214,6 +357,65 @@ public SourceElementParser getSourceElementParser(IJavaScriptProject project, IS
 
 	return parser;
 }
+/*
+ * Returns the pool of workers parsing the sources to index, or null if documents are parsed
+ * by the indexing thread itself.
+ * The pool is recreated when the configured parallelism changed.
+ */
+private DocumentIndexingPool getIndexingPool() {
+	int parallelism, changes;
+	synchronized (this) {
+		parallelism = this.indexingParallelism;
+		changes = this.indexingParallelismChanges;
+	}
+	if (parallelism == 0) {
+		// read outside of the lock, the preferences have their own
+		parallelism = 1;
+		String option = JavaScriptCore.getOption(JavaScriptCore.CORE_INDEXING_PARALLELISM);
+		if (option != null) {
+			try {
+				parallelism = Integer.parseInt(option);
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		if (parallelism <= 0)
+			parallelism = Runtime.getRuntime().availableProcessors();
+	}
+	synchronized (this) {
+		if (changes == this.indexingParallelismChanges)
+			this.indexingParallelism = parallelism; // else read again by the next document
+		if (this.indexingPool != null && this.indexingPool.parallelism != parallelism) {
+			this.indexingPool.shutdown();
+			this.indexingPool = null;
+		}
+		if (this.indexingPool == null && parallelism > 1)
+			this.indexingPool = new DocumentIndexingPool(this, parallelism);
+		return this.indexingPool;
+	}
+}
+/*
+ * Reads the configured parallelism again when the pool is next used, e.g. after the option changed.
+ */
+public synchronized void resetIndexingParallelism() {
+	this.indexingParallelism = 0;
+	this.indexingParallelismChanges++;
+}
+/*
+ * Returns the number of bytes of index files which can be merged at once, see Index#compact(long).
+ */
+private long getCompactionMemoryLimit() {
+	int megabytes = 32;
+	String option = JavaScriptCore.getOption(JavaScriptCore.CORE_INDEXING_COMPACTION_MEMORY_LIMIT);
+	if (option != null) {
+		try {
+			megabytes = Integer.parseInt(option);
+		} catch (NumberFormatException e) {
+			// use default
+		}
+	}
+	return megabytes * 1024L * 1024L;
+}
 /**
  * Returns the index for a given project, according to the following algorithm:
  * - if index is already in memory: answers this one back
@@ -238,6 +440,13 @@ public synchronized Index getIndex(IPath containerPath, IPath indexLocation, boo
 	// Path is already canonical per construction
 	Index index = getIndex(indexLocation);
 	if (index == null) {
+		Index prebuiltIndex = getPrebuiltIndex(containerPath);
+		if (prebuiltIndex != null && indexLocation.equals(computeIndexLocation(containerPath))) {
+			// shared read-only index, it never needs to be rebuilt
+			this.indexes.put(indexLocation, prebuiltIndex);
+			return prebuiltIndex;
+		}
+
 		Object state = getIndexStates().get(indexLocation);
 		Integer currentIndexState = state == null ? UNKNOWN_STATE : (Integer) state;
 		if (currentIndexState == UNKNOWN_STATE) {
@@ -295,6 +504,9 @@ public synchronized Index getIndex(IPath containerPath, IPath indexLocation, boo
 public synchronized Index getIndex(IPath indexLocation) {
 	return (Index) this.indexes.get(indexLocation); // is null if unknown, call if the containerPath must be computed
 }
+private synchronized Index getPrebuiltIndex(IPath containerPath) {
+	return this.prebuiltIndexes == null ? null : (Index) this.prebuiltIndexes.get(containerPath);
+}
 public synchronized Index getIndexForUpdate(IPath containerPath, boolean reuseExistingFile, boolean createIfMissing) {
 	IPath indexLocation = computeIndexLocation(containerPath);
 	if (getIndexStates().get(indexLocation) == REBUILDING_STATE)
@@ -352,6 +564,29 @@ public void indexDocument(SearchDocument searchDocument, SearchParticipant searc
 	} finally {
 		((InternalSearchDocument) searchDocument).index = null;
 	}
+	documentIndexed();
+}
+/*
+ * Counts a document indexed by the job being executed, see executeJob(IJob).
+ */
+void documentIndexed() {
+	if (Thread.currentThread() == this.processingThread)
+		this.jobDocuments++;
+}
+/*
+ * Records the documents indexed by the given job and the time it took, per kind of job.
+ */
+protected boolean executeJob(IJob job) {
+	this.jobDocuments = 0;
+	long start = System.currentTimeMillis();
+	try {
+		return super.executeJob(job);
+	} finally {
+		if (this.jobDocuments > 0) {
+			String kind = job instanceof IndexRequest ? ((IndexRequest) job).getKind() : job.getClass().getName();
+			this.indexingStatistics.recordIndexing(kind, this.jobDocuments, System.currentTimeMillis() - start);
+		}
+	}
 }
 /**
  * Trigger addition of the entire content of a project
@@ -389,6 +624,7 @@ public void indexAll(IProject project) {
 public void indexLibrary(IIncludePathEntry entry, IProject requestingProject) {
 	// requestingProject is no longer used to cancel jobs but leave it here just in case
 	if (JavaScriptCore.getPlugin() == null) return;
+	if (getPrebuiltIndex(entry.getPath()) != null) return; // the library was indexed at build time
 	IndexRequest request = null;
 	Object target = JavaModel.getTarget(ResourcesPlugin.getWorkspace().getRoot(), entry.getPath(), true);
 	char[][] inclusionPatterns = ((ClasspathEntry)entry).fullInclusionPatternChars();
@@ -450,6 +686,52 @@ public void indexSourceFolder(JavaProject javaProject, IPath sourceFolder, char[
 
 	this.request(new AddFolderToIndex(sourceFolder, project, inclusionPatterns, exclusionPatterns, this));
 }
+/**
+ * Indexes the given contents of a working copy, so that the queries of the index of its project answer its
+ * unsaved changes instead of the saved ones, and resets the bindings found by the name lookups of the project
+ * and of its dependents when the declarations changed. Does nothing if the index of the project is not available.
+ * Note: the contents are indexed in background, the contents of the reconciles happening before the indexing
+ * starts are indexed once. Until then the searches match the working copy as they match the ones not indexed.
+ */
+public void indexWorkingCopy(IJavaScriptUnit workingCopy, char[] contents) {
+	if (JavaScriptCore.getPlugin() == null) return;
+	// the buffer may answer its own array, which keeps changing while the job waits
+	char[] copy = new char[contents.length];
+	System.arraycopy(contents, 0, copy, 0, contents.length);
+	synchronized (this) {
+		IndexWorkingCopy job = (IndexWorkingCopy) this.workingCopyJobs.get(workingCopy);
+		if (job != null && job.replaceContents(copy)) return;
+		job = new IndexWorkingCopy(workingCopy, copy, this);
+		this.workingCopyJobs.put(workingCopy, job);
+		request(job);
+	}
+}
+/*
+ * Returns whether the given working copy was not discarded since it was last requested to be indexed.
+ * Must own the lock of the index manager.
+ */
+boolean isIndexingWorkingCopy(IJavaScriptUnit workingCopy) {
+	return this.workingCopyJobs.get(workingCopy) != null;
+}
+/*
+ * Forgets the given job once it indexed its working copy, unless a later reconcile requested another one.
+ * Must own the lock of the index manager.
+ */
+void workingCopyJobDone(IndexWorkingCopy job) {
+	if (this.workingCopyJobs.get(job.workingCopy) == job)
+		this.workingCopyJobs.removeKey(job.workingCopy);
+}
+/**
+ * Returns whether the given contents of a working copy are the ones indexed by {@link #indexWorkingCopy(IJavaScriptUnit, char[])},
+ * in which case the results of the queries of the index of its project are up to date with its unsaved changes.
+ */
+public boolean isWorkingCopyIndexed(IJavaScriptUnit workingCopy, char[] contents) {
+	if (contents == null) return false;
+	Index index = getIndex(computeIndexLocation(workingCopy.getJavaScriptProject().getPath()));
+	if (index == null) return false;
+	long hash = index.getWorkingCopyHash(index.containerRelativePath(workingCopy.getPath().toString()));
+	return hash != 0L && hash == Index.computeContentHash(contents);
+}
 public synchronized void jobWasCancelled(IPath containerPath) {
 	IPath indexLocation = computeIndexLocation(containerPath);
 	Index index = getIndex(indexLocation);
@@ -474,6 +756,15 @@ protected synchronized void moveToNextJob() {
 protected void notifyIdle(long idlingTime){
 	if (idlingTime > 1000 && needToSave) saveIndexes();
 }
+public void shutdown() {
+	super.shutdown();
+	synchronized (this) {
+		if (this.indexingPool != null) {
+			this.indexingPool.shutdown();
+			this.indexingPool = null;
+		}
+	}
+}
 /**
  * Name of the background process
  */
@@ -553,6 +844,11 @@ public synchronized void removeIndex(IPath containerPath) {
 		Util.verbose("removing index " + containerPath); //$NON-NLS-1$
 	IPath indexLocation = computeIndexLocation(containerPath);
 	Index index = getIndex(indexLocation);
+	if (getPrebuiltIndex(containerPath) != null) {
+		// only forget a prebuilt index, it is shared and is used again if the library is indexed again
+		this.indexes.removeKey(indexLocation);
+		return;
+	}
 	File indexFile = null;
 	if (index != null) {
 		index.monitor = null;
@@ -560,10 +856,12 @@ public synchronized void removeIndex(IPath containerPath) {
 	}
 	if (indexFile == null)
 		indexFile = new File(indexLocation.toOSString()); // index is not cached yet, but still want to delete the file
-	if (indexFile.exists())
-		indexFile.delete();
+	Index.deleteIndexFiles(indexFile);
 	this.indexes.removeKey(indexLocation);
 	updateIndexState(indexLocation, null);
+	synchronized (this.indexingOptions) {
+		this.indexingOptions.removeKey(containerPath);
+	}
 }
 /**
  * Removes all indexes whose paths start with (or are equal to) the given path.
@@ -630,11 +928,31 @@ public void removeSourceFolderFromIndex(JavaProject javaProject, IPath sourceFol
 
 	this.request(new RemoveFolderFromIndex(sourceFolder, inclusionPatterns, exclusionPatterns, project, this));
 }
+/**
+ * Forgets the unsaved changes of the given working copy, and resets the bindings found by the name lookups
+ * of its project and of its dependents, see {@link #indexWorkingCopy(IJavaScriptUnit, char[])}.
+ */
+public void removeWorkingCopy(IJavaScriptUnit workingCopy) {
+	synchronized (this) {
+		// the pending job does not write the contents anymore, see IndexWorkingCopy#execute()
+		this.workingCopyJobs.removeKey(workingCopy);
+	}
+	IJavaScriptProject project = workingCopy.getJavaScriptProject();
+	Index index = getIndex(computeIndexLocation(project.getPath()));
+	if (index != null) {
+		if (index.removeWorkingCopy(index.containerRelativePath(workingCopy.getPath().toString())))
+			JavaModelManager.getJavaModelManager().getDeltaProcessor().resetBindingCaches(project);
+	}
+}
 /**
  * Flush current state
  */
 public synchronized void reset() {
 	super.reset();
+	if (this.indexingPool != null) {
+		this.indexingPool.shutdown();
+		this.indexingPool = null;
+	}
 	if (this.indexes != null) {
 		this.indexes = new SimpleLookupTable();
 		this.indexStates = null;
@@ -677,13 +995,19 @@ public void saveIndex(Index index) throws IOException {
 		if (VERBOSE)
 			Util.verbose("-> saving index " + index.getIndexFile()); //$NON-NLS-1$
 		index.save();
+		if (index.needsCompaction()) {
+			// merge the segments in the background, after the pending indexing jobs
+			CompactIndex request = new CompactIndex(new Path(index.containerPath), this, getCompactionMemoryLimit());
+			if (!isJobWaiting(request))
+				request(request);
+		}
 	}
 	synchronized (this) {
 		IPath containerPath = new Path(index.containerPath);
 		if (this.jobEnd > this.jobStart) {
 			for (int i = this.jobEnd; i > this.jobStart; i--) { // skip the current job
 				IJob job = this.awaitingJobs[i];
-				if (job instanceof IndexRequest)
+				if (job instanceof IndexRequest && !(job instanceof CompactIndex)) // compacting does not change the entries
 					if (((IndexRequest) job).containerPath.equals(containerPath)) return;
 			}
 		}
@@ -739,30 +1063,124 @@ public void saveIndexes() {
 	this.needToSave = !allSaved;
 }
 public void scheduleDocumentIndexing(final SearchDocument searchDocument, IPath container, final IPath indexLocation, final SearchParticipant searchParticipant) {
+	scheduleDocumentIndexing(searchDocument, container, indexLocation, searchParticipant, null, null);
+}
+/*
+ * When a task is given, the document is parsed by a worker of the given pool and the job only writes
+ * its buffered entries into the index.
+ */
+private void scheduleDocumentIndexing(final SearchDocument searchDocument, IPath container, final IPath indexLocation, final SearchParticipant searchParticipant,
+		final DocumentIndexingPool pool, final DocumentIndexingPool.Task task) {
 	request(new IndexRequest(container, this) {
 		public boolean execute(IProgressMonitor progressMonitor) {
-			if (this.isCancelled || progressMonitor != null && progressMonitor.isCanceled()) return true;
+			if (this.isCancelled || progressMonitor != null && progressMonitor.isCanceled()) {
+				if (task != null) pool.cancel(task);
+				return true;
+			}
 
 			/* ensure no concurrent write access to index */
 			Index index = getIndex(this.containerPath, indexLocation, true, /*reuse index file*/ true /*create if none*/);
-			if (index == null) return true;
+			if (index == null || index.monitor == null) { // index got deleted since acquired
+				if (task != null) pool.cancel(task);
+				return true;
+			}
 			ReadWriteMonitor monitor = index.monitor;
-			if (monitor == null) return true; // index got deleted since acquired
 
+			// wait for the worker before taking the write lock, so that readers are not blocked while parsing
+			boolean parsed = task != null && pool.awaitEntries(task);
 			try {
 				monitor.enterWrite(); // ask permission to write
-				indexDocument(searchDocument, searchParticipant, index, indexLocation);
+				if (parsed) {
+					((InternalSearchDocument) searchDocument).writeBufferedEntries(index);
+					this.manager.documentIndexed();
+				} else {
+					indexDocument(searchDocument, searchParticipant, index, indexLocation);
+				}
 			} finally {
 				monitor.exitWrite(); // free write lock
 			}
 			return true;
 		}
+		public void cancel() {
+			super.cancel();
+			if (task != null) pool.cancel(task);
+		}
+		String getKind() {
+			return "IndexDocument"; //$NON-NLS-1$
+		}
 		public String toString() {
 			return "indexing " + searchDocument.getPath(); //$NON-NLS-1$
 		}
 	});
 }
 
+/**
+ * Writes the statistics of the queries and of the indexing (see {@link #getStatistics()}) and the
+ * time spent on the minified sources (see {@link MinifiedSources#STATISTICS}), followed by the size
+ * and the number of documents and words of each index, into the given file.
+ */
+public void dumpStatistics(File file) throws IOException {
+	StringBuffer buffer = new StringBuffer(1024);
+	getStatistics().printOn(buffer);
+	MinifiedSources.STATISTICS.printOn(buffer);
+	buffer.append("Indexes (index, file size, documents, document name cache hit rate, words per category):\n"); //$NON-NLS-1$
+	Object[] indexes;
+	synchronized (this) {
+		indexes = new Object[this.indexes.elementSize];
+		int count = 0;
+		Object[] valueTable = this.indexes.valueTable;
+		for (int i = 0, l = valueTable.length; i < l; i++)
+			if (valueTable[i] != null)
+				indexes[count++] = valueTable[i];
+	}
+	for (int i = 0, l = indexes.length; i < l; i++) {
+		Index index = (Index) indexes[i];
+		buffer.append('\t').append(index.getIndexFile());
+		buffer.append('\t').append(index.getIndexFile().length());
+		buffer.append('\t').append(index.getDocumentCount());
+		buffer.append('\t').append(index.getDocumentNameCacheHitRate());
+		HashtableOfIntValues wordCounts = index.getWordCounts();
+		char[][] categories = wordCounts.keyTable;
+		int[] counts = wordCounts.valueTable;
+		for (int j = 0, length = categories.length; j < length; j++)
+			if (categories[j] != null)
+				buffer.append('\t').append(categories[j]).append('=').append(counts[j]);
+		buffer.append('\n');
+	}
+
+	BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), org.eclipse.wst.jsdt.internal.compiler.util.Util.UTF_8));
+	try {
+		writer.write(buffer.toString());
+	} finally {
+		writer.close();
+	}
+}
+/**
+ * Returns a snapshot of the statistics of the queries and of the indexing of all the indexes.
+ * The queries of the indexes which were discarded since they were used are not counted.
+ */
+public IndexStatistics getStatistics() {
+	IndexStatistics statistics = new IndexStatistics();
+	statistics.add(this.indexingStatistics);
+	SimpleSet indexes = new SimpleSet(); // a prebuilt index is also cached as the index of its library
+	synchronized (this) {
+		Object[] valueTable = this.indexes.valueTable;
+		for (int i = 0, l = valueTable.length; i < l; i++)
+			if (valueTable[i] != null)
+				indexes.add(valueTable[i]);
+		if (this.prebuiltIndexes != null) {
+			valueTable = this.prebuiltIndexes.valueTable;
+			for (int i = 0, l = valueTable.length; i < l; i++)
+				if (valueTable[i] != null)
+					indexes.add(valueTable[i]);
+		}
+	}
+	Object[] values = indexes.values;
+	for (int i = 0, l = values.length; i < l; i++)
+		if (values[i] != null)
+			statistics.add(((Index) values[i]).getStatistics());
+	return statistics;
+}
 public String toString() {
 	StringBuffer buffer = new StringBuffer(10);
 	buffer.append(super.toString());
@@ -10,8 +10,14 @@
  *******************************************************************************/
 package org.eclipse.wst.jsdt.internal.core.search.indexing;
 
+import java.io.IOException;
+
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.wst.jsdt.core.JavaScriptModelException;
+import org.eclipse.wst.jsdt.internal.core.index.Index;
 import org.eclipse.wst.jsdt.internal.core.search.processing.IJob;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
 
 public abstract class IndexRequest implements IJob {
 	protected boolean isCancelled = false;
@@ -32,6 +38,29 @@ public abstract class IndexRequest implements IJob {
 		this.manager.jobWasCancelled(this.containerPath);
 		this.isCancelled = true;
 	}
+	/*
+	 * Returns whether the given file still has the contents it had when it was indexed as the given document.
+	 * Must own the read lock of the index monitor.
+	 */
+	protected boolean hasIndexedContents(Index index, IFile file, String containerRelativePath) {
+		try {
+			long hash = index.getDocumentHash(containerRelativePath);
+			if (hash == 0L) return false; // not indexed, or indexed by a previous version
+			char[] contents = Util.getResourceContentsAsCharArray(file);
+			return contents != null && hash == Index.computeContentHash(contents);
+		} catch (IOException e) {
+			return false;
+		} catch (JavaScriptModelException e) {
+			return false;
+		}
+	}
+	/*
+	 * Returns the name under which the documents indexed by this job are counted, see IndexStatistics.
+	 */
+	String getKind() {
+		String name = getClass().getName();
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
 	public void ensureReadyToRun() {
 		// tag the index as inconsistent
 		this.manager.aboutToUpdateIndex(this.containerPath, updatedIndexState());
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2000, 2007 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.search.indexing;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.wst.jsdt.core.IJavaScriptUnit;
+import org.eclipse.wst.jsdt.core.search.SearchDocument;
+import org.eclipse.wst.jsdt.core.search.SearchEngine;
+import org.eclipse.wst.jsdt.core.search.SearchParticipant;
+import org.eclipse.wst.jsdt.internal.core.JavaModelManager;
+import org.eclipse.wst.jsdt.internal.core.index.Index;
+import org.eclipse.wst.jsdt.internal.core.search.JavaSearchDocument;
+import org.eclipse.wst.jsdt.internal.core.util.Util;
+
+/*
+ * Indexes the unsaved contents of a working copy, see IndexManager#indexWorkingCopy(IJavaScriptUnit, char[]).
+ * Until the job starts, the contents of the later reconciles replace the ones it was requested with.
+ */
+class IndexWorkingCopy extends IndexRequest {
+	IJavaScriptUnit workingCopy;
+	private char[] contents; // null once the job started
+
+	public IndexWorkingCopy(IJavaScriptUnit workingCopy, char[] contents, IndexManager manager) {
+		super(workingCopy.getJavaScriptProject().getPath(), manager);
+		this.workingCopy = workingCopy;
+		this.contents = contents;
+	}
+	/*
+	 * Replaces the contents to index, answers false if the job already started.
+	 * Must own the lock of the index manager.
+	 */
+	boolean replaceContents(char[] newContents) {
+		if (this.contents == null || this.isCancelled) return false;
+		this.contents = newContents;
+		return true;
+	}
+	public void cancel() {
+		// the saved contents of the project are still indexed, unlike the other requests the index stays consistent
+		synchronized (this.manager) {
+			this.isCancelled = true;
+			this.manager.workingCopyJobDone(this);
+		}
+	}
+	public void ensureReadyToRun() {
+		// the index answers the saved contents until the job writes the unsaved ones
+	}
+	public boolean execute(IProgressMonitor progressMonitor) {
+		char[] indexedContents;
+		synchronized (this.manager) {
+			indexedContents = this.contents;
+			this.contents = null;
+		}
+		if (this.isCancelled || progressMonitor != null && progressMonitor.isCanceled()) return true;
+
+		Index index = this.manager.getIndex(this.containerPath, true /*reuse index file*/, false /*do not create if none*/);
+		if (index == null) {
+			this.manager.workingCopyJobDone(this);
+			return true;
+		}
+
+		boolean declarationsChanged;
+		SearchParticipant participant = SearchEngine.getDefaultSearchParticipant();
+		InternalSearchDocument document = new JavaSearchDocument(this.workingCopy.getPath(), indexedContents, participant, null);
+		document.bufferEntries();
+		try {
+			participant.indexDocument((SearchDocument) document, this.manager.computeIndexLocation(this.containerPath));
+			synchronized (this.manager) {
+				// the working copy may have been discarded while it was parsed
+				if (!this.manager.isIndexingWorkingCopy(this.workingCopy)) return true;
+				declarationsChanged = document.writeWorkingCopyEntries(index);
+				this.manager.documentIndexed();
+				this.manager.workingCopyJobDone(this);
+			}
+		} finally {
+			document.discardBufferedEntries();
+		}
+		// the bindings found before may not be declared anymore, or new ones may be
+		if (declarationsChanged)
+			JavaModelManager.getJavaModelManager().getDeltaProcessor().resetBindingCaches(this.workingCopy.getJavaScriptProject());
+		if (IndexManager.VERBOSE)
+			Util.verbose("-> indexed working copy " + this.workingCopy.getPath()); //$NON-NLS-1$
+		return true;
+	}
+	public String toString() {
+		return "indexing working copy " + this.workingCopy.getPath(); //$NON-NLS-1$
+	}
+}
@@ -20,23 +20,61 @@ public class InternalSearchDocument {
 	Index index;
 	private String containerRelativePath;
 	SourceElementParser parser;
+	/* index entries collected while the document is indexed by a DocumentIndexingPool, null otherwise */
+	private char[][] bufferedEntries;
+	private int bufferedEntriesCount;
+	private long contentHash;
 	/*
 	 * Hidden by API SearchDocument subclass
 	 */
 	public void addIndexEntry(char[] category, char[] key) {
-		if (this.index != null)
+		if (this.bufferedEntries != null) {
+			int length = this.bufferedEntries.length;
+			if (this.bufferedEntriesCount + 2 > length)
+				System.arraycopy(this.bufferedEntries, 0, this.bufferedEntries = new char[length * 2][], 0, this.bufferedEntriesCount);
+			this.bufferedEntries[this.bufferedEntriesCount++] = category;
+			this.bufferedEntries[this.bufferedEntriesCount++] = key;
+		} else if (this.index != null)
 			index.addIndexEntry(category, key, getContainerRelativePath());
 	}
+	/*
+	 * Collects the index entries of this document instead of adding them to an index,
+	 * until they are written with writeBufferedEntries(Index).
+	 */
+	void bufferEntries() {
+		this.bufferedEntries = new char[32][];
+		this.bufferedEntriesCount = 0;
+		this.contentHash = 0L;
+	}
+	void discardBufferedEntries() {
+		this.bufferedEntries = null;
+		this.bufferedEntriesCount = 0;
+		this.contentHash = 0L;
+	}
 	private String getContainerRelativePath() {
 		if (this.containerRelativePath == null)
 			this.containerRelativePath = this.index.containerRelativePath(getPath());
 		return this.containerRelativePath;
 	}
+	/*
+	 * Records the hash of the indexed contents of this document, see Index#addDocumentHash(String, long).
+	 */
+	void recordContentHash(char[] contents) {
+		long hash = Index.computeContentHash(contents);
+		if (this.bufferedEntries != null)
+			this.contentHash = hash;
+		else if (this.index != null)
+			index.addDocumentHash(getContainerRelativePath(), hash);
+	}
 	/*
 	 * Hidden by API SearchDocument subclass
 	 */
 	public void removeAllIndexEntries() {
-		if (this.index != null)
+		if (this.bufferedEntries != null) {
+			this.bufferedEntriesCount = 0; // existing entries are removed by writeBufferedEntries(Index)
+			this.contentHash = 0L;
+		}
+		else if (this.index != null)
 			index.remove(getContainerRelativePath());
 	}
 	/*
@@ -45,4 +83,42 @@ public class InternalSearchDocument {
 	public String getPath() {
 		return null; // implemented by subclass
 	}
+	/*
+	 * Replaces the working copy entries of this document in the given index with the ones collected since bufferEntries(),
+	 * see Index#addWorkingCopyEntries(String, char[][], int, long, char[][]).
+	 * Returns whether the declarations of the document changed since its working copy entries were last written.
+	 */
+	boolean writeWorkingCopyEntries(Index writtenIndex) {
+		char[][] entries = this.bufferedEntries;
+		int count = this.bufferedEntriesCount;
+		long hash = this.contentHash;
+		discardBufferedEntries();
+		this.index = writtenIndex;
+		try {
+			if (hash == 0L) // could not read the contents
+				return writtenIndex.removeWorkingCopy(getContainerRelativePath());
+			return writtenIndex.addWorkingCopyEntries(getContainerRelativePath(), entries, count, hash, IIndexConstants.DECLARATION_CATEGORIES);
+		} finally {
+			this.index = null;
+		}
+	}
+	/*
+	 * Replaces the entries of this document in the given index with the ones collected since bufferEntries().
+	 */
+	void writeBufferedEntries(Index writtenIndex) {
+		char[][] entries = this.bufferedEntries;
+		int count = this.bufferedEntriesCount;
+		long hash = this.contentHash;
+		discardBufferedEntries();
+		this.index = writtenIndex;
+		try {
+			removeAllIndexEntries();
+			if (hash != 0L)
+				writtenIndex.addDocumentHash(getContainerRelativePath(), hash);
+			for (int i = 0; i < count; i += 2)
+				addIndexEntry(entries[i], entries[i + 1]);
+		} finally {
+			this.index = null;
+		}
+	}
 }
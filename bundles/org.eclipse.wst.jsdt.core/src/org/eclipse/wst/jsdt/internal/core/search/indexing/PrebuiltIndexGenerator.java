@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.internal.core.search.indexing;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.wst.jsdt.core.search.SearchEngine;
+import org.eclipse.wst.jsdt.core.search.SearchParticipant;
+import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.util.Util;
+import org.eclipse.wst.jsdt.internal.core.index.Index;
+import org.eclipse.wst.jsdt.internal.core.search.JavaSearchDocument;
+
+/**
+ * Builds the indexes of the JavaScript libraries shipped in a bundle, so that they do not need to be
+ * indexed in every workspace (see {@link IndexManager#addPrebuiltIndex(IPath, File)}).
+ * <p>
+ * Each library file gets its own index, named after the file with an <code>.index</code> suffix.
+ * The document names are stored relative to the folder of the library, and the hash of the library
+ * contents is stored so that an index which does not match its library is not used.
+ * </p>
+ * <p>
+ * Runs without a workspace or a running platform, the bundles invoke it at build time:
+ * <pre>
+ * PrebuiltIndexGenerator &lt;output folder&gt; &lt;library file or folder&gt;...
+ * </pre>
+ * </p>
+ */
+public class PrebuiltIndexGenerator {
+
+	/**
+	 * The encoding of the bundled libraries.
+	 */
+	public static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+	/**
+	 * The suffix appended to the name of a library to get the name of its prebuilt index.
+	 */
+	public static final String INDEX_FILE_SUFFIX = ".index"; //$NON-NLS-1$
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: PrebuiltIndexGenerator <output folder> <library file or folder>..."); //$NON-NLS-1$
+			System.exit(1);
+		}
+		File outputFolder = new File(args[0]);
+		if (!outputFolder.isDirectory() && !outputFolder.mkdirs())
+			throw new IOException("Cannot create " + outputFolder); //$NON-NLS-1$
+
+		for (int i = 1; i < args.length; i++) {
+			File library = new File(args[i]);
+			if (library.isDirectory()) {
+				File[] files = library.listFiles();
+				if (files == null) continue;
+				for (int j = 0; j < files.length; j++)
+					if (files[j].isFile() && org.eclipse.wst.jsdt.internal.core.util.Util.isJavaLikeFileName(files[j].getName()))
+						generateIndex(files[j], outputFolder);
+			} else {
+				generateIndex(library, outputFolder);
+			}
+		}
+	}
+
+	/**
+	 * Indexes the given library file, and returns the index file written in the given folder.
+	 */
+	public static File generateIndex(File library, File outputFolder) throws IOException {
+		File indexFile = new File(outputFolder, library.getName() + INDEX_FILE_SUFFIX);
+		IPath libraryPath = new Path(library.getAbsolutePath());
+		Index index = new Index(indexFile.getAbsolutePath(), libraryPath.removeLastSegments(1).toString(), false /*do not reuse index file*/);
+
+		char[] contents = Util.getFileCharContent(library, ENCODING);
+		indexLibrary(index, libraryPath, contents, newParser());
+		index.save();
+		return indexFile;
+	}
+
+	/**
+	 * Returns a new parser for {@link #indexLibrary(Index, IPath, char[], SourceElementParser)}.
+	 */
+	public static SourceElementParser newParser() {
+		return IndexManager.getSourceElementParser(new CompilerOptions(), null/*requestor will be set by indexer*/);
+	}
+
+	/**
+	 * Adds the entries of the given library contents to the given index, without saving it.
+	 * The parser can be reused for the next library, as the indexing thread does.
+	 */
+	public static void indexLibrary(Index index, IPath libraryPath, char[] contents, SourceElementParser parser) {
+		SearchParticipant participant = SearchEngine.getDefaultSearchParticipant();
+		InternalSearchDocument document = new JavaSearchDocument(libraryPath, contents, participant, ""); //$NON-NLS-1$
+		document.parser = parser;
+		document.index = index;
+		try {
+			participant.indexDocument((JavaSearchDocument) document, new Path(index.getIndexFile().getAbsolutePath()));
+		} finally {
+			document.index = null;
+			document.parser = null;
+		}
+	}
+}
@@ -28,6 +28,9 @@ import org.eclipse.wst.jsdt.core.search.SearchDocument;
 import org.eclipse.wst.jsdt.core.search.SearchEngine;
 import org.eclipse.wst.jsdt.core.search.SearchParticipant;
 import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSourceStatistics;
+import org.eclipse.wst.jsdt.internal.compiler.parser.MinifiedSources;
 import org.eclipse.wst.jsdt.internal.compiler.util.SuffixConstants;
 import org.eclipse.wst.jsdt.internal.compiler.util.Util;
 import org.eclipse.wst.jsdt.internal.core.BasicCompilationUnit;
@@ -58,17 +61,28 @@ public class SourceIndexer extends AbstractIndexer implements SuffixConstants {
 		super(document);
 	}
 	public void indexDocument() {
-		// Create a new Parser
+		// Reuse the parser of the current thread unless the document comes with one
 		SourceIndexerRequestor requestor = new SourceIndexerRequestor(this);
 		String documentPath = this.document.getPath();
 		SourceElementParser parser = ((InternalSearchDocument) this.document).parser;
+		IndexManager parserPoolManager = null; // set when the parser comes from the pool of the index manager
 		if (parser == null) {
 			IPath path = new Path(documentPath);
 			IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(path.segment(0));
-			parser = JavaModelManager.getJavaModelManager().indexManager.getSourceElementParser(JavaScriptCore.create(project), requestor);
+			parserPoolManager = JavaModelManager.getJavaModelManager().indexManager;
+			parser = parserPoolManager.acquireSourceElementParser(JavaScriptCore.create(project), requestor);
 		} else {
 			parser.setRequestor(requestor);
 		}
+		try {
+			indexDocument(parser);
+		} finally {
+			if (parserPoolManager != null)
+				parserPoolManager.releaseSourceElementParser(parser);
+		}
+	}
+	private void indexDocument(SourceElementParser parser) {
+		String documentPath = this.document.getPath();
 
 		// Launch the parser
 		char[] source = null;
@@ -89,7 +103,13 @@ public class SourceIndexer extends AbstractIndexer implements SuffixConstants {
 		}
 		BasicCompilationUnit compilationUnit = new BasicCompilationUnit(source, packageName, new String(name));
 		try {
-			parser.parseCompilationUnit(compilationUnit, true/*full parse*/);
+			long start = System.currentTimeMillis();
+			CompilationUnitDeclaration unit = parser.parseCompilationUnit(compilationUnit, true/*full parse*/);
+			if (unit != null) {
+				MinifiedSources.STATISTICS.record(MinifiedSourceStatistics.INDEXING, unit.isMinified, source.length, System.currentTimeMillis() - start);
+				// only a document indexed completely is known to be up to date
+				((InternalSearchDocument) this.document).recordContentHash(source);
+			}
 		} catch (Exception e) {
 			Logger.logException("Error while indexing document", e);
 		}
@@ -120,6 +140,7 @@ public class SourceIndexer extends AbstractIndexer implements SuffixConstants {
 		
 		LibraryAPIs apis = MetadataReader.readAPIsFromString(new String(source),documentPath);
 		new MetadataSourceElementNotifier(apis,requestor).notifyRequestor();
+		((InternalSearchDocument) this.document).recordContentHash(source);
 		
 	}
 	public void indexArchive() {
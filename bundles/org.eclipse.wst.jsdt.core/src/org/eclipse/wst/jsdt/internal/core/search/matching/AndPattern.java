@@ -20,6 +20,7 @@ import org.eclipse.wst.jsdt.core.search.SearchPattern;
 import org.eclipse.wst.jsdt.internal.compiler.util.SimpleSet;
 import org.eclipse.wst.jsdt.internal.core.index.EntryResult;
 import org.eclipse.wst.jsdt.internal.core.index.Index;
+import org.eclipse.wst.jsdt.internal.core.index.PostingList;
 import org.eclipse.wst.jsdt.internal.core.search.IndexQueryRequestor;
 
 /**
@@ -34,6 +35,9 @@ public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchP
 	if (progressMonitor != null && progressMonitor.isCanceled()) throw new OperationCanceledException();
 
 	this.resetQuery();
+	// the documents are combined as posting lists as long as they all come from the same disk index,
+	// otherwise (e.g. some documents are only in the memory index) the document names are combined
+	PostingList intersectedPostings = null;
 	SimpleSet intersectedNames = null;
 	try {
 		index.startQuery();
@@ -43,28 +47,62 @@ public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchP
 			if (entries == null) return;
 
 			SearchPattern decodedResult = pattern.getBlankPattern();
-			SimpleSet newIntersectedNames = new SimpleSet(3);
+			PostingList newPostings = null;
+			SimpleSet newNames = null;
 			for (int i = 0, l = entries.length; i < l; i++) {
 				if (progressMonitor != null && progressMonitor.isCanceled()) throw new OperationCanceledException();
 
 				EntryResult entry = entries[i];
 				decodedResult.decodeIndexKey(entry.getWord());
 				if (pattern.matchesDecodedKey(decodedResult)) {
-					String[] names = entry.getDocumentNames(index);
-					if (intersectedNames != null) {
-						for (int j = 0, n = names.length; j < n; j++)
-							if (intersectedNames.includes(names[j]))
-								newIntersectedNames.add(names[j]);
+					PostingList postings = newNames == null ? entry.getDocumentPostings() : null;
+					if (postings != null && (newPostings == null || newPostings.canCombineWith(postings))) {
+						newPostings = newPostings == null ? postings : newPostings.union(postings);
 					} else {
+						if (newNames == null) {
+							newNames = new SimpleSet(3);
+							addDocumentNames(newPostings, newNames);
+							newPostings = null;
+						}
+						String[] names = entry.getDocumentNames(index);
 						for (int j = 0, n = names.length; j < n; j++)
-							newIntersectedNames.add(names[j]);
+							newNames.add(names[j]);
 					}
 				}
 			}
 
-			if (newIntersectedNames.elementSize == 0) return;
-			intersectedNames = newIntersectedNames;
+			if (newPostings != null && intersectedNames == null
+					&& (intersectedPostings == null || intersectedPostings.canCombineWith(newPostings))) {
+				intersectedPostings = intersectedPostings == null ? newPostings : intersectedPostings.intersect(newPostings);
+				if (intersectedPostings.size() == 0) return;
+			} else {
+				if (newNames == null) {
+					newNames = new SimpleSet(3);
+					addDocumentNames(newPostings, newNames);
+				}
+				if (intersectedPostings != null) {
+					intersectedNames = new SimpleSet(intersectedPostings.size());
+					addDocumentNames(intersectedPostings, intersectedNames);
+					intersectedPostings = null;
+				}
+				SimpleSet newIntersectedNames = newNames;
+				if (intersectedNames != null) {
+					newIntersectedNames = new SimpleSet(3);
+					Object[] names = newNames.values;
+					for (int j = 0, n = names.length; j < n; j++)
+						if (names[j] != null && intersectedNames.includes(names[j]))
+							newIntersectedNames.add(names[j]);
+				}
+
+				if (newIntersectedNames.elementSize == 0) return;
+				intersectedNames = newIntersectedNames;
+			}
 		} while (this.hasNextQuery());
+
+		if (intersectedPostings != null) {
+			intersectedNames = new SimpleSet(intersectedPostings.size());
+			addDocumentNames(intersectedPostings, intersectedNames);
+		}
 	} finally {
 		index.stopQuery();
 	}
@@ -75,6 +113,12 @@ public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchP
 		if (names[i] != null)
 			((InternalSearchPattern) this).acceptMatch((String) names[i], containerPath, null/*no pattern*/, requestor, participant, scope); // AndPatterns cannot provide the decoded result
 }
+private void addDocumentNames(PostingList postings, SimpleSet names) throws IOException {
+	if (postings == null) return;
+	String[] documentNames = postings.getDocumentNames();
+	for (int i = 0, l = documentNames.length; i < l; i++)
+		names.add(documentNames[i]);
+}
 /**
  * Returns whether another query must be done.
  */
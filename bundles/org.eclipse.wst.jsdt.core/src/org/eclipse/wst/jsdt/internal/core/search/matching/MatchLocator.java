@@ -136,6 +136,7 @@ import org.eclipse.wst.jsdt.internal.core.search.HierarchyScope;
 import org.eclipse.wst.jsdt.internal.core.search.IndexQueryRequestor;
 import org.eclipse.wst.jsdt.internal.core.search.IndexSelector;
 import org.eclipse.wst.jsdt.internal.core.search.JavaSearchDocument;
+import org.eclipse.wst.jsdt.internal.core.search.indexing.IndexManager;
 import org.eclipse.wst.jsdt.internal.core.util.HandleFactory;
 import org.eclipse.wst.jsdt.internal.core.util.Util;
 import org.eclipse.wst.jsdt.internal.oaametadata.LibraryAPIs;
@@ -321,6 +322,13 @@ public static class WrappedCoreException extends RuntimeException {
 }
 
 public static SearchDocument[] addWorkingCopies(InternalSearchPattern pattern, SearchDocument[] indexMatches, org.eclipse.wst.jsdt.core.IJavaScriptUnit[] copies, SearchParticipant participant) {
+	return addWorkingCopies(pattern, indexMatches, copies, participant, false);
+}
+/*
+ * When skipIndexedWorkingCopies is true, the given documents are all the matches of the index queries, and the working copies
+ * whose unsaved contents were indexed are only added if they matched the queries (see IndexManager#indexWorkingCopy).
+ */
+public static SearchDocument[] addWorkingCopies(InternalSearchPattern pattern, SearchDocument[] indexMatches, org.eclipse.wst.jsdt.core.IJavaScriptUnit[] copies, SearchParticipant participant, boolean skipIndexedWorkingCopies) {
 	// working copies take precedence over corresponding compilation units
 	HashMap workingCopyDocuments = workingCopiesThatCanSeeFocus(copies, pattern.focus, pattern.isPolymorphicSearch(), participant);
 	SearchDocument[] matches = null;
@@ -340,6 +348,16 @@ public static SearchDocument[] addWorkingCopies(InternalSearchPattern pattern, S
 	if (matches == null) { // no working copy
 		matches = indexMatches;
 	}
+	if (skipIndexedWorkingCopies && !workingCopyDocuments.isEmpty()) {
+		// the index entries of these working copies are up to date and did not match, no need to parse them
+		IndexManager indexManager = JavaModelManager.getJavaModelManager().getIndexManager();
+		Iterator iterator = workingCopyDocuments.values().iterator();
+		while (iterator.hasNext()) {
+			WorkingCopyDocument workingCopyDocument = (WorkingCopyDocument) iterator.next();
+			if (indexManager.isWorkingCopyIndexed(workingCopyDocument.workingCopy, workingCopyDocument.getCharContents()))
+				iterator.remove();
+		}
+	}
 	int remainingWorkingCopiesSize = workingCopyDocuments.size();
 	if (remainingWorkingCopiesSize != 0) {
 		System.arraycopy(matches, 0, matches = new SearchDocument[length+remainingWorkingCopiesSize], 0, length);
@@ -135,6 +135,12 @@ public abstract class JobManager implements Runnable {
 			if (request.equals(this.awaitingJobs[i])) return true;
 		return false;
 	}
+	/**
+	 * Executes the given job in background, subclasses may measure it.
+	 */
+	protected boolean executeJob(IJob job) {
+		return job.execute(null);
+	}
 	/**
 	 * Advance to the next available job, once the current one has been completed.
 	 * Note: clients awaiting until the job count is zero are still waiting at this point.
@@ -390,7 +396,7 @@ public abstract class JobManager implements Runnable {
 							this.progressJob.setSystem(true);
 							this.progressJob.schedule();
 						}
-						/*boolean status = */job.execute(null);
+						/*boolean status = */executeJob(job);
 						//if (status == FAILED) request(job);
 					} finally {
 						this.executing = false;
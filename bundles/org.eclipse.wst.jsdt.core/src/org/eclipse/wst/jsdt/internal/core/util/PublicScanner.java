@@ -2422,7 +2422,7 @@ public final void pushLineSeparator() {
 		if ((this.linePtr >= 0) && (this.lineEnds[this.linePtr] >= separatorPos)) return;
 		int length = this.lineEnds.length;
 		if (++this.linePtr >=  length)
-			System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[length + INCREMENT], 0, length);
+			System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[2 * length + INCREMENT], 0, length);
 		this.lineEnds[this.linePtr] = separatorPos;
 		// look-ahead for merged cr+lf
 		try {
@@ -2448,7 +2448,7 @@ public final void pushLineSeparator() {
 				if ((this.linePtr >= 0) && (this.lineEnds[this.linePtr] >= separatorPos)) return;
 				int length = this.lineEnds.length;
 				if (++this.linePtr >=  length)
-					System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[length + INCREMENT], 0, length);
+					System.arraycopy(this.lineEnds, 0, this.lineEnds = new int[2 * length + INCREMENT], 0, length);
 				this.lineEnds[this.linePtr] = separatorPos;
 			}
 			this.wasAcr = false;
@@ -2486,7 +2486,7 @@ public void recordComment(int token) {
 	// a new comment is recorded
 	int length = this.commentStops.length;
 	if (++this.commentPtr >=  length) {
-		int newLength = length + COMMENT_ARRAYS_SIZE*10;
+		int newLength = 2 * length + COMMENT_ARRAYS_SIZE;
 		System.arraycopy(this.commentStops, 0, this.commentStops = new int[newLength], 0, length);
 		System.arraycopy(this.commentStarts, 0, this.commentStarts = new int[newLength], 0, length);
 		System.arraycopy(this.commentTagStarts, 0, this.commentTagStarts = new int[newLength], 0, length);
@@ -3789,6 +3789,8 @@ public final void setSource(char[] contents, CompilationResult compilationResult
 		setSource(contents);
 	}
 	int[] lineSeparatorPositions = compilationResult.lineSeparatorPositions;
+	if (lineSeparatorPositions == null && compilationResult.lineEndTable != null)
+		lineSeparatorPositions = compilationResult.getLineSeparatorPositions();
 	if (lineSeparatorPositions != null) {
 		this.lineEnds = lineSeparatorPositions;
 		this.linePtr = lineSeparatorPositions.length - 1;
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/*
+ * A note taking application, in the style of the page scripts of a web project:
+ * a model, a store persisting it, and a controller binding it to the page.
+ */
+var notes = notes || {};
+
+notes.VERSION = "1.0";
+
+/**
+ * Returns a copy of the given object, with the properties of the given defaults it does not have.
+ * @param {Object} object
+ * @param {Object} defaults
+ * @returns {Object}
+ */
+notes.defaults = function(object, defaults) {
+	var result = {};
+	var name;
+	for (name in defaults) {
+		if (defaults.hasOwnProperty(name))
+			result[name] = defaults[name];
+	}
+	for (name in object) {
+		if (object.hasOwnProperty(name))
+			result[name] = object[name];
+	}
+	return result;
+};
+
+/**
+ * Escapes the characters of the given text which have a meaning in HTML.
+ * @param {String} text
+ * @returns {String}
+ */
+notes.escape = function(text) {
+	return String(text)
+		.replace(/&/g, "&amp;")
+		.replace(/</g, "&lt;")
+		.replace(/>/g, "&gt;")
+		.replace(/"/g, "&quot;")
+		.replace(/'/g, "&#39;");
+};
+
+/**
+ * Formats the given date as "yyyy-mm-dd hh:mm".
+ * @param {Date} date
+ * @returns {String}
+ */
+notes.formatDate = function(date) {
+	function pad(number) {
+		return number < 10 ? "0" + number : String(number);
+	}
+	return date.getFullYear() + "-" + pad(date.getMonth() + 1) + "-" + pad(date.getDate())
+		+ " " + pad(date.getHours()) + ":" + pad(date.getMinutes());
+};
+
+/**
+ * A note.
+ * @constructor
+ * @param {Object} properties the title, text, tags and dates of the note
+ */
+notes.Note = function(properties) {
+	properties = notes.defaults(properties, {
+		title: "",
+		text: "",
+		tags: [],
+		created: new Date(),
+		pinned: false
+	});
+	this.id = notes.Note.nextId++;
+	this.title = properties.title;
+	this.text = properties.text;
+	this.tags = properties.tags.slice(0);
+	this.created = properties.created;
+	this.modified = properties.created;
+	this.pinned = properties.pinned;
+};
+
+notes.Note.nextId = 1;
+
+notes.Note.prototype.update = function(title, text) {
+	this.title = title;
+	this.text = text;
+	this.modified = new Date();
+};
+
+notes.Note.prototype.hasTag = function(tag) {
+	for (var i = 0; i < this.tags.length; i++) {
+		if (this.tags[i].toLowerCase() === tag.toLowerCase())
+			return true;
+	}
+	return false;
+};
+
+notes.Note.prototype.addTag = function(tag) {
+	if (!this.hasTag(tag)) {
+		this.tags.push(tag);
+		this.modified = new Date();
+	}
+};
+
+notes.Note.prototype.removeTag = function(tag) {
+	var tags = [];
+	for (var i = 0; i < this.tags.length; i++) {
+		if (this.tags[i].toLowerCase() !== tag.toLowerCase())
+			tags.push(this.tags[i]);
+	}
+	this.tags = tags;
+	this.modified = new Date();
+};
+
+notes.Note.prototype.matches = function(query) {
+	if (!query)
+		return true;
+	var words = query.toLowerCase().split(/\s+/);
+	var contents = (this.title + " " + this.text + " " + this.tags.join(" ")).toLowerCase();
+	for (var i = 0; i < words.length; i++) {
+		if (words[i].length > 0 && contents.indexOf(words[i]) < 0)
+			return false;
+	}
+	return true;
+};
+
+notes.Note.prototype.toJSON = function() {
+	return {
+		id: this.id,
+		title: this.title,
+		text: this.text,
+		tags: this.tags,
+		created: this.created.getTime(),
+		modified: this.modified.getTime(),
+		pinned: this.pinned
+	};
+};
+
+notes.Note.fromJSON = function(json) {
+	var note = new notes.Note({
+		title: json.title,
+		text: json.text,
+		tags: json.tags,
+		created: new Date(json.created),
+		pinned: json.pinned
+	});
+	note.modified = new Date(json.modified);
+	return note;
+};
+
+/**
+ * The notes of the application, persisted in the local storage of the browser.
+ * @constructor
+ * @param {String} key the key of the notes in the storage
+ */
+notes.Store = function(key) {
+	this.key = key;
+	this.notes = [];
+	this.listeners = [];
+};
+
+notes.Store.prototype.load = function() {
+	var json = null;
+	try {
+		json = window.localStorage ? window.localStorage.getItem(this.key) : null;
+	} catch (e) {
+		// the storage is disabled, start with no notes
+	}
+	this.notes = [];
+	if (json) {
+		var items = JSON.parse(json);
+		for (var i = 0; i < items.length; i++)
+			this.notes.push(notes.Note.fromJSON(items[i]));
+	}
+	this.fire("load", null);
+};
+
+notes.Store.prototype.save = function() {
+	var items = [];
+	for (var i = 0; i < this.notes.length; i++)
+		items.push(this.notes[i].toJSON());
+	try {
+		if (window.localStorage)
+			window.localStorage.setItem(this.key, JSON.stringify(items));
+	} catch (e) {
+		this.fire("error", e);
+	}
+};
+
+notes.Store.prototype.add = function(note) {
+	this.notes.push(note);
+	this.save();
+	this.fire("add", note);
+	return note;
+};
+
+notes.Store.prototype.remove = function(note) {
+	for (var i = 0; i < this.notes.length; i++) {
+		if (this.notes[i] === note) {
+			this.notes.splice(i, 1);
+			this.save();
+			this.fire("remove", note);
+			return true;
+		}
+	}
+	return false;
+};
+
+notes.Store.prototype.find = function(query, tag) {
+	var result = [];
+	for (var i = 0; i < this.notes.length; i++) {
+		var note = this.notes[i];
+		if (note.matches(query) && (!tag || note.hasTag(tag)))
+			result.push(note);
+	}
+	result.sort(function(a, b) {
+		if (a.pinned !== b.pinned)
+			return a.pinned ? -1 : 1;
+		return b.modified.getTime() - a.modified.getTime();
+	});
+	return result;
+};
+
+notes.Store.prototype.getTags = function() {
+	var counts = {};
+	var tags = [];
+	for (var i = 0; i < this.notes.length; i++) {
+		var noteTags = this.notes[i].tags;
+		for (var j = 0; j < noteTags.length; j++) {
+			var tag = noteTags[j].toLowerCase();
+			if (!counts.hasOwnProperty(tag)) {
+				counts[tag] = 0;
+				tags.push(tag);
+			}
+			counts[tag]++;
+		}
+	}
+	tags.sort(function(a, b) {
+		return counts[b] - counts[a] || (a < b ? -1 : a > b ? 1 : 0);
+	});
+	return tags;
+};
+
+notes.Store.prototype.addListener = function(listener) {
+	this.listeners.push(listener);
+};
+
+notes.Store.prototype.fire = function(type, note) {
+	var listeners = this.listeners.slice(0);
+	for (var i = 0; i < listeners.length; i++)
+		listeners[i].call(this, type, note);
+};
+
+/**
+ * Binds a store to the elements of the page.
+ * @constructor
+ * @param {notes.Store} store
+ * @param {HTMLElement} element the element holding the list, the search field and the editor
+ */
+notes.Controller = function(store, element) {
+	this.store = store;
+	this.element = element;
+	this.list = element.getElementsByTagName("ul")[0];
+	this.search = element.getElementsByTagName("input")[0];
+	this.editor = element.getElementsByTagName("textarea")[0];
+	this.selected = null;
+	this.tag = null;
+	this.timer = null;
+
+	var self = this;
+	store.addListener(function(type, note) {
+		if (type === "remove" && note === self.selected)
+			self.select(null);
+		self.render();
+	});
+	this.search.onkeyup = function() {
+		if (self.timer)
+			window.clearTimeout(self.timer);
+		self.timer = window.setTimeout(function() {
+			self.timer = null;
+			self.render();
+		}, 200);
+	};
+	this.editor.onchange = function() {
+		if (self.selected) {
+			var lines = self.editor.value.split("\n");
+			self.selected.update(lines[0], lines.slice(1).join("\n"));
+			self.store.save();
+			self.render();
+		}
+	};
+	this.list.onclick = function(event) {
+		event = event || window.event;
+		var target = event.target || event.srcElement;
+		while (target && target.nodeName !== "LI")
+			target = target.parentNode;
+		if (target)
+			self.select(self.findNote(parseInt(target.getAttribute("data-id"), 10)));
+	};
+};
+
+notes.Controller.prototype.findNote = function(id) {
+	var all = this.store.notes;
+	for (var i = 0; i < all.length; i++) {
+		if (all[i].id === id)
+			return all[i];
+	}
+	return null;
+};
+
+notes.Controller.prototype.select = function(note) {
+	this.selected = note;
+	this.editor.value = note ? note.title + "\n" + note.text : "";
+	this.editor.disabled = !note;
+	this.render();
+};
+
+notes.Controller.prototype.filterByTag = function(tag) {
+	this.tag = tag === this.tag ? null : tag;
+	this.render();
+};
+
+notes.Controller.prototype.render = function() {
+	var found = this.store.find(this.search.value, this.tag);
+	var html = [];
+	for (var i = 0; i < found.length; i++) {
+		var note = found[i];
+		var classes = [];
+		if (note === this.selected)
+			classes.push("selected");
+		if (note.pinned)
+			classes.push("pinned");
+		html.push("<li data-id=\"" + note.id + "\" class=\"" + classes.join(" ") + "\">"
+			+ "<span class=\"title\">" + notes.escape(note.title || "Untitled") + "</span>"
+			+ "<span class=\"date\">" + notes.formatDate(note.modified) + "</span>"
+			+ "</li>");
+	}
+	if (html.length === 0)
+		html.push("<li class=\"empty\">No note</li>");
+	this.list.innerHTML = html.join("");
+};
+
+notes.Controller.prototype.create = function() {
+	var note = this.store.add(new notes.Note({title: "New note", tags: this.tag ? [this.tag] : []}));
+	this.select(note);
+	this.editor.focus();
+	return note;
+};
+
+window.onload = function() {
+	var store = new notes.Store("notes");
+	var controller = new notes.Controller(store, document.getElementById("notes"));
+	store.load();
+	document.getElementById("new-note").onclick = function() {
+		controller.create();
+		return false;
+	};
+	document.getElementById("delete-note").onclick = function() {
+		if (controller.selected && window.confirm("Delete " + controller.selected.title + "?"))
+			store.remove(controller.selected);
+		return false;
+	};
+};
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+/*
+ * A small widget toolkit, in the style of the libraries of a web project: a module function
+ * defining classes with a helper, events, and widgets built on each other.
+ */
+var widgets = (function(global) {
+
+	var document = global.document;
+	var idCounter = 0;
+
+	/*
+	 * Defines a class from the given constructor and members, inheriting from the given superclass.
+	 */
+	function declare(superclass, members) {
+		var constructor = members.hasOwnProperty("constructor") ? members.constructor : function() {
+			if (superclass)
+				superclass.apply(this, arguments);
+		};
+		if (superclass) {
+			var Prototype = function() {};
+			Prototype.prototype = superclass.prototype;
+			constructor.prototype = new Prototype();
+			constructor.superclass = superclass.prototype;
+		}
+		for (var name in members) {
+			if (members.hasOwnProperty(name))
+				constructor.prototype[name] = members[name];
+		}
+		constructor.prototype.constructor = constructor;
+		return constructor;
+	}
+
+	function addClass(element, name) {
+		if ((" " + element.className + " ").indexOf(" " + name + " ") < 0)
+			element.className = element.className ? element.className + " " + name : name;
+	}
+
+	function removeClass(element, name) {
+		element.className = (" " + element.className + " ").replace(" " + name + " ", " ").replace(/^\s+|\s+$/g, "");
+	}
+
+	function listen(element, type, handler) {
+		if (element.addEventListener) {
+			element.addEventListener(type, handler, false);
+			return function() {
+				element.removeEventListener(type, handler, false);
+			};
+		}
+		var wrapper = function() {
+			return handler.call(element, global.event);
+		};
+		element.attachEvent("on" + type, wrapper);
+		return function() {
+			element.detachEvent("on" + type, wrapper);
+		};
+	}
+
+	/**
+	 * Dispatches the events of an object to its listeners.
+	 */
+	var Events = declare(null, {
+		constructor: function() {
+			this.handlers = {};
+		},
+		on: function(type, handler, context) {
+			var handlers = this.handlers[type] || (this.handlers[type] = []);
+			handlers.push({handler: handler, context: context || this});
+			var self = this;
+			return {
+				remove: function() {
+					self.off(type, handler);
+				}
+			};
+		},
+		off: function(type, handler) {
+			var handlers = this.handlers[type];
+			if (!handlers)
+				return;
+			for (var i = handlers.length - 1; i >= 0; i--) {
+				if (!handler || handlers[i].handler === handler)
+					handlers.splice(i, 1);
+			}
+		},
+		emit: function(type) {
+			var handlers = this.handlers[type];
+			if (!handlers)
+				return 0;
+			var args = Array.prototype.slice.call(arguments, 1);
+			handlers = handlers.slice(0);
+			for (var i = 0; i < handlers.length; i++)
+				handlers[i].handler.apply(handlers[i].context, args);
+			return handlers.length;
+		}
+	});
+
+	/**
+	 * A widget, rendered in a DOM node and destroyed with the listeners it registered.
+	 */
+	var Widget = declare(Events, {
+		constructor: function(options) {
+			Events.call(this);
+			this.id = (options && options.id) || "widget" + (++idCounter);
+			this.options = options || {};
+			this.domNode = null;
+			this.removers = [];
+			this.children = [];
+		},
+		render: function(parent) {
+			if (!this.domNode) {
+				this.domNode = this.buildNode();
+				this.domNode.id = this.id;
+				addClass(this.domNode, this.baseClass || "widget");
+				for (var i = 0; i < this.children.length; i++)
+					this.children[i].render(this.domNode);
+			}
+			if (parent)
+				parent.appendChild(this.domNode);
+			this.emit("render", this);
+			return this.domNode;
+		},
+		buildNode: function() {
+			return document.createElement("div");
+		},
+		addChild: function(child) {
+			this.children.push(child);
+			child.parent = this;
+			if (this.domNode)
+				child.render(this.domNode);
+			return child;
+		},
+		listen: function(element, type, handler) {
+			var self = this;
+			this.removers.push(listen(element, type, function(event) {
+				return handler.call(self, event);
+			}));
+		},
+		show: function() {
+			this.domNode.style.display = "";
+			this.emit("show");
+		},
+		hide: function() {
+			this.domNode.style.display = "none";
+			this.emit("hide");
+		},
+		destroy: function() {
+			for (var i = 0; i < this.children.length; i++)
+				this.children[i].destroy();
+			while (this.removers.length > 0)
+				this.removers.pop()();
+			if (this.domNode && this.domNode.parentNode)
+				this.domNode.parentNode.removeChild(this.domNode);
+			this.emit("destroy", this);
+			this.off();
+			this.domNode = null;
+		}
+	});
+
+	/**
+	 * A button, emitting "click" events unless disabled.
+	 */
+	var Button = declare(Widget, {
+		baseClass: "button",
+		buildNode: function() {
+			var node = document.createElement("button");
+			node.type = "button";
+			node.innerHTML = this.options.label || "";
+			this.listen(node, "click", function(event) {
+				if (!this.disabled)
+					this.emit("click", event);
+			});
+			return node;
+		},
+		setDisabled: function(disabled) {
+			this.disabled = disabled;
+			this.domNode.disabled = disabled;
+			(disabled ? addClass : removeClass)(this.domNode, "disabled");
+		}
+	});
+
+	/**
+	 * A list of items, rendered by a function, of which one is selected.
+	 */
+	var List = declare(Widget, {
+		baseClass: "list",
+		constructor: function(options) {
+			Widget.call(this, options);
+			this.items = options.items || [];
+			this.renderItem = options.renderItem || function(item) {
+				return String(item);
+			};
+			this.selectedIndex = -1;
+		},
+		buildNode: function() {
+			var node = document.createElement("ul");
+			this.listen(node, "click", function(event) {
+				var target = event.target || event.srcElement;
+				while (target && target !== node && target.nodeName !== "LI")
+					target = target.parentNode;
+				if (target && target !== node)
+					this.select(parseInt(target.getAttribute("data-index"), 10));
+			});
+			this.listen(node, "keydown", function(event) {
+				if (event.keyCode === 38 && this.selectedIndex > 0)
+					this.select(this.selectedIndex - 1);
+				else if (event.keyCode === 40 && this.selectedIndex < this.items.length - 1)
+					this.select(this.selectedIndex + 1);
+			});
+			this.fill(node);
+			return node;
+		},
+		fill: function(node) {
+			var html = [];
+			for (var i = 0; i < this.items.length; i++) {
+				html.push("<li data-index=\"" + i + "\""
+					+ (i === this.selectedIndex ? " class=\"selected\"" : "") + ">"
+					+ this.renderItem(this.items[i], i) + "</li>");
+			}
+			node.innerHTML = html.join("");
+		},
+		setItems: function(items) {
+			this.items = items;
+			this.selectedIndex = -1;
+			if (this.domNode)
+				this.fill(this.domNode);
+		},
+		select: function(index) {
+			if (index === this.selectedIndex || index < -1 || index >= this.items.length)
+				return;
+			var nodes = this.domNode ? this.domNode.getElementsByTagName("li") : [];
+			if (this.selectedIndex >= 0 && nodes[this.selectedIndex])
+				removeClass(nodes[this.selectedIndex], "selected");
+			this.selectedIndex = index;
+			if (index >= 0 && nodes[index])
+				addClass(nodes[index], "selected");
+			this.emit("select", index >= 0 ? this.items[index] : null, index);
+		}
+	});
+
+	/**
+	 * A dialog, with a title, contents and buttons, centered over the page.
+	 */
+	var Dialog = declare(Widget, {
+		baseClass: "dialog",
+		buildNode: function() {
+			var node = document.createElement("div");
+			var title = document.createElement("h2");
+			title.innerHTML = this.options.title || "";
+			node.appendChild(title);
+			this.contentNode = document.createElement("div");
+			this.contentNode.innerHTML = this.options.content || "";
+			node.appendChild(this.contentNode);
+			var buttons = this.options.buttons || ["OK"];
+			for (var i = 0; i < buttons.length; i++)
+				this.addButton(buttons[i]);
+			this.listen(document, "keydown", function(event) {
+				if (event.keyCode === 27)
+					this.close(null);
+			});
+			return node;
+		},
+		addButton: function(label) {
+			var button = this.addChild(new Button({label: label}));
+			button.on("click", function() {
+				this.close(label);
+			}, this);
+			return button;
+		},
+		open: function() {
+			this.render(document.body);
+			var style = this.domNode.style;
+			style.position = "absolute";
+			style.left = Math.max(0, (document.documentElement.clientWidth - this.domNode.offsetWidth) / 2) + "px";
+			style.top = Math.max(0, (document.documentElement.clientHeight - this.domNode.offsetHeight) / 3) + "px";
+			this.emit("open");
+		},
+		close: function(result) {
+			this.emit("close", result);
+			this.destroy();
+		}
+	});
+
+	return {
+		declare: declare,
+		Events: Events,
+		Widget: Widget,
+		Button: Button,
+		List: List,
+		Dialog: Dialog,
+		confirm: function(message, callback) {
+			var dialog = new Dialog({title: "Confirm", content: message, buttons: ["OK", "Cancel"]});
+			dialog.on("close", function(result) {
+				callback(result === "OK");
+			});
+			dialog.open();
+			return dialog;
+		}
+	};
+})(this);
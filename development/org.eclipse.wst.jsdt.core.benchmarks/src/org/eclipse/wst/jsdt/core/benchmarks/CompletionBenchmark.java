@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.wst.jsdt.internal.codeassist.CompletionEngine;
+import org.eclipse.wst.jsdt.internal.codeassist.complete.CompletionParser;
+import org.eclipse.wst.jsdt.internal.codeassist.complete.InvalidCursorLocation;
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses and infers the corpus for code assist, as
+ * {@link CompletionEngine#complete(org.eclipse.wst.jsdt.internal.compiler.env.ICompilationUnit, int, int)}
+ * does before looking up the proposals, with the cursor in member names of the files.
+ * <p>
+ * The lookup of the proposals needs the searchable environment of a JavaScript project, so it is
+ * not part of the benchmark.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompletionBenchmark {
+
+	/**
+	 * The number of completions per file, spread over its member accesses.
+	 */
+	static final int COMPLETIONS_PER_FILE = 10;
+
+	@Param("")
+	public String file;
+
+	private CompilationUnit[] units;
+	private int[][] completionPositions;
+	private CompilerOptions options;
+	private CompletionParser parser;
+
+	@Setup
+	public void setUp() throws IOException {
+		Corpus corpus = Corpus.load(this.file);
+		this.units = corpus.getCompilationUnits();
+		this.completionPositions = new int[this.units.length][];
+		for (int i = 0; i < this.units.length; i++)
+			this.completionPositions[i] = getCompletionPositions(corpus.contents[i]);
+		this.options = new CompilerOptions();
+		ProblemReporter problemReporter = new ProblemReporter(
+			DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+			this.options,
+			new DefaultProblemFactory());
+		this.parser = new CompletionParser(problemReporter);
+	}
+
+	/*
+	 * Returns the positions after the first character of member names, e.g. "document.g|etElementById",
+	 * evenly spread over the given source.
+	 */
+	private static int[] getCompletionPositions(char[] source) {
+		int count = 0;
+		int[] positions = new int[source.length / 2 + 1];
+		for (int i = 1; i < source.length - 1; i++) {
+			if (source[i] == '.' && Character.isJavaIdentifierPart(source[i - 1]) && Character.isJavaIdentifierStart(source[i + 1]))
+				positions[count++] = i + 2;
+		}
+		int[] spread = new int[Math.min(count, COMPLETIONS_PER_FILE)];
+		for (int i = 0; i < spread.length; i++)
+			spread[i] = positions[(int) ((long) i * count / spread.length)];
+		return spread;
+	}
+
+	@Benchmark
+	public void complete(Blackhole blackhole) {
+		for (int i = 0; i < this.units.length; i++) {
+			int[] positions = this.completionPositions[i];
+			for (int j = 0; j < positions.length; j++) {
+				CompilationResult result = new CompilationResult(this.units[i], 1, 1, this.options.maxProblemsPerUnit);
+				try {
+					// the engine completes at the character before the cursor
+					CompilationUnitDeclaration parsedUnit = this.parser.dietParse(this.units[i], result, positions[j] - 1);
+					if (parsedUnit != null)
+						this.parser.inferTypes(parsedUnit, this.options);
+					blackhole.consume(parsedUnit);
+				} catch (InvalidCursorLocation e) {
+					// not a completion position, the engine ignores it too
+				}
+			}
+		}
+	}
+}
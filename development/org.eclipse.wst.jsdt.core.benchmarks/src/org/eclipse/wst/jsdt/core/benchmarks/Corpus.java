@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.wst.jsdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.util.Util;
+
+/**
+ * The JavaScript files the benchmarks run on.
+ * <p>
+ * By default, the files of the corpus folder of this module and the libraries bundled by
+ * org.eclipse.wst.jsdt.core and org.eclipse.wst.jsdt.support.firefox, which are copied on the class
+ * path by the build. The <code>jsdt.benchmarks.corpus</code> system property names a folder whose
+ * <code>.js</code> files are benchmarked instead, e.g. a checkout of real world libraries:
+ * <pre>
+ * java -Djsdt.benchmarks.corpus=/path/to/libraries -jar benchmarks.jar
+ * </pre>
+ * The forked benchmark JVMs inherit the property. The <code>file</code> parameter of the
+ * benchmarks restricts them to one file of the corpus, e.g. <code>-p file=system.js</code>.
+ * </p>
+ */
+public class Corpus {
+
+	public static final String CORPUS_PROPERTY = "jsdt.benchmarks.corpus"; //$NON-NLS-1$
+	public static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+	/**
+	 * The files copied on the class path by the build, in the <code>corpus/</code> folder.
+	 */
+	static final String[] DEFAULT_FILES = {
+		"system.js", //$NON-NLS-1$
+		"baseBrowserLibrary.js", //$NON-NLS-1$
+		"FireFox2.0.0.3.js", //$NON-NLS-1$
+		"notes.js", //$NON-NLS-1$
+		"widgets.js", //$NON-NLS-1$
+	};
+
+	/**
+	 * The library declaring the built-in types, resolved against by the problem finder.
+	 */
+	static final String SYSTEM_LIBRARY = "system.js"; //$NON-NLS-1$
+
+	public final String[] names;
+	public final char[][] contents;
+
+	private Corpus(String[] names, char[][] contents) {
+		this.names = names;
+		this.contents = contents;
+	}
+
+	/**
+	 * Loads the corpus, or only its file of the given name unless the name is empty.
+	 */
+	public static Corpus load(String file) throws IOException {
+		Corpus corpus = load();
+		if (file == null || file.length() == 0)
+			return corpus;
+		for (int i = 0; i < corpus.names.length; i++) {
+			if (corpus.names[i].equals(file))
+				return new Corpus(new String[] {file}, new char[][] {corpus.contents[i]});
+		}
+		throw new IOException("No " + file + " in the corpus " + Arrays.asList(corpus.names)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static Corpus load() throws IOException {
+		String folderName = System.getProperty(CORPUS_PROPERTY);
+		if (folderName != null) {
+			File folder = new File(folderName);
+			File[] files = folder.listFiles();
+			if (files == null)
+				throw new IOException("Cannot list the corpus folder " + folder); //$NON-NLS-1$
+			Arrays.sort(files);
+			ArrayList names = new ArrayList();
+			ArrayList contents = new ArrayList();
+			for (int i = 0; i < files.length; i++) {
+				if (!files[i].isFile() || !files[i].getName().endsWith(".js")) continue; //$NON-NLS-1$
+				names.add(files[i].getName());
+				contents.add(Util.getFileCharContent(files[i], ENCODING));
+			}
+			if (names.isEmpty())
+				throw new IOException("No .js file in the corpus folder " + folder); //$NON-NLS-1$
+			return new Corpus(
+				(String[]) names.toArray(new String[names.size()]),
+				(char[][]) contents.toArray(new char[contents.size()][]));
+		}
+		char[][] contents = new char[DEFAULT_FILES.length][];
+		for (int i = 0; i < DEFAULT_FILES.length; i++)
+			contents[i] = getResourceContents(DEFAULT_FILES[i]);
+		return new Corpus(DEFAULT_FILES, contents);
+	}
+
+	/**
+	 * Returns the contents of the given file of the default corpus.
+	 */
+	static char[] getResourceContents(String name) throws IOException {
+		InputStream stream = Corpus.class.getResourceAsStream("/corpus/" + name); //$NON-NLS-1$
+		if (stream == null)
+			throw new IOException("Missing corpus file " + name + ", run the benchmarks from the jar built by maven"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = stream.read(buffer)) != -1)
+				bytes.write(buffer, 0, read);
+			return new String(bytes.toByteArray(), ENCODING).toCharArray();
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Writes the system library in the given folder, for the name environments which read libraries
+	 * from files, and returns the written file.
+	 */
+	static File writeSystemLibrary(File folder) throws IOException {
+		File file = new File(folder, SYSTEM_LIBRARY);
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), ENCODING);
+		try {
+			writer.write(getResourceContents(SYSTEM_LIBRARY));
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Creates an empty temporary folder, e.g. for the files written by a benchmark.
+	 */
+	static File createTempFolder() throws IOException {
+		File folder = File.createTempFile("jsdt-benchmarks", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		if (!folder.delete() || !folder.mkdir())
+			throw new IOException("Cannot create " + folder); //$NON-NLS-1$
+		return folder;
+	}
+
+	/**
+	 * Deletes a folder created by {@link #createTempFolder()} and its files.
+	 */
+	static void deleteTempFolder(File folder) {
+		File[] files = folder.listFiles();
+		for (int i = 0; files != null && i < files.length; i++)
+			files[i].delete();
+		folder.delete();
+	}
+
+	/**
+	 * Returns the compilation units of the corpus, as given to the compiler.
+	 */
+	public CompilationUnit[] getCompilationUnits() {
+		CompilationUnit[] units = new CompilationUnit[this.names.length];
+		for (int i = 0; i < units.length; i++)
+			units[i] = new CompilationUnit(this.contents[i], this.names[i], ENCODING);
+		return units;
+	}
+}
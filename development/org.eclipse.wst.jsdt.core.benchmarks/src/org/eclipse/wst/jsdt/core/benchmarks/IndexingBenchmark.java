@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.wst.jsdt.internal.compiler.SourceElementParser;
+import org.eclipse.wst.jsdt.internal.core.index.Index;
+import org.eclipse.wst.jsdt.internal.core.search.indexing.PrebuiltIndexGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Indexes the corpus with the source indexer, reusing the same parser for all the files as the
+ * indexing thread does. The entries are added to an index in memory, which is never saved.
+ * <p>
+ * The documents are indexed as libraries, the way {@link PrebuiltIndexGenerator} does, as the
+ * documents of a project need a workspace.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexingBenchmark {
+
+	@Param("")
+	public String file;
+
+	private Corpus corpus;
+	private IPath[] paths;
+	private File indexFolder;
+	private Index index;
+	private SourceElementParser parser;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.corpus = Corpus.load(this.file);
+		this.indexFolder = Corpus.createTempFolder();
+		IPath folderPath = new Path(this.indexFolder.getAbsolutePath());
+		this.paths = new IPath[this.corpus.names.length];
+		for (int i = 0; i < this.paths.length; i++)
+			this.paths[i] = folderPath.append(this.corpus.names[i]);
+		this.index = new Index(new File(this.indexFolder, "benchmark.index").getAbsolutePath(), folderPath.toString(), false /*do not reuse index file*/); //$NON-NLS-1$
+		this.parser = PrebuiltIndexGenerator.newParser();
+	}
+
+	@TearDown
+	public void tearDown() {
+		Corpus.deleteTempFolder(this.indexFolder);
+	}
+
+	/**
+	 * Indexes each file, replacing the entries of its previous indexing.
+	 */
+	@Benchmark
+	public Index indexDocument() {
+		for (int i = 0; i < this.paths.length; i++)
+			PrebuiltIndexGenerator.indexLibrary(this.index, this.paths[i], this.corpus.contents[i], this.parser);
+		return this.index;
+	}
+}
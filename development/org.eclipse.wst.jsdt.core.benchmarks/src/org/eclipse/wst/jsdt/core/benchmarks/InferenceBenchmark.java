@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.wst.jsdt.core.infer.DefaultInferrenceProvider;
+import org.eclipse.wst.jsdt.core.infer.IInferEngine;
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Infers the types of the parsed corpus with the engine of the default inference provider, reused
+ * for all the files as the parser does. The inferred types are stored in the units, so the corpus
+ * is parsed again, outside of the measured time, before each invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InferenceBenchmark {
+
+	@Param("")
+	public String file;
+
+	private CompilationUnit[] units;
+	private CompilerOptions options;
+	private Parser parser;
+	private IInferEngine engine;
+	private CompilationUnitDeclaration[] parsedUnits;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.units = Corpus.load(this.file).getCompilationUnits();
+		this.options = new CompilerOptions();
+		ProblemReporter problemReporter = new ProblemReporter(
+			DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+			this.options,
+			new DefaultProblemFactory());
+		this.parser = new Parser(problemReporter, true /*optimize string literals*/);
+		this.engine = new DefaultInferrenceProvider().getInferEngine();
+		this.engine.initializeOptions(this.options.inferOptions);
+		this.parsedUnits = new CompilationUnitDeclaration[this.units.length];
+	}
+
+	@Setup(Level.Invocation)
+	public void parse() {
+		for (int i = 0; i < this.units.length; i++) {
+			CompilationResult result = new CompilationResult(this.units[i], i, this.units.length, this.options.maxProblemsPerUnit);
+			this.parsedUnits[i] = this.parser.parse(this.units[i], result);
+		}
+	}
+
+	@Benchmark
+	public void doInfer(Blackhole blackhole) {
+		for (int i = 0; i < this.parsedUnits.length; i++) {
+			this.engine.initialize();
+			this.engine.setCompilationUnit(this.parsedUnits[i]);
+			this.engine.doInfer();
+			blackhole.consume(this.parsedUnits[i].inferredTypes);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.wst.jsdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses the corpus with the same parser for all the files, as the compiler does: fully, or only
+ * the declarations as the first pass of the builder does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+	@Param("")
+	public String file;
+
+	private CompilationUnit[] units;
+	private CompilerOptions options;
+	private Parser parser;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.units = Corpus.load(this.file).getCompilationUnits();
+		this.options = new CompilerOptions();
+		ProblemReporter problemReporter = new ProblemReporter(
+			DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+			this.options,
+			new DefaultProblemFactory());
+		this.parser = new Parser(problemReporter, true /*optimize string literals*/);
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		for (int i = 0; i < this.units.length; i++) {
+			CompilationResult result = new CompilationResult(this.units[i], i, this.units.length, this.options.maxProblemsPerUnit);
+			blackhole.consume(this.parser.parse(this.units[i], result));
+		}
+	}
+
+	@Benchmark
+	public void dietParse(Blackhole blackhole) {
+		for (int i = 0; i < this.units.length; i++) {
+			CompilationResult result = new CompilationResult(this.units[i], i, this.units.length, this.options.maxProblemsPerUnit);
+			blackhole.consume(this.parser.dietParse(this.units[i], result));
+		}
+	}
+}
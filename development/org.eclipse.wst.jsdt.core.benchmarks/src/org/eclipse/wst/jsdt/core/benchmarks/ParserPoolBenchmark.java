@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.wst.jsdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
+import org.eclipse.wst.jsdt.internal.compiler.parser.ParserPool;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses each file of the corpus with a new parser, as the reconciler and the indexer did, or with
+ * the parser of the current thread taken from a {@link ParserPool}. The allocations saved by the pool
+ * are reported by the GC profiler:
+ * <pre>
+ * java -jar benchmarks.jar ParserPoolBenchmark -prof gc
+ * </pre>
+ * (see <code>gc.alloc.rate.norm</code>, in bytes per operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserPoolBenchmark {
+
+	@Param("")
+	public String file;
+
+	private CompilationUnit[] units;
+	private CompilerOptions options;
+	private ParserPool pool;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.units = Corpus.load(this.file).getCompilationUnits();
+		this.options = new CompilerOptions();
+		this.pool = new ParserPool();
+	}
+
+	private Parser newParser() {
+		ProblemReporter problemReporter = new ProblemReporter(
+			DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+			this.options,
+			new DefaultProblemFactory());
+		return new Parser(problemReporter, true /*optimize string literals*/);
+	}
+
+	@Benchmark
+	public void newParsers(Blackhole blackhole) {
+		for (int i = 0; i < this.units.length; i++) {
+			CompilationResult result = new CompilationResult(this.units[i], i, this.units.length, this.options.maxProblemsPerUnit);
+			blackhole.consume(newParser().parse(this.units[i], result));
+		}
+	}
+
+	@Benchmark
+	public void pooledParser(Blackhole blackhole) {
+		for (int i = 0; i < this.units.length; i++) {
+			Parser parser = this.pool.acquire(this.options, true /*optimize string literals*/);
+			if (parser == null)
+				parser = newParser();
+			try {
+				CompilationResult result = new CompilationResult(this.units[i], i, this.units.length, this.options.maxProblemsPerUnit);
+				blackhole.consume(parser.parse(this.units[i], result));
+			} finally {
+				this.pool.release(parser);
+			}
+		}
+	}
+}
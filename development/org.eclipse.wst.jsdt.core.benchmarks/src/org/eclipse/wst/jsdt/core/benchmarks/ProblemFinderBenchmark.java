@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.batch.FileSystem;
+import org.eclipse.wst.jsdt.internal.compiler.env.INameEnvironment;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.core.CompilationUnitProblemFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reconciles each file of the corpus with a new problem finder, as
+ * {@link CompilationUnitProblemFinder#process} does: the file is parsed, inferred, resolved and
+ * analysed, and the parser is handed back to the pool of the thread.
+ * <p>
+ * <code>process</code> itself needs a JavaScript project, so the problem finder resolves against
+ * a batch name environment holding the system library instead of the project include path. Like
+ * the name lookup of a project, the environment keeps the declarations of the library from one
+ * reconcile to the next.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProblemFinderBenchmark {
+
+	/**
+	 * The problem finder of a reconcile, with the handling policy, options and requestor of
+	 * {@link CompilationUnitProblemFinder#process}.
+	 */
+	static class ProblemFinder extends CompilationUnitProblemFinder {
+		ProblemFinder(INameEnvironment environment) {
+			super(
+				environment,
+				getHandlingPolicy(),
+				getCompilerOptions(new CompilerOptions().getMap(), false /*no AST*/, false /*no statements recovery*/),
+				getRequestor(),
+				new DefaultProblemFactory());
+		}
+		CompilationResult process(CompilationUnit unit) {
+			try {
+				return resolve(
+					unit,
+					true, // verify methods
+					true, // analyze code
+					true) // generate code
+					.compilationResult;
+			} finally {
+				this.lookupEnvironment.reset();
+				releaseParser();
+			}
+		}
+	}
+
+	@Param("")
+	public String file;
+
+	private CompilationUnit[] units;
+	private File libraryFolder;
+	private FileSystem environment;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.units = Corpus.load(this.file).getCompilationUnits();
+		this.libraryFolder = Corpus.createTempFolder();
+		File systemLibrary = Corpus.writeSystemLibrary(this.libraryFolder);
+		this.environment = new FileSystem(new String[] {systemLibrary.getAbsolutePath()}, new String[0], Corpus.ENCODING);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.environment.cleanup();
+		Corpus.deleteTempFolder(this.libraryFolder);
+	}
+
+	@Benchmark
+	public void process(Blackhole blackhole) {
+		for (int i = 0; i < this.units.length; i++) {
+			CompilationResult result = new ProblemFinder(this.environment).process(this.units[i]);
+			blackhole.consume(result.getProblems());
+		}
+	}
+}
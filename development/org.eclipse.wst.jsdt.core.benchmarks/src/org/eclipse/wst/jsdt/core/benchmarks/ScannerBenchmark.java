@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.jsdt.core.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.wst.jsdt.core.compiler.InvalidInputException;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.Scanner;
+import org.eclipse.wst.jsdt.internal.compiler.parser.TerminalTokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scans the tokens of the corpus, as the parser does, with the same scanner for all the files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScannerBenchmark {
+
+	@Param("")
+	public String file;
+
+	private Corpus corpus;
+	private Scanner scanner;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.corpus = Corpus.load(this.file);
+		CompilerOptions options = new CompilerOptions();
+		this.scanner = new Scanner(
+			false /*comment*/,
+			false /*whitespace*/,
+			false /*nls*/,
+			options.sourceLevel,
+			options.taskTags,
+			options.taskPriorites,
+			options.isTaskCaseSensitive);
+	}
+
+	@Benchmark
+	public int getNextToken() throws InvalidInputException {
+		int tokens = 0;
+		for (int i = 0; i < this.corpus.contents.length; i++) {
+			this.scanner.setSource(this.corpus.contents[i]);
+			while (this.scanner.getNextToken() != TerminalTokens.TokenNameEOF)
+				tokens++;
+		}
+		return tokens;
+	}
+}
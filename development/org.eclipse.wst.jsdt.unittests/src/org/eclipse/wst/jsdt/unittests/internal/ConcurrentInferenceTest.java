@@ -0,0 +1,148 @@
+/*****************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v1.0 which
+ * accompanies  this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors: IBM Corporation - initial API and implementation
+ *
+ ****************************************************************************/
+
+package org.eclipse.wst.jsdt.unittests.internal;
+
+import junit.framework.TestCase;
+
+import org.eclipse.wst.jsdt.core.infer.InferredType;
+import org.eclipse.wst.jsdt.internal.compiler.CompilationResult;
+import org.eclipse.wst.jsdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.wst.jsdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.wst.jsdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.wst.jsdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.wst.jsdt.internal.compiler.parser.Parser;
+import org.eclipse.wst.jsdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.wst.jsdt.internal.compiler.problem.ProblemReporter;
+
+/**
+ * Infers the types of hundreds of files on many threads at once, each thread with its own parser
+ * and inference engines as the parallel indexer and compiler do, and checks that every thread
+ * infers the same types as a sequential run.
+ */
+public class ConcurrentInferenceTest extends TestCase {
+	private static final int FILES = 400;
+	private static final int THREADS = 16;
+
+	private CompilationUnit[] units;
+	private CompilerOptions options;
+
+	public ConcurrentInferenceTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.options = new CompilerOptions();
+		this.units = new CompilationUnit[FILES];
+		for (int i = 0; i < FILES; i++) {
+			this.units[i] = new CompilationUnit(source(i).toCharArray(), "file" + i + ".js", null);
+		}
+	}
+
+	/*
+	 * Returns the contents of the given file: constructors, prototypes and object literals, in
+	 * numbers varying from file to file and referring to the types of the next file.
+	 */
+	private static String source(int file) {
+		StringBuffer buffer = new StringBuffer();
+		for (int i = 0, max = file % 7 + 1; i < max; i++) {
+			String type = "Type" + file + "_" + i;
+			buffer.append("function ").append(type).append("(name) {\n");
+			buffer.append("\tthis.name = name;\n");
+			buffer.append("\tthis.count = ").append(i).append(";\n");
+			buffer.append("\tthis.items = [];\n");
+			buffer.append("}\n");
+			buffer.append(type).append(".prototype.getName = function() {\n");
+			buffer.append("\treturn this.name;\n");
+			buffer.append("};\n");
+			buffer.append(type).append(".prototype.next = function(name) {\n");
+			buffer.append("\treturn new Type").append(file + 1).append("_0(name);\n");
+			buffer.append("};\n");
+			buffer.append("var singleton").append(file).append("_").append(i).append(" = {\n");
+			buffer.append("\tid : ").append(i).append(",\n");
+			buffer.append("\tlabel : \"").append(type).append("\",\n");
+			buffer.append("\tchild : { depth : 1, owner : new ").append(type).append("(\"child\") },\n");
+			buffer.append("\tcreate : function(name) { return new ").append(type).append("(name); }\n");
+			buffer.append("};\n");
+		}
+		return buffer.toString();
+	}
+
+	private Parser newParser() {
+		ProblemReporter problemReporter = new ProblemReporter(
+			DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+			this.options,
+			new DefaultProblemFactory());
+		return new Parser(problemReporter, true /*optimize string literals*/);
+	}
+
+	/*
+	 * Parses and infers the given file with the given parser, and answers the inferred types.
+	 */
+	String infer(Parser parser, int file) {
+		CompilationUnit unit = this.units[file];
+		CompilationResult result = new CompilationResult(unit, file, FILES, this.options.maxProblemsPerUnit);
+		CompilationUnitDeclaration parsedUnit = parser.parse(unit, result);
+		parser.inferTypes(parsedUnit, this.options);
+		StringBuffer buffer = new StringBuffer();
+		for (int i = 0; i < parsedUnit.numberInferredTypes; i++) {
+			InferredType type = parsedUnit.inferredTypes[i];
+			buffer.append(type.sourceStart).append('-').append(type.sourceEnd).append(' ');
+			type.print(0, buffer);
+			buffer.append('\n');
+		}
+		return buffer.toString();
+	}
+
+	public void testConcurrentInference() throws InterruptedException {
+		final String[] expected = new String[FILES];
+		Parser parser = newParser();
+		for (int i = 0; i < FILES; i++) {
+			expected[i] = infer(parser, i);
+		}
+
+		final String[] failures = new String[THREADS];
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			threads[t] = new Thread("Inference " + t) {
+				public void run() {
+					try {
+						Parser threadParser = newParser();
+						// the threads start at different files so that they infer different units at once
+						for (int i = 0; i < FILES; i++) {
+							int file = (thread * FILES / THREADS + i) % FILES;
+							String actual = infer(threadParser, file);
+							if (!expected[file].equals(actual)) {
+								failures[thread] = "file" + file + ".js inferred as:\n" + actual + "instead of:\n" + expected[file];
+								return;
+							}
+						}
+					} catch (Throwable e) {
+						// errors too, which would otherwise end the thread without a failure
+						failures[thread] = e.toString();
+					}
+				}
+			};
+		}
+		for (int t = 0; t < THREADS; t++) {
+			threads[t].start();
+		}
+		for (int t = 0; t < THREADS; t++) {
+			threads[t].join();
+		}
+		for (int t = 0; t < THREADS; t++) {
+			assertNull(threads[t].getName(), failures[t]);
+		}
+	}
+}
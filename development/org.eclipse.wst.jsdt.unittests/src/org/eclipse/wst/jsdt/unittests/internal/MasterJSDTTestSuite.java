@@ -41,6 +41,7 @@ public class MasterJSDTTestSuite extends TestSuite {
 		addTest(JSDTCompilerTests.suite());
 		addTest(RunJSDTCoreTests.suite());
 		addTest(JSDTUITests.suite());
+		addTestSuite(ConcurrentInferenceTest.class);
 
 		// JSDT Web Core and Web UI
 		addTest(AllWebCoreTests.suite());